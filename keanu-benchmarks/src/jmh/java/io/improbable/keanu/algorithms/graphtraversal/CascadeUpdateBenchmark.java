@@ -0,0 +1,37 @@
+package io.improbable.keanu.algorithms.graphtraversal;
+
+import io.improbable.keanu.benchmarks.BenchmarkModels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CascadeUpdateBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int depth;
+
+    private BenchmarkModels.DeterministicChain chain;
+    private double value;
+
+    @Setup
+    public void setup() {
+        chain = new BenchmarkModels.DeterministicChain(depth);
+    }
+
+    @Benchmark
+    public int cascadeUpdate() {
+        value += 0.001;
+        chain.root.setValue(value);
+        return VertexValuePropagation.cascadeUpdate(chain.root);
+    }
+}
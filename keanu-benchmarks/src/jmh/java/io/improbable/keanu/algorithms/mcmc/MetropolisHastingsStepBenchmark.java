@@ -0,0 +1,58 @@
+package io.improbable.keanu.algorithms.mcmc;
+
+import io.improbable.keanu.algorithms.mcmc.proposal.ProposalDistribution;
+import io.improbable.keanu.benchmarks.BenchmarkModels;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MetropolisHastingsStepBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int modelSize;
+
+    @Param({"true", "false"})
+    public boolean useCacheOnRejection;
+
+    private List<Vertex> latentVertices;
+    private MetropolisHastingsStep step;
+    private double logProbability;
+    private int stepCount;
+
+    @Setup
+    public void setup() {
+        BayesianNetwork network = BenchmarkModels.gaussianRandomWalk(modelSize);
+        latentVertices = network.getLatentVertices();
+        step = new MetropolisHastingsStep(
+            latentVertices,
+            ProposalDistribution.usePrior(),
+            useCacheOnRejection,
+            new KeanuRandom(1)
+        );
+        logProbability = network.getLogOfMasterP();
+    }
+
+    @Benchmark
+    public MetropolisHastingsStep.StepResult step() {
+        Set<Vertex> chosen = Collections.singleton(latentVertices.get(stepCount++ % latentVertices.size()));
+        MetropolisHastingsStep.StepResult result = step.step(chosen, logProbability);
+        logProbability = result.getLogProbabilityAfterStep();
+        return result;
+    }
+}
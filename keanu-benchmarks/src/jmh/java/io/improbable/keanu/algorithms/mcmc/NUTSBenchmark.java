@@ -0,0 +1,48 @@
+package io.improbable.keanu.algorithms.mcmc;
+
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.benchmarks.BenchmarkModels;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time per NUTS sample, which is dominated by building the trajectory tree.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NUTSBenchmark {
+
+    private static final int SAMPLE_COUNT = 50;
+
+    @Param({"1", "10", "100"})
+    public int modelSize;
+
+    private BayesianNetwork network;
+
+    @Setup
+    public void setup() {
+        network = BenchmarkModels.gaussianRandomWalk(modelSize);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE_COUNT)
+    public NetworkSamples sample() {
+        return NUTS.builder()
+            .random(new KeanuRandom(1))
+            .adaptCount(SAMPLE_COUNT)
+            .build()
+            .getPosteriorSamples(network, network.getLatentVertices(), SAMPLE_COUNT);
+    }
+}
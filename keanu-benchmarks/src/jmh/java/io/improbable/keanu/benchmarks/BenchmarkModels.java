@@ -0,0 +1,72 @@
+package io.improbable.keanu.benchmarks;
+
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Models of a configurable size shared by the benchmarks.
+ */
+public class BenchmarkModels {
+
+    private BenchmarkModels() {
+    }
+
+    /**
+     * A random walk of latent gaussians where each step has a noisy observation.
+     *
+     * @param size the number of latent vertices
+     * @return a network in a non-zero probability state
+     */
+    public static BayesianNetwork gaussianRandomWalk(int size) {
+        KeanuRandom random = new KeanuRandom(1);
+        List<Vertex> vertices = new ArrayList<>();
+
+        DoubleVertex previous = new GaussianVertex(0.0, 1.0);
+        vertices.add(previous);
+        for (int i = 0; i < size; i++) {
+            DoubleVertex latent = i == 0 ? previous : new GaussianVertex(previous, 1.0);
+            DoubleVertex observation = new GaussianVertex(latent, 1.0);
+            observation.observe(i * 0.1 + random.nextGaussian());
+            if (i != 0) {
+                vertices.add(latent);
+            }
+            vertices.add(observation);
+            previous = latent;
+        }
+
+        BayesianNetwork network = new BayesianNetwork(vertices);
+        network.probeForNonZeroProbability(100, random);
+        return network;
+    }
+
+    /**
+     * A latent gaussian whose value is passed through a chain of deterministic operations into an observed gaussian.
+     */
+    public static class DeterministicChain {
+
+        public final DoubleVertex root;
+        public final DoubleVertex tip;
+        public final GaussianVertex observation;
+        public final BayesianNetwork network;
+
+        public DeterministicChain(int depth) {
+            this.root = new GaussianVertex(0.0, 1.0);
+
+            DoubleVertex current = root;
+            for (int i = 0; i < depth; i++) {
+                current = i % 2 == 0 ? current.plus(1.0) : current.times(0.999);
+            }
+            this.tip = current;
+
+            this.observation = new GaussianVertex(tip, 1.0);
+            observation.observe(depth / 2.0);
+            this.network = new BayesianNetwork(root.getConnectedGraph());
+        }
+    }
+}
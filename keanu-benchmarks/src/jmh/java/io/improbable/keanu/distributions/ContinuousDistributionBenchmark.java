@@ -0,0 +1,109 @@
+package io.improbable.keanu.distributions;
+
+import io.improbable.keanu.distributions.continuous.Beta;
+import io.improbable.keanu.distributions.continuous.Cauchy;
+import io.improbable.keanu.distributions.continuous.Exponential;
+import io.improbable.keanu.distributions.continuous.Gamma;
+import io.improbable.keanu.distributions.continuous.Gaussian;
+import io.improbable.keanu.distributions.continuous.InverseGamma;
+import io.improbable.keanu.distributions.continuous.Laplace;
+import io.improbable.keanu.distributions.continuous.LogNormal;
+import io.improbable.keanu.distributions.continuous.Logistic;
+import io.improbable.keanu.distributions.continuous.Pareto;
+import io.improbable.keanu.distributions.continuous.SmoothUniform;
+import io.improbable.keanu.distributions.continuous.StudentT;
+import io.improbable.keanu.distributions.dual.Diffs;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Continuous distributions that support dLogProb. The rest are in {@link NonDifferentiableDistributionBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ContinuousDistributionBenchmark {
+
+    @Param({
+        "Beta", "Cauchy", "Exponential", "Gamma", "Gaussian", "InverseGamma", "Laplace",
+        "LogNormal", "Logistic", "Pareto", "SmoothUniform", "StudentT"
+    })
+    public String distributionName;
+
+    @Param({"1", "1000"})
+    public int length;
+
+    private ContinuousDistribution distribution;
+    private int[] shape;
+    private DoubleTensor x;
+    private KeanuRandom random;
+
+    @Setup
+    public void setup() {
+        shape = new int[]{1, length};
+        distribution = create(distributionName, shape);
+        random = new KeanuRandom(1);
+        x = distribution.sample(shape, random);
+    }
+
+    @Benchmark
+    public DoubleTensor logProb() {
+        return distribution.logProb(x);
+    }
+
+    @Benchmark
+    public Diffs dLogProb() {
+        return distribution.dLogProb(x);
+    }
+
+    @Benchmark
+    public DoubleTensor sample() {
+        return distribution.sample(shape, random);
+    }
+
+    private static ContinuousDistribution create(String name, int[] shape) {
+        switch (name) {
+            case "Beta":
+                return Beta.withParameters(fill(2.0, shape), fill(3.0, shape), fill(0.0, shape), fill(1.0, shape));
+            case "Cauchy":
+                return Cauchy.withParameters(fill(0.0, shape), fill(1.0, shape));
+            case "Exponential":
+                return Exponential.withParameters(fill(1.0, shape));
+            case "Gamma":
+                return Gamma.withParameters(fill(1.0, shape), fill(2.0, shape));
+            case "Gaussian":
+                return Gaussian.withParameters(fill(0.0, shape), fill(1.0, shape));
+            case "InverseGamma":
+                return InverseGamma.withParameters(fill(2.0, shape), fill(1.0, shape));
+            case "Laplace":
+                return Laplace.withParameters(fill(0.0, shape), fill(1.0, shape));
+            case "LogNormal":
+                return LogNormal.withParameters(fill(0.0, shape), fill(1.0, shape));
+            case "Logistic":
+                return Logistic.withParameters(fill(0.0, shape), fill(1.0, shape));
+            case "Pareto":
+                return Pareto.withParameters(fill(1.0, shape), fill(3.0, shape));
+            case "SmoothUniform":
+                return SmoothUniform.withParameters(fill(0.0, shape), fill(1.0, shape), 0.01);
+            case "StudentT":
+                return StudentT.withParameters(IntegerTensor.create(3, shape));
+            default:
+                throw new IllegalArgumentException("Unknown distribution " + name);
+        }
+    }
+
+    private static DoubleTensor fill(double value, int[] shape) {
+        return DoubleTensor.create(value, shape);
+    }
+}
@@ -0,0 +1,81 @@
+package io.improbable.keanu.distributions;
+
+import io.improbable.keanu.distributions.continuous.ChiSquared;
+import io.improbable.keanu.distributions.continuous.Triangular;
+import io.improbable.keanu.distributions.continuous.Uniform;
+import io.improbable.keanu.distributions.discrete.Bernoulli;
+import io.improbable.keanu.distributions.discrete.Binomial;
+import io.improbable.keanu.distributions.discrete.Poisson;
+import io.improbable.keanu.distributions.discrete.UniformInt;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distributions that have no dLogProb: the discrete distributions, ChiSquared, Triangular and Uniform.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NonDifferentiableDistributionBenchmark {
+
+    @Param({"Bernoulli", "Binomial", "ChiSquared", "Poisson", "Triangular", "Uniform", "UniformInt"})
+    public String distributionName;
+
+    @Param({"1", "1000"})
+    public int length;
+
+    private Distribution distribution;
+    private int[] shape;
+    private Object x;
+    private KeanuRandom random;
+
+    @Setup
+    public void setup() {
+        shape = new int[]{1, length};
+        distribution = create(distributionName, shape);
+        random = new KeanuRandom(1);
+        x = distribution.sample(shape, random);
+    }
+
+    @Benchmark
+    public DoubleTensor logProb() {
+        return distribution.logProb(x);
+    }
+
+    @Benchmark
+    public Object sample() {
+        return distribution.sample(shape, random);
+    }
+
+    private static Distribution<?> create(String name, int[] shape) {
+        switch (name) {
+            case "Bernoulli":
+                return Bernoulli.withParameters(DoubleTensor.create(0.3, shape));
+            case "Binomial":
+                return Binomial.withParameters(DoubleTensor.create(0.3, shape), IntegerTensor.create(20, shape));
+            case "ChiSquared":
+                return ChiSquared.withParameters(IntegerTensor.create(3, shape));
+            case "Poisson":
+                return Poisson.withParameters(DoubleTensor.create(4.0, shape));
+            case "Triangular":
+                return Triangular.withParameters(DoubleTensor.create(0.0, shape), DoubleTensor.create(2.0, shape), DoubleTensor.create(1.0, shape));
+            case "Uniform":
+                return Uniform.withParameters(DoubleTensor.create(0.0, shape), DoubleTensor.create(1.0, shape));
+            case "UniformInt":
+                return UniformInt.withParameters(IntegerTensor.create(0, shape), IntegerTensor.create(10, shape));
+            default:
+                throw new IllegalArgumentException("Unknown distribution " + name);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.improbable.keanu.tensor.dbl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Common tensor operations on each backend. The scalar implementation only supports length 1, so for larger
+ * lengths the scalar backend is Nd4j.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DoubleTensorBenchmark {
+
+    @Param({"scalar", "java", "nd4j"})
+    public String backend;
+
+    @Param({"1", "100", "10000"})
+    public int length;
+
+    private DoubleTensor a;
+    private DoubleTensor b;
+
+    @Setup
+    public void setup() {
+        a = create(0.5);
+        b = create(1.5);
+    }
+
+    private DoubleTensor create(double offset) {
+        if (length == 1) {
+            switch (backend) {
+                case "scalar":
+                    return new ScalarDoubleTensor(offset);
+                case "java":
+                    return JavaDoubleTensor.scalar(offset);
+                default:
+                    return Nd4jDoubleTensor.scalar(offset);
+            }
+        }
+
+        Random random = new Random(1);
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = offset + random.nextDouble();
+        }
+        int[] shape = new int[]{1, length};
+        return backend.equals("java") ? JavaDoubleTensor.create(values, shape) : Nd4jDoubleTensor.create(values, shape);
+    }
+
+    @Benchmark
+    public DoubleTensor plus() {
+        return a.plus(b);
+    }
+
+    @Benchmark
+    public DoubleTensor times() {
+        return a.times(b);
+    }
+
+    @Benchmark
+    public DoubleTensor timesInPlaceOnCopy() {
+        return a.duplicate().timesInPlace(b);
+    }
+
+    @Benchmark
+    public DoubleTensor exp() {
+        return a.exp();
+    }
+
+    @Benchmark
+    public DoubleTensor log() {
+        return a.log();
+    }
+
+    @Benchmark
+    public DoubleTensor gaussianLogProbExpression() {
+        return a.minus(b).powInPlace(2).divInPlace(2.0).plusInPlace(b.log()).unaryMinusInPlace();
+    }
+
+    @Benchmark
+    public double gaussianLogProbSum() {
+        return a.minus(b).powInPlace(2).divInPlace(2.0).plusInPlace(b.log()).unaryMinusInPlace().sum();
+    }
+
+    @Benchmark
+    public double gaussianLogProbSumFused() {
+        return DoubleExpression.of(a).minus(b).pow(2).div(2.0).plus(DoubleExpression.of(b).log()).unaryMinus().sum();
+    }
+
+    @Benchmark
+    public Double sum() {
+        return a.sum();
+    }
+}
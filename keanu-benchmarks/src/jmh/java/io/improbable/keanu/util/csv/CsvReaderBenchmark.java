@@ -0,0 +1,61 @@
+package io.improbable.keanu.util.csv;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvReaderBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rowCount;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("keanu-csv-benchmark", ".csv");
+        Random random = new Random(1);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("a,b,c,count\n");
+            for (int i = 0; i < rowCount; i++) {
+                writer.write(random.nextGaussian() + "," + random.nextDouble() + "," + (random.nextDouble() * 1000) + "," + random.nextInt(100) + "\n");
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<List<String>> readLines() {
+        return ReadCsv.fromFile(file).expectHeader(true).readLines();
+    }
+
+    @Benchmark
+    public CsvColumns readMappedColumns() {
+        return ReadCsv.fromFileMapped(file)
+            .expectHeader(true)
+            .selectDoubleColumns("a", "b", "c")
+            .selectIntegerColumns("count")
+            .read();
+    }
+}
@@ -0,0 +1,49 @@
+package io.improbable.keanu.vertices.dbl;
+
+import io.improbable.keanu.benchmarks.BenchmarkModels;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Probabilistic;
+import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.DualNumber;
+import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.LogProbGradient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DifferentiatorBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int modelSize;
+
+    private BenchmarkModels.DeterministicChain chain;
+    private List<? extends Probabilistic> probabilisticVertices;
+
+    @Setup
+    public void setup() {
+        chain = new BenchmarkModels.DeterministicChain(modelSize);
+        BayesianNetwork randomWalk = BenchmarkModels.gaussianRandomWalk(modelSize);
+        probabilisticVertices = Probabilistic.keepOnlyProbabilisticVertices(randomWalk.getLatentAndObservedVertices());
+    }
+
+    @Benchmark
+    public DualNumber calculateDualThroughDeterministicChain() {
+        return Differentiator.calculateDual(chain.tip);
+    }
+
+    @Benchmark
+    public Map<Long, DoubleTensor> jointLogProbGradient() {
+        return LogProbGradient.getJointLogProbGradientWrtLatents(probabilisticVertices);
+    }
+}
@@ -0,0 +1,185 @@
+package io.improbable.keanu.benchmarks.zoo;
+
+import com.example.coal.Data;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.plating.PlateBuilder;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.ConstantVertex;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.bool.BoolVertex;
+import io.improbable.keanu.vertices.bool.nonprobabilistic.operators.binary.compare.GreaterThanVertex;
+import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import io.improbable.keanu.vertices.dbl.probabilistic.ExponentialVertex;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.generic.nonprobabilistic.ConditionalProbabilityTable;
+import io.improbable.keanu.vertices.generic.nonprobabilistic.If;
+import io.improbable.keanu.vertices.intgr.probabilistic.PoissonVertex;
+import io.improbable.keanu.vertices.intgr.probabilistic.UniformIntVertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The fixed set of models every algorithm is measured against. Observed data is generated from a fixed seed
+ * so the models, and therefore the results, only change when this class does.
+ */
+public class ModelZoo {
+
+    private static final int REGRESSION_POINTS = 100;
+    private static final int HIERARCHY_GROUPS = 8;
+    private static final int HIERARCHY_POINTS_PER_GROUP = 10;
+    private static final int GAUSSIAN_DIMENSIONS = 100;
+
+    private ModelZoo() {
+    }
+
+    public static List<ZooModel> all() {
+        return Arrays.asList(
+            new ZooModel("coalMiningDisasters", ModelZoo::coalMiningDisasters),
+            new ZooModel("linearRegression", ModelZoo::linearRegression),
+            new ZooModel("logisticRegression", ModelZoo::logisticRegression),
+            new ZooModel("hierarchicalGaussian", ModelZoo::hierarchicalGaussian),
+            new ZooModel("wetGrass", ModelZoo::wetGrass),
+            new ZooModel("highDimensionalGaussian", ModelZoo::highDimensionalGaussian)
+        );
+    }
+
+    /**
+     * The switchpoint model from the coal mining disasters example, built from the example's data.
+     */
+    public static ZooModel.Instance coalMiningDisasters() {
+        Data data = Data.load("coal-mining-disaster-data.csv");
+
+        UniformIntVertex switchpoint = new UniformIntVertex(data.startYear, data.endYear + 1);
+        ExponentialVertex earlyRate = new ExponentialVertex(1.0);
+        ExponentialVertex lateRate = new ExponentialVertex(1.0);
+
+        DoubleVertex rateForYear = If.isTrue(new GreaterThanVertex<>(switchpoint, ConstantVertex.of(data.years)))
+            .then(earlyRate)
+            .orElse(lateRate);
+
+        PoissonVertex disastersForYear = new PoissonVertex(rateForYear);
+        disastersForYear.observe(data.disasters);
+
+        return instance(switchpoint, switchpoint, earlyRate, lateRate);
+    }
+
+    /**
+     * y = weight * x + intercept with gaussian noise, one plate per data point.
+     */
+    public static ZooModel.Instance linearRegression() {
+        Random random = new Random(1);
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < REGRESSION_POINTS; i++) {
+            double x = random.nextDouble() * 10;
+            points.add(new double[]{x, 2.0 * x + 5.0 + random.nextGaussian()});
+        }
+
+        DoubleVertex weight = new GaussianVertex(0, 10);
+        DoubleVertex intercept = new GaussianVertex(0, 10);
+
+        new PlateBuilder<double[]>()
+            .fromIterator(points.iterator())
+            .withFactory((plate, point) -> {
+                DoubleVertex y = new GaussianVertex(weight.times(point[0]).plus(intercept), 1.0);
+                y.observe(point[1]);
+                plate.add("y", y);
+            })
+            .build();
+
+        return instance(weight, weight, intercept);
+    }
+
+    /**
+     * A bernoulli outcome with probability sigmoid(weight * x + intercept), one plate per data point.
+     */
+    public static ZooModel.Instance logisticRegression() {
+        Random random = new Random(2);
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < REGRESSION_POINTS; i++) {
+            double x = random.nextGaussian() * 2;
+            double probability = 1.0 / (1.0 + Math.exp(-(1.5 * x - 0.5)));
+            points.add(new double[]{x, random.nextDouble() < probability ? 1.0 : 0.0});
+        }
+
+        DoubleVertex weight = new GaussianVertex(0, 5);
+        DoubleVertex intercept = new GaussianVertex(0, 5);
+
+        new PlateBuilder<double[]>()
+            .fromIterator(points.iterator())
+            .withFactory((plate, point) -> {
+                BoolVertex y = new BernoulliVertex(weight.times(point[0]).plus(intercept).sigmoid());
+                y.observe(point[1] == 1.0);
+                plate.add("y", y);
+            })
+            .build();
+
+        return instance(weight, weight, intercept);
+    }
+
+    /**
+     * Group means drawn around a shared population mean, each observed through noisy measurements.
+     */
+    public static ZooModel.Instance hierarchicalGaussian() {
+        Random random = new Random(3);
+        DoubleVertex populationMean = new GaussianVertex(0, 10);
+
+        List<DoubleVertex> tracked = new ArrayList<>();
+        tracked.add(populationMean);
+        for (int group = 0; group < HIERARCHY_GROUPS; group++) {
+            DoubleVertex groupMean = new GaussianVertex(populationMean, 1.0);
+            double trueGroupMean = 3.0 + random.nextGaussian();
+            for (int i = 0; i < HIERARCHY_POINTS_PER_GROUP; i++) {
+                new GaussianVertex(groupMean, 1.0).observe(trueGroupMean + random.nextGaussian());
+            }
+            tracked.add(groupMean);
+        }
+
+        return instance(populationMean, tracked.toArray(new Vertex[0]));
+    }
+
+    /**
+     * The discrete rain, sprinkler and wet grass network from the documentation, with wet grass observed.
+     */
+    public static ZooModel.Instance wetGrass() {
+        BoolVertex rain = new BernoulliVertex(0.2);
+
+        BoolVertex sprinkler = new BernoulliVertex(
+            If.isTrue(rain).then(0.01).orElse(0.4)
+        );
+
+        BoolVertex wetGrass = new BernoulliVertex(
+            ConditionalProbabilityTable.of(sprinkler, rain)
+                .when(false, false).then(1e-2)
+                .when(false, true).then(0.8)
+                .when(true, false).then(0.9)
+                .orDefault(0.99)
+        );
+        wetGrass.observe(true);
+
+        return instance(rain, rain, sprinkler);
+    }
+
+    /**
+     * A single tensor valued latent with independent noisy observations of every element.
+     */
+    public static ZooModel.Instance highDimensionalGaussian() {
+        KeanuRandom random = new KeanuRandom(4);
+        int[] shape = new int[]{1, GAUSSIAN_DIMENSIONS};
+
+        DoubleVertex x = new GaussianVertex(shape, 0, 1);
+        DoubleVertex y = new GaussianVertex(x, 0.5);
+        y.observe(random.nextGaussian(shape).timesInPlace(1.2).plusInPlace(DoubleTensor.linspace(-1, 1, GAUSSIAN_DIMENSIONS)));
+
+        return instance(x, x);
+    }
+
+    private static ZooModel.Instance instance(Vertex<?> anyVertex, Vertex... tracked) {
+        BayesianNetwork network = new BayesianNetwork(anyVertex.getConnectedGraph());
+        return new ZooModel.Instance(network, Arrays.asList(tracked));
+    }
+}
@@ -0,0 +1,132 @@
+package io.improbable.keanu.benchmarks.zoo;
+
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.mcmc.diagnostics.ConvergenceStatistics;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs every algorithm in {@link ZooAlgorithm} over every model in {@link ModelZoo} it can handle and
+ * reports wall time, samples per second, effective samples per second and peak heap.
+ * <p>
+ * Effective sample size is the smallest split ESS of any element of the model's tracked vertices, measured
+ * after discarding the first quarter of the chain as warmup. Optimizers only report wall time and heap.
+ * <p>
+ * Usage: ModelZooBenchmark [output csv] [sample scale]
+ */
+public class ModelZooBenchmark {
+
+    private static final double WARMUP_FRACTION = 0.25;
+
+    public static void main(String[] args) {
+        Path output = Paths.get(args.length > 0 ? args[0] : "model-zoo.csv");
+        double scale = args.length > 1 ? Double.parseDouble(args[1]) : 1.0;
+
+        List<ZooResult> results = new ArrayList<>();
+        for (ZooModel model : ModelZoo.all()) {
+            ZooModel.Instance probe = model.build();
+            for (ZooAlgorithm algorithm : ZooAlgorithm.values()) {
+                if (algorithm.canRun(probe)) {
+                    ZooResult result = run(model, algorithm, scale);
+                    System.out.println(result);
+                    results.add(result);
+                }
+            }
+        }
+
+        write(results, output);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    public static ZooResult run(ZooModel model, ZooAlgorithm algorithm, double scale) {
+        ZooModel.Instance instance = model.build();
+        int sampleCount = (int) Math.ceil(algorithm.getBaseSampleCount() * scale);
+        KeanuRandom random = new KeanuRandom(1);
+
+        resetPeakHeap();
+        long start = System.nanoTime();
+        NetworkSamples samples = algorithm.run(instance, sampleCount, random);
+        long wallTimeNanos = System.nanoTime() - start;
+        long peakHeapBytes = getPeakHeap();
+
+        double minEffectiveSampleSize = samples == null ? Double.NaN : minEffectiveSampleSize(samples, instance);
+        return new ZooResult(model.getName(), algorithm.name(), sampleCount, wallTimeNanos, minEffectiveSampleSize, peakHeapBytes);
+    }
+
+    /**
+     * Elements that never move, e.g. from a chain that never accepts, have an effective sample size of 0.
+     */
+    static double minEffectiveSampleSize(NetworkSamples samples, ZooModel.Instance instance) {
+        NetworkSamples afterWarmup = samples.drop((int) (samples.size() * WARMUP_FRACTION));
+        int length = afterWarmup.size();
+
+        double min = Double.POSITIVE_INFINITY;
+        for (Vertex<? extends Tensor> vertex : instance.getTrackedVertices()) {
+            List<? extends Tensor> values = afterWarmup.get(vertex).asList();
+            int elements = (int) values.get(0).getLength();
+
+            double[][] chains = new double[elements][length];
+            for (int i = 0; i < length; i++) {
+                double[] flat = values.get(i).asFlatDoubleArray();
+                for (int element = 0; element < elements; element++) {
+                    chains[element][i] = flat[element];
+                }
+            }
+
+            for (double[] chain : chains) {
+                double ess = ConvergenceStatistics.splitEffectiveSampleSize(chain, length);
+                min = Math.min(min, Double.isNaN(ess) ? 0.0 : ess);
+            }
+        }
+        return min;
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long getPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static void write(List<ZooResult> results, Path output) {
+        try {
+            Path parent = output.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output))) {
+                writer.println(ZooResult.CSV_HEADER);
+                for (ZooResult result : results) {
+                    writer.println(result.toCsvRow());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package io.improbable.keanu.benchmarks.zoo;
+
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.mcmc.Hamiltonian;
+import io.improbable.keanu.algorithms.mcmc.MetropolisHastings;
+import io.improbable.keanu.algorithms.mcmc.NUTS;
+import io.improbable.keanu.algorithms.sampling.RejectionSampler;
+import io.improbable.keanu.algorithms.variational.optimizer.gradient.GradientOptimizer;
+import io.improbable.keanu.algorithms.variational.optimizer.nongradient.NonGradientOptimizer;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The samplers and optimizers run over the zoo, each with the models it can handle and a base sample count
+ * that is scaled by the harness.
+ */
+public enum ZooAlgorithm {
+
+    METROPOLIS_HASTINGS(20000) {
+        @Override
+        public boolean canRun(ZooModel.Instance model) {
+            return true;
+        }
+
+        @Override
+        public NetworkSamples run(ZooModel.Instance model, int sampleCount, KeanuRandom random) {
+            return MetropolisHastings.withDefaultConfig(random)
+                .getPosteriorSamples(model.getNetwork(), tracked(model), sampleCount);
+        }
+    },
+
+    NUTS_SAMPLER(1000) {
+        @Override
+        public boolean canRun(ZooModel.Instance model) {
+            return model.isContinuous();
+        }
+
+        @Override
+        public NetworkSamples run(ZooModel.Instance model, int sampleCount, KeanuRandom random) {
+            return NUTS.builder()
+                .random(random)
+                .adaptCount(sampleCount / 4)
+                .build()
+                .getPosteriorSamples(model.getNetwork(), tracked(model), sampleCount);
+        }
+    },
+
+    HAMILTONIAN(1000) {
+        @Override
+        public boolean canRun(ZooModel.Instance model) {
+            return model.isContinuous();
+        }
+
+        @Override
+        public NetworkSamples run(ZooModel.Instance model, int sampleCount, KeanuRandom random) {
+            return Hamiltonian.withDefaultConfig(random)
+                .getPosteriorSamples(model.getNetwork(), tracked(model), sampleCount);
+        }
+    },
+
+    REJECTION_SAMPLER(5000) {
+        @Override
+        public boolean canRun(ZooModel.Instance model) {
+            return model.isDiscrete();
+        }
+
+        @Override
+        public NetworkSamples run(ZooModel.Instance model, int sampleCount, KeanuRandom random) {
+            return RejectionSampler.getPosteriorSamples(model.getNetwork(), tracked(model), sampleCount, random);
+        }
+    },
+
+    GRADIENT_OPTIMIZER(0) {
+        @Override
+        public boolean canRun(ZooModel.Instance model) {
+            return model.isContinuous();
+        }
+
+        @Override
+        public NetworkSamples run(ZooModel.Instance model, int sampleCount, KeanuRandom random) {
+            GradientOptimizer.of(model.getNetwork()).maxAPosteriori();
+            return null;
+        }
+    },
+
+    NON_GRADIENT_OPTIMIZER(0) {
+        @Override
+        public boolean canRun(ZooModel.Instance model) {
+            return model.isContinuous();
+        }
+
+        @Override
+        public NetworkSamples run(ZooModel.Instance model, int sampleCount, KeanuRandom random) {
+            NonGradientOptimizer.of(model.getNetwork()).maxAPosteriori();
+            return null;
+        }
+    };
+
+    private final int baseSampleCount;
+
+    ZooAlgorithm(int baseSampleCount) {
+        this.baseSampleCount = baseSampleCount;
+    }
+
+    /**
+     * @return the number of samples taken at a scale of 1, or 0 if the algorithm is an optimizer
+     */
+    public int getBaseSampleCount() {
+        return baseSampleCount;
+    }
+
+    public abstract boolean canRun(ZooModel.Instance model);
+
+    /**
+     * @return the samples taken, or null if the algorithm is an optimizer
+     */
+    public abstract NetworkSamples run(ZooModel.Instance model, int sampleCount, KeanuRandom random);
+
+    private static List<Vertex<?>> tracked(ZooModel.Instance model) {
+        return new ArrayList<>(model.getTrackedVertices());
+    }
+}
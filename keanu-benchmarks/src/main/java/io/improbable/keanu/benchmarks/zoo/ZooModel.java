@@ -0,0 +1,71 @@
+package io.improbable.keanu.benchmarks.zoo;
+
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A named model in the zoo. Each run builds a fresh network so no state is shared between algorithms.
+ */
+public class ZooModel {
+
+    private final String name;
+    private final Supplier<Instance> factory;
+
+    public ZooModel(String name, Supplier<Instance> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Instance build() {
+        return factory.get();
+    }
+
+    /**
+     * A built network and the latent vertices whose samples are used to measure effective sample size.
+     */
+    public static class Instance {
+
+        private final BayesianNetwork network;
+        private final List<Vertex<? extends Tensor>> trackedVertices;
+
+        public Instance(BayesianNetwork network, List<? extends Vertex<? extends Tensor>> trackedVertices) {
+            this.network = network;
+            this.trackedVertices = new ArrayList<>(trackedVertices);
+        }
+
+        public BayesianNetwork getNetwork() {
+            return network;
+        }
+
+        public List<Vertex<? extends Tensor>> getTrackedVertices() {
+            return trackedVertices;
+        }
+
+        public boolean isContinuous() {
+            return network.getDiscreteLatentVertices().isEmpty();
+        }
+
+        public boolean isDiscrete() {
+            return network.getContinuousLatentVertices().isEmpty() && !hasContinuousObservations();
+        }
+
+        private boolean hasContinuousObservations() {
+            for (Vertex<?> observed : network.getObservedVertices()) {
+                if (observed.getValue() instanceof DoubleTensor) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package io.improbable.keanu.benchmarks.zoo;
+
+import java.util.Locale;
+
+/**
+ * The measurements from running one algorithm on one model.
+ */
+public class ZooResult {
+
+    public static final String CSV_HEADER =
+        "model,algorithm,samples,wallTimeSeconds,samplesPerSecond,minEffectiveSampleSize,effectiveSamplesPerSecond,peakHeapBytes";
+
+    private final String model;
+    private final String algorithm;
+    private final int sampleCount;
+    private final long wallTimeNanos;
+    private final double minEffectiveSampleSize;
+    private final long peakHeapBytes;
+
+    public ZooResult(String model,
+                     String algorithm,
+                     int sampleCount,
+                     long wallTimeNanos,
+                     double minEffectiveSampleSize,
+                     long peakHeapBytes) {
+        this.model = model;
+        this.algorithm = algorithm;
+        this.sampleCount = sampleCount;
+        this.wallTimeNanos = wallTimeNanos;
+        this.minEffectiveSampleSize = minEffectiveSampleSize;
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public double getWallTimeSeconds() {
+        return wallTimeNanos / 1e9;
+    }
+
+    public double getSamplesPerSecond() {
+        return sampleCount / getWallTimeSeconds();
+    }
+
+    /**
+     * @return the smallest effective sample size of any tracked element after warmup, or NaN for optimizers
+     */
+    public double getMinEffectiveSampleSize() {
+        return minEffectiveSampleSize;
+    }
+
+    public double getEffectiveSamplesPerSecond() {
+        return minEffectiveSampleSize / getWallTimeSeconds();
+    }
+
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    public String toCsvRow() {
+        return String.format(Locale.ROOT, "%s,%s,%d,%.6f,%.3f,%.3f,%.3f,%d",
+            model, algorithm, sampleCount, getWallTimeSeconds(), getSamplesPerSecond(),
+            minEffectiveSampleSize, getEffectiveSamplesPerSecond(), peakHeapBytes
+        );
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%-24s %-24s %8d %10.3fs %12.1f/s %10.1f %12.1f/s %8.1fMB",
+            model, algorithm, sampleCount, getWallTimeSeconds(), getSamplesPerSecond(),
+            minEffectiveSampleSize, getEffectiveSamplesPerSecond(), peakHeapBytes / (1024.0 * 1024.0)
+        );
+    }
+}
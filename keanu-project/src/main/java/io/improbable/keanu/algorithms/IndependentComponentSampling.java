@@ -0,0 +1,157 @@
+package io.improbable.keanu.algorithms;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import io.improbable.keanu.algorithms.mcmc.MetropolisHastings;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Samples each of the independent components of a network, as found by
+ * {@link BayesianNetwork#getIndependentComponents()}, with its own sampling algorithm and combines their samples.
+ * Many small chains mix faster than one large one, and are run on the available cores at once.
+ * <p>
+ * The i-th sample of the result holds the i-th sample of every component. As the components are independent this
+ * is a sample from the posterior of the whole network.
+ */
+@Builder
+public class IndependentComponentSampling implements PosteriorSamplingAlgorithm {
+
+    public static IndependentComponentSampling withDefaultConfig() {
+        return withDefaultConfig(KeanuRandom.getDefaultRandom());
+    }
+
+    public static IndependentComponentSampling withDefaultConfig(KeanuRandom random) {
+        return IndependentComponentSampling.builder()
+            .random(random)
+            .build();
+    }
+
+    //seeds the random of the algorithm for each component
+    @Getter
+    @Setter
+    @Builder.Default
+    private KeanuRandom random = KeanuRandom.getDefaultRandom();
+
+    //creates the algorithm for a component, which must use the given random so the components can run at once
+    @Getter
+    @Setter
+    @Builder.Default
+    private Function<KeanuRandom, ? extends PosteriorSamplingAlgorithm> samplingAlgorithm = MetropolisHastings::withDefaultConfig;
+
+    @Getter
+    @Setter
+    @Builder.Default
+    private boolean parallel = true;
+
+    /**
+     * @param bayesNet             a bayesian network containing latent vertices
+     * @param verticesToSampleFrom the vertices to include in the returned samples
+     * @param sampleCount          number of samples to take from each component
+     * @return Samples for each vertex ordered by iteration
+     */
+    @Override
+    public NetworkSamples getPosteriorSamples(BayesianNetwork bayesNet,
+                                              List<? extends Vertex> verticesToSampleFrom,
+                                              int sampleCount) {
+        List<BayesianNetwork> components = bayesNet.getIndependentComponents().stream()
+            .filter(component -> !component.getLatentVertices().isEmpty())
+            .collect(Collectors.toList());
+
+        if (components.isEmpty()) {
+            throw new IllegalArgumentException("Cannot sample from a network without latent vertices");
+        }
+
+        Map<Vertex, Integer> componentOfVertex = new HashMap<>();
+        for (int c = 0; c < components.size(); c++) {
+            for (Vertex vertex : components.get(c).getVertices()) {
+                componentOfVertex.putIfAbsent(vertex, c);
+            }
+        }
+
+        List<List<Vertex>> verticesToSampleFromByComponent = new ArrayList<>();
+        for (int c = 0; c < components.size(); c++) {
+            verticesToSampleFromByComponent.add(new ArrayList<>());
+        }
+        List<Vertex> fixedVerticesToSampleFrom = new ArrayList<>();
+        for (Vertex vertex : verticesToSampleFrom) {
+            int component = findComponent(vertex, componentOfVertex);
+            if (component == -1) {
+                fixedVerticesToSampleFrom.add(vertex);
+            } else {
+                verticesToSampleFromByComponent.get(component).add(vertex);
+            }
+        }
+
+        List<PosteriorSamplingAlgorithm> algorithms = new ArrayList<>();
+        for (int c = 0; c < components.size(); c++) {
+            algorithms.add(samplingAlgorithm.apply(new KeanuRandom(random.nextLong())));
+        }
+
+        IntStream componentIndices = IntStream.range(0, components.size());
+        List<NetworkSamples> samplesByComponent = (parallel ? componentIndices.parallel() : componentIndices)
+            .mapToObj(c -> algorithms.get(c).getPosteriorSamples(
+                components.get(c),
+                verticesToSampleFromByComponent.get(c),
+                sampleCount
+            ))
+            .collect(Collectors.toList());
+
+        Map<Long, List<?>> samplesByVertex = new HashMap<>();
+        for (int c = 0; c < components.size(); c++) {
+            for (Vertex<?> vertex : verticesToSampleFromByComponent.get(c)) {
+                samplesByVertex.put(vertex.getId(), samplesByComponent.get(c).get(vertex).asList());
+            }
+        }
+        for (Vertex<?> vertex : fixedVerticesToSampleFrom) {
+            samplesByVertex.put(vertex.getId(), Collections.nCopies(sampleCount, vertex.getValue()));
+        }
+
+        return new NetworkSamples(samplesByVertex, samplesByComponent.get(0).size());
+    }
+
+    /**
+     * @return the component whose samples change the value of the vertex, found through its ancestors in case it
+     * is not in the network, or -1 if its value is fixed
+     */
+    private static int findComponent(Vertex<?> vertex, Map<Vertex, Integer> componentOfVertex) {
+        Set<Vertex> visited = new HashSet<>();
+        Deque<Vertex<?>> stack = new ArrayDeque<>();
+        visited.add(vertex);
+        stack.addFirst(vertex);
+
+        while (!stack.isEmpty()) {
+            Vertex<?> visiting = stack.removeFirst();
+            Integer component = componentOfVertex.get(visiting);
+            if (component != null && !isFixed(visiting)) {
+                return component;
+            }
+            for (Vertex<?> parent : visiting.getParents()) {
+                if (visited.add(parent)) {
+                    stack.addFirst(parent);
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean isFixed(Vertex<?> vertex) {
+        return !vertex.isProbabilistic() && vertex.getParents().isEmpty();
+    }
+}
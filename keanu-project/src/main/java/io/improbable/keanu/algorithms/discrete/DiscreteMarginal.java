@@ -0,0 +1,53 @@
+package io.improbable.keanu.algorithms.discrete;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The probability of each value of a discrete vertex, which answers the same queries as
+ * {@link io.improbable.keanu.algorithms.VertexSamples} but exactly rather than by counting samples.
+ *
+ * @param <T> the type of the vertex's value
+ */
+public class DiscreteMarginal<T> {
+
+    private final Map<T, Double> probabilities;
+
+    public DiscreteMarginal(Map<T, Double> probabilities) {
+        this.probabilities = probabilities;
+    }
+
+    public double probability(Function<T, Boolean> valuePredicate) {
+        double probability = 0.0;
+        for (Map.Entry<T, Double> entry : probabilities.entrySet()) {
+            if (valuePredicate.apply(entry.getKey())) {
+                probability += entry.getValue();
+            }
+        }
+        return probability;
+    }
+
+    public T getMode() {
+        T mode = null;
+        double modeProbability = Double.NEGATIVE_INFINITY;
+        for (Map.Entry<T, Double> entry : probabilities.entrySet()) {
+            if (entry.getValue() > modeProbability) {
+                mode = entry.getKey();
+                modeProbability = entry.getValue();
+            }
+        }
+
+        if (mode == null) {
+            throw new IllegalStateException("Mode for an empty distribution is undefined");
+        }
+        return mode;
+    }
+
+    /**
+     * @return the probability of each value the vertex can take
+     */
+    public Map<T, Double> asMap() {
+        return Collections.unmodifiableMap(probabilities);
+    }
+}
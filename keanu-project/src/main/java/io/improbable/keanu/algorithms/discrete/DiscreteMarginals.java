@@ -0,0 +1,47 @@
+package io.improbable.keanu.algorithms.discrete;
+
+import java.util.Map;
+
+import io.improbable.keanu.vertices.Vertex;
+
+/**
+ * The marginal distributions of the vertices of a discrete network, as found by {@link LoopyBeliefPropagation}.
+ */
+public class DiscreteMarginals {
+
+    private final Map<Vertex<?>, DiscreteMarginal<?>> marginals;
+    private final int iterations;
+    private final boolean converged;
+
+    public DiscreteMarginals(Map<Vertex<?>, DiscreteMarginal<?>> marginals, int iterations, boolean converged) {
+        this.marginals = marginals;
+        this.iterations = iterations;
+        this.converged = converged;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the vertex is not in the network
+     */
+    public <T> DiscreteMarginal<T> get(Vertex<T> vertex) {
+        DiscreteMarginal<?> marginal = marginals.get(vertex);
+        if (marginal == null) {
+            throw new IllegalArgumentException("No marginal was found for vertex " + vertex.getId());
+        }
+        return (DiscreteMarginal<T>) marginal;
+    }
+
+    /**
+     * @return the number of rounds of messages that were passed
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return whether the messages stopped changing before the iteration limit was reached. If not, the marginals
+     * may be poor.
+     */
+    public boolean hasConverged() {
+        return converged;
+    }
+}
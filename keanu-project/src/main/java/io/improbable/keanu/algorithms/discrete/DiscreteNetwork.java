@@ -0,0 +1,231 @@
+package io.improbable.keanu.algorithms.discrete;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.ArrayUtils;
+
+import io.improbable.keanu.algorithms.graphtraversal.TopologicalSort;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.vertices.NonProbabilistic;
+import io.improbable.keanu.vertices.Probabilistic;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.generic.probabilistic.discrete.CategoricalVertex;
+
+/**
+ * The factors of a network of discrete vertices. Each latent {@link BernoulliVertex} or {@link CategoricalVertex}
+ * is a variable over its possible values. Each non-probabilistic vertex calculated from them is a variable over
+ * the values it can take, which are found by calculating it for every combination of the values of its parents,
+ * so boolean operators, CPTs and any other non-probabilistic vertices need no special treatment.
+ * <p>
+ * Vertices that can only take one value, including every observed vertex, are not variables. Their single value
+ * is folded into the factors of their children, so observations only ever shrink the factors. Observed vertices
+ * may be continuous, in which case their density is used.
+ */
+final class DiscreteNetwork {
+
+    private final List<Vertex<?>> variables = new ArrayList<>();
+    private final Map<Vertex<?>, Integer> variableIndices = new HashMap<>();
+    private final Map<Vertex<?>, List<Object>> domains = new HashMap<>();
+    private final List<Factor> factors = new ArrayList<>();
+
+    /**
+     * Builds the factors of the given vertices and every vertex they depend on, conditioned on the observations
+     * of those vertices. The values of those vertices are set back to their current values afterwards.
+     *
+     * @param vertices the vertices to build the factors of, such as query and observed vertices
+     * @throws IllegalArgumentException if a latent probabilistic vertex that they depend on is not a scalar
+     *                                  Bernoulli or a categorical vertex
+     */
+    DiscreteNetwork(Collection<? extends Vertex<?>> vertices) {
+        this(vertices, true);
+    }
+
+    /**
+     * @param vertices                the vertices to build the factors of
+     * @param conditionOnObservations whether observed vertices are fixed to their observations. If not, they are
+     *                                variables like any other, which must then be discrete, and are observed
+     *                                again afterwards.
+     */
+    DiscreteNetwork(Collection<? extends Vertex<?>> vertices, boolean conditionOnObservations) {
+        List<Vertex> sorted = TopologicalSort.sort(getAncestors(vertices));
+
+        Map<Vertex<?>, Object> currentValues = new HashMap<>();
+        for (Vertex<?> vertex : sorted) {
+            currentValues.put(vertex, vertex.getValue());
+        }
+
+        List<Vertex> unobserved = new ArrayList<>();
+        if (!conditionOnObservations) {
+            for (Vertex vertex : sorted) {
+                if (vertex.isObserved()) {
+                    vertex.unobserve();
+                    unobserved.add(vertex);
+                }
+            }
+        }
+
+        try {
+            for (Vertex<?> vertex : sorted) {
+                add(vertex);
+            }
+        } finally {
+            for (Vertex vertex : sorted) {
+                vertex.setValue(currentValues.get(vertex));
+            }
+            for (Vertex vertex : unobserved) {
+                vertex.observe(currentValues.get(vertex));
+            }
+        }
+    }
+
+    List<Factor> getFactors() {
+        return factors;
+    }
+
+    int getVariableCount() {
+        return variables.size();
+    }
+
+    /**
+     * @return the index of the vertex's variable, or -1 if it can only take one value
+     */
+    int getVariable(Vertex<?> vertex) {
+        return variableIndices.getOrDefault(vertex, -1);
+    }
+
+    Vertex<?> getVertex(int variable) {
+        return variables.get(variable);
+    }
+
+    List<Object> getDomain(Vertex<?> vertex) {
+        return domains.get(vertex);
+    }
+
+    private void add(Vertex<?> vertex) {
+        List<Vertex<?>> parentVariables = new ArrayList<>();
+        for (Vertex<?> parent : vertex.getParents()) {
+            if (variableIndices.containsKey(parent)) {
+                parentVariables.add(parent);
+            }
+        }
+        parentVariables.sort((a, b) -> Integer.compare(variableIndices.get(a), variableIndices.get(b)));
+
+        int[] parentCardinalities = new int[parentVariables.size()];
+        for (int i = 0; i < parentCardinalities.length; i++) {
+            parentCardinalities[i] = domains.get(parentVariables.get(i)).size();
+        }
+        int parentAssignments = Factor.getLength(parentCardinalities);
+
+        List<Object> domain;
+        double[] table;
+        if (vertex.isProbabilistic()) {
+            domain = vertex.isObserved() ? Collections.singletonList(vertex.getValue()) : getSupport(vertex);
+            table = new double[parentAssignments * domain.size()];
+            for (int assignment = 0; assignment < parentAssignments; assignment++) {
+                setParents(parentVariables, parentCardinalities, assignment);
+                for (int d = 0; d < domain.size(); d++) {
+                    table[assignment * domain.size() + d] = Math.exp(((Probabilistic) vertex).logProb(domain.get(d)));
+                }
+            }
+        } else {
+            int[] valueIndices = new int[parentAssignments];
+            List<Object> values = new ArrayList<>();
+            for (int assignment = 0; assignment < parentAssignments; assignment++) {
+                setParents(parentVariables, parentCardinalities, assignment);
+                valueIndices[assignment] = indexOf(values, ((NonProbabilistic<?>) vertex).calculate());
+            }
+
+            if (vertex.isObserved()) {
+                Object observation = vertex.getValue();
+                domain = Collections.singletonList(observation);
+                table = new double[parentAssignments];
+                for (int assignment = 0; assignment < parentAssignments; assignment++) {
+                    table[assignment] = values.get(valueIndices[assignment]).equals(observation) ? 1.0 : 0.0;
+                }
+            } else {
+                domain = values;
+                table = new double[parentAssignments * domain.size()];
+                for (int assignment = 0; assignment < parentAssignments; assignment++) {
+                    table[assignment * domain.size() + valueIndices[assignment]] = 1.0;
+                }
+            }
+        }
+
+        domains.put(vertex, domain);
+
+        int[] scope = new int[parentVariables.size()];
+        for (int i = 0; i < scope.length; i++) {
+            scope[i] = variableIndices.get(parentVariables.get(i));
+        }
+
+        if (domain.size() == 1) {
+            ((Vertex) vertex).setValue(domain.get(0));
+            if (vertex.isProbabilistic() || vertex.isObserved()) {
+                factors.add(new Factor(scope, parentCardinalities, table));
+            }
+        } else {
+            int variable = variables.size();
+            variableIndices.put(vertex, variable);
+            variables.add(vertex);
+            factors.add(new Factor(ArrayUtils.add(scope, variable), ArrayUtils.add(parentCardinalities, domain.size()), table));
+        }
+    }
+
+    /**
+     * Sets each parent variable to its value in the given assignment, which is row major over the parents.
+     */
+    private void setParents(List<Vertex<?>> parentVariables, int[] parentCardinalities, int assignment) {
+        for (int i = parentVariables.size() - 1; i >= 0; i--) {
+            Vertex parent = parentVariables.get(i);
+            parent.setValue(domains.get(parent).get(assignment % parentCardinalities[i]));
+            assignment /= parentCardinalities[i];
+        }
+    }
+
+    private static List<Object> getSupport(Vertex<?> vertex) {
+        if (vertex instanceof BernoulliVertex && TensorShape.getLength(vertex.getShape()) == 1) {
+            int[] shape = vertex.getShape();
+            return Arrays.asList(BooleanTensor.create(false, shape), BooleanTensor.create(true, shape));
+        } else if (vertex instanceof CategoricalVertex) {
+            return new ArrayList<>(((CategoricalVertex<?>) vertex).getSelectableValues().keySet());
+        }
+        throw new IllegalArgumentException(
+            "Exact inference only supports latent scalar Bernoulli and categorical vertices but found "
+                + vertex.getClass().getSimpleName() + " " + vertex.getId()
+        );
+    }
+
+    private static int indexOf(List<Object> values, Object value) {
+        int index = values.indexOf(value);
+        if (index == -1) {
+            values.add(value);
+            return values.size() - 1;
+        }
+        return index;
+    }
+
+    private static Set<Vertex> getAncestors(Collection<? extends Vertex<?>> vertices) {
+        Set<Vertex> ancestors = new HashSet<>(vertices);
+        Deque<Vertex<?>> toVisit = new ArrayDeque<>(vertices);
+        while (!toVisit.isEmpty()) {
+            for (Vertex<?> parent : toVisit.pop().getParents()) {
+                if (ancestors.add(parent)) {
+                    toVisit.push(parent);
+                }
+            }
+        }
+        return ancestors;
+    }
+}
@@ -0,0 +1,198 @@
+package io.improbable.keanu.algorithms.discrete;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A table of non-negative values over every assignment of a set of discrete variables. The variables are held
+ * in ascending order and the table is row major over them, so the last variable changes fastest.
+ */
+final class Factor {
+
+    private static final Factor UNIT = new Factor(new int[0], new int[0], new double[]{1.0});
+
+    private final int[] variables;
+    private final int[] cardinalities;
+    private final double[] values;
+
+    Factor(int[] variables, int[] cardinalities, double[] values) {
+        if (values.length != getLength(cardinalities)) {
+            throw new IllegalArgumentException(
+                values.length + " values do not fill a factor over cardinalities " + Arrays.toString(cardinalities)
+            );
+        }
+        for (int i = 1; i < variables.length; i++) {
+            if (variables[i] <= variables[i - 1]) {
+                throw new IllegalArgumentException("Factor variables must be in ascending order: " + Arrays.toString(variables));
+            }
+        }
+        this.variables = variables;
+        this.cardinalities = cardinalities;
+        this.values = values;
+    }
+
+    int[] getVariables() {
+        return variables;
+    }
+
+    int[] getCardinalities() {
+        return cardinalities;
+    }
+
+    /**
+     * @return the table, which must not be modified
+     */
+    double[] getValues() {
+        return values;
+    }
+
+    boolean contains(int variable) {
+        return Arrays.binarySearch(variables, variable) >= 0;
+    }
+
+    double sum() {
+        double sum = 0.0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * @return a factor over the variables of both factors whose values are the products of the matching values
+     */
+    Factor times(Factor that) {
+        int[] resultVariables = new int[variables.length + that.variables.length];
+        int[] resultCardinalities = new int[resultVariables.length];
+        int rank = 0;
+        int i = 0;
+        int j = 0;
+        while (i < variables.length || j < that.variables.length) {
+            if (j == that.variables.length || (i < variables.length && variables[i] < that.variables[j])) {
+                resultVariables[rank] = variables[i];
+                resultCardinalities[rank++] = cardinalities[i++];
+            } else if (i == variables.length || that.variables[j] < variables[i]) {
+                resultVariables[rank] = that.variables[j];
+                resultCardinalities[rank++] = that.cardinalities[j++];
+            } else {
+                if (cardinalities[i] != that.cardinalities[j]) {
+                    throw new IllegalArgumentException("Variable " + variables[i] + " has different cardinalities");
+                }
+                resultVariables[rank] = variables[i++];
+                resultCardinalities[rank++] = that.cardinalities[j++];
+            }
+        }
+        resultVariables = Arrays.copyOf(resultVariables, rank);
+        resultCardinalities = Arrays.copyOf(resultCardinalities, rank);
+
+        int[] leftStride = getStrideIn(resultVariables);
+        int[] rightStride = that.getStrideIn(resultVariables);
+        double[] result = new double[getLength(resultCardinalities)];
+        int[] assignment = new int[rank];
+        int leftIndex = 0;
+        int rightIndex = 0;
+        for (int r = 0; r < result.length; r++) {
+            result[r] = values[leftIndex] * that.values[rightIndex];
+            for (int d = rank - 1; d >= 0; d--) {
+                assignment[d]++;
+                leftIndex += leftStride[d];
+                rightIndex += rightStride[d];
+                if (assignment[d] < resultCardinalities[d]) {
+                    break;
+                }
+                leftIndex -= leftStride[d] * resultCardinalities[d];
+                rightIndex -= rightStride[d] * resultCardinalities[d];
+                assignment[d] = 0;
+            }
+        }
+        return new Factor(resultVariables, resultCardinalities, result);
+    }
+
+    /**
+     * @return a factor without the variable whose values are the sums over every value of the variable
+     */
+    Factor sumOut(int variable) {
+        int position = Arrays.binarySearch(variables, variable);
+        if (position < 0) {
+            return this;
+        }
+
+        int outer = 1;
+        for (int d = 0; d < position; d++) {
+            outer *= cardinalities[d];
+        }
+        int cardinality = cardinalities[position];
+        int inner = values.length / (outer * cardinality);
+
+        double[] result = new double[outer * inner];
+        for (int o = 0; o < outer; o++) {
+            for (int c = 0; c < cardinality; c++) {
+                int offset = (o * cardinality + c) * inner;
+                for (int i = 0; i < inner; i++) {
+                    result[o * inner + i] += values[offset + i];
+                }
+            }
+        }
+        return new Factor(remove(variables, position), remove(cardinalities, position), result);
+    }
+
+    /**
+     * Divides every value by the largest, which keeps long chains of products of small probabilities from
+     * underflowing.
+     *
+     * @return the log of the largest value, which the values were divided by
+     */
+    double rescale() {
+        double max = 0.0;
+        for (double value : values) {
+            max = Math.max(max, value);
+        }
+        if (max > 0.0) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] /= max;
+            }
+        }
+        return Math.log(max);
+    }
+
+    static Factor product(List<Factor> factors) {
+        Factor product = UNIT;
+        for (Factor factor : factors) {
+            product = product.times(factor);
+        }
+        return product;
+    }
+
+    /**
+     * @return the stride of each of the given variables in this factor's table, which is 0 for variables that
+     * this factor does not contain
+     */
+    private int[] getStrideIn(int[] resultVariables) {
+        int[] stride = new int[resultVariables.length];
+        int step = 1;
+        int position = resultVariables.length - 1;
+        for (int d = variables.length - 1; d >= 0; d--) {
+            while (resultVariables[position] != variables[d]) {
+                position--;
+            }
+            stride[position] = step;
+            step *= cardinalities[d];
+        }
+        return stride;
+    }
+
+    private static int[] remove(int[] array, int position) {
+        int[] removed = new int[array.length - 1];
+        System.arraycopy(array, 0, removed, 0, position);
+        System.arraycopy(array, position + 1, removed, position, removed.length - position);
+        return removed;
+    }
+
+    static int getLength(int[] cardinalities) {
+        int length = 1;
+        for (int cardinality : cardinalities) {
+            length *= cardinality;
+        }
+        return length;
+    }
+}
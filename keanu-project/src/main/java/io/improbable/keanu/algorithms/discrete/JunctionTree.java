@@ -0,0 +1,541 @@
+package io.improbable.keanu.algorithms.discrete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.vertices.Vertex;
+
+/**
+ * A discrete network compiled into a junction tree, which answers many queries with different evidence without
+ * analysing the structure of the network again. Compiling triangulates the network in a min-fill order, with one
+ * clique for each eliminated vertex, and multiplies the tables of the network into the cliques. Each query copies
+ * those tables, zeroes the entries that disagree with the evidence and passes messages up and then down the tree.
+ * <p>
+ * A compiled tree is immutable and may be queried from many threads at once. The tables of a query are held in
+ * buffers that belong to the querying thread, so repeated queries allocate little more than their results.
+ * <p>
+ * The observations of the network are ignored when it is compiled. Evidence is given to each query instead, so
+ * observed vertices must be discrete like every other vertex.
+ */
+public class JunctionTree {
+
+    private final Map<Vertex<?>, Integer> variableIndices = new HashMap<>();
+    private final Map<Vertex<?>, Object> fixedValues = new HashMap<>();
+    private final List<List<Object>> domains = new ArrayList<>();
+    private final Clique[] cliques;
+    private final int[] owners;
+    private final double logConstant;
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    /**
+     * @param bayesNet the network to compile, whose latent and observed vertices must be discrete
+     * @return the compiled network
+     * @throws IllegalArgumentException if a probabilistic vertex is not a scalar Bernoulli or a categorical vertex
+     */
+    public static JunctionTree compile(BayesianNetwork bayesNet) {
+        List<Vertex<?>> vertices = new ArrayList<>();
+        for (Vertex<?> vertex : bayesNet.getLatentAndObservedVertices()) {
+            vertices.add(vertex);
+        }
+        return compile(vertices);
+    }
+
+    /**
+     * @param vertices the vertices that will be queried or given as evidence, which are compiled with every vertex
+     *                 they depend on
+     * @return the compiled network
+     * @throws IllegalArgumentException if a probabilistic vertex is not a scalar Bernoulli or a categorical vertex
+     */
+    public static JunctionTree compile(Collection<? extends Vertex<?>> vertices) {
+        return new JunctionTree(new DiscreteNetwork(vertices, false), vertices);
+    }
+
+    private JunctionTree(DiscreteNetwork network, Collection<? extends Vertex<?>> vertices) {
+        int variableCount = network.getVariableCount();
+        for (int variable = 0; variable < variableCount; variable++) {
+            Vertex<?> vertex = network.getVertex(variable);
+            variableIndices.put(vertex, variable);
+            domains.add(network.getDomain(vertex));
+        }
+        for (Vertex<?> vertex : vertices) {
+            if (!variableIndices.containsKey(vertex)) {
+                fixedValues.put(vertex, network.getDomain(vertex).get(0));
+            }
+        }
+
+        List<Integer> order = VariableElimination.getMinFillOrder(network.getFactors(), variableCount, -1);
+        int[] positions = new int[variableCount];
+        for (int i = 0; i < order.size(); i++) {
+            positions[order.get(i)] = i;
+        }
+
+        int[][] cliqueVariables = getCliqueVariables(network.getFactors(), order, positions);
+        List<List<Factor>> assigned = new ArrayList<>();
+        for (int i = 0; i < cliqueVariables.length; i++) {
+            assigned.add(new ArrayList<>());
+        }
+        double constant = 0.0;
+        for (Factor factor : network.getFactors()) {
+            if (factor.getVariables().length == 0) {
+                constant += Math.log(factor.getValues()[0]);
+            } else {
+                assigned.get(getFirstEliminated(factor.getVariables(), positions)).add(factor);
+            }
+        }
+        logConstant = constant;
+
+        cliques = new Clique[cliqueVariables.length];
+        owners = new int[variableCount];
+        for (int i = 0; i < cliques.length; i++) {
+            int[] variables = cliqueVariables[i];
+            int[] cardinalities = getCardinalities(variables);
+            Factor potential = new Factor(variables, cardinalities, ones(Factor.getLength(cardinalities)));
+            for (Factor factor : assigned.get(i)) {
+                potential = potential.times(factor);
+            }
+
+            int[] separator = remove(variables, order.get(i));
+            int parent = separator.length == 0 ? -1 : getFirstEliminated(separator, positions);
+            cliques[i] = parent == -1
+                ? new Clique(potential)
+                : new Clique(potential, separator, parent, cliqueVariables[parent], getCardinalities(cliqueVariables[parent]));
+            owners[order.get(i)] = i;
+        }
+    }
+
+    /**
+     * @param evidence the value of each vertex that is known, which need not be observed in the network
+     * @return the distributions of every compiled vertex given the evidence
+     * @throws IllegalArgumentException if a vertex in the evidence was not compiled
+     */
+    public Posterior query(Map<? extends Vertex<?>, ?> evidence) {
+        Workspace workspace = workspaces.get();
+        double[][] beliefs = workspace.beliefs;
+        for (int i = 0; i < cliques.length; i++) {
+            System.arraycopy(cliques[i].potential, 0, beliefs[i], 0, beliefs[i].length);
+        }
+
+        boolean possible = true;
+        for (Map.Entry<? extends Vertex<?>, ?> entry : evidence.entrySet()) {
+            possible &= applyEvidence(entry.getKey(), entry.getValue(), beliefs);
+        }
+
+        double logProb = possible ? collect(workspace) : Double.NEGATIVE_INFINITY;
+        if (logProb == Double.NEGATIVE_INFINITY) {
+            return new Posterior(null, logProb);
+        }
+        distribute(workspace);
+
+        double[][] marginals = new double[owners.length][];
+        for (int variable = 0; variable < owners.length; variable++) {
+            Clique owner = cliques[owners[variable]];
+            marginals[variable] = owner.getMarginal(variable, beliefs[owners[variable]]);
+        }
+        return new Posterior(marginals, logProb);
+    }
+
+    /**
+     * @return the probability of each value of the vertex given the evidence, for every value it can take
+     * @throws IllegalStateException if the evidence is impossible
+     */
+    public <T> Map<T, Double> getPosteriorDistribution(Vertex<T> vertex, Map<? extends Vertex<?>, ?> evidence) {
+        return query(evidence).getDistribution(vertex);
+    }
+
+    /**
+     * @return the probability that the scalar boolean vertex is true given the evidence
+     * @throws IllegalStateException if the evidence is impossible
+     */
+    public double getPosteriorProbability(Vertex<BooleanTensor> vertex, Map<? extends Vertex<?>, ?> evidence) {
+        return query(evidence).getProbability(vertex);
+    }
+
+    /**
+     * The distributions of the compiled vertices given some evidence.
+     */
+    public class Posterior {
+
+        private final double[][] marginals;
+        private final double logProbOfEvidence;
+
+        private Posterior(double[][] marginals, double logProbOfEvidence) {
+            this.marginals = marginals;
+            this.logProbOfEvidence = logProbOfEvidence;
+        }
+
+        /**
+         * @return the natural log of the probability of the evidence
+         */
+        public double getLogProbOfEvidence() {
+            return logProbOfEvidence;
+        }
+
+        /**
+         * @return the probability of each value of the vertex given the evidence, for every value it can take
+         * @throws IllegalStateException    if the evidence is impossible
+         * @throws IllegalArgumentException if the vertex was not compiled
+         */
+        public <T> Map<T, Double> getDistribution(Vertex<T> vertex) {
+            if (marginals == null) {
+                throw new IllegalStateException("Cannot condition on evidence that is impossible");
+            }
+
+            Map<T, Double> distribution = new LinkedHashMap<>();
+            Integer variable = variableIndices.get(vertex);
+            if (variable == null) {
+                distribution.put((T) getFixedValue(vertex), 1.0);
+                return distribution;
+            }
+
+            List<Object> domain = domains.get(variable);
+            for (int i = 0; i < domain.size(); i++) {
+                distribution.put((T) domain.get(i), marginals[variable][i]);
+            }
+            return distribution;
+        }
+
+        /**
+         * @return the probability that the scalar boolean vertex is true given the evidence
+         * @throws IllegalStateException    if the evidence is impossible
+         * @throws IllegalArgumentException if the vertex was not compiled
+         */
+        public double getProbability(Vertex<BooleanTensor> vertex) {
+            return getDistribution(vertex).getOrDefault(BooleanTensor.create(true, vertex.getShape()), 0.0);
+        }
+    }
+
+    /**
+     * @return false if the evidence is impossible
+     */
+    private boolean applyEvidence(Vertex<?> vertex, Object value, double[][] beliefs) {
+        Integer variable = variableIndices.get(vertex);
+        if (variable == null) {
+            return getFixedValue(vertex).equals(value);
+        }
+
+        int valueIndex = domains.get(variable).indexOf(value);
+        if (valueIndex == -1) {
+            return false;
+        }
+        cliques[owners[variable]].keepOnly(variable, valueIndex, beliefs[owners[variable]]);
+        return true;
+    }
+
+    private int[] getCardinalities(int[] variables) {
+        int[] cardinalities = new int[variables.length];
+        for (int d = 0; d < variables.length; d++) {
+            cardinalities[d] = domains.get(variables[d]).size();
+        }
+        return cardinalities;
+    }
+
+    private Object getFixedValue(Vertex<?> vertex) {
+        if (!fixedValues.containsKey(vertex)) {
+            throw new IllegalArgumentException("Vertex " + vertex.getId() + " was not compiled into the junction tree");
+        }
+        return fixedValues.get(vertex);
+    }
+
+    /**
+     * Passes messages from the leaves to the roots. Each clique comes before its parent, so has received the
+     * messages of all of its children by the time it sends its own.
+     *
+     * @return the log probability of the evidence
+     */
+    private double collect(Workspace workspace) {
+        double logProb = logConstant;
+        for (int i = 0; i < cliques.length; i++) {
+            Clique clique = cliques[i];
+            double[] belief = workspace.beliefs[i];
+            if (clique.parent == -1) {
+                logProb += Math.log(sum(belief));
+                continue;
+            }
+
+            double[] message = workspace.messages[i];
+            clique.project(belief, clique.toSeparator, message);
+            double max = max(message);
+            if (max == 0.0) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            for (int s = 0; s < message.length; s++) {
+                message[s] /= max;
+            }
+            logProb += Math.log(max);
+
+            double[] parentBelief = workspace.beliefs[clique.parent];
+            for (int j = 0; j < parentBelief.length; j++) {
+                parentBelief[j] *= message[clique.parentToSeparator[j]];
+            }
+        }
+        return logProb;
+    }
+
+    /**
+     * Passes messages from the roots to the leaves, dividing out each message that a clique sent up so that it is
+     * not counted twice. Afterwards each clique holds the joint distribution of its variables, up to a constant.
+     */
+    private void distribute(Workspace workspace) {
+        for (int i = cliques.length - 1; i >= 0; i--) {
+            Clique clique = cliques[i];
+            double[] belief = workspace.beliefs[i];
+            if (clique.parent != -1) {
+                double[] message = workspace.messages[i];
+                double[] fromParent = workspace.separator;
+                Arrays.fill(fromParent, 0, message.length, 0.0);
+                double[] parentBelief = workspace.beliefs[clique.parent];
+                for (int j = 0; j < parentBelief.length; j++) {
+                    fromParent[clique.parentToSeparator[j]] += parentBelief[j];
+                }
+                for (int s = 0; s < message.length; s++) {
+                    message[s] = message[s] == 0.0 ? 0.0 : fromParent[s] / message[s];
+                }
+                for (int j = 0; j < belief.length; j++) {
+                    belief[j] *= message[clique.toSeparator[j]];
+                }
+            }
+
+            double max = max(belief);
+            if (max > 0.0) {
+                for (int j = 0; j < belief.length; j++) {
+                    belief[j] /= max;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the variables of the clique of each variable in the elimination order, which are the variable and
+     * its neighbours once every variable before it has been eliminated
+     */
+    private static int[][] getCliqueVariables(List<Factor> factors, List<Integer> order, int[] positions) {
+        List<Set<Integer>> neighbours = new ArrayList<>();
+        for (int variable = 0; variable < order.size(); variable++) {
+            neighbours.add(new HashSet<>());
+        }
+        for (Factor factor : factors) {
+            for (int a : factor.getVariables()) {
+                for (int b : factor.getVariables()) {
+                    if (a != b) {
+                        neighbours.get(a).add(b);
+                    }
+                }
+            }
+        }
+
+        int[][] cliqueVariables = new int[order.size()][];
+        for (int i = 0; i < order.size(); i++) {
+            int variable = order.get(i);
+            List<Integer> remaining = new ArrayList<>();
+            for (int neighbour : neighbours.get(variable)) {
+                if (positions[neighbour] > i) {
+                    remaining.add(neighbour);
+                }
+            }
+            for (int a : remaining) {
+                neighbours.get(a).addAll(remaining);
+                neighbours.get(a).remove(a);
+            }
+
+            int[] clique = new int[remaining.size() + 1];
+            for (int d = 0; d < remaining.size(); d++) {
+                clique[d] = remaining.get(d);
+            }
+            clique[remaining.size()] = variable;
+            Arrays.sort(clique);
+            cliqueVariables[i] = clique;
+        }
+        return cliqueVariables;
+    }
+
+    private static int getFirstEliminated(int[] variables, int[] positions) {
+        int first = Integer.MAX_VALUE;
+        for (int variable : variables) {
+            first = Math.min(first, positions[variable]);
+        }
+        return first;
+    }
+
+    private static int[] remove(int[] sorted, int value) {
+        int position = Arrays.binarySearch(sorted, value);
+        int[] removed = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, removed, 0, position);
+        System.arraycopy(sorted, position + 1, removed, position, removed.length - position);
+        return removed;
+    }
+
+    private static double[] ones(int length) {
+        double[] ones = new double[length];
+        Arrays.fill(ones, 1.0);
+        return ones;
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0.0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static double max(double[] values) {
+        double max = 0.0;
+        for (double value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private static final class Clique {
+
+        private final int[] variables;
+        private final int[] cardinalities;
+        private final int[] strides;
+        private final double[] potential;
+        private final int parent;
+        private final int separatorLength;
+
+        /**
+         * The index in the separator's table of each entry of this clique's table.
+         */
+        private final int[] toSeparator;
+
+        /**
+         * The index in the separator's table of each entry of the parent's table.
+         */
+        private final int[] parentToSeparator;
+
+        /**
+         * A root of the tree.
+         */
+        Clique(Factor potential) {
+            this(potential, -1, 0, null, null);
+        }
+
+        Clique(Factor potential, int[] separator, int parent, int[] parentVariables, int[] parentCardinalities) {
+            this(
+                potential,
+                parent,
+                getLength(potential, separator),
+                getProjection(potential.getVariables(), potential.getCardinalities(), separator),
+                getProjection(parentVariables, parentCardinalities, separator)
+            );
+        }
+
+        private Clique(Factor potential, int parent, int separatorLength, int[] toSeparator, int[] parentToSeparator) {
+            this.variables = potential.getVariables();
+            this.cardinalities = potential.getCardinalities();
+            this.potential = potential.getValues();
+            this.parent = parent;
+            this.separatorLength = separatorLength;
+            this.toSeparator = toSeparator;
+            this.parentToSeparator = parentToSeparator;
+
+            strides = new int[variables.length];
+            int stride = 1;
+            for (int d = variables.length - 1; d >= 0; d--) {
+                strides[d] = stride;
+                stride *= cardinalities[d];
+            }
+        }
+
+        void project(double[] belief, int[] projection, double[] result) {
+            Arrays.fill(result, 0.0);
+            for (int j = 0; j < belief.length; j++) {
+                result[projection[j]] += belief[j];
+            }
+        }
+
+        void keepOnly(int variable, int valueIndex, double[] belief) {
+            int d = Arrays.binarySearch(variables, variable);
+            for (int j = 0; j < belief.length; j++) {
+                if ((j / strides[d]) % cardinalities[d] != valueIndex) {
+                    belief[j] = 0.0;
+                }
+            }
+        }
+
+        double[] getMarginal(int variable, double[] belief) {
+            int d = Arrays.binarySearch(variables, variable);
+            double[] marginal = new double[cardinalities[d]];
+            for (int j = 0; j < belief.length; j++) {
+                marginal[(j / strides[d]) % cardinalities[d]] += belief[j];
+            }
+            double total = sum(marginal);
+            for (int v = 0; v < marginal.length; v++) {
+                marginal[v] /= total;
+            }
+            return marginal;
+        }
+
+        private static int getLength(Factor potential, int[] separator) {
+            int length = 1;
+            for (int d = 0; d < potential.getVariables().length; d++) {
+                if (Arrays.binarySearch(separator, potential.getVariables()[d]) >= 0) {
+                    length *= potential.getCardinalities()[d];
+                }
+            }
+            return length;
+        }
+
+        /**
+         * @return the index in the table of the subset of the variables of each entry in their table
+         */
+        private static int[] getProjection(int[] variables, int[] cardinalities, int[] subset) {
+            int[] subsetStrides = new int[variables.length];
+            int stride = 1;
+            for (int d = variables.length - 1; d >= 0; d--) {
+                if (Arrays.binarySearch(subset, variables[d]) >= 0) {
+                    subsetStrides[d] = stride;
+                    stride *= cardinalities[d];
+                }
+            }
+
+            int[] projection = new int[Factor.getLength(cardinalities)];
+            int[] assignment = new int[variables.length];
+            int index = 0;
+            for (int j = 0; j < projection.length; j++) {
+                projection[j] = index;
+                for (int d = variables.length - 1; d >= 0; d--) {
+                    assignment[d]++;
+                    index += subsetStrides[d];
+                    if (assignment[d] < cardinalities[d]) {
+                        break;
+                    }
+                    index -= subsetStrides[d] * cardinalities[d];
+                    assignment[d] = 0;
+                }
+            }
+            return projection;
+        }
+    }
+
+    /**
+     * The buffers of the queries of one thread.
+     */
+    private class Workspace {
+
+        private final double[][] beliefs = new double[cliques.length][];
+        private final double[][] messages = new double[cliques.length][];
+        private final double[] separator;
+
+        Workspace() {
+            int maxSeparatorLength = 0;
+            for (int i = 0; i < cliques.length; i++) {
+                beliefs[i] = new double[cliques[i].potential.length];
+                messages[i] = new double[cliques[i].separatorLength];
+                maxSeparatorLength = Math.max(maxSeparatorLength, cliques[i].separatorLength);
+            }
+            separator = new double[maxSeparatorLength];
+        }
+    }
+}
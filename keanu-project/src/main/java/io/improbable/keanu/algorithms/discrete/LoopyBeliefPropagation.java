@@ -0,0 +1,274 @@
+package io.improbable.keanu.algorithms.discrete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.vertices.Vertex;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Approximate inference on discrete networks by loopy belief propagation. Messages are passed between the factors
+ * of the network and their variables until they stop changing. On networks without loops the marginals are exact;
+ * on networks with loops they are usually close, and are found much faster than exact inference or sampling
+ * allows on large densely connected networks.
+ * <p>
+ * Every message is updated at once in each round from the messages of the round before, so each round is spread
+ * over the available cores. The messages from factors are damped, mixing each new message with the old one, which
+ * stops them oscillating on networks with tight loops.
+ * <p>
+ * Vertices are supported as by {@link VariableElimination}.
+ */
+@Builder
+public class LoopyBeliefPropagation {
+
+    private static final double DEFAULT_DAMPING = 0.5;
+    private static final double DEFAULT_TOLERANCE = 1e-6;
+    private static final int DEFAULT_MAX_ITERATIONS = 1000;
+
+    public static LoopyBeliefPropagation withDefaultConfig() {
+        return LoopyBeliefPropagation.builder().build();
+    }
+
+    //the fraction of each old message from a factor that is kept in the new one, from 0 for no damping up to 1
+    @Getter
+    @Setter
+    @Builder.Default
+    private double damping = DEFAULT_DAMPING;
+
+    //the largest change in any message in a round for the messages to have converged
+    @Getter
+    @Setter
+    @Builder.Default
+    private double tolerance = DEFAULT_TOLERANCE;
+
+    @Getter
+    @Setter
+    @Builder.Default
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+
+    @Getter
+    @Setter
+    @Builder.Default
+    private boolean parallel = true;
+
+    /**
+     * @param bayesNet a network of discrete vertices, whose observations are conditioned on
+     * @return the marginal distribution of each latent and observed vertex of the network, and of every vertex
+     * they depend on
+     * @throws IllegalArgumentException if a latent probabilistic vertex is not a scalar Bernoulli or a categorical
+     *                                  vertex
+     * @throws IllegalStateException    if the observations are impossible
+     */
+    public DiscreteMarginals getMarginals(BayesianNetwork bayesNet) {
+        if (damping < 0.0 || damping >= 1.0) {
+            throw new IllegalArgumentException("Damping must be at least 0 and less than 1 but was " + damping);
+        }
+
+        List<Vertex<?>> vertices = new ArrayList<>();
+        for (Vertex<?> vertex : bayesNet.getLatentAndObservedVertices()) {
+            vertices.add(vertex);
+        }
+        DiscreteNetwork network = new DiscreteNetwork(vertices);
+        FactorGraph graph = new FactorGraph(network);
+
+        int iterations = 0;
+        boolean converged = false;
+        while (!converged && iterations < maxIterations) {
+            double change = stream(graph.factors.length)
+                .mapToDouble(graph::updateFactorMessages)
+                .max()
+                .orElse(0.0);
+            stream(graph.variableEdges.length)
+                .forEach(graph::updateVariableMessages);
+
+            iterations++;
+            converged = change < tolerance;
+        }
+
+        Map<Vertex<?>, DiscreteMarginal<?>> marginals = new HashMap<>();
+        for (int variable = 0; variable < network.getVariableCount(); variable++) {
+            Vertex<?> vertex = network.getVertex(variable);
+            List<Object> domain = network.getDomain(vertex);
+            double[] belief = graph.getBelief(variable);
+            Map<Object, Double> probabilities = new LinkedHashMap<>();
+            for (int i = 0; i < domain.size(); i++) {
+                probabilities.put(domain.get(i), belief[i]);
+            }
+            marginals.put(vertex, new DiscreteMarginal<>(probabilities));
+        }
+        for (Vertex<?> vertex : vertices) {
+            if (network.getVariable(vertex) == -1) {
+                Map<Object, Double> probabilities = new LinkedHashMap<>();
+                probabilities.put(network.getDomain(vertex).get(0), 1.0);
+                marginals.put(vertex, new DiscreteMarginal<>(probabilities));
+            }
+        }
+
+        return new DiscreteMarginals(marginals, iterations, converged);
+    }
+
+    private IntStream stream(int count) {
+        IntStream range = IntStream.range(0, count);
+        return parallel ? range.parallel() : range;
+    }
+
+    /**
+     * The factors and variables of a network and the messages on the edges between them. Each edge joins a factor
+     * to one of the variables in its scope, and has a message in each direction.
+     */
+    private class FactorGraph {
+
+        private final Factor[] factors;
+        private final int[][] factorEdges;
+        private final int[][] variableEdges;
+        private final double[][] toVariable;
+        private final double[][] toFactor;
+        private final double[][] nextToVariable;
+
+        FactorGraph(DiscreteNetwork network) {
+            factors = network.getFactors().toArray(new Factor[0]);
+            factorEdges = new int[factors.length][];
+
+            List<List<Integer>> edgesOfVariables = new ArrayList<>();
+            for (int variable = 0; variable < network.getVariableCount(); variable++) {
+                edgesOfVariables.add(new ArrayList<>());
+            }
+
+            List<double[]> uniform = new ArrayList<>();
+            for (int f = 0; f < factors.length; f++) {
+                int[] scope = factors[f].getVariables();
+                if (scope.length == 0 && factors[f].getValues()[0] == 0.0) {
+                    throw new IllegalStateException("Cannot condition on observations that are impossible");
+                }
+                factorEdges[f] = new int[scope.length];
+                for (int position = 0; position < scope.length; position++) {
+                    int edge = uniform.size();
+                    factorEdges[f][position] = edge;
+                    edgesOfVariables.get(scope[position]).add(edge);
+
+                    double[] message = new double[factors[f].getCardinalities()[position]];
+                    Arrays.fill(message, 1.0 / message.length);
+                    uniform.add(message);
+                }
+            }
+
+            variableEdges = new int[edgesOfVariables.size()][];
+            for (int variable = 0; variable < variableEdges.length; variable++) {
+                variableEdges[variable] = edgesOfVariables.get(variable).stream().mapToInt(Integer::intValue).toArray();
+            }
+
+            toVariable = copy(uniform);
+            toFactor = copy(uniform);
+            nextToVariable = copy(uniform);
+        }
+
+        /**
+         * Sends a damped message from the factor to each variable in its scope, which sums the factor over every
+         * other variable weighted by their messages to the factor.
+         *
+         * @return the largest change in any of the messages
+         */
+        double updateFactorMessages(int f) {
+            Factor factor = factors[f];
+            int[] cardinalities = factor.getCardinalities();
+            double[] values = factor.getValues();
+            int[] edges = factorEdges[f];
+            int[] assignment = new int[cardinalities.length];
+
+            for (int edge : edges) {
+                Arrays.fill(nextToVariable[edge], 0.0);
+            }
+            for (int j = 0; j < values.length; j++) {
+                if (values[j] != 0.0) {
+                    for (int target = 0; target < edges.length; target++) {
+                        double weight = values[j];
+                        for (int other = 0; other < edges.length; other++) {
+                            if (other != target) {
+                                weight *= toFactor[edges[other]][assignment[other]];
+                            }
+                        }
+                        nextToVariable[edges[target]][assignment[target]] += weight;
+                    }
+                }
+                for (int d = assignment.length - 1; d >= 0 && ++assignment[d] == cardinalities[d]; d--) {
+                    assignment[d] = 0;
+                }
+            }
+
+            double change = 0.0;
+            for (int edge : edges) {
+                double[] next = nextToVariable[edge];
+                double[] current = toVariable[edge];
+                normalise(next);
+                for (int i = 0; i < next.length; i++) {
+                    double damped = (1.0 - damping) * next[i] + damping * current[i];
+                    change = Math.max(change, Math.abs(damped - current[i]));
+                    current[i] = damped;
+                }
+            }
+            return change;
+        }
+
+        /**
+         * Sends a message from the variable to each factor it is in, which is the product of the messages from
+         * every other factor.
+         */
+        void updateVariableMessages(int variable) {
+            for (int edge : variableEdges[variable]) {
+                double[] message = toFactor[edge];
+                Arrays.fill(message, 1.0);
+                for (int other : variableEdges[variable]) {
+                    if (other != edge) {
+                        multiply(message, toVariable[other]);
+                    }
+                }
+                normalise(message);
+            }
+        }
+
+        double[] getBelief(int variable) {
+            double[] belief = new double[toVariable[variableEdges[variable][0]].length];
+            Arrays.fill(belief, 1.0);
+            for (int edge : variableEdges[variable]) {
+                multiply(belief, toVariable[edge]);
+            }
+            normalise(belief);
+            return belief;
+        }
+    }
+
+    private static void multiply(double[] message, double[] by) {
+        for (int i = 0; i < message.length; i++) {
+            message[i] *= by[i];
+        }
+    }
+
+    private static void normalise(double[] message) {
+        double total = 0.0;
+        for (double value : message) {
+            total += value;
+        }
+        if (total == 0.0) {
+            throw new IllegalStateException("Cannot condition on observations that are impossible");
+        }
+        for (int i = 0; i < message.length; i++) {
+            message[i] /= total;
+        }
+    }
+
+    private static double[][] copy(List<double[]> messages) {
+        double[][] copy = new double[messages.size()][];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = messages.get(i).clone();
+        }
+        return copy;
+    }
+}
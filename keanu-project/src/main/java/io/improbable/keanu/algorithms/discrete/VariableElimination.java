@@ -0,0 +1,194 @@
+package io.improbable.keanu.algorithms.discrete;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.vertices.Vertex;
+
+/**
+ * Exact inference on networks of discrete vertices by variable elimination. Every vertex that is not queried is
+ * summed out of the product of the factors of the network, one at a time in a min-fill order: the next vertex
+ * is the one whose elimination connects the fewest vertices that were not already connected, which keeps the
+ * intermediate factors small.
+ * <p>
+ * The latent probabilistic vertices must be scalar {@link io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex}
+ * or {@link io.improbable.keanu.vertices.generic.probabilistic.discrete.CategoricalVertex} vertices. Any
+ * non-probabilistic vertices may be calculated from them, such as boolean operators and CPTs. The query of a
+ * combination of vertices, such as the probability that both a and b are true, can be answered by querying
+ * an operator vertex over them, such as a.and(b).
+ */
+public class VariableElimination {
+
+    private VariableElimination() {
+    }
+
+    /**
+     * @param bayesNet the network, whose observations are conditioned on
+     * @param vertex   the vertex to find the distribution of, which need not be in the network
+     * @param <T>      the type of the vertex's value
+     * @return the probability of each value of the vertex given the observations, for every value it can take
+     * @throws IllegalStateException if the observations are impossible
+     */
+    public static <T> Map<T, Double> getPosteriorDistribution(BayesianNetwork bayesNet, Vertex<T> vertex) {
+        List<Vertex<?>> toBuild = new ArrayList<>(getObservedVertices(bayesNet));
+        toBuild.add(vertex);
+        DiscreteNetwork network = new DiscreteNetwork(toBuild);
+
+        int variable = network.getVariable(vertex);
+        Factor marginal = eliminateAllBut(network, variable).getFactor();
+        double total = marginal.sum();
+        if (total == 0.0) {
+            throw new IllegalStateException("Cannot condition on observations that are impossible");
+        }
+
+        List<Object> domain = network.getDomain(vertex);
+        double[] values = marginal.getValues();
+        Map<T, Double> distribution = new LinkedHashMap<>();
+        for (int i = 0; i < domain.size(); i++) {
+            distribution.put((T) domain.get(i), variable == -1 ? 1.0 : values[i] / total);
+        }
+        return distribution;
+    }
+
+    /**
+     * @param bayesNet the network, whose observations are conditioned on
+     * @param vertex   a scalar boolean vertex, which need not be in the network
+     * @return the probability that the vertex is true given the observations
+     * @throws IllegalStateException if the observations are impossible
+     */
+    public static double getPosteriorProbability(BayesianNetwork bayesNet, Vertex<BooleanTensor> vertex) {
+        Map<BooleanTensor, Double> distribution = getPosteriorDistribution(bayesNet, vertex);
+        return distribution.getOrDefault(BooleanTensor.create(true, vertex.getShape()), 0.0);
+    }
+
+    /**
+     * @param bayesNet the network
+     * @return the natural log of the probability of the network's observations, with every latent vertex
+     * summed out. Continuous observations contribute their density.
+     */
+    public static double getLogProbOfObservations(BayesianNetwork bayesNet) {
+        DiscreteNetwork network = new DiscreteNetwork(getObservedVertices(bayesNet));
+        Elimination elimination = eliminateAllBut(network, -1);
+        return Math.log(elimination.getFactor().sum()) + elimination.getLogScale();
+    }
+
+    private static List<Vertex<?>> getObservedVertices(BayesianNetwork bayesNet) {
+        List<Vertex<?>> observed = new ArrayList<>();
+        for (Vertex<?> vertex : bayesNet.getObservedVertices()) {
+            observed.add(vertex);
+        }
+        return observed;
+    }
+
+    /**
+     * @param keep the variable to keep, or -1 to eliminate every variable
+     */
+    private static Elimination eliminateAllBut(DiscreteNetwork network, int keep) {
+        List<Factor> factors = new ArrayList<>(network.getFactors());
+        double logScale = 0.0;
+
+        for (int variable : getMinFillOrder(factors, network.getVariableCount(), keep)) {
+            List<Factor> involved = new ArrayList<>();
+            List<Factor> remaining = new ArrayList<>();
+            for (Factor factor : factors) {
+                (factor.contains(variable) ? involved : remaining).add(factor);
+            }
+
+            Factor summed = Factor.product(involved).sumOut(variable);
+            logScale += summed.rescale();
+            remaining.add(summed);
+            factors = remaining;
+        }
+
+        return new Elimination(Factor.product(factors), logScale);
+    }
+
+    /**
+     * @return the variables other than keep, in the order that adds the fewest edges to the graph that links the
+     * variables of each factor, with ties broken by the fewest neighbours
+     */
+    static List<Integer> getMinFillOrder(List<Factor> factors, int variableCount, int keep) {
+        Map<Integer, Set<Integer>> neighbours = new HashMap<>();
+        for (int variable = 0; variable < variableCount; variable++) {
+            neighbours.put(variable, new HashSet<>());
+        }
+        for (Factor factor : factors) {
+            for (int a : factor.getVariables()) {
+                for (int b : factor.getVariables()) {
+                    if (a != b) {
+                        neighbours.get(a).add(b);
+                    }
+                }
+            }
+        }
+
+        Set<Integer> toEliminate = new HashSet<>(neighbours.keySet());
+        toEliminate.remove(keep);
+
+        List<Integer> order = new ArrayList<>();
+        while (!toEliminate.isEmpty()) {
+            int best = -1;
+            int bestFill = Integer.MAX_VALUE;
+            int bestDegree = Integer.MAX_VALUE;
+            for (int variable : toEliminate) {
+                Set<Integer> adjacent = neighbours.get(variable);
+                int fill = getFill(adjacent, neighbours);
+                if (fill < bestFill || (fill == bestFill && adjacent.size() < bestDegree)
+                    || (fill == bestFill && adjacent.size() == bestDegree && variable < best)) {
+                    best = variable;
+                    bestFill = fill;
+                    bestDegree = adjacent.size();
+                }
+            }
+
+            Set<Integer> adjacent = neighbours.remove(best);
+            for (int a : adjacent) {
+                Set<Integer> aNeighbours = neighbours.get(a);
+                aNeighbours.remove(best);
+                aNeighbours.addAll(adjacent);
+                aNeighbours.remove(a);
+            }
+            toEliminate.remove(best);
+            order.add(best);
+        }
+        return order;
+    }
+
+    private static int getFill(Set<Integer> adjacent, Map<Integer, Set<Integer>> neighbours) {
+        int fill = 0;
+        for (int a : adjacent) {
+            for (int b : adjacent) {
+                if (a < b && !neighbours.get(a).contains(b)) {
+                    fill++;
+                }
+            }
+        }
+        return fill;
+    }
+
+    private static class Elimination {
+
+        private final Factor factor;
+        private final double logScale;
+
+        Elimination(Factor factor, double logScale) {
+            this.factor = factor;
+            this.logScale = logScale;
+        }
+
+        Factor getFactor() {
+            return factor;
+        }
+
+        double getLogScale() {
+            return logScale;
+        }
+    }
+}
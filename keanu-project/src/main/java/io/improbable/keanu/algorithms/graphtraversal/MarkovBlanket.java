@@ -15,6 +15,8 @@ public class MarkovBlanket {
     /**
      * This algorithm finds all of the vertices that shield it from the rest of the Bayesian Network.
      * By knowing the Markov Blanket of a vertex, we can fully predict the behaviour of that vertex.
+     * To find the blankets of many vertices, {@link io.improbable.keanu.network.LambdaSectionIndex} shares the
+     * traversals between them.
      *
      * @param aVertex the vertex to find the Markov Blanket for
      * @return A set of vertices that are affected by, or affect, a given vertex
@@ -1,12 +1,14 @@
 package io.improbable.keanu.algorithms.graphtraversal;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashSet;
+import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Set;
 
@@ -23,28 +25,35 @@ public class VertexValuePropagation {
     private VertexValuePropagation() {
     }
 
-    public static void cascadeUpdate(Vertex... cascadeFrom) {
-        cascadeUpdate(Arrays.asList(cascadeFrom));
+    public static int cascadeUpdate(Vertex... cascadeFrom) {
+        return cascadeUpdate(Arrays.asList(cascadeFrom));
     }
 
-    public static void cascadeUpdate(Vertex vertex) {
-        cascadeUpdate(Collections.singletonList(vertex));
+    public static int cascadeUpdate(Vertex vertex) {
+        return cascadeUpdate(Collections.singletonList(vertex));
     }
 
     /**
+     * Vertices that are only read by the branches of if vertices that their predicates do not select are marked
+     * stale rather than calculated, and are calculated if they are ever read.
+     *
      * @param cascadeFrom A collection that contains the vertices that have been updated.
+     * @return the number of vertices whose values were updated, including those cascaded from
      */
-    public static void cascadeUpdate(Collection<? extends Vertex> cascadeFrom) {
+    public static int cascadeUpdate(Collection<? extends Vertex> cascadeFrom) {
 
         PriorityQueue<Vertex> priorityQueue = new PriorityQueue<>(Comparator.comparingLong(Vertex::getId));
         priorityQueue.addAll(cascadeFrom);
 
         HashSet<Vertex> alreadyQueued = new HashSet<>(cascadeFrom);
+        List<Vertex> toUpdate = new ArrayList<>();
+        boolean anySelectParents = false;
 
         while (!priorityQueue.isEmpty()) {
             Vertex<?> visiting = priorityQueue.poll();
 
-            updateVertexValue(visiting);
+            toUpdate.add(visiting);
+            anySelectParents |= selectsParents(visiting);
 
             for (Vertex<?> child : visiting.getChildren()) {
 
@@ -54,6 +63,52 @@ public class VertexValuePropagation {
                 }
             }
         }
+
+        Set<Vertex> toMarkStale = anySelectParents ? onlyReadIfSelected(toUpdate, cascadeFrom) : Collections.emptySet();
+        for (Vertex<?> vertex : toUpdate) {
+            if (toMarkStale.contains(vertex)) {
+                vertex.markStale();
+            } else {
+                updateVertexValue(vertex);
+            }
+        }
+
+        return alreadyQueued.size() - toMarkStale.size();
+    }
+
+    private static boolean selectsParents(Vertex<?> vertex) {
+        return !vertex.isProbabilistic() && getCalculationParents(vertex).size() < vertex.getParents().size();
+    }
+
+    /**
+     * Whether a vertex is read depends on the values of the predicates that select it, which may be about to
+     * change, so this is only a guess. A vertex that is marked stale but turns out to be read is calculated then.
+     *
+     * @param toUpdate    the vertices to update, in topological order
+     * @param cascadeFrom the vertices that have been updated
+     * @return the vertices that are not read by any probabilistic vertex or any vertex that will be calculated,
+     * given the current values of the predicates
+     */
+    private static Set<Vertex> onlyReadIfSelected(List<Vertex> toUpdate, Collection<? extends Vertex> cascadeFrom) {
+        Set<Vertex> unread = new HashSet<>();
+        for (int i = toUpdate.size() - 1; i >= 0; i--) {
+            Vertex<?> vertex = toUpdate.get(i);
+            if (vertex.isProbabilistic() || vertex.getChildren().isEmpty() || cascadeFrom.contains(vertex)) {
+                continue;
+            }
+
+            boolean isRead = false;
+            for (Vertex<?> child : vertex.getChildren()) {
+                if (child.isProbabilistic() || (!unread.contains(child) && getCalculationParents(child).contains(vertex))) {
+                    isRead = true;
+                    break;
+                }
+            }
+            if (!isRead) {
+                unread.add(vertex);
+            }
+        }
+        return unread;
     }
 
     public static void eval(Vertex... vertices) {
@@ -107,7 +162,7 @@ public class VertexValuePropagation {
         while (!stack.isEmpty()) {
 
             Vertex<?> head = stack.peek();
-            Set<Vertex<?>> parentsThatAreNotYetCalculated = parentsThatAreNotCalculated(head.getParents());
+            Set<Vertex<?>> parentsThatAreNotYetCalculated = parentsThatAreNotCalculated(getCalculationParents(head));
 
             if (head.isProbabilistic() || parentsThatAreNotYetCalculated.isEmpty()) {
 
@@ -125,7 +180,14 @@ public class VertexValuePropagation {
         }
     }
 
-    private static Set<Vertex<?>> parentsThatAreNotCalculated(Collection<Vertex> parents) {
+    private static Collection<? extends Vertex> getCalculationParents(Vertex<?> vertex) {
+        if (vertex instanceof NonProbabilistic) {
+            return ((NonProbabilistic<?>) vertex).getCalculationParents();
+        }
+        return vertex.getParents();
+    }
+
+    private static Set<Vertex<?>> parentsThatAreNotCalculated(Collection<? extends Vertex> parents) {
         Set<Vertex<?>> notCalculatedParents = new HashSet<>();
         for (Vertex<?> next : parents) {
             if (!next.hasValue()) {
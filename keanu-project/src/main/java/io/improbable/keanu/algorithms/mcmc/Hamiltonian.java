@@ -8,6 +8,7 @@ import java.util.Map;
 import io.improbable.keanu.algorithms.NetworkSamples;
 import io.improbable.keanu.algorithms.PosteriorSamplingAlgorithm;
 import io.improbable.keanu.algorithms.graphtraversal.VertexValuePropagation;
+import io.improbable.keanu.algorithms.metrics.SamplerListener;
 import io.improbable.keanu.network.BayesianNetwork;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.Probabilistic;
@@ -59,6 +60,11 @@ public class Hamiltonian implements PosteriorSamplingAlgorithm {
     //the amount of distance to move each leapfrog
     private double stepSize = DEFAULT_STEP_SIZE;
 
+    //receives the timing, acceptance and leapfrog count of every sample, or null to report nothing
+    @Getter
+    @Setter
+    private SamplerListener listener;
+
     /**
      * Sample from the posterior of a Bayesian Network using the Hamiltonian Monte Carlo algorithm
      *
@@ -96,6 +102,8 @@ public class Hamiltonian implements PosteriorSamplingAlgorithm {
 
         for (int sampleNum = 1; sampleNum < sampleCount; sampleNum++) {
 
+            final long startTime = listener != null ? System.nanoTime() : 0;
+
             cache(position, positionBeforeLeapfrog);
             cache(gradient, gradientBeforeLeapfrog);
 
@@ -124,7 +132,9 @@ public class Hamiltonian implements PosteriorSamplingAlgorithm {
                 momentumBeforeLeapfrog
             );
 
-            if (shouldReject(likelihoodOfLeapfrog, random)) {
+            final boolean rejected = shouldReject(likelihoodOfLeapfrog, random);
+
+            if (rejected) {
 
                 //Revert to position and gradient before leapfrog
                 Map<Long, DoubleTensor> tempSwap = position;
@@ -140,6 +150,12 @@ public class Hamiltonian implements PosteriorSamplingAlgorithm {
                 addSampleFromVertices(samples, fromVertices);
                 logOfMasterPBeforeLeapfrog = logOfMasterPAfterLeapfrog;
             }
+
+            if (listener != null) {
+                listener.onLeapfrogs(leapFrogCount);
+                listener.onProposal(!rejected);
+                listener.onStep(System.nanoTime() - startTime);
+            }
         }
 
         return new NetworkSamples(samples, sampleCount);
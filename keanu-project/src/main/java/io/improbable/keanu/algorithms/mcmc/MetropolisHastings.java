@@ -3,16 +3,21 @@ package io.improbable.keanu.algorithms.mcmc;
 import static io.improbable.keanu.algorithms.mcmc.proposal.MHStepVariableSelector.SINGLE_VARIABLE_SELECTOR;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import io.improbable.keanu.algorithms.NetworkSamples;
 import io.improbable.keanu.algorithms.PosteriorSamplingAlgorithm;
+import io.improbable.keanu.algorithms.metrics.SamplerListener;
 import io.improbable.keanu.algorithms.mcmc.proposal.MHStepVariableSelector;
 import io.improbable.keanu.algorithms.mcmc.proposal.ProposalDistribution;
 import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.LambdaSectionIndex;
 import io.improbable.keanu.network.NetworkState;
 import io.improbable.keanu.network.SimpleNetworkState;
 import io.improbable.keanu.vertices.Vertex;
@@ -61,6 +66,18 @@ public class MetropolisHastings implements PosteriorSamplingAlgorithm {
     @Builder.Default
     private boolean useCacheOnRejection = DEFAULT_USE_CACHE_ON_REJECTION;
 
+    //when true, each step updates every latent of one colour of the latent conflict graph at once on the available
+    //cores, sweeping the colours in turn, instead of the latents chosen by the variable selector
+    @Getter
+    @Setter
+    @Builder.Default
+    private boolean parallelSweeps = false;
+
+    //receives the timing, acceptance and cascade size of every step, or null to report nothing
+    @Getter
+    @Setter
+    private SamplerListener listener;
+
     /**
      * @param bayesianNetwork      a bayesian network containing latent vertices
      * @param verticesToSampleFrom the vertices to include in the returned samples
@@ -86,6 +103,19 @@ public class MetropolisHastings implements PosteriorSamplingAlgorithm {
         checkBayesNetInHealthyState(bayesianNetwork);
 
         List<Vertex> latentVertices = bayesianNetwork.getLatentVertices();
+        double logProbabilityBeforeStep = bayesianNetwork.getLogOfMasterP();
+
+        if (parallelSweeps) {
+            return new ParallelSweepSampler(
+                latentVertices,
+                verticesToSampleFrom,
+                DEFAULT_PROPOSAL_DISTRIBUTION,
+                useCacheOnRejection,
+                random,
+                logProbabilityBeforeStep,
+                listener
+            );
+        }
 
         MetropolisHastingsStep mhStep = new MetropolisHastingsStep(
             latentVertices,
@@ -94,9 +124,7 @@ public class MetropolisHastings implements PosteriorSamplingAlgorithm {
             random
         );
 
-        double logProbabilityBeforeStep = bayesianNetwork.getLogOfMasterP();
-
-        return new Sampler(latentVertices, verticesToSampleFrom, mhStep, variableSelector, logProbabilityBeforeStep);
+        return new Sampler(latentVertices, verticesToSampleFrom, mhStep, variableSelector, logProbabilityBeforeStep, listener);
     }
 
     public static class Sampler implements SamplingAlgorithm {
@@ -105,6 +133,7 @@ public class MetropolisHastings implements PosteriorSamplingAlgorithm {
         private final List<? extends Vertex> verticesToSampleFrom;
         private final MetropolisHastingsStep mhStep;
         private final MHStepVariableSelector variableSelector;
+        private final SamplerListener listener;
 
         private double logProbabilityBeforeStep;
         private int sampleNum;
@@ -114,24 +143,178 @@ public class MetropolisHastings implements PosteriorSamplingAlgorithm {
                        MetropolisHastingsStep mhStep,
                        MHStepVariableSelector variableSelector,
                        double logProbabilityBeforeStep) {
+            this(latentVertices, verticesToSampleFrom, mhStep, variableSelector, logProbabilityBeforeStep, null);
+        }
+
+        public Sampler(List<Vertex> latentVertices,
+                       List<? extends Vertex> verticesToSampleFrom,
+                       MetropolisHastingsStep mhStep,
+                       MHStepVariableSelector variableSelector,
+                       double logProbabilityBeforeStep,
+                       SamplerListener listener) {
             this.latentVertices = latentVertices;
             this.verticesToSampleFrom = verticesToSampleFrom;
             this.mhStep = mhStep;
             this.variableSelector = variableSelector;
             this.logProbabilityBeforeStep = logProbabilityBeforeStep;
+            this.listener = listener;
             this.sampleNum = 0;
         }
 
         @Override
         public void step() {
+            final long startTime = listener != null ? System.nanoTime() : 0;
+
             Set<Vertex> chosenVertices = variableSelector.select(latentVertices, sampleNum);
 
-            logProbabilityBeforeStep = mhStep.step(
+            MetropolisHastingsStep.StepResult result = mhStep.step(
                 chosenVertices,
                 logProbabilityBeforeStep
-            ).getLogProbabilityAfterStep();
+            );
+            logProbabilityBeforeStep = result.getLogProbabilityAfterStep();
+
+            sampleNum++;
+
+            if (listener != null) {
+                listener.onProposal(result.isAccepted());
+                listener.onVerticesCascaded(result.getVerticesCascaded());
+                listener.onStep(System.nanoTime() - startTime);
+            }
+        }
+
+        @Override
+        public void sample(Map<Long, List<?>> samplesByVertex) {
+            step();
+            takeSamples(samplesByVertex, verticesToSampleFrom);
+        }
+
+        @Override
+        public NetworkState sample() {
+            step();
+            return new SimpleNetworkState(takeSample(verticesToSampleFrom));
+        }
+    }
+
+    /**
+     * Updates the latent vertices a colour at a time. Latents of the same colour are not in each other's Markov
+     * blanket and do not cascade to any of the same vertices, so updating them at once gives the same chain as
+     * updating them one after another. The latents of each colour are dealt between a fixed number of randoms, each
+     * used by one step that takes its latents in order, and the available cores only decide which thread runs each
+     * random's latents. The samples therefore depend on neither the number of cores nor how the threads are scheduled.
+     * <p>
+     * The vertices outside the lambda sections of a colour that its steps read are not changed by any of them, but
+     * may be stale, as if vertices skip calculating branches their predicates do not select. They are calculated on
+     * the calling thread before each colour, so that two steps never calculate the same stale vertex at once.
+     */
+    public static class ParallelSweepSampler implements SamplingAlgorithm {
+
+        private static final int RANDOM_STREAMS = 64;
+
+        private final List<? extends Vertex> verticesToSampleFrom;
+        private final List<Colour> colours;
+        private final SamplerListener listener;
+
+        private double logProbabilityBeforeStep;
+        private int sampleNum;
+
+        public ParallelSweepSampler(List<Vertex> latentVertices,
+                                    List<? extends Vertex> verticesToSampleFrom,
+                                    ProposalDistribution proposalDistribution,
+                                    boolean useCacheOnRejection,
+                                    KeanuRandom random,
+                                    double logProbabilityBeforeStep,
+                                    SamplerListener listener) {
+            this(
+                latentVertices,
+                verticesToSampleFrom,
+                proposalDistribution,
+                useCacheOnRejection,
+                random,
+                logProbabilityBeforeStep,
+                listener,
+                Runtime.getRuntime().availableProcessors()
+            );
+        }
+
+        /**
+         * @param threads the most threads to update each colour on, which does not change the samples
+         */
+        ParallelSweepSampler(List<Vertex> latentVertices,
+                             List<? extends Vertex> verticesToSampleFrom,
+                             ProposalDistribution proposalDistribution,
+                             boolean useCacheOnRejection,
+                             KeanuRandom random,
+                             double logProbabilityBeforeStep,
+                             SamplerListener listener,
+                             int threads) {
+            this.verticesToSampleFrom = verticesToSampleFrom;
+            this.logProbabilityBeforeStep = logProbabilityBeforeStep;
+            this.listener = listener;
+            this.sampleNum = 0;
+
+            LambdaSectionIndex affectedVerticesIndex = LambdaSectionIndex.of(latentVertices);
+
+            List<MetropolisHastingsStep> stepsByStream = new ArrayList<>();
+            for (int stream = 0; stream < RANDOM_STREAMS; stream++) {
+                stepsByStream.add(new MetropolisHastingsStep(
+                    affectedVerticesIndex,
+                    proposalDistribution,
+                    useCacheOnRejection,
+                    new KeanuRandom(random.nextLong())
+                ));
+            }
+
+            this.colours = new ArrayList<>();
+            for (List<Vertex> colour : colourByConflicts(latentVertices, affectedVerticesIndex)) {
+                int streamCount = Math.min(colour.size(), RANDOM_STREAMS);
+                int workerCount = Math.min(streamCount, threads);
+
+                //the i-th latent of the colour always uses the same stream, whichever worker the stream is given to
+                List<Worker> workers = new ArrayList<>();
+                for (int w = 0; w < workerCount; w++) {
+                    List<Vertex> workerLatents = new ArrayList<>();
+                    List<MetropolisHastingsStep> workerSteps = new ArrayList<>();
+                    for (int stream = w; stream < streamCount; stream += workerCount) {
+                        for (int i = stream; i < colour.size(); i += streamCount) {
+                            workerLatents.add(colour.get(i));
+                            workerSteps.add(stepsByStream.get(stream));
+                        }
+                    }
+                    workers.add(new Worker(workerLatents, workerSteps));
+                }
+                colours.add(new Colour(workers, getVerticesReadOutsideSections(colour, affectedVerticesIndex)));
+            }
+        }
+
+        @Override
+        public void step() {
+            final long startTime = listener != null ? System.nanoTime() : 0;
+
+            Colour colour = colours.get(sampleNum % colours.size());
+            for (Vertex<?> vertex : colour.verticesReadOutsideSections) {
+                if (!vertex.hasValue()) {
+                    vertex.lazyEval();
+                }
+            }
+
+            List<Worker> workers = colour.workers;
+            workers.parallelStream().forEach(Worker::sweep);
+
+            for (Worker worker : workers) {
+                logProbabilityBeforeStep += worker.logProbabilityDelta;
+            }
 
             sampleNum++;
+
+            if (listener != null) {
+                for (Worker worker : workers) {
+                    for (boolean accepted : worker.accepted) {
+                        listener.onProposal(accepted);
+                    }
+                    listener.onVerticesCascaded(worker.verticesCascaded);
+                }
+                listener.onStep(System.nanoTime() - startTime);
+            }
         }
 
         @Override
@@ -145,6 +328,117 @@ public class MetropolisHastings implements PosteriorSamplingAlgorithm {
             step();
             return new SimpleNetworkState(takeSample(verticesToSampleFrom));
         }
+
+        /**
+         * Colours the latent vertices greedily so that no two latents whose downstream lambda sections share a
+         * vertex have the same colour. That covers every latent in the Markov blanket of another, as they share
+         * either the latent itself or a probabilistic child, and every pair that cascade to the same vertex.
+         *
+         * @return the latent vertices of each colour
+         */
+        static List<List<Vertex>> colourByConflicts(List<Vertex> latentVertices,
+                                                    LambdaSectionIndex affectedVerticesIndex) {
+            Map<Vertex, Set<Integer>> coloursAffecting = new HashMap<>();
+            List<List<Vertex>> colours = new ArrayList<>();
+
+            for (Vertex<?> latent : latentVertices) {
+                List<Vertex> affected = affectedVerticesIndex.getDownstreamVertices(latent);
+
+                Set<Integer> conflictingColours = new HashSet<>();
+                for (Vertex vertex : affected) {
+                    conflictingColours.addAll(coloursAffecting.getOrDefault(vertex, Collections.emptySet()));
+                }
+
+                int colour = 0;
+                while (conflictingColours.contains(colour)) {
+                    colour++;
+                }
+                if (colour == colours.size()) {
+                    colours.add(new ArrayList<>());
+                }
+                colours.get(colour).add(latent);
+
+                for (Vertex vertex : affected) {
+                    coloursAffecting.computeIfAbsent(vertex, v -> new HashSet<>()).add(colour);
+                }
+            }
+
+            return colours;
+        }
+
+        /**
+         * A vertex that a step of the colour reads but that is not in the lambda section of any latent of the
+         * colour is upstream of all of them, so keeps its value while the colour is updated.
+         *
+         * @return the non-probabilistic parents of the vertices in the lambda sections of the latents that are not
+         * in any of those sections
+         */
+        static List<Vertex> getVerticesReadOutsideSections(List<Vertex> colour,
+                                                           LambdaSectionIndex affectedVerticesIndex) {
+            Set<Vertex> inSections = new HashSet<>();
+            for (Vertex<?> latent : colour) {
+                inSections.addAll(affectedVerticesIndex.getDownstreamVertices(latent));
+            }
+
+            Set<Vertex> readOutsideSections = new LinkedHashSet<>();
+            for (Vertex<?> vertex : inSections) {
+                for (Vertex<?> parent : vertex.getParents()) {
+                    if (!parent.isProbabilistic() && !inSections.contains(parent)) {
+                        readOutsideSections.add(parent);
+                    }
+                }
+            }
+            return new ArrayList<>(readOutsideSections);
+        }
+
+        private static class Colour {
+
+            private final List<Worker> workers;
+            private final List<Vertex> verticesReadOutsideSections;
+
+            Colour(List<Worker> workers, List<Vertex> verticesReadOutsideSections) {
+                this.workers = workers;
+                this.verticesReadOutsideSections = verticesReadOutsideSections;
+            }
+        }
+
+        /**
+         * Steps each of its latents in turn, recording the results for the sampler to read once every worker of
+         * the colour has finished.
+         */
+        private static class Worker {
+
+            private final List<Vertex> latentVertices;
+            private final List<MetropolisHastingsStep> mhSteps;
+            private final boolean[] accepted;
+
+            private double logProbabilityDelta;
+            private int verticesCascaded;
+
+            /**
+             * @param latentVertices the latents to step, in order
+             * @param mhSteps        the step to use for each latent, which holds the random of its stream
+             */
+            Worker(List<Vertex> latentVertices, List<MetropolisHastingsStep> mhSteps) {
+                this.latentVertices = latentVertices;
+                this.mhSteps = mhSteps;
+                this.accepted = new boolean[latentVertices.size()];
+            }
+
+            void sweep() {
+                logProbabilityDelta = 0.0;
+                verticesCascaded = 0;
+                for (int i = 0; i < latentVertices.size(); i++) {
+                    MetropolisHastingsStep.StepResult result = mhSteps.get(i).step(
+                        Collections.singleton(latentVertices.get(i)),
+                        logProbabilityDelta
+                    );
+                    logProbabilityDelta = result.getLogProbabilityAfterStep();
+                    verticesCascaded += result.getVerticesCascaded();
+                    accepted[i] = result.isAccepted();
+                }
+            }
+        }
     }
 
     private static Map<Long, ?> takeSample(List<? extends Vertex> fromVertices) {
@@ -2,14 +2,12 @@ package io.improbable.keanu.algorithms.mcmc;
 
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import io.improbable.keanu.algorithms.graphtraversal.VertexValuePropagation;
 import io.improbable.keanu.algorithms.mcmc.proposal.Proposal;
 import io.improbable.keanu.algorithms.mcmc.proposal.ProposalDistribution;
-import io.improbable.keanu.network.LambdaSection;
+import io.improbable.keanu.network.LambdaSectionIndex;
 import io.improbable.keanu.network.NetworkSnapshot;
 import io.improbable.keanu.vertices.ProbabilityCalculator;
 import io.improbable.keanu.vertices.Vertex;
@@ -25,7 +23,7 @@ class MetropolisHastingsStep {
 
     private final ProposalDistribution proposalDistribution;
     private final boolean useCacheOnRejection;
-    private final Map<Vertex, LambdaSection> affectedVerticesCache;
+    private final LambdaSectionIndex affectedVerticesIndex;
     private final KeanuRandom random;
 
     /**
@@ -39,14 +37,26 @@ class MetropolisHastingsStep {
                            ProposalDistribution proposalDistribution,
                            boolean useCacheOnRejection,
                            KeanuRandom random) {
+        this(LambdaSectionIndex.of(latentVertices), proposalDistribution, useCacheOnRejection, random);
+    }
+
+    /**
+     * @param affectedVerticesIndex The downstream lambda sections of the latent vertices that may be chosen, which
+     *                              can be shared between steps
+     * @param proposalDistribution  The proposal distribution
+     * @param useCacheOnRejection   True if caching values of the network such that recalculation isn't required
+     *                              on step rejection
+     * @param random                Source of randomness
+     */
+    MetropolisHastingsStep(LambdaSectionIndex affectedVerticesIndex,
+                           ProposalDistribution proposalDistribution,
+                           boolean useCacheOnRejection,
+                           KeanuRandom random) {
 
         this.proposalDistribution = proposalDistribution;
         this.useCacheOnRejection = useCacheOnRejection;
         this.random = random;
-        this.affectedVerticesCache = createVerticesAffectedByCache(
-            latentVertices,
-            useCacheOnRejection
-        );
+        this.affectedVerticesIndex = affectedVerticesIndex;
     }
 
     public StepResult step(final Set<Vertex> chosenVertices,
@@ -65,18 +75,18 @@ class MetropolisHastingsStep {
                            final double logProbabilityBeforeStep,
                            final double temperature) {
 
-        final double affectedVerticesLogProbOld = sumLogProbabilityOfAffected(chosenVertices, affectedVerticesCache);
+        final double affectedVerticesLogProbOld = sumLogProbabilityOfAffected(chosenVertices, affectedVerticesIndex);
 
         NetworkSnapshot preProposalSnapshot = null;
         if (useCacheOnRejection) {
-            preProposalSnapshot = getSnapshotOfAllAffectedVertices(chosenVertices, affectedVerticesCache);
+            preProposalSnapshot = getSnapshotOfAllAffectedVertices(chosenVertices, affectedVerticesIndex);
         }
 
         Proposal proposal = proposalDistribution.getProposal(chosenVertices, random);
         proposal.apply();
-        VertexValuePropagation.cascadeUpdate(chosenVertices);
+        int verticesCascaded = VertexValuePropagation.cascadeUpdate(chosenVertices);
 
-        final double affectedVerticesLogProbNew = sumLogProbabilityOfAffected(chosenVertices, affectedVerticesCache);
+        final double affectedVerticesLogProbNew = sumLogProbabilityOfAffected(chosenVertices, affectedVerticesIndex);
 
         if (affectedVerticesLogProbNew != LOG_ZERO_PROBABILITY) {
 
@@ -94,7 +104,7 @@ class MetropolisHastingsStep {
             final boolean shouldAccept = r >= random.nextDouble();
 
             if (shouldAccept) {
-                return new StepResult(true, logProbabilityAfterStep);
+                return new StepResult(true, logProbabilityAfterStep, verticesCascaded);
             }
         }
 
@@ -103,55 +113,41 @@ class MetropolisHastingsStep {
         if (useCacheOnRejection) {
             preProposalSnapshot.apply();
         } else {
-            VertexValuePropagation.cascadeUpdate(chosenVertices);
+            verticesCascaded += VertexValuePropagation.cascadeUpdate(chosenVertices);
         }
 
-        return new StepResult(false, logProbabilityBeforeStep);
+        return new StepResult(false, logProbabilityBeforeStep, verticesCascaded);
     }
 
     private static NetworkSnapshot getSnapshotOfAllAffectedVertices(final Set<Vertex> chosenVertices,
-                                                                    final Map<Vertex, LambdaSection> affectedVertices) {
+                                                                    final LambdaSectionIndex affectedVertices) {
+
+        if (chosenVertices.size() == 1) {
+            return NetworkSnapshot.create(affectedVertices.getDownstreamVertices(chosenVertices.iterator().next()));
+        }
 
         Set<Vertex> allAffectedVertices = new HashSet<>();
         for (Vertex vertex : chosenVertices) {
-            allAffectedVertices.addAll(affectedVertices.get(vertex).getAllVertices());
+            allAffectedVertices.addAll(affectedVertices.getDownstreamVertices(vertex));
         }
 
         return NetworkSnapshot.create(allAffectedVertices);
     }
 
     private static double sumLogProbabilityOfAffected(Set<Vertex> vertices,
-                                                      Map<Vertex, LambdaSection> affectedVertices) {
+                                                      LambdaSectionIndex affectedVertices) {
         double sumLogProb = 0.0;
         for (Vertex v : vertices) {
-            sumLogProb += ProbabilityCalculator.calculateLogProbFor(affectedVertices.get(v).getLatentAndObservedVertices());
+            sumLogProb += ProbabilityCalculator.calculateLogProbFor(affectedVertices.getDownstreamLatentAndObservedVertices(v));
         }
         return sumLogProb;
     }
 
-    /**
-     * This creates a cache of potentially all vertices downstream to an observed or probabilistic vertex
-     * from each latent vertex. If useCacheOnRejection is false then only the downstream observed or probabilistic
-     * is cached.
-     *
-     * @param latentVertices      The latent vertices to create a cache for
-     * @param useCacheOnRejection Whether or not to cache the entire downstream set or just the observed/probabilistic
-     * @return A vertex to Lambda Section map that represents the downstream Lambda Section for each latent vertex.
-     * This Lambda Section may include all of the nonprobabilistic vertices if useCacheOnRejection is enabled.
-     */
-    private static Map<Vertex, LambdaSection> createVerticesAffectedByCache(List<? extends Vertex> latentVertices,
-                                                                            boolean useCacheOnRejection) {
-        return latentVertices.stream()
-            .collect(Collectors.toMap(
-                v -> v,
-                v -> LambdaSection.getDownstreamLambdaSection(v, useCacheOnRejection)
-            ));
-    }
-
     @Value
     static class StepResult {
         boolean accepted;
         double logProbabilityAfterStep;
+        int verticesCascaded;
     }
 
 }
@@ -8,6 +8,7 @@ import java.util.Map;
 import io.improbable.keanu.algorithms.NetworkSamples;
 import io.improbable.keanu.algorithms.PosteriorSamplingAlgorithm;
 import io.improbable.keanu.algorithms.graphtraversal.VertexValuePropagation;
+import io.improbable.keanu.algorithms.metrics.SamplerListener;
 import io.improbable.keanu.network.BayesianNetwork;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.Probabilistic;
@@ -63,6 +64,11 @@ public class NUTS implements PosteriorSamplingAlgorithm {
     @Builder.Default
     private double targetAcceptanceProb = DEFAULT_TARGET_ACCEPTANCE_PROB;
 
+    //receives the timing, tree depth and leapfrog count of every sample, or null to report nothing
+    @Getter
+    @Setter
+    private SamplerListener listener;
+
     /**
      * Sample from the posterior of a Bayesian Network using the No-U-Turn-Sampling algorithm
      *
@@ -125,6 +131,10 @@ public class NUTS implements PosteriorSamplingAlgorithm {
 
         for (int sampleNum = 1; sampleNum < sampleCount; sampleNum++) {
 
+            final long startTime = listener != null ? System.nanoTime() : 0;
+            final Map<Long, DoubleTensor> positionBeforeSample = tree.acceptedPosition;
+            int leapfrogCount = 0;
+
             initializeMomentumForEachVertex(latentVertices, tree.momentumForward, random);
             cache(tree.momentumForward, tree.momentumBackward);
 
@@ -162,6 +172,7 @@ public class NUTS implements PosteriorSamplingAlgorithm {
                 }
 
                 tree.acceptedLeapfrogCount += otherHalfTree.acceptedLeapfrogCount;
+                leapfrogCount += (int) otherHalfTree.treeSize;
 
                 tree.deltaLikelihoodOfLeapfrog = otherHalfTree.deltaLikelihoodOfLeapfrog;
                 tree.treeSize = otherHalfTree.treeSize;
@@ -184,6 +195,13 @@ public class NUTS implements PosteriorSamplingAlgorithm {
             tree.gradientBackward = tree.gradientAtAcceptedPosition;
 
             addSampleFromCache(samples, tree.sampleAtAcceptedPosition);
+
+            if (listener != null) {
+                listener.onTreeDepth(treeHeight);
+                listener.onLeapfrogs(leapfrogCount);
+                listener.onProposal(tree.acceptedPosition != positionBeforeSample);
+                listener.onStep(System.nanoTime() - startTime);
+            }
         }
 
         return new NetworkSamples(samples, sampleCount);
@@ -1,12 +1,19 @@
 package io.improbable.keanu.algorithms.mcmc;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.mcmc.diagnostics.ConvergenceDiagnostics;
+import io.improbable.keanu.algorithms.summary.SampleSummaries;
 import io.improbable.keanu.network.NetworkState;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.util.compression.CompressedTensorList;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -24,6 +31,21 @@ public class NetworkSamplesGenerator {
     @Setter
     private int downSampleInterval = 1;
 
+    /**
+     * When true, tensor samples are held in compressed form as they are generated, which
+     * greatly reduces the memory used by long chains.
+     */
+    @Getter
+    @Setter
+    private boolean compressSamples = false;
+
+    /**
+     * When set, every collected sample is added to these diagnostics so convergence can be watched live
+     * and {@link #generateUntilEffectiveSampleSize(double, Duration)} can stop early.
+     */
+    @Getter
+    @Setter
+    private ConvergenceDiagnostics convergenceDiagnostics = null;
 
     public NetworkSamplesGenerator(SamplingAlgorithm algorithm) {
         this.algorithm = algorithm;
@@ -39,8 +61,47 @@ public class NetworkSamplesGenerator {
         int samplesLeft = totalSampleCount - dropCount;
         for (int i = 0; i < samplesLeft; i++) {
             if (i % downSampleInterval == 0) {
-                algorithm.sample(samplesByVertex);
+                takeSample(samplesByVertex);
+                sampleCount++;
+            } else {
+                algorithm.step();
+            }
+        }
+
+        return new NetworkSamples(samplesByVertex, sampleCount);
+    }
+
+    /**
+     * Generates samples until the effective sample size of every element tracked by the convergence
+     * diagnostics reaches the target or the time budget is used up, whichever comes first.
+     * <p>
+     * The diagnostics only recalculate at intervals, so between them the ESS of the latest snapshot is scaled
+     * by the number of samples added since it was taken, and the diagnostics are recalculated before stopping
+     * once that projection reaches the target. Sampling therefore stops within a sample of the target being
+     * reached rather than at the next interval.
+     *
+     * @param targetEffectiveSampleSize the smallest effective sample size to accept for every tracked element
+     * @param timeBudget                the longest time to spend sampling, including dropped samples
+     * @return the samples collected before stopping
+     */
+    public NetworkSamples generateUntilEffectiveSampleSize(double targetEffectiveSampleSize, Duration timeBudget) {
+        if (convergenceDiagnostics == null) {
+            throw new IllegalStateException("Convergence diagnostics must be set to stop on effective sample size");
+        }
+
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        Map<Long, List<?>> samplesByVertex = new HashMap<>();
+
+        dropSamples(dropCount, deadline);
+
+        int sampleCount = 0;
+        for (int i = 0; System.nanoTime() < deadline; i++) {
+            if (i % downSampleInterval == 0) {
+                takeSample(samplesByVertex);
                 sampleCount++;
+                if (hasReachedEffectiveSampleSize(targetEffectiveSampleSize)) {
+                    break;
+                }
             } else {
                 algorithm.step();
             }
@@ -49,6 +110,51 @@ public class NetworkSamplesGenerator {
         return new NetworkSamples(samplesByVertex, sampleCount);
     }
 
+    private boolean hasReachedEffectiveSampleSize(double targetEffectiveSampleSize) {
+        ConvergenceDiagnostics.Snapshot snapshot = convergenceDiagnostics.getSnapshot();
+        double minEffectiveSampleSize = snapshot.getMinEffectiveSampleSize();
+        if (minEffectiveSampleSize >= targetEffectiveSampleSize) {
+            return true;
+        }
+
+        long samplesAdded = convergenceDiagnostics.getSamplesAdded();
+        if (snapshot.getSampleCount() == 0 || snapshot.getSampleCount() == samplesAdded) {
+            return false;
+        }
+
+        double projected = minEffectiveSampleSize * samplesAdded / snapshot.getSampleCount();
+        return projected >= targetEffectiveSampleSize
+            && convergenceDiagnostics.recalculate().getMinEffectiveSampleSize() >= targetEffectiveSampleSize;
+    }
+
+    /**
+     * Runs the sampler like {@link #generate(int)} but passes each sample to the summaries instead of
+     * keeping it, so memory use does not grow with the number of samples.
+     *
+     * @param totalSampleCount the number of samples to generate, including dropped samples
+     * @param summaries        the summaries to add each collected sample to
+     * @return the summaries
+     */
+    public SampleSummaries summarize(final int totalSampleCount, SampleSummaries summaries) {
+
+        dropSamples(dropCount);
+
+        int samplesLeft = totalSampleCount - dropCount;
+        for (int i = 0; i < samplesLeft; i++) {
+            if (i % downSampleInterval == 0) {
+                NetworkState state = algorithm.sample();
+                summaries.accept(state);
+                if (convergenceDiagnostics != null) {
+                    convergenceDiagnostics.update(state);
+                }
+            } else {
+                algorithm.step();
+            }
+        }
+
+        return summaries;
+    }
+
     public Stream<NetworkState> stream() {
 
         dropSamples(dropCount);
@@ -59,14 +165,78 @@ public class NetworkSamplesGenerator {
                 algorithm.step();
             }
 
-            return algorithm.sample();
+            NetworkState state = algorithm.sample();
+            if (convergenceDiagnostics != null) {
+                convergenceDiagnostics.update(state);
+            }
+            return state;
         });
     }
 
+    private void takeSample(Map<Long, List<?>> samplesByVertex) {
+        if (compressSamples) {
+            NetworkState state = algorithm.sample();
+            addCompressedSample(samplesByVertex, state);
+            if (convergenceDiagnostics != null) {
+                convergenceDiagnostics.update(state);
+            }
+        } else {
+            algorithm.sample(samplesByVertex);
+            if (convergenceDiagnostics != null) {
+                convergenceDiagnostics.update(new LatestSampleState(samplesByVertex));
+            }
+        }
+    }
+
+    private static void addCompressedSample(Map<Long, List<?>> samplesByVertex, NetworkState state) {
+        for (Long vertexId : state.getVertexIds()) {
+            Object value = state.get(vertexId);
+            List<Object> samples = (List<Object>) samplesByVertex.computeIfAbsent(
+                vertexId,
+                id -> CompressedTensorList.isCompressible(value) ? new CompressedTensorList<>() : new ArrayList<>()
+            );
+            samples.add(value);
+        }
+    }
+
     private void dropSamples(int dropCount) {
         for (int i = 0; i < dropCount; i++) {
             algorithm.step();
         }
     }
 
+    private void dropSamples(int dropCount, long deadline) {
+        for (int i = 0; i < dropCount && System.nanoTime() < deadline; i++) {
+            algorithm.step();
+        }
+    }
+
+    /**
+     * A view of the most recent sample of every vertex in samples that are being collected.
+     */
+    private static class LatestSampleState implements NetworkState {
+
+        private final Map<Long, List<?>> samplesByVertex;
+
+        LatestSampleState(Map<Long, List<?>> samplesByVertex) {
+            this.samplesByVertex = samplesByVertex;
+        }
+
+        @Override
+        public <T> T get(Vertex<T> vertex) {
+            return get(vertex.getId());
+        }
+
+        @Override
+        public <T> T get(long vertexId) {
+            List<?> samples = samplesByVertex.get(vertexId);
+            return samples == null ? null : (T) samples.get(samples.size() - 1);
+        }
+
+        @Override
+        public Set<Long> getVertexIds() {
+            return samplesByVertex.keySet();
+        }
+    }
+
 }
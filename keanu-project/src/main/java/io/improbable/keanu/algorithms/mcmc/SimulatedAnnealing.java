@@ -8,6 +8,7 @@ import java.util.List;
 import java.util.Map;
 
 import io.improbable.keanu.algorithms.mcmc.proposal.MHStepVariableSelector;
+import io.improbable.keanu.algorithms.metrics.SamplerListener;
 import io.improbable.keanu.algorithms.mcmc.proposal.ProposalDistribution;
 import io.improbable.keanu.network.BayesianNetwork;
 import io.improbable.keanu.network.NetworkState;
@@ -59,6 +60,11 @@ public class SimulatedAnnealing {
     @Builder.Default
     private boolean useCacheOnRejection = DEFAULT_USE_CACHE_ON_REJECTION;
 
+    //receives the timing, acceptance and cascade size of every step, or null to report nothing
+    @Getter
+    @Setter
+    private SamplerListener listener;
+
     public NetworkState getMaxAPosteriori(BayesianNetwork bayesNet,
                                           int sampleCount) {
         AnnealingSchedule schedule = exponentialSchedule(sampleCount, 2, 0.01);
@@ -99,19 +105,28 @@ public class SimulatedAnnealing {
 
         for (int sampleNum = 0; sampleNum < sampleCount; sampleNum++) {
 
+            final long startTime = listener != null ? System.nanoTime() : 0;
+
             Vertex<?> chosenVertex = latentVertices.get(sampleNum % latentVertices.size());
 
             double temperature = annealingSchedule.getTemperature(sampleNum);
-            logProbabilityBeforeStep = mhStep.step(
+            MetropolisHastingsStep.StepResult result = mhStep.step(
                 Collections.singleton(chosenVertex),
                 logProbabilityBeforeStep,
                 temperature
-            ).getLogProbabilityAfterStep();
+            );
+            logProbabilityBeforeStep = result.getLogProbabilityAfterStep();
 
             if (logProbabilityBeforeStep > maxLogP) {
                 maxLogP = logProbabilityBeforeStep;
                 setSamplesAsMax(maxSamplesByVertex, latentVertices);
             }
+
+            if (listener != null) {
+                listener.onProposal(result.isAccepted());
+                listener.onVerticesCascaded(result.getVerticesCascaded());
+                listener.onStep(System.nanoTime() - startTime);
+            }
         }
 
         return new SimpleNetworkState(maxSamplesByVertex);
@@ -0,0 +1,303 @@
+package io.improbable.keanu.algorithms.mcmc.diagnostics;
+
+import io.improbable.keanu.network.NetworkState;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks split R-hat and effective sample size for every element of a set of vertices while a chain is
+ * being sampled. Running means and variances are kept over every sample, while ESS and R-hat are estimated
+ * from a bounded buffer of each element's history. Once a buffer fills it is thinned by half and the rate
+ * values are buffered at is halved, so the estimates describe the thinned chain, which for autocorrelated
+ * chains makes them slightly conservative.
+ * <p>
+ * The estimates are recalculated as samples arrive, at intervals that grow with the number of samples, and
+ * published as an immutable snapshot so they can be read from another thread while sampling is in progress.
+ */
+public class ConvergenceDiagnostics {
+
+    public static final int DEFAULT_WINDOW_SIZE = 8192;
+    private static final int MIN_SAMPLES_BETWEEN_UPDATES = 100;
+    private static final double UPDATE_GROWTH = 0.1;
+
+    private final List<? extends Vertex<? extends Tensor>> vertices;
+    private final int windowSize;
+    private final Map<Long, ElementHistory[]> historyByVertex;
+
+    private long sampleCount;
+    private long nextUpdate;
+    private volatile Snapshot snapshot;
+
+    public ConvergenceDiagnostics(List<? extends Vertex<? extends Tensor>> vertices) {
+        this(vertices, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param vertices   the vertices to track. Their values must be double, integer or boolean tensors.
+     * @param windowSize the maximum number of values buffered per tensor element
+     */
+    public ConvergenceDiagnostics(List<? extends Vertex<? extends Tensor>> vertices, int windowSize) {
+        if (windowSize < 4 || windowSize % 2 != 0) {
+            throw new IllegalArgumentException("Window size must be an even number of at least 4");
+        }
+        this.vertices = new ArrayList<>(vertices);
+        this.windowSize = windowSize;
+        this.historyByVertex = new HashMap<>();
+        this.sampleCount = 0;
+        this.nextUpdate = MIN_SAMPLES_BETWEEN_UPDATES;
+        this.snapshot = new Snapshot(0, Collections.emptyMap());
+    }
+
+    /**
+     * Adds a sample to the running diagnostics.
+     *
+     * @param state a sample containing every tracked vertex
+     * @throws IllegalArgumentException if the sample does not contain a tracked vertex
+     */
+    public synchronized void update(NetworkState state) {
+        for (Vertex<? extends Tensor> vertex : vertices) {
+            if (state.get(vertex.getId()) == null) {
+                throw new IllegalArgumentException(
+                    "Vertex " + vertex.getId() + " is tracked by the convergence diagnostics but was not sampled"
+                );
+            }
+        }
+
+        for (Vertex<? extends Tensor> vertex : vertices) {
+            Tensor<?> value = state.get(vertex.getId());
+            double[] flat = value.asFlatDoubleArray();
+
+            ElementHistory[] histories = historyByVertex.get(vertex.getId());
+            if (histories == null) {
+                histories = new ElementHistory[flat.length];
+                for (int i = 0; i < histories.length; i++) {
+                    histories[i] = new ElementHistory(windowSize);
+                }
+                historyByVertex.put(vertex.getId(), histories);
+            }
+
+            for (int i = 0; i < flat.length; i++) {
+                histories[i].add(flat[i]);
+            }
+        }
+
+        sampleCount++;
+        if (sampleCount >= nextUpdate) {
+            recalculate();
+            nextUpdate = sampleCount + Math.max(MIN_SAMPLES_BETWEEN_UPDATES, (long) (sampleCount * UPDATE_GROWTH));
+        }
+    }
+
+    /**
+     * Recalculates the diagnostics from every sample added so far.
+     *
+     * @return the latest diagnostics
+     */
+    public synchronized Snapshot recalculate() {
+        Map<Long, VertexDiagnostics> byVertex = new HashMap<>();
+        for (Map.Entry<Long, ElementHistory[]> entry : historyByVertex.entrySet()) {
+            ElementHistory[] histories = entry.getValue();
+            double[] ess = new double[histories.length];
+            double[] rHat = new double[histories.length];
+            double[] mean = new double[histories.length];
+            double[] variance = new double[histories.length];
+
+            for (int i = 0; i < histories.length; i++) {
+                ElementHistory history = histories[i];
+                ess[i] = history.effectiveSampleSize();
+                rHat[i] = ConvergenceStatistics.splitRHat(history.buffer, history.buffered);
+                mean[i] = history.mean;
+                variance[i] = history.variance();
+            }
+            byVertex.put(entry.getKey(), new VertexDiagnostics(ess, rHat, mean, variance));
+        }
+
+        snapshot = new Snapshot(sampleCount, byVertex);
+        return snapshot;
+    }
+
+    /**
+     * @return the most recently calculated diagnostics. Safe to call while sampling.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public long getSampleCount() {
+        return snapshot.sampleCount;
+    }
+
+    /**
+     * @return the number of samples added so far, which may be more than the latest snapshot was calculated from
+     */
+    public synchronized long getSamplesAdded() {
+        return sampleCount;
+    }
+
+    /**
+     * The diagnostics for every tracked vertex at a point in time.
+     */
+    public static class Snapshot {
+
+        private final long sampleCount;
+        private final Map<Long, VertexDiagnostics> byVertex;
+
+        Snapshot(long sampleCount, Map<Long, VertexDiagnostics> byVertex) {
+            this.sampleCount = sampleCount;
+            this.byVertex = byVertex;
+        }
+
+        public long getSampleCount() {
+            return sampleCount;
+        }
+
+        public VertexDiagnostics get(Vertex<?> vertex) {
+            return byVertex.get(vertex.getId());
+        }
+
+        /**
+         * @return the smallest effective sample size of any tracked element, or NaN if any is not yet known
+         */
+        public double getMinEffectiveSampleSize() {
+            if (byVertex.isEmpty()) {
+                return Double.NaN;
+            }
+            double min = Double.POSITIVE_INFINITY;
+            for (VertexDiagnostics diagnostics : byVertex.values()) {
+                for (double ess : diagnostics.effectiveSampleSize) {
+                    if (Double.isNaN(ess)) {
+                        return Double.NaN;
+                    }
+                    min = Math.min(min, ess);
+                }
+            }
+            return min;
+        }
+
+        /**
+         * @return the largest split R-hat of any tracked element, or NaN if any is not yet known
+         */
+        public double getMaxSplitRHat() {
+            if (byVertex.isEmpty()) {
+                return Double.NaN;
+            }
+            double max = Double.NEGATIVE_INFINITY;
+            for (VertexDiagnostics diagnostics : byVertex.values()) {
+                for (double rHat : diagnostics.splitRHat) {
+                    if (Double.isNaN(rHat)) {
+                        return Double.NaN;
+                    }
+                    max = Math.max(max, rHat);
+                }
+            }
+            return max;
+        }
+    }
+
+    /**
+     * Diagnostics for each element of a vertex's value in flattened order.
+     */
+    public static class VertexDiagnostics {
+
+        private final double[] effectiveSampleSize;
+        private final double[] splitRHat;
+        private final double[] mean;
+        private final double[] variance;
+
+        VertexDiagnostics(double[] effectiveSampleSize, double[] splitRHat, double[] mean, double[] variance) {
+            this.effectiveSampleSize = effectiveSampleSize;
+            this.splitRHat = splitRHat;
+            this.mean = mean;
+            this.variance = variance;
+        }
+
+        public double[] getEffectiveSampleSize() {
+            return effectiveSampleSize.clone();
+        }
+
+        public double[] getSplitRHat() {
+            return splitRHat.clone();
+        }
+
+        public double[] getMean() {
+            return mean.clone();
+        }
+
+        public double[] getVariance() {
+            return variance.clone();
+        }
+    }
+
+    private static class ElementHistory {
+
+        private final double[] buffer;
+        private int buffered;
+        private int stride;
+        private long seen;
+
+        private double mean;
+        private double sumOfSquaredDifferences;
+
+        ElementHistory(int windowSize) {
+            this.buffer = new double[windowSize];
+            this.buffered = 0;
+            this.stride = 1;
+            this.seen = 0;
+        }
+
+        void add(double value) {
+            seen++;
+            double delta = value - mean;
+            mean += delta / seen;
+            sumOfSquaredDifferences += delta * (value - mean);
+
+            if ((seen - 1) % stride != 0) {
+                return;
+            }
+
+            if (buffered == buffer.length) {
+                for (int i = 0; i < buffered / 2; i++) {
+                    buffer[i] = buffer[2 * i];
+                }
+                buffered /= 2;
+                stride *= 2;
+                if ((seen - 1) % stride != 0) {
+                    return;
+                }
+            }
+            buffer[buffered++] = value;
+        }
+
+        double variance() {
+            return seen > 1 ? sumOfSquaredDifferences / (seen - 1) : Double.NaN;
+        }
+
+        /**
+         * The ESS of the buffered, possibly thinned, chain. It cannot exceed the number of samples seen.
+         * An element that has had the same value in every sample has no variance to estimate an ESS from,
+         * so each of its samples is counted as independent, which lets a stuck or constant element meet an
+         * ESS target rather than holding it at NaN forever.
+         */
+        double effectiveSampleSize() {
+            if (buffered >= 4 && sumOfSquaredDifferences == 0.0) {
+                return seen;
+            }
+            double thinnedEss = ConvergenceStatistics.splitEffectiveSampleSize(buffer, buffered);
+            return Math.min(thinnedEss, seen);
+        }
+    }
+
+    @Override
+    public String toString() {
+        Snapshot latest = snapshot;
+        return "ConvergenceDiagnostics{samples=" + latest.sampleCount +
+            ", minEss=" + latest.getMinEffectiveSampleSize() +
+            ", maxSplitRHat=" + latest.getMaxSplitRHat() + "}";
+    }
+}
@@ -0,0 +1,190 @@
+package io.improbable.keanu.algorithms.mcmc.diagnostics;
+
+import java.util.Arrays;
+
+/**
+ * Effective sample size and potential scale reduction (R-hat) for scalar chains, following the
+ * split chain definitions in Gelman et al, Bayesian Data Analysis 3rd edition, and Stan.
+ * Autocorrelations are computed with an FFT so each estimate is O(n log n).
+ */
+public class ConvergenceStatistics {
+
+    private ConvergenceStatistics() {
+    }
+
+    /**
+     * Splits the chain in two and calculates the effective sample size over both halves.
+     *
+     * @param chain    buffer of sample values
+     * @param length   number of values in the buffer to use
+     * @return the effective sample size, or NaN if there are fewer than 4 values or they are all the same
+     */
+    public static double splitEffectiveSampleSize(double[] chain, int length) {
+        int half = length / 2;
+        if (half < 2) {
+            return Double.NaN;
+        }
+        int offset = length - 2 * half;
+        return effectiveSampleSize(
+            Arrays.copyOfRange(chain, offset, offset + half),
+            Arrays.copyOfRange(chain, offset + half, length)
+        );
+    }
+
+    /**
+     * @param chain  buffer of sample values
+     * @param length number of values in the buffer to use
+     * @return the split R-hat, which approaches 1 as the chain converges, or NaN if there are too few values
+     */
+    public static double splitRHat(double[] chain, int length) {
+        int half = length / 2;
+        if (half < 2) {
+            return Double.NaN;
+        }
+        int offset = length - 2 * half;
+        return rHat(
+            Arrays.copyOfRange(chain, offset, offset + half),
+            Arrays.copyOfRange(chain, offset + half, length)
+        );
+    }
+
+    /**
+     * @param chains two or more chains of equal length
+     * @return the potential scale reduction factor
+     */
+    public static double rHat(double[]... chains) {
+        Moments moments = new Moments(chains);
+        return Math.sqrt(moments.varianceEstimate / moments.withinChainVariance);
+    }
+
+    /**
+     * @param chains two or more chains of equal length
+     * @return the effective sample size of all chains combined
+     */
+    public static double effectiveSampleSize(double[]... chains) {
+        Moments moments = new Moments(chains);
+        int n = chains[0].length;
+        int m = chains.length;
+
+        if (!(moments.withinChainVariance > 0)) {
+            return Double.NaN;
+        }
+
+        double[] meanAutocovariance = new double[n];
+        for (double[] chain : chains) {
+            double[] autocovariance = autocovariance(chain);
+            for (int t = 0; t < n; t++) {
+                meanAutocovariance[t] += autocovariance[t] / m;
+            }
+        }
+
+        double[] rho = new double[n];
+        for (int t = 0; t < n; t++) {
+            rho[t] = 1.0 - (moments.withinChainVariance - meanAutocovariance[t]) / moments.varianceEstimate;
+        }
+        rho[0] = 1.0;
+
+        // Geyer's initial monotone sequence estimator over sums of adjacent pairs
+        double sum = 0.0;
+        double previousPair = Double.POSITIVE_INFINITY;
+        for (int t = 0; t + 1 < n; t += 2) {
+            double pair = rho[t] + rho[t + 1];
+            if (pair <= 0) {
+                break;
+            }
+            pair = Math.min(pair, previousPair);
+            sum += pair;
+            previousPair = pair;
+        }
+
+        double tau = Math.max(-1.0 + 2.0 * sum, 1.0 / Math.log10(m * n));
+        return m * n / tau;
+    }
+
+    /**
+     * @param chain sample values
+     * @return the biased (divided by n) autocovariance at every lag
+     */
+    public static double[] autocovariance(double[] chain) {
+        int n = chain.length;
+        int size = Integer.highestOneBit(Math.max(1, 2 * n - 1));
+        if (size < 2 * n - 1) {
+            size <<= 1;
+        }
+
+        double mean = 0;
+        for (double value : chain) {
+            mean += value;
+        }
+        mean /= n;
+
+        double[] real = new double[size];
+        double[] imaginary = new double[size];
+        for (int i = 0; i < n; i++) {
+            real[i] = chain[i] - mean;
+        }
+
+        FastFourierTransform.transform(real, imaginary, false);
+        for (int i = 0; i < size; i++) {
+            real[i] = real[i] * real[i] + imaginary[i] * imaginary[i];
+            imaginary[i] = 0;
+        }
+        FastFourierTransform.transform(real, imaginary, true);
+
+        double[] autocovariance = new double[n];
+        for (int t = 0; t < n; t++) {
+            autocovariance[t] = real[t] / n;
+        }
+        return autocovariance;
+    }
+
+    private static class Moments {
+
+        private final double withinChainVariance;
+        private final double varianceEstimate;
+
+        Moments(double[]... chains) {
+            int m = chains.length;
+            int n = chains[0].length;
+            if (m < 2 || n < 2) {
+                throw new IllegalArgumentException("Need at least 2 chains of at least 2 samples");
+            }
+
+            double[] means = new double[m];
+            double within = 0;
+            for (int c = 0; c < m; c++) {
+                if (chains[c].length != n) {
+                    throw new IllegalArgumentException("Chains must be the same length");
+                }
+                double mean = 0;
+                for (double value : chains[c]) {
+                    mean += value;
+                }
+                mean /= n;
+                means[c] = mean;
+
+                double variance = 0;
+                for (double value : chains[c]) {
+                    variance += (value - mean) * (value - mean);
+                }
+                within += variance / (n - 1);
+            }
+            within /= m;
+
+            double grandMean = 0;
+            for (double mean : means) {
+                grandMean += mean;
+            }
+            grandMean /= m;
+
+            double betweenOverN = 0;
+            for (double mean : means) {
+                betweenOverN += (mean - grandMean) * (mean - grandMean);
+            }
+            betweenOverN /= (m - 1);
+
+            this.withinChainVariance = within;
+            this.varianceEstimate = (n - 1.0) / n * within + betweenOverN;
+        }
+    }
+}
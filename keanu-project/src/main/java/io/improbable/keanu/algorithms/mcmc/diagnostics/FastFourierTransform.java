@@ -0,0 +1,73 @@
+package io.improbable.keanu.algorithms.mcmc.diagnostics;
+
+/**
+ * An in place iterative radix-2 Cooley-Tukey FFT over separate real and imaginary arrays.
+ */
+final class FastFourierTransform {
+
+    private FastFourierTransform() {
+    }
+
+    /**
+     * @param real      real parts, length must be a power of two
+     * @param imaginary imaginary parts, same length as real
+     * @param inverse   true for the inverse transform, which is scaled by 1/n
+     */
+    static void transform(double[] real, double[] imaginary, boolean inverse) {
+        int n = real.length;
+        if (Integer.bitCount(n) != 1 || imaginary.length != n) {
+            throw new IllegalArgumentException("Length must be a power of two");
+        }
+
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                swap(real, i, j);
+                swap(imaginary, i, j);
+            }
+        }
+
+        for (int length = 2; length <= n; length <<= 1) {
+            double angle = 2 * Math.PI / length * (inverse ? 1 : -1);
+            double stepReal = Math.cos(angle);
+            double stepImaginary = Math.sin(angle);
+            int half = length >> 1;
+
+            for (int start = 0; start < n; start += length) {
+                double twiddleReal = 1.0;
+                double twiddleImaginary = 0.0;
+                for (int k = 0; k < half; k++) {
+                    int even = start + k;
+                    int odd = even + half;
+                    double oddReal = real[odd] * twiddleReal - imaginary[odd] * twiddleImaginary;
+                    double oddImaginary = real[odd] * twiddleImaginary + imaginary[odd] * twiddleReal;
+                    real[odd] = real[even] - oddReal;
+                    imaginary[odd] = imaginary[even] - oddImaginary;
+                    real[even] += oddReal;
+                    imaginary[even] += oddImaginary;
+
+                    double nextReal = twiddleReal * stepReal - twiddleImaginary * stepImaginary;
+                    twiddleImaginary = twiddleReal * stepImaginary + twiddleImaginary * stepReal;
+                    twiddleReal = nextReal;
+                }
+            }
+        }
+
+        if (inverse) {
+            for (int i = 0; i < n; i++) {
+                real[i] /= n;
+                imaginary[i] /= n;
+            }
+        }
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        double temp = values[i];
+        values[i] = values[j];
+        values[j] = temp;
+    }
+}
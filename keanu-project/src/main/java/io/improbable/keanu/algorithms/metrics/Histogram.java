@@ -0,0 +1,110 @@
+package io.improbable.keanu.algorithms.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of non-negative long values, e.g. durations in nanoseconds, with one bucket per
+ * power of two. Recording is cheap enough to do on every step and it can be read from any thread while
+ * values are being recorded. Percentiles are accurate to within a factor of two.
+ */
+public class Histogram {
+
+    private static final int BUCKET_COUNT = Long.SIZE + 1;
+
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    public Histogram() {
+        this.buckets = new LongAdder[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * @param value a value to record. Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(clamped)].increment();
+        count.increment();
+        sum.add(clamped);
+        max.accumulate(clamped);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return the mean of the recorded values, or NaN if nothing has been recorded
+     */
+    public double getMean() {
+        long total = count.sum();
+        return total > 0 ? (double) sum.sum() / total : Double.NaN;
+    }
+
+    /**
+     * @param q the percentile as a fraction between 0 and 1
+     * @return an upper bound on the value at the percentile that is at most twice the true value,
+     * or 0 if nothing has been recorded
+     */
+    public long getPercentile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1 but was " + q);
+        }
+
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(q * total));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                long bucketUpperBound = i == 0 ? 0 : (i == Long.SIZE ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.min(bucketUpperBound, getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram{count=" + getCount() +
+            ", mean=" + getMean() +
+            ", p50=" + getPercentile(0.5) +
+            ", p99=" + getPercentile(0.99) +
+            ", max=" + getMax() + "}";
+    }
+}
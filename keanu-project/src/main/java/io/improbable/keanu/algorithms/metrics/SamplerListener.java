@@ -0,0 +1,48 @@
+package io.improbable.keanu.algorithms.metrics;
+
+/**
+ * Receives events from sampling and optimisation algorithms as they run. Every method has an empty default
+ * so a listener only needs to implement the events it cares about. Algorithms only report the events that
+ * apply to them, e.g. tree depth is only reported by NUTS.
+ * <p>
+ * Listeners are called on the sampling thread, so they should be cheap. {@link SamplerMetrics} is a
+ * listener that aggregates events into counters and histograms which can be read while sampling.
+ */
+public interface SamplerListener {
+
+    /**
+     * @param durationNanos how long a step or sample of the algorithm took
+     */
+    default void onStep(long durationNanos) {
+    }
+
+    /**
+     * @param accepted true if the proposed state was accepted, i.e. the chain moved
+     */
+    default void onProposal(boolean accepted) {
+    }
+
+    /**
+     * @param leapfrogCount the number of leapfrog integration steps taken for one sample
+     */
+    default void onLeapfrogs(int leapfrogCount) {
+    }
+
+    /**
+     * @param depth the depth of the NUTS tree built for one sample
+     */
+    default void onTreeDepth(int depth) {
+    }
+
+    /**
+     * @param vertexCount the number of vertices whose values were recalculated during a step
+     */
+    default void onVerticesCascaded(int vertexCount) {
+    }
+
+    /**
+     * @param particleCount the number of particles replaced by resampling
+     */
+    default void onParticlesResampled(int particleCount) {
+    }
+}
@@ -0,0 +1,135 @@
+package io.improbable.keanu.algorithms.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link SamplerListener} that aggregates events into counters and histograms. It is thread safe and
+ * can be read, e.g. by a monitoring thread, while an algorithm is running. One instance can be shared by
+ * algorithms running in parallel to aggregate across them.
+ * <pre>
+ * SamplerMetrics metrics = new SamplerMetrics();
+ * MetropolisHastings.builder().listener(metrics).build().getPosteriorSamples(network, vertices, 10000);
+ * metrics.getAcceptanceRate();
+ * </pre>
+ */
+public class SamplerMetrics implements SamplerListener {
+
+    private final Histogram stepTimeNanos = new Histogram();
+    private final LongAdder proposals = new LongAdder();
+    private final LongAdder acceptedProposals = new LongAdder();
+    private final LongAdder leapfrogs = new LongAdder();
+    private final Histogram treeDepth = new Histogram();
+    private final Histogram verticesCascaded = new Histogram();
+    private final LongAdder particlesResampled = new LongAdder();
+
+    @Override
+    public void onStep(long durationNanos) {
+        stepTimeNanos.record(durationNanos);
+    }
+
+    @Override
+    public void onProposal(boolean accepted) {
+        proposals.increment();
+        if (accepted) {
+            acceptedProposals.increment();
+        }
+    }
+
+    @Override
+    public void onLeapfrogs(int leapfrogCount) {
+        leapfrogs.add(leapfrogCount);
+    }
+
+    @Override
+    public void onTreeDepth(int depth) {
+        treeDepth.record(depth);
+    }
+
+    @Override
+    public void onVerticesCascaded(int vertexCount) {
+        verticesCascaded.record(vertexCount);
+    }
+
+    @Override
+    public void onParticlesResampled(int particleCount) {
+        particlesResampled.add(particleCount);
+    }
+
+    public long getStepCount() {
+        return stepTimeNanos.getCount();
+    }
+
+    public Histogram getStepTimeNanos() {
+        return stepTimeNanos;
+    }
+
+    public long getProposalCount() {
+        return proposals.sum();
+    }
+
+    public long getAcceptedProposalCount() {
+        return acceptedProposals.sum();
+    }
+
+    /**
+     * @return the fraction of proposals that were accepted, or NaN if there have been none
+     */
+    public double getAcceptanceRate() {
+        long proposalCount = proposals.sum();
+        return proposalCount > 0 ? (double) acceptedProposals.sum() / proposalCount : Double.NaN;
+    }
+
+    public long getLeapfrogCount() {
+        return leapfrogs.sum();
+    }
+
+    public Histogram getTreeDepth() {
+        return treeDepth;
+    }
+
+    public Histogram getVerticesCascaded() {
+        return verticesCascaded;
+    }
+
+    public long getParticlesResampledCount() {
+        return particlesResampled.sum();
+    }
+
+    /**
+     * @return the current value of every metric by name, suitable for exporting to a monitoring system
+     */
+    public Map<String, Number> toMap() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("steps", getStepCount());
+        metrics.put("step.nanos.mean", stepTimeNanos.getMean());
+        metrics.put("step.nanos.p50", stepTimeNanos.getPercentile(0.5));
+        metrics.put("step.nanos.p99", stepTimeNanos.getPercentile(0.99));
+        metrics.put("step.nanos.max", stepTimeNanos.getMax());
+        metrics.put("proposals", getProposalCount());
+        metrics.put("proposals.accepted", getAcceptedProposalCount());
+        metrics.put("acceptance.rate", getAcceptanceRate());
+        metrics.put("leapfrogs", getLeapfrogCount());
+        metrics.put("tree.depth.mean", treeDepth.getMean());
+        metrics.put("tree.depth.max", treeDepth.getMax());
+        metrics.put("vertices.cascaded.mean", verticesCascaded.getMean());
+        metrics.put("particles.resampled", getParticlesResampledCount());
+        return metrics;
+    }
+
+    public void reset() {
+        stepTimeNanos.reset();
+        proposals.reset();
+        acceptedProposals.reset();
+        leapfrogs.reset();
+        treeDepth.reset();
+        verticesCascaded.reset();
+        particlesResampled.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "SamplerMetrics" + toMap();
+    }
+}
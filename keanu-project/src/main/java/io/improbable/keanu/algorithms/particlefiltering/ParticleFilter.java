@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import io.improbable.keanu.algorithms.metrics.SamplerListener;
 import io.improbable.keanu.vertices.ProbabilityCalculator;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
@@ -54,16 +55,37 @@ public class ParticleFilter {
                                                    int resamplingCycles,
                                                    double resamplingProportion,
                                                    KeanuRandom random) {
+        return getProbableValues(vertices, numParticles, resamplingCycles, resamplingProportion, random, null);
+    }
+
+    /**
+     * As {@link #getProbableValues(Collection, int, int, double, KeanuRandom)}, reporting the time taken to add
+     * each observed vertex and the number of particles resampled to a listener.
+     *
+     * @param listener receives a step for each observed vertex added, or null to report nothing
+     */
+    public static List<Particle> getProbableValues(Collection<? extends Vertex> vertices,
+                                                   int numParticles,
+                                                   int resamplingCycles,
+                                                   double resamplingProportion,
+                                                   KeanuRandom random,
+                                                   SamplerListener listener) {
 
         Map<Vertex, Set<Vertex>> obsVertIncrDependencies = LatentIncrementSort.sort(vertices);
         List<Vertex> observedVertexOrder = new ArrayList<>(obsVertIncrDependencies.keySet());
         List<Particle> particles = createEmptyParticles(numParticles);
 
         for (int i = 0; i < observedVertexOrder.size(); i++) {
+            final long startTime = listener != null ? System.nanoTime() : 0;
+
             Vertex<?> nextObsVertex = observedVertexOrder.get(i);
             Set<Vertex> vertexDeps = obsVertIncrDependencies.get(nextObsVertex);
             particles = updateParticles(nextObsVertex, vertexDeps, particles, numParticles, resamplingCycles,
-                resamplingProportion, random);
+                resamplingProportion, random, listener);
+
+            if (listener != null) {
+                listener.onStep(System.nanoTime() - startTime);
+            }
         }
 
         return particles;
@@ -75,7 +97,8 @@ public class ParticleFilter {
                                                   int numParticles,
                                                   int resamplingCycles,
                                                   double resamplingProportion,
-                                                  KeanuRandom random) {
+                                                  KeanuRandom random,
+                                                  SamplerListener listener) {
 
         List<Particle> updatedParticles = sampleAndCopy(particles, numParticles, random);
         addObservedVertexToParticles(updatedParticles, nextObservedVertex, vertexDeps, random);
@@ -83,6 +106,9 @@ public class ParticleFilter {
         for (int i = 0; i < resamplingCycles; i++) {
             updatedParticles = removeWorstParticles(updatedParticles, resamplingProportion);
             int numToSample = numParticles - updatedParticles.size();
+            if (listener != null) {
+                listener.onParticlesResampled(numToSample);
+            }
             List<Particle> sampledParticles = sampleAndCopy(particles, numToSample, random);
             addObservedVertexToParticles(sampledParticles, nextObservedVertex, vertexDeps, random);
             updatedParticles.addAll(sampledParticles);
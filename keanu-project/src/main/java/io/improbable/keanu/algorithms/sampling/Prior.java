@@ -3,7 +3,10 @@ package io.improbable.keanu.algorithms.sampling;
 import io.improbable.keanu.algorithms.NetworkSamples;
 import io.improbable.keanu.algorithms.graphtraversal.TopologicalSort;
 import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.VertexBatching;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
 
 import java.util.ArrayList;
@@ -20,7 +23,8 @@ public class Prior {
      * Samples from a Bayesian Network that only contains prior information. No observations can have been made.
 
      * Samples are taken by calculating a linear ordering of the network and cascading the sampled values
-     * through the network in priority order.
+     * through the network in priority order. If every vertex is {@link io.improbable.keanu.vertices.Batchable}
+     * then a batch of samples is taken in each pass through the network.
      *
      * @param bayesNet the prior bayesian network to sample from
      * @param fromVertices the vertices to sample from
@@ -43,6 +47,10 @@ public class Prior {
         }
 
         List<? extends Vertex> topologicallySorted = TopologicalSort.sort(bayesNet.getLatentVertices());
+        if (canSampleInBatches(topologicallySorted, fromVertices)) {
+            return sampleInBatches(topologicallySorted, fromVertices, sampleCount, random);
+        }
+
         Map<Long, List> samplesByVertex = new HashMap<>();
 
         for (int sampleNum = 0; sampleNum < sampleCount; sampleNum++) {
@@ -53,6 +61,53 @@ public class Prior {
         return new NetworkSamples(samplesByVertex, sampleCount);
     }
 
+    private static boolean canSampleInBatches(List<? extends Vertex> topologicallySorted, List<? extends Vertex> fromVertices) {
+        return VertexBatching.canBatch(topologicallySorted) && fromVertices.stream().allMatch(v -> v instanceof DoubleVertex);
+    }
+
+    /**
+     * Samples many states at once by giving every latent vertex a value with a leading sample dimension, so that
+     * each vertex is sampled and calculated once per batch of samples instead of once per sample.
+     */
+    private static NetworkSamples sampleInBatches(List<? extends Vertex> topologicallySorted,
+                                                  List<? extends Vertex> fromVertices,
+                                                  int sampleCount,
+                                                  KeanuRandom random) {
+
+        List<int[]> latentShapes = shapesOf(topologicallySorted);
+        List<int[]> fromShapes = shapesOf(fromVertices);
+        Map<Long, List> samplesByVertex = new HashMap<>();
+
+        int batchSize = Math.min(VertexBatching.DEFAULT_BATCH_SIZE, sampleCount);
+        for (int sampleNum = 0; sampleNum < sampleCount; sampleNum += batchSize) {
+            VertexBatching.sampleAndCascade(topologicallySorted, latentShapes, batchSize, random);
+            int samplesToTake = Math.min(batchSize, sampleCount - sampleNum);
+
+            for (int i = 0; i < fromVertices.size(); i++) {
+                DoubleVertex vertex = (DoubleVertex) fromVertices.get(i);
+                List samplesForVertex = samplesByVertex.computeIfAbsent(vertex.getId(), v -> new ArrayList<>());
+                List<DoubleTensor> batch = VertexBatching.unstack(vertex.getValue(), fromShapes.get(i), batchSize);
+                samplesForVertex.addAll(batch.subList(0, samplesToTake));
+            }
+        }
+
+        if (sampleCount > 0) {
+            //the last batch may be only partly taken, so the network is left in the state of its last taken sample
+            int lastSampleOfLastBatch = (sampleCount - 1) % batchSize;
+            VertexBatching.setToState(topologicallySorted, latentShapes, batchSize, lastSampleOfLastBatch);
+        }
+
+        return new NetworkSamples(samplesByVertex, sampleCount);
+    }
+
+    private static List<int[]> shapesOf(List<? extends Vertex> vertices) {
+        List<int[]> shapes = new ArrayList<>();
+        for (Vertex<?> vertex : vertices) {
+            shapes.add(vertex.getShape());
+        }
+        return shapes;
+    }
+
     private static void nextSample(List<? extends Vertex> topologicallySorted, KeanuRandom random) {
         for (Vertex<?> vertex : topologicallySorted) {
             setAndCascadeFromSample(vertex, random);
@@ -1,15 +1,28 @@
 package io.improbable.keanu.algorithms.sampling;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.graphtraversal.TopologicalSort;
+import io.improbable.keanu.algorithms.graphtraversal.VertexValuePropagation;
 import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.LambdaSection;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.NonProbabilistic;
 import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.VertexBatching;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
 
 public class RejectionSampler {
@@ -24,20 +37,79 @@ public class RejectionSampler {
         return getPosteriorProbability(latentVertices, observedVertices, isSuccess, sampleCount, KeanuRandom.getDefaultRandom());
     }
 
+    /**
+     * Estimates the probability of a success given the observations using rejection sampling.
+     * <p>
+     * Only the latent vertices that the observations depend on are sampled to propose a state. The other latent
+     * vertices are sampled only once a proposal matches the observations, so that the success check sees a complete
+     * state. If the proposed latent vertices are {@link io.improbable.keanu.vertices.Batchable} then a batch of
+     * proposals is made in each pass through the network.
+     *
+     * @param latentVertices   the latent vertices to sample
+     * @param observedVertices the observations that a sample must match
+     * @param isSuccess        checks whether the current values of the network are a success
+     * @param sampleCount      the number of samples matching the observations to take
+     * @param random           the random source to sample with
+     * @return the proportion of the samples that match the observations that are also a success
+     */
     public static double getPosteriorProbability(List<? extends Vertex> latentVertices,
                                                  List<? extends Vertex> observedVertices,
                                                  Supplier<Boolean> isSuccess,
                                                  int sampleCount,
                                                  KeanuRandom random) {
+
+        Set<Vertex> observationAncestors = getLatentAncestors(observedVertices);
+        List<Vertex> topologicallySorted = TopologicalSort.sort(latentVertices);
+        List<Vertex> proposalLatents = topologicallySorted.stream()
+            .filter(observationAncestors::contains)
+            .collect(Collectors.toList());
+        List<Vertex> remainingLatents = topologicallySorted.stream()
+            .filter(v -> !observationAncestors.contains(v))
+            .collect(Collectors.toList());
+
         int matchedSampleCount = 0;
         int success = 0;
 
-        while (matchedSampleCount < sampleCount) {
-            sampleLatents(latentVertices, random);
-            if (matchesObservation(observedVertices)) {
-                matchedSampleCount++;
-                if (isSuccess.get()) {
-                    success++;
+        if (VertexBatching.canBatch(proposalLatents)) {
+            List<int[]> proposalShapes = shapesOf(proposalLatents);
+            Map<Vertex, int[]> observedParentShapes = shapesOfParents(observedVertices);
+            int batchSize = VertexBatching.DEFAULT_BATCH_SIZE;
+
+            while (matchedSampleCount < sampleCount) {
+                VertexBatching.sampleAndCascade(proposalLatents, proposalShapes, batchSize, random);
+                boolean[] matches = matchesObservationInEachState(observedVertices, observedParentShapes, batchSize);
+
+                List<List<DoubleTensor>> proposals = new ArrayList<>();
+                for (int i = 0; i < proposalLatents.size(); i++) {
+                    DoubleTensor batched = ((DoubleVertex) proposalLatents.get(i)).getValue();
+                    proposals.add(VertexBatching.unstack(batched, proposalShapes.get(i), batchSize));
+                }
+
+                for (int state = 0; state < batchSize && matchedSampleCount < sampleCount; state++) {
+                    if (matches[state]) {
+                        for (int i = 0; i < proposalLatents.size(); i++) {
+                            ((DoubleVertex) proposalLatents.get(i)).setValue(proposals.get(i).get(state));
+                        }
+                        VertexValuePropagation.cascadeUpdate(proposalLatents);
+                        sampleLatents(remainingLatents, random);
+
+                        matchedSampleCount++;
+                        if (isSuccess.get()) {
+                            success++;
+                        }
+                    }
+                }
+            }
+        } else {
+            while (matchedSampleCount < sampleCount) {
+                sampleLatents(proposalLatents, random);
+                if (matchesObservation(observedVertices)) {
+                    sampleLatents(remainingLatents, random);
+
+                    matchedSampleCount++;
+                    if (isSuccess.get()) {
+                        success++;
+                    }
                 }
             }
         }
@@ -49,10 +121,31 @@ public class RejectionSampler {
         }
     }
 
+    /**
+     * @return the latent vertices whose values the observations depend on. Observed vertices have fixed values, so
+     * the search does not continue past them.
+     */
+    private static Set<Vertex> getLatentAncestors(Collection<? extends Vertex> observedVertices) {
+        Set<Vertex> ancestors = new HashSet<>();
+        Deque<Vertex> toVisit = new ArrayDeque<>(observedVertices);
+
+        while (!toVisit.isEmpty()) {
+            Vertex<?> visiting = toVisit.pop();
+            LambdaSection upstream = LambdaSection.getUpstreamLambdaSection(visiting, false);
+            for (Vertex<?> vertex : upstream.getLatentAndObservedVertices()) {
+                if (!vertex.isObserved() && ancestors.add(vertex)) {
+                    toVisit.push(vertex);
+                }
+            }
+        }
+        return ancestors;
+    }
+
     /**
      * Samples from the posterior of a Bayesian Network using Rejection Sampling / Accept-Reject.
      * Rejection Sampling samples from a uniform space and retains the samples in the region
-     * under the graph of the network's distribution function.
+     * under the graph of the network's distribution function. If every vertex is
+     * {@link io.improbable.keanu.vertices.Batchable} then a batch of states is proposed in each pass through the network.
      *
      * @param bayesNet the bayesian network to sample from
      * @param fromVertices the vertices to sample from
@@ -72,6 +165,12 @@ public class RejectionSampler {
 
         bayesNet.cascadeObservations();
 
+        List<Vertex> latentVertices = TopologicalSort.sort(bayesNet.getLatentVertices());
+        List<Vertex> observedVertices = bayesNet.getObservedVertices();
+        if (canSampleInBatches(latentVertices, fromVertices)) {
+            return getPosteriorSamplesInBatches(latentVertices, observedVertices, fromVertices, sampleCount, random);
+        }
+
         Map<Long, List<?>> samples = new HashMap<>();
         long acceptedCount = 0;
 
@@ -86,6 +185,119 @@ public class RejectionSampler {
         return new NetworkSamples(samples, sampleCount);
     }
 
+    private static boolean canSampleInBatches(List<Vertex> latentVertices, List<Vertex<?>> fromVertices) {
+        return VertexBatching.canBatch(latentVertices) && fromVertices.stream().allMatch(v -> v instanceof DoubleVertex);
+    }
+
+    /**
+     * Proposes many states at once by giving every latent vertex a value with a leading sample dimension, then
+     * keeps the states that match the observations.
+     */
+    private static NetworkSamples getPosteriorSamplesInBatches(List<Vertex> latentVertices,
+                                                              List<Vertex> observedVertices,
+                                                              List<Vertex<?>> fromVertices,
+                                                              int sampleCount,
+                                                              KeanuRandom random) {
+        List<int[]> latentShapes = shapesOf(latentVertices);
+        List<int[]> fromShapes = shapesOf(fromVertices);
+        Map<Vertex, int[]> observedParentShapes = shapesOfParents(observedVertices);
+
+        Map<Long, List<DoubleTensor>> samples = new HashMap<>();
+        fromVertices.forEach(v -> samples.put(v.getId(), new ArrayList<>()));
+        int batchSize = VertexBatching.DEFAULT_BATCH_SIZE;
+        int acceptedCount = 0;
+        int lastAccepted = -1;
+
+        while (acceptedCount < sampleCount) {
+            VertexBatching.sampleAndCascade(latentVertices, latentShapes, batchSize, random);
+            boolean[] matches = matchesObservationInEachState(observedVertices, observedParentShapes, batchSize);
+
+            List<List<DoubleTensor>> fromValues = new ArrayList<>();
+            for (int i = 0; i < fromVertices.size(); i++) {
+                DoubleTensor value = ((DoubleVertex) fromVertices.get(i)).getValue();
+                fromValues.add(VertexBatching.unstack(value, fromShapes.get(i), batchSize));
+            }
+
+            lastAccepted = -1;
+            for (int state = 0; state < batchSize && acceptedCount < sampleCount; state++) {
+                if (matches[state]) {
+                    for (int i = 0; i < fromVertices.size(); i++) {
+                        samples.get(fromVertices.get(i).getId()).add(fromValues.get(i).get(state));
+                    }
+                    acceptedCount++;
+                    lastAccepted = state;
+                }
+            }
+        }
+
+        if (lastAccepted >= 0) {
+            VertexBatching.setToState(latentVertices, latentShapes, batchSize, lastAccepted);
+        }
+
+        return new NetworkSamples(samples, sampleCount);
+    }
+
+    /**
+     * Observed non-probabilistic vertices, such as comparisons, are usually not batchable, so each one is checked
+     * in every state by giving its parents their values in that state in turn. Only the observed vertices are
+     * calculated once per state; the rest of the network is calculated once per batch.
+     */
+    private static boolean[] matchesObservationInEachState(List<? extends Vertex> observedVertices,
+                                                           Map<Vertex, int[]> parentShapes,
+                                                           int batchSize) {
+        boolean[] matches = new boolean[batchSize];
+        Arrays.fill(matches, true);
+
+        for (Vertex<?> observed : observedVertices) {
+            if (!(observed instanceof NonProbabilistic)) {
+                continue;
+            }
+            List<DoubleVertex> batchedParents = new ArrayList<>();
+            List<DoubleTensor> batchedValues = new ArrayList<>();
+            List<List<DoubleTensor>> valuesInEachState = new ArrayList<>();
+            for (Vertex<?> parent : observed.getParents()) {
+                if (parent instanceof DoubleVertex) {
+                    DoubleTensor batchedValue = ((DoubleVertex) parent).getValue();
+                    batchedParents.add((DoubleVertex) parent);
+                    batchedValues.add(batchedValue);
+                    valuesInEachState.add(VertexBatching.unstack(batchedValue, parentShapes.get(parent), batchSize));
+                }
+            }
+
+            for (int state = 0; state < batchSize; state++) {
+                if (matches[state]) {
+                    for (int i = 0; i < batchedParents.size(); i++) {
+                        batchedParents.get(i).setValue(valuesInEachState.get(i).get(state));
+                    }
+                    matches[state] = !((NonProbabilistic<?>) observed).contradictsObservation();
+                }
+            }
+
+            for (int i = 0; i < batchedParents.size(); i++) {
+                batchedParents.get(i).setValue(batchedValues.get(i));
+            }
+        }
+        return matches;
+    }
+
+    private static Map<Vertex, int[]> shapesOfParents(List<? extends Vertex> vertices) {
+        Map<Vertex, int[]> shapes = new HashMap<>();
+        for (Vertex<?> vertex : vertices) {
+            for (Vertex<?> parent : vertex.getParents()) {
+                shapes.put(parent, parent.getShape());
+            }
+        }
+        return shapes;
+    }
+
+    private static List<int[]> shapesOf(List<? extends Vertex> vertices) {
+        List<int[]> shapes = new ArrayList<>();
+        for (Vertex<?> vertex : vertices) {
+            shapes.add(vertex.getShape());
+        }
+        return shapes;
+    }
+
     private static void sampleLatents(List<? extends Vertex> latents, KeanuRandom random) {
         latents.forEach(vertex -> setFromSample((Vertex<?>) vertex, random));
     }
@@ -0,0 +1,260 @@
+package io.improbable.keanu.algorithms.summary;
+
+/**
+ * A mergeable sketch of the distribution of a stream of values that answers quantile queries in bounded
+ * memory, following the merging t-digest of Dunning and Ertl. Values are buffered and periodically merged
+ * into a sorted list of weighted centroids whose size is limited by the compression. Centroids near the
+ * tails are kept small so extreme quantiles are more accurate than central ones.
+ * <p>
+ * All storage is allocated up front, so adding a value never allocates.
+ */
+public class QuantileSketch {
+
+    public static final double DEFAULT_COMPRESSION = 100;
+    private static final int BUFFER_FACTOR = 5;
+
+    private final double compression;
+
+    private final double[] means;
+    private final double[] weights;
+    private int centroidCount;
+
+    private final double[] bufferedMeans;
+    private final double[] bufferedWeights;
+    private int buffered;
+
+    private final double[] mergedMeans;
+    private final double[] mergedWeights;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param compression bounds the number of centroids kept to about this many. Larger values are more
+     *                    accurate and use more memory.
+     */
+    public QuantileSketch(double compression) {
+        if (!(compression >= 10)) {
+            throw new IllegalArgumentException("Compression must be at least 10");
+        }
+        this.compression = compression;
+
+        int capacity = 2 * (int) Math.ceil(compression) + 10;
+        int bufferSize = BUFFER_FACTOR * (int) Math.ceil(compression);
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.bufferedMeans = new double[bufferSize];
+        this.bufferedWeights = new double[bufferSize];
+        this.mergedMeans = new double[capacity + bufferSize];
+        this.mergedWeights = new double[capacity + bufferSize];
+    }
+
+    public double getCompression() {
+        return compression;
+    }
+
+    /**
+     * @param value a value to add. NaN values are ignored.
+     */
+    public void add(double value) {
+        add(value, 1.0);
+    }
+
+    private void add(double value, double weight) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (buffered == bufferedMeans.length) {
+            compress();
+        }
+        bufferedMeans[buffered] = value;
+        bufferedWeights[buffered] = weight;
+        buffered++;
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds every value summarised by another sketch to this one.
+     *
+     * @param other the sketch to merge in. Its summary is unchanged although it may be compacted.
+     */
+    public void merge(QuantileSketch other) {
+        other.compress();
+        for (int i = 0; i < other.centroidCount; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @return the number of values added
+     */
+    public long getCount() {
+        return Math.round(totalWeight);
+    }
+
+    public double getMin() {
+        return totalWeight > 0 ? min : Double.NaN;
+    }
+
+    public double getMax() {
+        return totalWeight > 0 ? max : Double.NaN;
+    }
+
+    /**
+     * @param q the quantile to estimate, between 0 and 1
+     * @return the estimated value below which a fraction q of values lie, or NaN if there are no values
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1 but was " + q);
+        }
+        compress();
+
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+        if (q == 0) {
+            return min;
+        }
+        if (q == 1) {
+            return max;
+        }
+        if (centroidCount == 1) {
+            return means[0];
+        }
+
+        double index = q * totalWeight;
+
+        double firstCenter = weights[0] / 2;
+        if (index < firstCenter) {
+            return min + (means[0] - min) * index / firstCenter;
+        }
+
+        int last = centroidCount - 1;
+        double lastCenter = totalWeight - weights[last] / 2;
+        if (index > lastCenter) {
+            return means[last] + (max - means[last]) * (index - lastCenter) / (weights[last] / 2);
+        }
+
+        double center = firstCenter;
+        for (int i = 0; i < last; i++) {
+            double nextCenter = center + (weights[i] + weights[i + 1]) / 2;
+            if (index <= nextCenter) {
+                double fraction = (index - center) / (nextCenter - center);
+                return means[i] + (means[i + 1] - means[i]) * fraction;
+            }
+            center = nextCenter;
+        }
+        return means[last];
+    }
+
+    /**
+     * Merges buffered values into the centroids.
+     */
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+
+        sort(bufferedMeans, bufferedWeights, 0, buffered - 1);
+
+        int count = 0;
+        int fromCentroids = 0;
+        int fromBuffer = 0;
+        while (fromCentroids < centroidCount || fromBuffer < buffered) {
+            boolean takeCentroid = fromBuffer == buffered ||
+                (fromCentroids < centroidCount && means[fromCentroids] <= bufferedMeans[fromBuffer]);
+            if (takeCentroid) {
+                mergedMeans[count] = means[fromCentroids];
+                mergedWeights[count] = weights[fromCentroids];
+                fromCentroids++;
+            } else {
+                mergedMeans[count] = bufferedMeans[fromBuffer];
+                mergedWeights[count] = bufferedWeights[fromBuffer];
+                fromBuffer++;
+            }
+            count++;
+        }
+
+        int current = 0;
+        means[0] = mergedMeans[0];
+        weights[0] = mergedWeights[0];
+        double weightBefore = 0;
+        double scaleBefore = scale(0);
+        for (int i = 1; i < count; i++) {
+            double proposedWeight = weights[current] + mergedWeights[i];
+            if (scale((weightBefore + proposedWeight) / totalWeight) - scaleBefore <= 1) {
+                means[current] += (mergedMeans[i] - means[current]) * mergedWeights[i] / proposedWeight;
+                weights[current] = proposedWeight;
+            } else {
+                weightBefore += weights[current];
+                scaleBefore = scale(weightBefore / totalWeight);
+                current++;
+                means[current] = mergedMeans[i];
+                weights[current] = mergedWeights[i];
+            }
+        }
+
+        centroidCount = current + 1;
+        buffered = 0;
+    }
+
+    /**
+     * The k1 scale function, which limits the size of a centroid by how close it is to either tail.
+     */
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1.0, q) - 1);
+    }
+
+    private static void sort(double[] keys, double[] values, int low, int high) {
+        while (high - low > 16) {
+            double pivot = keys[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(keys, values, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (j - low < high - i) {
+                sort(keys, values, low, j);
+                low = i;
+            } else {
+                sort(keys, values, i, high);
+                high = j;
+            }
+        }
+
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && keys[j - 1] > keys[j]; j--) {
+                swap(keys, values, j, j - 1);
+            }
+        }
+    }
+
+    private static void swap(double[] keys, double[] values, int i, int j) {
+        double key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        double value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+}
@@ -0,0 +1,71 @@
+package io.improbable.keanu.algorithms.summary;
+
+/**
+ * Running count, mean and variance of a stream of values using Welford's algorithm. Two accumulators
+ * can be merged, e.g. when the same quantity has been sampled by parallel chains.
+ */
+public class RunningMoments {
+
+    private long count;
+    private double mean;
+    private double sumOfSquaredDifferences;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        sumOfSquaredDifferences += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds every value seen by another accumulator to this one.
+     *
+     * @param other the accumulator to merge in, which is left unchanged
+     */
+    public void merge(RunningMoments other) {
+        if (other.count == 0) {
+            return;
+        }
+        long combinedCount = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / combinedCount;
+        sumOfSquaredDifferences += other.sumOfSquaredDifferences + delta * delta * count * other.count / combinedCount;
+        count = combinedCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the mean, or NaN if there are no values
+     */
+    public double getMean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+
+    /**
+     * @return the unbiased sample variance, or NaN if there are fewer than 2 values
+     */
+    public double getVariance() {
+        return count > 1 ? sumOfSquaredDifferences / (count - 1) : Double.NaN;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    public double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+}
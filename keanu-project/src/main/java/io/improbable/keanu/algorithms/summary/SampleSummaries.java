@@ -0,0 +1,106 @@
+package io.improbable.keanu.algorithms.summary;
+
+import io.improbable.keanu.network.NetworkState;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming summaries of the samples of a set of vertices, for when a chain is too long to keep every
+ * sample. It accepts samples as they are generated, e.g.
+ * <pre>
+ * SampleSummaries summaries = new SampleSummaries(vertices);
+ * MetropolisHastings.withDefaultConfig()
+ *     .generatePosteriorSamples(network, vertices)
+ *     .summarize(1000000, summaries);
+ * </pre>
+ * Summaries are not thread safe. Parallel chains should each keep their own and {@link #merge} them
+ * once sampling has finished.
+ */
+public class SampleSummaries implements Consumer<NetworkState> {
+
+    private final List<Long> vertexIds;
+    private final double compression;
+    private final Map<Long, TensorSummary> summaryByVertex;
+    private long sampleCount;
+
+    public SampleSummaries(List<? extends Vertex<? extends Tensor>> vertices) {
+        this(vertices, QuantileSketch.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param vertices    the vertices to summarise. Their values must be double, integer or boolean tensors.
+     * @param compression the compression of the quantile sketch kept for each double element
+     */
+    public SampleSummaries(List<? extends Vertex<? extends Tensor>> vertices, double compression) {
+        this.vertexIds = new ArrayList<>();
+        for (Vertex<? extends Tensor> vertex : vertices) {
+            vertexIds.add(vertex.getId());
+        }
+        this.compression = compression;
+        this.summaryByVertex = new HashMap<>();
+        this.sampleCount = 0;
+    }
+
+    /**
+     * @param state a sample containing every summarised vertex
+     */
+    @Override
+    public void accept(NetworkState state) {
+        for (Long vertexId : vertexIds) {
+            Tensor<?> value = state.get(vertexId);
+            TensorSummary summary = summaryByVertex.get(vertexId);
+            if (summary == null) {
+                summary = TensorSummary.like(value, compression);
+                summaryByVertex.put(vertexId, summary);
+            }
+            summary.add(value);
+        }
+        sampleCount++;
+    }
+
+    /**
+     * Adds every sample summarised by another set of summaries of the same vertices, e.g. from a
+     * parallel chain, to these summaries.
+     *
+     * @param other the summaries to merge in
+     */
+    public void merge(SampleSummaries other) {
+        if (!other.vertexIds.equals(vertexIds)) {
+            throw new IllegalArgumentException("Can only merge summaries of the same vertices");
+        }
+        for (Map.Entry<Long, TensorSummary> entry : other.summaryByVertex.entrySet()) {
+            TensorSummary summary = summaryByVertex.get(entry.getKey());
+            if (summary == null) {
+                summary = entry.getValue().emptyCopy();
+                summaryByVertex.put(entry.getKey(), summary);
+            }
+            summary.merge(entry.getValue());
+        }
+        sampleCount += other.sampleCount;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @param vertex a summarised vertex
+     * @return the summary of the vertex's samples
+     */
+    public TensorSummary get(Vertex<? extends Tensor> vertex) {
+        if (!vertexIds.contains(vertex.getId())) {
+            throw new IllegalArgumentException("Vertex " + vertex.getId() + " is not being summarised");
+        }
+        TensorSummary summary = summaryByVertex.get(vertex.getId());
+        if (summary == null) {
+            throw new IllegalStateException("No samples have been summarised");
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,218 @@
+package io.improbable.keanu.algorithms.summary;
+
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+
+import java.util.Arrays;
+
+/**
+ * Streaming summary of the samples of one tensor valued vertex. Every element has its own running mean
+ * and variance. Double elements also have a {@link QuantileSketch}, while integer and boolean elements
+ * have a {@link ValueHistogram} from which modes and exact quantiles are taken.
+ * <p>
+ * Each sample is copied into a buffer that the summary reuses, so adding a sample does not allocate.
+ */
+public class TensorSummary {
+
+    private enum Kind {
+        DOUBLE, INTEGER, BOOLEAN
+    }
+
+    private final Kind kind;
+    private final int[] shape;
+    private final double compression;
+    private final RunningMoments[] moments;
+    private final QuantileSketch[] sketches;
+    private final ValueHistogram[] histograms;
+    private final double[] doubleValues;
+    private final int[] integerValues;
+
+    private TensorSummary(Kind kind, int[] shape, double compression) {
+        this.kind = kind;
+        this.shape = shape.clone();
+        this.compression = compression;
+
+        int length = 1;
+        for (int dimension : shape) {
+            length *= dimension;
+        }
+
+        this.moments = new RunningMoments[length];
+        for (int i = 0; i < length; i++) {
+            moments[i] = new RunningMoments();
+        }
+
+        if (kind == Kind.DOUBLE) {
+            this.sketches = new QuantileSketch[length];
+            for (int i = 0; i < length; i++) {
+                sketches[i] = new QuantileSketch(compression);
+            }
+            this.histograms = null;
+            this.doubleValues = new double[length];
+            this.integerValues = null;
+        } else {
+            this.sketches = null;
+            this.histograms = new ValueHistogram[length];
+            for (int i = 0; i < length; i++) {
+                histograms[i] = new ValueHistogram();
+            }
+            this.doubleValues = null;
+            this.integerValues = new int[length];
+        }
+    }
+
+    /**
+     * @param sample      a sample with the type and shape of all samples to be summarised
+     * @param compression the compression of each element's quantile sketch
+     * @return an empty summary for samples like the one given
+     */
+    public static TensorSummary like(Tensor<?> sample, double compression) {
+        return new TensorSummary(kindOf(sample), sample.getShape(), compression);
+    }
+
+    private static Kind kindOf(Tensor<?> value) {
+        if (value instanceof DoubleTensor) {
+            return Kind.DOUBLE;
+        } else if (value instanceof IntegerTensor) {
+            return Kind.INTEGER;
+        } else if (value instanceof BooleanTensor) {
+            return Kind.BOOLEAN;
+        }
+        throw new IllegalArgumentException("Cannot summarise samples of type " + value.getClass().getSimpleName());
+    }
+
+    public void add(Tensor<?> sample) {
+        if (kindOf(sample) != kind || !sample.hasSameShapeAs(shape)) {
+            throw new IllegalArgumentException("All summarised samples must have the same type and shape");
+        }
+
+        if (kind == Kind.DOUBLE) {
+            sample.copyFlatDoubleArrayTo(doubleValues);
+            for (int i = 0; i < moments.length; i++) {
+                moments[i].add(doubleValues[i]);
+                sketches[i].add(doubleValues[i]);
+            }
+        } else {
+            //booleans are flattened to 1 and 0
+            sample.copyFlatIntegerArrayTo(integerValues);
+            for (int i = 0; i < moments.length; i++) {
+                moments[i].add(integerValues[i]);
+                histograms[i].add(integerValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds every sample summarised by another summary of the same type and shape to this one.
+     */
+    public void merge(TensorSummary other) {
+        if (other.kind != kind || !Arrays.equals(other.shape, shape)) {
+            throw new IllegalArgumentException("Can only merge summaries of the same type and shape");
+        }
+        for (int i = 0; i < moments.length; i++) {
+            moments[i].merge(other.moments[i]);
+            if (sketches != null) {
+                sketches[i].merge(other.sketches[i]);
+            } else {
+                histograms[i].merge(other.histograms[i]);
+            }
+        }
+    }
+
+    /**
+     * @return an empty summary of the same type and shape
+     */
+    TensorSummary emptyCopy() {
+        return new TensorSummary(kind, shape, compression);
+    }
+
+    public int[] getShape() {
+        return shape.clone();
+    }
+
+    public long getCount() {
+        return moments[0].getCount();
+    }
+
+    public DoubleTensor getMean() {
+        double[] mean = new double[moments.length];
+        for (int i = 0; i < mean.length; i++) {
+            mean[i] = moments[i].getMean();
+        }
+        return DoubleTensor.create(mean, shape.clone());
+    }
+
+    public DoubleTensor getVariance() {
+        double[] variance = new double[moments.length];
+        for (int i = 0; i < variance.length; i++) {
+            variance[i] = moments[i].getVariance();
+        }
+        return DoubleTensor.create(variance, shape.clone());
+    }
+
+    public DoubleTensor getStandardDeviation() {
+        return getVariance().sqrtInPlace();
+    }
+
+    /**
+     * @param q the quantile, between 0 and 1
+     * @return the estimated quantile of each element. Exact for integer and boolean samples.
+     */
+    public DoubleTensor getQuantile(double q) {
+        double[] quantile = new double[moments.length];
+        for (int i = 0; i < quantile.length; i++) {
+            quantile[i] = sketches != null ? sketches[i].quantile(q) : histograms[i].quantile(q);
+        }
+        return DoubleTensor.create(quantile, shape.clone());
+    }
+
+    /**
+     * @return the most common value of each element, as an integer or boolean tensor
+     * @throws IllegalStateException if the samples are doubles, for which the mode is not tracked
+     */
+    public Tensor<?> getMode() {
+        if (histograms == null) {
+            throw new IllegalStateException("Mode is only tracked for integer and boolean samples");
+        }
+
+        int[] mode = new int[histograms.length];
+        for (int i = 0; i < mode.length; i++) {
+            mode[i] = histograms[i].getMode();
+        }
+
+        if (kind == Kind.INTEGER) {
+            return IntegerTensor.create(mode, shape.clone());
+        }
+        boolean[] booleanMode = new boolean[mode.length];
+        for (int i = 0; i < mode.length; i++) {
+            booleanMode[i] = mode[i] != 0;
+        }
+        return BooleanTensor.create(booleanMode, shape.clone());
+    }
+
+    public RunningMoments getMoments(int element) {
+        return moments[element];
+    }
+
+    /**
+     * @return the quantile sketch of a double element
+     */
+    public QuantileSketch getQuantileSketch(int element) {
+        if (sketches == null) {
+            throw new IllegalStateException("Quantile sketches are only kept for double samples");
+        }
+        return sketches[element];
+    }
+
+    /**
+     * @return the value counts of an integer or boolean element, where booleans are counted as 0 and 1
+     */
+    public ValueHistogram getHistogram(int element) {
+        if (histograms == null) {
+            throw new IllegalStateException("Histograms are only kept for integer and boolean samples");
+        }
+        return histograms[element];
+    }
+}
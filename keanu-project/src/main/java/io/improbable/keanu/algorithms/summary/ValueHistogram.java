@@ -0,0 +1,168 @@
+package io.improbable.keanu.algorithms.summary;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts how often each integer value occurs in a stream, e.g. the samples of one element of an integer
+ * or boolean vertex. Counts are held in a primitive open addressing hash table, so adding a value only
+ * allocates when a previously unseen value needs the table to grow.
+ */
+public class ValueHistogram {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] keys;
+    private long[] counts;
+    private int distinctCount;
+    private long totalCount;
+
+    public ValueHistogram() {
+        this.keys = new int[INITIAL_CAPACITY];
+        this.counts = new long[INITIAL_CAPACITY];
+    }
+
+    public void add(int value) {
+        add(value, 1);
+    }
+
+    private void add(int value, long count) {
+        int slot = slotOf(keys, counts, value);
+        if (counts[slot] == 0) {
+            keys[slot] = value;
+            distinctCount++;
+            if (distinctCount * 2 > keys.length) {
+                counts[slot] = count;
+                totalCount += count;
+                grow();
+                return;
+            }
+        }
+        counts[slot] += count;
+        totalCount += count;
+    }
+
+    /**
+     * Adds every count from another histogram to this one.
+     *
+     * @param other the histogram to merge in, which is left unchanged
+     */
+    public void merge(ValueHistogram other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.counts[slot] != 0) {
+                add(other.keys[slot], other.counts[slot]);
+            }
+        }
+    }
+
+    /**
+     * @return the number of values added
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getCount(int value) {
+        int slot = slotOf(keys, counts, value);
+        return counts[slot];
+    }
+
+    /**
+     * @return the most common value. Ties go to the smallest value.
+     */
+    public int getMode() {
+        if (totalCount == 0) {
+            throw new IllegalStateException("Mode for empty samples is undefined");
+        }
+        int mode = 0;
+        long modeCount = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            long count = counts[slot];
+            if (count > modeCount || (count == modeCount && count != 0 && keys[slot] < mode)) {
+                mode = keys[slot];
+                modeCount = count;
+            }
+        }
+        return mode;
+    }
+
+    /**
+     * @param q the quantile, between 0 and 1
+     * @return the smallest value for which at least a fraction q of values are less than or equal to it
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1 but was " + q);
+        }
+        if (totalCount == 0) {
+            return Double.NaN;
+        }
+
+        int[] values = getValues();
+        double target = q * totalCount;
+        long cumulative = 0;
+        for (int value : values) {
+            cumulative += getCount(value);
+            if (cumulative >= target) {
+                return value;
+            }
+        }
+        return values[values.length - 1];
+    }
+
+    /**
+     * @return every value seen in ascending order
+     */
+    public int[] getValues() {
+        int[] values = new int[distinctCount];
+        int i = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (counts[slot] != 0) {
+                values[i++] = keys[slot];
+            }
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    /**
+     * @return the count of every value seen, ordered by value
+     */
+    public Map<Integer, Long> asMap() {
+        Map<Integer, Long> map = new TreeMap<>();
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (counts[slot] != 0) {
+                map.put(keys[slot], counts[slot]);
+            }
+        }
+        return map;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new int[oldKeys.length * 2];
+        counts = new long[oldCounts.length * 2];
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldCounts[slot] != 0) {
+                int newSlot = slotOf(keys, counts, oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                counts[newSlot] = oldCounts[slot];
+            }
+        }
+    }
+
+    /**
+     * @return the slot holding the value, or the empty slot it would be placed in
+     */
+    private static int slotOf(int[] keys, long[] counts, int value) {
+        int mask = keys.length - 1;
+        int hash = value * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (counts[slot] != 0 && keys[slot] != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
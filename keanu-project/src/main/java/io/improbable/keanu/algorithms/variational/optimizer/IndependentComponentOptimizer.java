@@ -0,0 +1,110 @@
+package io.improbable.keanu.algorithms.variational.optimizer;
+
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.vertices.ProbabilityCalculator;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Optimizes each of the independent components of a network, as found by
+ * {@link BayesianNetwork#getIndependentComponents()}, with its own optimizer. The components are optimized on the
+ * available cores at once, and each optimizer only searches the few dimensions of its own component.
+ * <p>
+ * Fitness calculation handlers are passed to the optimizer of every component, so are given the point and fitness
+ * of one component at a time and may be called from several threads at once.
+ */
+public class IndependentComponentOptimizer implements Optimizer {
+
+    public static IndependentComponentOptimizer of(BayesianNetwork network) {
+        return of(network, Optimizer::of);
+    }
+
+    /**
+     * @param network          the network to optimize
+     * @param optimizerFactory creates the optimizer of each component that has latent vertices
+     */
+    public static IndependentComponentOptimizer of(BayesianNetwork network,
+                                                   Function<BayesianNetwork, ? extends Optimizer> optimizerFactory) {
+        List<Optimizer> optimizers = network.getIndependentComponents().stream()
+            .filter(component -> !component.getLatentVertices().isEmpty())
+            .map(optimizerFactory)
+            .collect(Collectors.toList());
+
+        return new IndependentComponentOptimizer(network, optimizers);
+    }
+
+    private final BayesianNetwork bayesianNetwork;
+    private final List<Optimizer> optimizers;
+
+    private IndependentComponentOptimizer(BayesianNetwork bayesianNetwork, List<Optimizer> optimizers) {
+        this.bayesianNetwork = bayesianNetwork;
+        this.optimizers = optimizers;
+    }
+
+    @Override
+    public void onFitnessCalculation(BiConsumer<double[], Double> fitnessCalculationHandler) {
+        for (Optimizer optimizer : optimizers) {
+            optimizer.onFitnessCalculation(fitnessCalculationHandler);
+        }
+    }
+
+    @Override
+    public double maxAPosteriori() {
+        if (bayesianNetwork.getLatentAndObservedVertices().isEmpty()) {
+            throw new IllegalArgumentException("Cannot find MAP of network without any probabilistic vertices");
+        }
+        return optimize(
+            BayesianNetwork::getLatentAndObservedVertices,
+            optimizer -> true,
+            Optimizer::maxAPosteriori
+        );
+    }
+
+    @Override
+    public double maxLikelihood() {
+        if (bayesianNetwork.getObservedVertices().isEmpty()) {
+            throw new IllegalArgumentException("Cannot find max likelihood of network without any observations");
+        }
+        return optimize(
+            BayesianNetwork::getObservedVertices,
+            optimizer -> !optimizer.getBayesianNetwork().getObservedVertices().isEmpty(),
+            Optimizer::maxLikelihood
+        );
+    }
+
+    /**
+     * Optimizes the chosen components at once. The fitness of the network is the sum of their fitnesses and of the
+     * log probability of the output vertices that are not in any of them, which does not depend on the latent
+     * vertices.
+     */
+    private double optimize(Function<BayesianNetwork, List<Vertex>> outputVertices,
+                            Predicate<Optimizer> isOptimized,
+                            ToDoubleFunction<Optimizer> optimize) {
+        bayesianNetwork.cascadeObservations();
+
+        List<Optimizer> optimized = optimizers.stream()
+            .filter(isOptimized)
+            .collect(Collectors.toList());
+
+        Set<Vertex> remainingOutputVertices = new HashSet<>(outputVertices.apply(bayesianNetwork));
+        for (Optimizer optimizer : optimized) {
+            remainingOutputVertices.removeAll(optimizer.getBayesianNetwork().getVertices());
+        }
+
+        return optimized.parallelStream().mapToDouble(optimize).sum()
+            + ProbabilityCalculator.calculateLogProbFor(remainingOutputVertices);
+    }
+
+    @Override
+    public BayesianNetwork getBayesianNetwork() {
+        return bayesianNetwork;
+    }
+}
@@ -6,4 +6,12 @@ import io.improbable.keanu.vertices.dbl.KeanuRandom;
 public interface Distribution<T> {
     T sample(int[] shape, KeanuRandom random);
     DoubleTensor logProb(T x);
+
+    /**
+     * @param x the values to evaluate the log probability of
+     * @return the sum of the log probabilities of every element of x
+     */
+    default double logProbSum(T x) {
+        return logProb(x).sum();
+    }
 }
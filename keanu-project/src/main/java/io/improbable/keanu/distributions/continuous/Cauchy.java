@@ -3,6 +3,7 @@ package io.improbable.keanu.distributions.continuous;
 import io.improbable.keanu.distributions.ContinuousDistribution;
 import io.improbable.keanu.distributions.dual.Diffs;
 
+import io.improbable.keanu.tensor.dbl.DoubleExpression;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
 
@@ -36,11 +37,20 @@ public class Cauchy implements ContinuousDistribution {
 
     @Override
     public DoubleTensor logProb(DoubleTensor x) {
-        final DoubleTensor negLnScaleMinusLnPi = scale.log().unaryMinusInPlace().plusInPlace(NEG_LOG_PI);
-        final DoubleTensor xMinusLocationOverScalePow2Plus1 = x.minus(location).divInPlace(scale).powInPlace(2).plusInPlace(1);
-        final DoubleTensor lnXMinusLocationOverScalePow2Plus1 = xMinusLocationOverScalePow2Plus1.logInPlace();
+        return logProbExpression(x).evaluate();
+    }
+
+    @Override
+    public double logProbSum(DoubleTensor x) {
+        return logProbExpression(x).sum();
+    }
+
+    private DoubleExpression logProbExpression(DoubleTensor x) {
+        final DoubleExpression negLnScaleMinusLnPi = DoubleExpression.of(scale).log().unaryMinus().plus(NEG_LOG_PI);
+        final DoubleExpression xMinusLocationOverScalePow2Plus1 = DoubleExpression.of(x).minus(location).div(scale).pow(2).plus(1);
+        final DoubleExpression lnXMinusLocationOverScalePow2Plus1 = xMinusLocationOverScalePow2Plus1.log();
 
-        return negLnScaleMinusLnPi.minusInPlace(lnXMinusLocationOverScalePow2Plus1);
+        return negLnScaleMinusLnPi.minus(lnXMinusLocationOverScalePow2Plus1);
     }
 
     @Override
@@ -6,6 +6,7 @@ import static io.improbable.keanu.distributions.dual.Diffs.X;
 
 import io.improbable.keanu.distributions.ContinuousDistribution;
 import io.improbable.keanu.distributions.dual.Diffs;
+import io.improbable.keanu.tensor.dbl.DoubleExpression;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
 
@@ -33,22 +34,32 @@ public class Gaussian implements ContinuousDistribution {
 
     @Override
     public DoubleTensor logProb(DoubleTensor x) {
-        final DoubleTensor lnSigma = sigma.log();
-        final DoubleTensor xMinusMuSquared = x.minus(mu).powInPlace(2);
-        final DoubleTensor xMinusMuSquaredOver2Variance = xMinusMuSquared.divInPlace(sigma.pow(2).timesInPlace(2.0));
-        return xMinusMuSquaredOver2Variance.plusInPlace(lnSigma).plusInPlace(LN_SQRT_2PI).unaryMinusInPlace();
+        return logProbExpression(x).evaluate();
+    }
+
+    @Override
+    public double logProbSum(DoubleTensor x) {
+        return logProbExpression(x).sum();
+    }
+
+    private DoubleExpression logProbExpression(DoubleTensor x) {
+        final DoubleExpression lnSigma = DoubleExpression.of(sigma).log();
+        final DoubleExpression xMinusMuSquared = DoubleExpression.of(x).minus(mu).pow(2);
+        final DoubleExpression xMinusMuSquaredOver2Variance = xMinusMuSquared.div(DoubleExpression.of(sigma).pow(2).times(2.0));
+        return xMinusMuSquaredOver2Variance.plus(lnSigma).plus(LN_SQRT_2PI).unaryMinus();
     }
 
     @Override
     public Diffs dLogProb(DoubleTensor x) {
-        final DoubleTensor variance = sigma.pow(2);
-        final DoubleTensor xMinusMu = x.minus(mu);
+        final DoubleExpression variance = DoubleExpression.of(sigma).pow(2);
+        final DoubleExpression xMinusMu = DoubleExpression.of(x).minus(mu);
 
-        final DoubleTensor dLogPdmu = xMinusMu.div(variance);
+        final DoubleTensor dLogPdmu = xMinusMu.div(variance).evaluate();
         final DoubleTensor dLogPdx = dLogPdmu.unaryMinus();
-        final DoubleTensor dLogPdsigma = xMinusMu.powInPlace(2)
-            .divInPlace(variance.timesInPlace(sigma))
-            .minusInPlace(sigma.reciprocal());
+        final DoubleTensor dLogPdsigma = xMinusMu.pow(2)
+            .div(variance.times(sigma))
+            .minus(DoubleExpression.of(sigma).reciprocal())
+            .evaluate();
 
         return new Diffs()
             .put(MU, dLogPdmu)
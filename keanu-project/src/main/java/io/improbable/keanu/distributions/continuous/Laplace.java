@@ -9,6 +9,7 @@ import org.nd4j.linalg.util.ArrayUtil;
 import io.improbable.keanu.distributions.ContinuousDistribution;
 import io.improbable.keanu.distributions.dual.Diffs;
 import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.dbl.DoubleExpression;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
 
@@ -33,10 +34,10 @@ public class Laplace implements ContinuousDistribution {
 
     @Override
     public DoubleTensor sample(int[] shape, KeanuRandom random) {
-        Tensor.FlattenedView<Double> muWrapped = mu.getFlattenedView();
-        Tensor.FlattenedView<Double> betaWrapped = beta.getFlattenedView();
-
         int length = ArrayUtil.prod(shape);
+        Tensor.FlattenedView<Double> muWrapped = broadcastTo(mu, shape, length).getFlattenedView();
+        Tensor.FlattenedView<Double> betaWrapped = broadcastTo(beta, shape, length).getFlattenedView();
+
         double[] samples = new double[length];
         for (int i = 0; i < length; i++) {
             samples[i] = sample(muWrapped.getOrScalar(i), betaWrapped.getOrScalar(i), random);
@@ -45,6 +46,17 @@ public class Laplace implements ContinuousDistribution {
         return DoubleTensor.create(samples, shape);
     }
 
+    /**
+     * Parameters are read element by element, so a parameter that is neither scalar nor the size of the sample,
+     * such as one that is shared by a batch of samples, is first broadcast to the sample shape.
+     */
+    private static DoubleTensor broadcastTo(DoubleTensor parameter, int[] shape, int length) {
+        if (parameter.getLength() == 1 || parameter.getLength() == length) {
+            return parameter;
+        }
+        return DoubleTensor.zeros(shape).plusInPlace(parameter);
+    }
+
     private static double sample(double mu, double beta, KeanuRandom random) {
         if (beta <= 0.0) {
             throw new IllegalArgumentException("Invalid value for beta: " + beta);
@@ -58,9 +70,18 @@ public class Laplace implements ContinuousDistribution {
 
     @Override
     public DoubleTensor logProb(DoubleTensor x) {
-        final DoubleTensor muMinusXAbsNegDivBeta = mu.minus(x).abs().divInPlace(beta);
-        final DoubleTensor logTwoBeta = beta.times(2).logInPlace();
-        return muMinusXAbsNegDivBeta.plusInPlace(logTwoBeta).unaryMinus();
+        return logProbExpression(x).evaluate();
+    }
+
+    @Override
+    public double logProbSum(DoubleTensor x) {
+        return logProbExpression(x).sum();
+    }
+
+    private DoubleExpression logProbExpression(DoubleTensor x) {
+        final DoubleExpression muMinusXAbsNegDivBeta = DoubleExpression.of(mu).minus(x).abs().div(beta);
+        final DoubleExpression logTwoBeta = DoubleExpression.of(beta).times(2).log();
+        return muMinusXAbsNegDivBeta.plus(logTwoBeta).unaryMinus();
     }
 
     @Override
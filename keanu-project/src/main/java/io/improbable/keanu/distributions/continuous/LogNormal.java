@@ -7,6 +7,7 @@ import static io.improbable.keanu.distributions.dual.Diffs.X;
 
 import io.improbable.keanu.distributions.ContinuousDistribution;
 import io.improbable.keanu.distributions.dual.Diffs;
+import io.improbable.keanu.tensor.dbl.DoubleExpression;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
 
@@ -36,10 +37,19 @@ public class LogNormal implements ContinuousDistribution {
 
     @Override
     public DoubleTensor logProb(DoubleTensor x) {
-        final DoubleTensor lnSigmaX = sigma.times(x).logInPlace();
-        final DoubleTensor lnXMinusMuSquared = x.log().minusInPlace(mu).powInPlace(2);
-        final DoubleTensor lnXMinusMuSquaredOver2Variance = lnXMinusMuSquared.divInPlace(sigma.pow(2).timesInPlace(2.0));
-        return lnXMinusMuSquaredOver2Variance.plusInPlace(lnSigmaX).plusInPlace(LN_SQRT_2PI).unaryMinusInPlace();
+        return logProbExpression(x).evaluate();
+    }
+
+    @Override
+    public double logProbSum(DoubleTensor x) {
+        return logProbExpression(x).sum();
+    }
+
+    private DoubleExpression logProbExpression(DoubleTensor x) {
+        final DoubleExpression lnSigmaX = DoubleExpression.of(sigma).times(x).log();
+        final DoubleExpression lnXMinusMuSquared = DoubleExpression.of(x).log().minus(mu).pow(2);
+        final DoubleExpression lnXMinusMuSquaredOver2Variance = lnXMinusMuSquared.div(DoubleExpression.of(sigma).pow(2).times(2.0));
+        return lnXMinusMuSquaredOver2Variance.plus(lnSigmaX).plus(LN_SQRT_2PI).unaryMinus();
     }
 
     @Override
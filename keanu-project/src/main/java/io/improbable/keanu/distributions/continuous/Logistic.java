@@ -6,6 +6,7 @@ import static io.improbable.keanu.distributions.dual.Diffs.X;
 
 import io.improbable.keanu.distributions.ContinuousDistribution;
 import io.improbable.keanu.distributions.dual.Diffs;
+import io.improbable.keanu.tensor.dbl.DoubleExpression;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
 
@@ -35,11 +36,20 @@ public class Logistic implements ContinuousDistribution {
 
     @Override
     public DoubleTensor logProb(DoubleTensor x) {
-        final DoubleTensor xMinusAOverB = x.minus(mu).divInPlace(s);
-        final DoubleTensor ln1OverB = s.reciprocal().logInPlace();
+        return logProbExpression(x).evaluate();
+    }
+
+    @Override
+    public double logProbSum(DoubleTensor x) {
+        return logProbExpression(x).sum();
+    }
+
+    private DoubleExpression logProbExpression(DoubleTensor x) {
+        final DoubleExpression xMinusAOverB = DoubleExpression.of(x).minus(mu).div(s);
+        final DoubleExpression ln1OverB = DoubleExpression.of(s).reciprocal().log();
 
-        return xMinusAOverB.plus(ln1OverB).minusInPlace(
-            xMinusAOverB.expInPlace().plusInPlace(1).logInPlace().timesInPlace(2)
+        return xMinusAOverB.plus(ln1OverB).minus(
+            xMinusAOverB.exp().plus(1).log().times(2)
         );
     }
 
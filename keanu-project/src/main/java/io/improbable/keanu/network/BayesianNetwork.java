@@ -1,6 +1,9 @@
 package io.improbable.keanu.network;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -32,6 +35,13 @@ public class BayesianNetwork {
         this(new HashSet<>(vertices));
     }
 
+    /**
+     * @return every vertex in the network
+     */
+    public List<? extends Vertex> getVertices() {
+        return vertices;
+    }
+
     public Vertex getVertexByLabel(VertexLabel label) {
         return vertexLabels.get(label);
     }
@@ -76,10 +86,77 @@ public class BayesianNetwork {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Splits the network into parts that do not depend on each other, such as the models of separate entities
+     * that have been built into one network. The master probability of the network is the product of the master
+     * probabilities of the parts, so each can be sampled or optimized on its own.
+     * <p>
+     * Two vertices of the network are in the same part if they are connected through vertices whose values can
+     * change, including vertices that are not in the network. Vertices whose values cannot change, which are
+     * those that are not probabilistic and have no parents, do not join the parts they are used by, so a constant
+     * shared by several parts is in each of them.
+     *
+     * @return a network for each part, holding the vertices of this network that are in it
+     */
+    public List<BayesianNetwork> getIndependentComponents() {
+        Set<Vertex> inNetwork = new HashSet<>(vertices);
+        Set<Vertex> discovered = new HashSet<>();
+        List<BayesianNetwork> components = new ArrayList<>();
+
+        for (Vertex<?> start : vertices) {
+            if (isFixed(start) || discovered.contains(start)) {
+                continue;
+            }
+
+            Set<Vertex> component = new HashSet<>();
+            Deque<Vertex<?>> stack = new ArrayDeque<>();
+            discovered.add(start);
+            stack.addFirst(start);
+
+            while (!stack.isEmpty()) {
+                Vertex<?> visiting = stack.removeFirst();
+                if (inNetwork.contains(visiting)) {
+                    component.add(visiting);
+                }
+
+                List<Vertex> neighbours = new ArrayList<>(visiting.getChildren());
+                neighbours.addAll(visiting.getParents());
+                for (Vertex<?> neighbour : neighbours) {
+                    if (isFixed(neighbour)) {
+                        if (inNetwork.contains(neighbour)) {
+                            component.add(neighbour);
+                        }
+                    } else if (discovered.add(neighbour)) {
+                        stack.addFirst(neighbour);
+                    }
+                }
+            }
+
+            components.add(new BayesianNetwork(component));
+        }
+
+        return components;
+    }
+
+    private static boolean isFixed(Vertex<?> vertex) {
+        return !vertex.isProbabilistic() && vertex.getParents().isEmpty();
+    }
+
     public double getLogOfMasterP() {
         return ProbabilityCalculator.calculateLogProbFor(getLatentAndObservedVertices());
     }
 
+    /**
+     * Calculates the log of the master probability for each of a batch of states, evaluating the whole batch at
+     * once where the network supports it. The latent vertex values are unchanged afterwards.
+     *
+     * @param states states holding a value for every latent vertex
+     * @return the log of the master probability of each state, in the same order as the states
+     */
+    public double[] getLogOfMasterP(List<? extends NetworkState> states) {
+        return ProbabilityCalculator.calculateLogProbsFor(getLatentAndObservedVertices(), states);
+    }
+
     public void cascadeObservations() {
         VertexValuePropagation.cascadeUpdate(getObservedVertices());
     }
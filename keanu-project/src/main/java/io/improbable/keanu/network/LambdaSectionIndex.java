@@ -0,0 +1,337 @@
+package io.improbable.keanu.network;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import io.improbable.keanu.vertices.Vertex;
+
+/**
+ * The downstream {@link LambdaSection} and Markov blanket of each of a set of vertices, found together for a whole
+ * network. Finding them one vertex at a time builds several hash sets per vertex, which on networks with many
+ * thousands of latent vertices takes longer than sampling does.
+ * <p>
+ * Each vertex is numbered the first time a search reaches it, and the edges of the vertices the searches pass
+ * through are kept as arrays of numbers. Each section is found by a depth first search over those arrays that
+ * marks the vertices it has visited with the number of the search, so a vertex that is in many sections is only
+ * looked up once. The sections of every vertex are stored end to end in one shared array.
+ * <p>
+ * Each downstream section is still its own search, so finding them all takes time in proportion to the sum of
+ * their sizes, as it does one vertex at a time, and only saves building the hash sets. The Markov blankets do
+ * share work, as the upstream section of each latent and observed vertex is found once for every blanket it is in.
+ * <p>
+ * As with {@link LambdaSection}, the sections are found for the vertices that are observed or probabilistic when
+ * the index is created. The index can be read from several threads at once.
+ */
+public class LambdaSectionIndex {
+
+    private final CompactGraph graph;
+    private final Map<Vertex, Integer> indexOfVertex;
+    private final int[] givenNumbers;
+
+    //the sections of the i-th given vertex are from sectionStart[i], with the latent and observed vertices first
+    //up to latentAndObservedEnd[i] and the non-probabilistic vertices after them up to sectionStart[i + 1]
+    private final Vertex[] sectionVertices;
+    private final int[] sectionStart;
+    private final int[] latentAndObservedEnd;
+    private final int[] sections;
+
+    private volatile Blankets blankets;
+
+    /**
+     * @param fromVertices the vertices to find the downstream lambda sections and Markov blankets of
+     * @return the index of their sections
+     */
+    public static LambdaSectionIndex of(Collection<? extends Vertex> fromVertices) {
+        return new LambdaSectionIndex(fromVertices);
+    }
+
+    private LambdaSectionIndex(Collection<? extends Vertex> fromVertices) {
+        graph = new CompactGraph();
+        indexOfVertex = new HashMap<>();
+        givenNumbers = new int[fromVertices.size()];
+        sectionStart = new int[fromVertices.size() + 1];
+        latentAndObservedEnd = new int[fromVertices.size()];
+        IntList found = new IntList();
+        IntList nonProbabilistic = new IntList();
+
+        int i = 0;
+        for (Vertex vertex : fromVertices) {
+            indexOfVertex.put(vertex, i);
+            givenNumbers[i] = graph.number(vertex);
+            sectionStart[i] = found.size;
+
+            nonProbabilistic.size = 0;
+            graph.search(givenNumbers[i], true, found, nonProbabilistic);
+            latentAndObservedEnd[i] = found.size;
+            found.addAll(nonProbabilistic);
+            i++;
+        }
+        sectionStart[i] = found.size;
+        sections = found.toArray();
+        sectionVertices = graph.getVertices();
+    }
+
+    /**
+     * @return the latent and observed vertices of the downstream lambda section of the vertex, including itself
+     * @throws IllegalArgumentException if the vertex was not given to the index
+     */
+    public List<Vertex> getDownstreamLatentAndObservedVertices(Vertex<?> vertex) {
+        int i = getIndex(vertex);
+        return new VertexList(sectionVertices, sections, sectionStart[i], latentAndObservedEnd[i]);
+    }
+
+    /**
+     * @return every vertex of the downstream lambda section of the vertex, including itself
+     * @throws IllegalArgumentException if the vertex was not given to the index
+     */
+    public List<Vertex> getDownstreamVertices(Vertex<?> vertex) {
+        int i = getIndex(vertex);
+        return new VertexList(sectionVertices, sections, sectionStart[i], sectionStart[i + 1]);
+    }
+
+    /**
+     * The blankets of every given vertex are found together the first time one is asked for, sharing the upstream
+     * lambda section of each latent and observed vertex between all the blankets it is in.
+     *
+     * @return the vertices of the Markov blanket of the vertex, as found by
+     * {@link io.improbable.keanu.algorithms.graphtraversal.MarkovBlanket#get(Vertex)}
+     * @throws IllegalArgumentException if the vertex was not given to the index
+     */
+    public List<Vertex> getMarkovBlanket(Vertex<?> vertex) {
+        int i = getIndex(vertex);
+        Blankets found = blankets;
+        if (found == null) {
+            found = findMarkovBlankets();
+        }
+        return new VertexList(found.vertices, found.members, found.start[i], found.start[i + 1]);
+    }
+
+    private synchronized Blankets findMarkovBlankets() {
+        if (blankets != null) {
+            return blankets;
+        }
+
+        //the upstream lambda section of each latent and observed vertex, found as it is first needed
+        Map<Integer, int[]> upstream = new HashMap<>();
+        IntList found = new IntList();
+        IntList ignored = new IntList();
+
+        int[] start = new int[sectionStart.length];
+        IntList blanket = new IntList();
+        IntList all = new IntList();
+        for (int i = 0; i < latentAndObservedEnd.length; i++) {
+            start[i] = all.size;
+            int self = givenNumbers[i];
+
+            blanket.size = 0;
+            addUpstream(self, upstream, found, ignored, blanket);
+            for (int s = sectionStart[i]; s < latentAndObservedEnd[i]; s++) {
+                blanket.add(sections[s]);
+                addUpstream(sections[s], upstream, found, ignored, blanket);
+            }
+
+            int[] members = blanket.toArray();
+            Arrays.sort(members);
+            for (int m = 0; m < members.length; m++) {
+                if (members[m] != self && (m == 0 || members[m] != members[m - 1])) {
+                    all.add(members[m]);
+                }
+            }
+        }
+        start[latentAndObservedEnd.length] = all.size;
+
+        blankets = new Blankets(graph.getVertices(), start, all.toArray());
+        return blankets;
+    }
+
+    private void addUpstream(int vertex, Map<Integer, int[]> upstream, IntList found, IntList ignored, IntList to) {
+        int[] section = upstream.get(vertex);
+        if (section == null) {
+            found.size = 0;
+            ignored.size = 0;
+            graph.search(vertex, false, found, ignored);
+            section = found.toArray();
+            upstream.put(vertex, section);
+        }
+        to.addAll(section);
+    }
+
+    private int getIndex(Vertex<?> vertex) {
+        Integer i = indexOfVertex.get(vertex);
+        if (i == null) {
+            throw new IllegalArgumentException("Vertex " + vertex.getId() + " is not in the lambda section index");
+        }
+        return i;
+    }
+
+    /**
+     * The vertices that searches have reached, numbered in the order they were reached, and the edges of those
+     * that searches have passed through. Only used while the index is created and while the blankets are found.
+     */
+    private static class CompactGraph {
+
+        private final Map<Vertex, Integer> numbers = new HashMap<>();
+        private final IntList stack = new IntList();
+        private Vertex[] vertices = new Vertex[16];
+        private boolean[] isLatentOrObserved = new boolean[16];
+        private int[][] children = new int[16][];
+        private int[][] parents = new int[16][];
+        private int[] visitedBy = new int[16];
+        private int size;
+        private int searchNumber;
+
+        int number(Vertex<?> vertex) {
+            Integer number = numbers.get(vertex);
+            if (number != null) {
+                return number;
+            }
+
+            if (size == vertices.length) {
+                int capacity = size * 2;
+                vertices = Arrays.copyOf(vertices, capacity);
+                isLatentOrObserved = Arrays.copyOf(isLatentOrObserved, capacity);
+                children = Arrays.copyOf(children, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+                visitedBy = Arrays.copyOf(visitedBy, capacity);
+            }
+            vertices[size] = vertex;
+            isLatentOrObserved[size] = vertex.isObserved() || vertex.isProbabilistic();
+            numbers.put(vertex, size);
+            return size++;
+        }
+
+        Vertex[] getVertices() {
+            return Arrays.copyOf(vertices, size);
+        }
+
+        /**
+         * Searches from the vertex to its children or to its parents, not going past latent or observed vertices.
+         *
+         * @param latentOrObserved the vertex and the latent and observed vertices found are added to this
+         * @param nonProbabilistic the non-probabilistic vertices found are added to this
+         */
+        void search(int from, boolean downstream, IntList latentOrObserved, IntList nonProbabilistic) {
+            int search = ++searchNumber;
+            stack.size = 0;
+            visitedBy[from] = search;
+            stack.add(from);
+
+            while (stack.size > 0) {
+                int visiting = stack.values[--stack.size];
+                if (visiting != from && isLatentOrObserved[visiting]) {
+                    latentOrObserved.add(visiting);
+                    continue;
+                }
+                (isLatentOrObserved[visiting] ? latentOrObserved : nonProbabilistic).add(visiting);
+
+                for (int next : downstream ? getChildren(visiting) : getParents(visiting)) {
+                    if (visitedBy[next] != search) {
+                        visitedBy[next] = search;
+                        stack.add(next);
+                    }
+                }
+            }
+        }
+
+        private int[] getChildren(int vertex) {
+            if (children[vertex] == null) {
+                //numbering may grow the arrays, so is done before the array to store into is read
+                int[] numbered = number(vertices[vertex].getChildren());
+                children[vertex] = numbered;
+            }
+            return children[vertex];
+        }
+
+        private int[] getParents(int vertex) {
+            if (parents[vertex] == null) {
+                int[] numbered = number(vertices[vertex].getParents());
+                parents[vertex] = numbered;
+            }
+            return parents[vertex];
+        }
+
+        private int[] number(Collection<Vertex> connected) {
+            int[] result = new int[connected.size()];
+            int i = 0;
+            for (Vertex vertex : connected) {
+                result[i++] = number(vertex);
+            }
+            return result;
+        }
+    }
+
+    private static class Blankets {
+
+        private final Vertex[] vertices;
+        private final int[] start;
+        private final int[] members;
+
+        Blankets(Vertex[] vertices, int[] start, int[] members) {
+            this.vertices = vertices;
+            this.start = start;
+            this.members = members;
+        }
+    }
+
+    /**
+     * A view of a range of a shared array of vertex numbers.
+     */
+    private static class VertexList extends AbstractList<Vertex> implements RandomAccess {
+
+        private final Vertex[] vertices;
+        private final int[] members;
+        private final int from;
+        private final int to;
+
+        VertexList(Vertex[] vertices, int[] members, int from, int to) {
+            this.vertices = vertices;
+            this.members = members;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Vertex get(int index) {
+            return vertices[members[from + index]];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    private static class IntList {
+
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        void addAll(int[] other) {
+            for (int value : other) {
+                add(value);
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -9,17 +9,24 @@ import java.util.*;
  */
 public class NetworkSnapshot {
 
-    public static NetworkSnapshot create(Set<Vertex> vertices) {
+    public static NetworkSnapshot create(Collection<Vertex> vertices) {
         return new NetworkSnapshot(vertices);
     }
 
     private final Map<Vertex, Object> values;
     private final Set<Vertex> observed;
+    private final Set<Vertex> stale;
 
     private NetworkSnapshot(Collection<Vertex> vertices) {
         values = new HashMap<>();
         observed = new HashSet<>();
+        stale = new HashSet<>();
         for (Vertex v : vertices) {
+            if (!v.isProbabilistic() && !v.hasValue()) {
+                //saving the value would calculate it, which is left until it is needed
+                stale.add(v);
+                continue;
+            }
             values.put(v, v.getValue());
             if (v.isObserved()) {
                 observed.add(v);
@@ -40,6 +47,10 @@ public class NetworkSnapshot {
             }
 
         }
+        for (Vertex v : stale) {
+            v.unobserve();
+            v.markStale();
+        }
     }
 
 }
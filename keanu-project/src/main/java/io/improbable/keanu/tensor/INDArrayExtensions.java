@@ -1,8 +1,11 @@
 package io.improbable.keanu.tensor;
 
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.ops.transforms.Transforms;
 
+import java.nio.FloatBuffer;
+
 public class INDArrayExtensions {
 
     public static INDArray castToInteger(INDArray tensor, boolean duplicate) {
@@ -11,4 +14,25 @@ public class INDArrayExtensions {
         Transforms.floor(Transforms.abs(tensorToDropFractionOn, false), false).muli(sign);
         return tensorToDropFractionOn;
     }
+
+    /**
+     * Nd4j accumulates sums in the precision the values are stored in, which for large single precision
+     * tensors loses several significant figures.
+     *
+     * @return the sum of every element accumulated in double precision
+     */
+    public static double sumInDoublePrecision(INDArray tensor) {
+        if (tensor.data().dataType() != DataBuffer.Type.FLOAT) {
+            return tensor.sumNumber().doubleValue();
+        }
+
+        INDArray contiguous = tensor.isView() ? tensor.dup() : tensor;
+        FloatBuffer values = contiguous.data().asNioFloat();
+        long length = contiguous.lengthLong();
+        double sum = 0.0;
+        for (int i = 0; i < length; i++) {
+            sum += values.get(i);
+        }
+        return sum;
+    }
 }
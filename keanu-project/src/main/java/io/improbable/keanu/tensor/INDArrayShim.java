@@ -25,8 +25,8 @@ import java.util.List;
  * To work around another issue in ND4J where you cannot broadcast
  * a higher rank tensor onto a lower rank tensor, the shim broadcast operations
  * ensure the higher rank tensor is always being operated on. In the case of
- * subtract and minus, this requires a small change in the logic, as A - B != B - A and
- * A / B != B / A.
+ * subtract and divide, the higher rank tensor is negated or inverted first, as
+ * A - B = -B + A and A / B = (1 / B) * A.
  */
 public class INDArrayShim {
 
@@ -59,7 +59,7 @@ public class INDArrayShim {
 
     private static INDArray broadcastDivide(INDArray a, INDArray b) {
         if (a.shape().length < b.shape().length) {
-            return broadcastMultiply(b, a.rdiv(1.0));
+            return broadcastMultiply(b.rdiv(1.0), a);
         } else {
             int[] broadcastDimensions = getBroadcastDimensions(a.shape(), b.shape());
             return execBroadcast(a, b,
@@ -97,7 +97,7 @@ public class INDArrayShim {
 
     private static INDArray broadcastMinus(INDArray a, INDArray b) {
         if (a.shape().length < b.shape().length) {
-            return broadcastPlus(a.neg(), b);
+            return broadcastPlus(b.neg(), a);
         } else {
             int[] broadcastDimensions = getBroadcastDimensions(a.shape(), b.shape());
             return execBroadcast(a, b,
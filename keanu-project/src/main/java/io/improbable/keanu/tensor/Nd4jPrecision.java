@@ -0,0 +1,48 @@
+package io.improbable.keanu.tensor;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+
+/**
+ * The precision that Nd4j backed tensors store their values in, which is fixed for the life of the JVM as Nd4j
+ * requires every array in an operation to have the same type.
+ * <p>
+ * Set the system property io.improbable.keanu.tensor.precision to "single" to store values as 32 bit floats,
+ * halving the memory used by large tensors such as observations and sample sets. Whole tensor sums are still
+ * accumulated in double precision. Integer tensors share the same storage, so in single precision they only
+ * hold integers up to 2^24 exactly. When the property isn't set, "dtype=float" is also recognised and
+ * otherwise values are stored in double precision.
+ */
+public class Nd4jPrecision {
+
+    public static final String PRECISION_PROPERTY = "io.improbable.keanu.tensor.precision";
+
+    public static final DataBuffer.Type BUFFER_TYPE = getBufferType(
+        System.getProperty(PRECISION_PROPERTY),
+        System.getProperty("dtype")
+    );
+
+    private Nd4jPrecision() {
+    }
+
+    public static boolean isSinglePrecision() {
+        return BUFFER_TYPE == DataBuffer.Type.FLOAT;
+    }
+
+    static DataBuffer.Type getBufferType(String precision, String nd4jDataType) {
+        if (precision == null) {
+            return "float".equalsIgnoreCase(nd4jDataType) ? DataBuffer.Type.FLOAT : DataBuffer.Type.DOUBLE;
+        }
+
+        switch (precision.toLowerCase()) {
+            case "single":
+            case "float":
+                return DataBuffer.Type.FLOAT;
+            case "double":
+                return DataBuffer.Type.DOUBLE;
+            default:
+                throw new IllegalArgumentException(
+                    "Unknown precision " + precision + " for " + PRECISION_PROPERTY + ". Use single or double."
+                );
+        }
+    }
+}
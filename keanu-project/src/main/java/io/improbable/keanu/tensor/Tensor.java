@@ -64,6 +64,28 @@ public interface Tensor<T> {
 
     T[] asFlatArray();
 
+    /**
+     * Copies the values in row major order into the start of an array, which the caller can reuse so that
+     * reading the values does not allocate.
+     *
+     * @param destination an array at least as long as the tensor
+     */
+    default void copyFlatDoubleArrayTo(double[] destination) {
+        double[] values = asFlatDoubleArray();
+        System.arraycopy(values, 0, destination, 0, values.length);
+    }
+
+    /**
+     * Copies the values in row major order into the start of an array, which the caller can reuse so that
+     * reading the values does not allocate.
+     *
+     * @param destination an array at least as long as the tensor
+     */
+    default void copyFlatIntegerArrayTo(int[] destination) {
+        int[] values = asFlatIntegerArray();
+        System.arraycopy(values, 0, destination, 0, values.length);
+    }
+
     Tensor<T> reshape(int... newShape);
 
     FlattenedView<T> getFlattenedView();
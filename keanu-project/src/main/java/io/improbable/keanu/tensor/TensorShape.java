@@ -90,6 +90,43 @@ public class TensorShape {
         return flatIndex;
     }
 
+    /**
+     * Unlike {@link #getFlatIndex(int[], int[], int...)} this also accepts a single flat index into a tensor of
+     * any rank, and rejects negative indices.
+     *
+     * @param shape  the shape of the tensor
+     * @param stride the row first stride of the shape
+     * @param length the number of elements in the tensor
+     * @param index  the index in each dimension, or a single flat index
+     * @return the flat index from a N dimensional index
+     * @throws IndexOutOfBoundsException if the index is outside the tensor
+     */
+    public static int getCheckedFlatIndex(int[] shape, int[] stride, int length, int[] index) {
+        if (index.length == 1) {
+            if (index[0] < 0 || index[0] >= length) {
+                throw new IndexOutOfBoundsException(index[0] + " out of bounds for length " + length);
+            }
+            return index[0];
+        }
+
+        if (index.length != shape.length) {
+            throw new IllegalArgumentException(
+                "Index " + Arrays.toString(index) + " must be the same length as the rank of " + Arrays.toString(shape)
+            );
+        }
+
+        int flatIndex = 0;
+        for (int d = 0; d < index.length; d++) {
+            if (index[d] < 0 || index[d] >= shape[d]) {
+                throw new IndexOutOfBoundsException(
+                    "Index " + Arrays.toString(index) + " out of bounds for shape " + Arrays.toString(shape)
+                );
+            }
+            flatIndex += stride[d] * index[d];
+        }
+        return flatIndex;
+    }
+
     /**
      * This method can be interpreted as the opposite to getFlatIndex.
 
@@ -171,5 +208,130 @@ public class TensorShape {
         return newShape;
     }
 
-}
+    /**
+     * The shape left after summing over or slicing out dimensions, padded to a matrix as ND4J does. A single
+     * remaining dimension becomes a column if it was the first dimension and a row otherwise.
+     *
+     * @param shape   the shape before reduction
+     * @param removed true for each dimension that is removed
+     * @return the reduced shape
+     */
+    public static int[] getReducedShape(int[] shape, boolean[] removed) {
+        int remaining = 0;
+        int lastRemaining = -1;
+        for (int d = 0; d < shape.length; d++) {
+            if (!removed[d]) {
+                remaining++;
+                lastRemaining = d;
+            }
+        }
+
+        if (remaining == 0) {
+            return new int[]{1, 1};
+        } else if (remaining == 1) {
+            return lastRemaining == 0 ? new int[]{shape[0], 1} : new int[]{1, shape[lastRemaining]};
+        }
+
+        int[] reduced = new int[remaining];
+        int position = 0;
+        for (int d = 0; d < shape.length; d++) {
+            if (!removed[d]) {
+                reduced[position++] = shape[d];
+            }
+        }
+        return reduced;
+    }
+
+    /**
+     * @return the resulting shape of an operation between tensors of the given shapes, where dimensions are
+     * aligned from the right and any missing or length 1 dimension is repeated to match the other.
+     */
+    public static int[] getBroadcastShape(int[] left, int[] right) {
+        int rank = Math.max(left.length, right.length);
+        int[] result = new int[rank];
+        for (int i = 0; i < rank; i++) {
+            int leftDimension = i < rank - left.length ? 1 : left[i - (rank - left.length)];
+            int rightDimension = i < rank - right.length ? 1 : right[i - (rank - right.length)];
+
+            if (leftDimension != rightDimension && leftDimension != 1 && rightDimension != 1) {
+                throw new IllegalArgumentException(
+                    "Cannot broadcast " + Arrays.toString(left) + " with " + Arrays.toString(right)
+                );
+            }
+            result[i] = Math.max(leftDimension, rightDimension);
+        }
+        return result;
+    }
+
+    /**
+     * @return the stride of each result dimension in a tensor of the given shape, which is 0 where the
+     * tensor is repeated along that dimension
+     */
+    public static int[] getBroadcastStride(int[] shape, int[] resultShape) {
+        int offset = resultShape.length - shape.length;
+        int[] stride = getRowFirstStride(shape);
+        int[] broadcastStride = new int[resultShape.length];
+        for (int i = 0; i < shape.length; i++) {
+            broadcastStride[i + offset] = shape[i] == resultShape[i + offset] ? stride[i] : 0;
+        }
+        return broadcastStride;
+    }
+
+    /**
+     * Steps through the elements of the result of an operation between two broadcast tensors in row major
+     * order, keeping the flat index of the element of each operand that the result element is calculated from.
+     */
+    public static class BroadcastIndex {
+
+        private final int[] resultShape;
+        private final int[] leftStride;
+        private final int[] rightStride;
+        private final int[] index;
+        private int left;
+        private int right;
+
+        /**
+         * @param leftShape   the shape of the left operand
+         * @param rightShape  the shape of the right operand
+         * @param resultShape the broadcast shape of both, as found by {@link #getBroadcastShape(int[], int[])}
+         */
+        public BroadcastIndex(int[] leftShape, int[] rightShape, int[] resultShape) {
+            this.resultShape = resultShape;
+            this.leftStride = getBroadcastStride(leftShape, resultShape);
+            this.rightStride = getBroadcastStride(rightShape, resultShape);
+            this.index = new int[resultShape.length];
+        }
+
+        /**
+         * @return the flat index into the left operand of the current result element
+         */
+        public int getLeft() {
+            return left;
+        }
 
+        /**
+         * @return the flat index into the right operand of the current result element
+         */
+        public int getRight() {
+            return right;
+        }
+
+        /**
+         * Moves to the next result element.
+         */
+        public void next() {
+            for (int d = resultShape.length - 1; d >= 0; d--) {
+                index[d]++;
+                left += leftStride[d];
+                right += rightStride[d];
+                if (index[d] < resultShape[d]) {
+                    return;
+                }
+                left -= leftStride[d] * resultShape[d];
+                right -= rightStride[d] * resultShape[d];
+                index[d] = 0;
+            }
+        }
+    }
+
+}
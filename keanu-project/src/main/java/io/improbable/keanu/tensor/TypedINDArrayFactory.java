@@ -9,13 +9,31 @@ public class TypedINDArrayFactory {
 
     public static INDArray create(double[] data, int[] shape, DataBuffer.Type bufferType) {
         Nd4j.setDataType(bufferType);
-        DataBuffer buffer = Nd4j.getDataBufferFactory().createDouble(data);
+        DataBuffer buffer;
+        if (bufferType == DataBuffer.Type.FLOAT) {
+            float[] floatData = new float[data.length];
+            for (int i = 0; i < data.length; i++) {
+                floatData[i] = (float) data[i];
+            }
+            buffer = Nd4j.getDataBufferFactory().createFloat(floatData);
+        } else {
+            buffer = Nd4j.getDataBufferFactory().createDouble(data);
+        }
         return Nd4j.create(buffer, shape);
     }
 
     public static INDArray create(int[] data, int[] shape, DataBuffer.Type bufferType) {
         Nd4j.setDataType(bufferType);
-        DataBuffer buffer = Nd4j.getDataBufferFactory().createDouble(data);
+        DataBuffer buffer;
+        if (bufferType == DataBuffer.Type.FLOAT) {
+            float[] floatData = new float[data.length];
+            for (int i = 0; i < data.length; i++) {
+                floatData[i] = data[i];
+            }
+            buffer = Nd4j.getDataBufferFactory().createFloat(floatData);
+        } else {
+            buffer = Nd4j.getDataBufferFactory().createDouble(data);
+        }
         return Nd4j.create(buffer, shape);
     }
 
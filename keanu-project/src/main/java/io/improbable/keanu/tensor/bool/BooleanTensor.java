@@ -7,11 +7,11 @@ import io.improbable.keanu.tensor.intgr.IntegerTensor;
 public interface BooleanTensor extends Tensor<Boolean> {
 
     static BooleanTensor create(boolean value, int[] shape) {
-        return new SimpleBooleanTensor(value, shape);
+        return PackedBooleanTensor.create(value, shape);
     }
 
     static BooleanTensor create(boolean[] values, int... shape) {
-        return new SimpleBooleanTensor(values, shape);
+        return PackedBooleanTensor.create(values, shape);
     }
 
     static BooleanTensor create(boolean[] values) {
@@ -19,7 +19,7 @@ public interface BooleanTensor extends Tensor<Boolean> {
     }
 
     static BooleanTensor scalar(boolean scalarValue) {
-        return new SimpleBooleanTensor(scalarValue);
+        return PackedBooleanTensor.scalar(scalarValue);
     }
 
     static BooleanTensor placeHolder(int[] shape) {
@@ -27,11 +27,11 @@ public interface BooleanTensor extends Tensor<Boolean> {
     }
 
     static BooleanTensor trues(int... shape) {
-        return new SimpleBooleanTensor(true, shape);
+        return PackedBooleanTensor.create(true, shape);
     }
 
     static BooleanTensor falses(int... shape) {
-        return new SimpleBooleanTensor(false, shape);
+        return PackedBooleanTensor.create(false, shape);
     }
 
     @Override
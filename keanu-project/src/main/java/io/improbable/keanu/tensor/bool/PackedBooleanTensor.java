@@ -0,0 +1,556 @@
+package io.improbable.keanu.tensor.bool;
+
+import static io.improbable.keanu.tensor.TensorShape.getFlatIndex;
+
+import java.util.Arrays;
+
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.generic.GenericTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+
+/**
+ * A row major BooleanTensor that packs its values into the bits of a long[], 64 to a word. Logical operations
+ * work on a whole word at a time, and allTrue and allFalse count bits instead of visiting each value. Bits past
+ * the length of the tensor in the last word are always clear.
+ * <p>
+ * Masks and conditional values only visit the values that are true, so they are cheapest for sparse tensors.
+ */
+public class PackedBooleanTensor implements BooleanTensor {
+
+    private static final int WORD_BITS = Long.SIZE;
+
+    public static PackedBooleanTensor create(boolean[] values, int[] shape) {
+        int length = (int) TensorShape.getLength(shape);
+        if (values.length < length) {
+            throw new IllegalArgumentException(
+                values.length + " values cannot fill shape " + Arrays.toString(shape)
+            );
+        }
+
+        long[] words = new long[wordCount(length)];
+        for (int i = 0; i < length; i++) {
+            if (values[i]) {
+                words[i / WORD_BITS] |= 1L << i;
+            }
+        }
+        return new PackedBooleanTensor(words, length, shape.clone());
+    }
+
+    public static PackedBooleanTensor create(boolean value, int[] shape) {
+        int length = (int) TensorShape.getLength(shape);
+        long[] words = new long[wordCount(length)];
+        if (value) {
+            Arrays.fill(words, -1L);
+            clearUnusedBits(words, length);
+        }
+        return new PackedBooleanTensor(words, length, shape.clone());
+    }
+
+    public static PackedBooleanTensor scalar(boolean value) {
+        return new PackedBooleanTensor(new long[]{value ? 1L : 0L}, 1, SCALAR_SHAPE);
+    }
+
+    private final long[] words;
+    private final int length;
+    private final int[] shape;
+    private final int[] stride;
+
+    private PackedBooleanTensor(long[] words, int length, int[] shape) {
+        this.words = words;
+        this.length = length;
+        this.shape = shape;
+        this.stride = TensorShape.getRowFirstStride(shape);
+    }
+
+    @Override
+    public int getRank() {
+        return shape.length;
+    }
+
+    @Override
+    public int[] getShape() {
+        return shape.clone();
+    }
+
+    /**
+     * Compares without copying the shape.
+     */
+    @Override
+    public boolean hasSameShapeAs(int[] shape) {
+        return Arrays.equals(this.shape, shape);
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public boolean isShapePlaceholder() {
+        return false;
+    }
+
+    @Override
+    public Boolean getValue(int... index) {
+        return get(getFlatIndex(shape, stride, index));
+    }
+
+    @Override
+    public void setValue(Boolean value, int... index) {
+        set(getFlatIndex(shape, stride, index), value);
+    }
+
+    @Override
+    public Boolean scalar() {
+        return get(0);
+    }
+
+    @Override
+    public BooleanTensor duplicate() {
+        return new PackedBooleanTensor(words.clone(), length, shape);
+    }
+
+    @Override
+    public BooleanTensor reshape(int... newShape) {
+        if (TensorShape.getLength(newShape) != length) {
+            throw new IllegalArgumentException("Cannot reshape a tensor to a shape of different length. Failed to reshape: "
+                + Arrays.toString(shape) + " to: " + Arrays.toString(newShape));
+        }
+        return new PackedBooleanTensor(words.clone(), length, newShape.clone());
+    }
+
+    // Logical operations
+
+    @Override
+    public BooleanTensor and(BooleanTensor that) {
+        return duplicate().andInPlace(that);
+    }
+
+    @Override
+    public BooleanTensor or(BooleanTensor that) {
+        return duplicate().orInPlace(that);
+    }
+
+    @Override
+    public BooleanTensor not() {
+        return duplicate().notInPlace();
+    }
+
+    @Override
+    public BooleanTensor andInPlace(BooleanTensor that) {
+        if (that.getLength() == 1 && length != 1) {
+            return that.scalar() ? this : setAll(false);
+        }
+        long[] thatWords = wordsOf(that);
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= thatWords[i];
+        }
+        return this;
+    }
+
+    @Override
+    public BooleanTensor orInPlace(BooleanTensor that) {
+        if (that.getLength() == 1 && length != 1) {
+            return that.scalar() ? setAll(true) : this;
+        }
+        long[] thatWords = wordsOf(that);
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= thatWords[i];
+        }
+        return this;
+    }
+
+    @Override
+    public BooleanTensor notInPlace() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = ~words[i];
+        }
+        clearUnusedBits(words, length);
+        return this;
+    }
+
+    @Override
+    public boolean allTrue() {
+        return countTrue() == length;
+    }
+
+    @Override
+    public boolean allFalse() {
+        for (long word : words) {
+            if (word != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of values that are true
+     */
+    public int countTrue() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // Conditional values and masks
+
+    @Override
+    public DoubleTensor setDoubleIf(DoubleTensor trueValue, DoubleTensor falseValue) {
+        double[] trueValues = trueValue.asFlatDoubleArray();
+        double[] result = falseValue.getLength() == length
+            ? falseValue.asFlatDoubleArray()
+            : filled(falseValue.asFlatDoubleArray()[0]);
+
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0L) {
+                int i = w * WORD_BITS + Long.numberOfTrailingZeros(word);
+                result[i] = trueValues.length == 1 ? trueValues[0] : trueValues[i];
+                word &= word - 1;
+            }
+        }
+        return DoubleTensor.create(result, shape.clone());
+    }
+
+    @Override
+    public IntegerTensor setIntegerIf(IntegerTensor trueValue, IntegerTensor falseValue) {
+        int[] trueValues = trueValue.asFlatIntegerArray();
+        int[] falseValues = falseValue.asFlatIntegerArray();
+        int[] result = new int[length];
+
+        for (int i = 0; i < length; i++) {
+            result[i] = get(i)
+                ? trueValues[trueValues.length == 1 ? 0 : i]
+                : falseValues[falseValues.length == 1 ? 0 : i];
+        }
+        return IntegerTensor.create(result, shape.clone());
+    }
+
+    @Override
+    public BooleanTensor setBooleanIf(BooleanTensor trueValue, BooleanTensor falseValue) {
+        long[] trueWords = wordsOf(trueValue, length);
+        long[] falseWords = wordsOf(falseValue, length);
+
+        long[] result = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            result[i] = (words[i] & trueWords[i]) | (~words[i] & falseWords[i]);
+        }
+        return new PackedBooleanTensor(result, length, shape.clone());
+    }
+
+    @Override
+    public <T> Tensor<T> setIf(Tensor<T> trueValue, Tensor<T> falseValue) {
+        FlattenedView<T> trueValuesFlattened = trueValue.getFlattenedView();
+        FlattenedView<T> falseValuesFlattened = falseValue.getFlattenedView();
+
+        T[] result = (T[]) (new Object[length]);
+        for (int i = 0; i < length; i++) {
+            result[i] = get(i) ? trueValuesFlattened.get(i) : falseValuesFlattened.get(i);
+        }
+
+        return new GenericTensor<>(result, shape.clone());
+    }
+
+    @Override
+    public DoubleTensor toDoubleMask() {
+        return DoubleTensor.create(asFlatDoubleArray(), shape.clone());
+    }
+
+    @Override
+    public IntegerTensor toIntegerMask() {
+        return IntegerTensor.create(asFlatIntegerArray(), shape.clone());
+    }
+
+    // Slicing and joining
+
+    @Override
+    public BooleanTensor slice(int dimension, int index) {
+        if (index < 0 || index >= shape[dimension]) {
+            throw new IndexOutOfBoundsException(
+                "Index " + index + " out of bounds for dimension " + dimension + " of " + Arrays.toString(shape)
+            );
+        }
+
+        int outer = 1;
+        for (int d = 0; d < dimension; d++) {
+            outer *= shape[d];
+        }
+        int inner = stride[dimension];
+
+        long[] slice = new long[wordCount(outer * inner)];
+        for (int o = 0; o < outer; o++) {
+            copyBits(words, o * shape[dimension] * inner + index * inner, slice, o * inner, inner);
+        }
+
+        boolean[] removed = new boolean[shape.length];
+        removed[dimension] = true;
+        return new PackedBooleanTensor(slice, outer * inner, TensorShape.getReducedShape(shape, removed));
+    }
+
+    @Override
+    public BooleanTensor concat(int dimension, BooleanTensor... those) {
+        long[][] sources = new long[those.length + 1][];
+        int[] lengths = new int[those.length + 1];
+        sources[0] = words;
+        lengths[0] = length;
+
+        int[] concatShape = shape.clone();
+        for (int i = 0; i < those.length; i++) {
+            int[] thatShape = those[i].getShape();
+            if (thatShape.length != shape.length) {
+                throw new IllegalArgumentException("Cannot concat tensors of different ranks");
+            }
+            for (int d = 0; d < shape.length; d++) {
+                if (d != dimension && thatShape[d] != shape[d]) {
+                    throw new IllegalArgumentException(
+                        "Cannot concat shape " + Arrays.toString(thatShape) + " to " + Arrays.toString(shape) + " on dimension " + dimension
+                    );
+                }
+            }
+            lengths[i + 1] = (int) those[i].getLength();
+            sources[i + 1] = wordsOf(those[i], lengths[i + 1]);
+            concatShape[dimension] += thatShape[dimension];
+        }
+
+        int outer = 1;
+        for (int d = 0; d < dimension; d++) {
+            outer *= shape[d];
+        }
+
+        int concatLength = (int) TensorShape.getLength(concatShape);
+        long[] concat = new long[wordCount(concatLength)];
+        int position = 0;
+        for (int o = 0; o < outer; o++) {
+            for (int i = 0; i < sources.length; i++) {
+                int chunk = lengths[i] / outer;
+                copyBits(sources[i], o * chunk, concat, position, chunk);
+                position += chunk;
+            }
+        }
+        return new PackedBooleanTensor(concat, concatLength, concatShape);
+    }
+
+    // Views and conversions
+
+    @Override
+    public FlattenedView<Boolean> getFlattenedView() {
+        return new PackedBooleanFlattenedView();
+    }
+
+    private class PackedBooleanFlattenedView implements FlattenedView<Boolean> {
+
+        @Override
+        public long size() {
+            return length;
+        }
+
+        @Override
+        public Boolean get(long index) {
+            return PackedBooleanTensor.this.get(checkedIndex(index));
+        }
+
+        @Override
+        public Boolean getOrScalar(long index) {
+            return length == 1 ? PackedBooleanTensor.this.get(0) : get(index);
+        }
+
+        @Override
+        public void set(long index, Boolean value) {
+            PackedBooleanTensor.this.set(checkedIndex(index), value);
+        }
+
+        private int checkedIndex(long index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index + " out of bounds for length " + length);
+            }
+            return (int) index;
+        }
+    }
+
+    @Override
+    public double[] asFlatDoubleArray() {
+        double[] doubles = new double[length];
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0L) {
+                doubles[w * WORD_BITS + Long.numberOfTrailingZeros(word)] = 1.0;
+                word &= word - 1;
+            }
+        }
+        return doubles;
+    }
+
+    @Override
+    public int[] asFlatIntegerArray() {
+        int[] integers = new int[length];
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0L) {
+                integers[w * WORD_BITS + Long.numberOfTrailingZeros(word)] = 1;
+                word &= word - 1;
+            }
+        }
+        return integers;
+    }
+
+    @Override
+    public void copyFlatDoubleArrayTo(double[] destination) {
+        Arrays.fill(destination, 0, length, 0.0);
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0L) {
+                destination[w * WORD_BITS + Long.numberOfTrailingZeros(word)] = 1.0;
+                word &= word - 1;
+            }
+        }
+    }
+
+    @Override
+    public void copyFlatIntegerArrayTo(int[] destination) {
+        Arrays.fill(destination, 0, length, 0);
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0L) {
+                destination[w * WORD_BITS + Long.numberOfTrailingZeros(word)] = 1;
+                word &= word - 1;
+            }
+        }
+    }
+
+    @Override
+    public Boolean[] asFlatArray() {
+        Boolean[] values = new Boolean[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = get(i);
+        }
+        return values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+
+        if (o instanceof PackedBooleanTensor) {
+            PackedBooleanTensor that = (PackedBooleanTensor) o;
+            return Arrays.equals(shape, that.shape) && Arrays.equals(words, that.words);
+        } else if (o instanceof Tensor) {
+            Tensor that = (Tensor) o;
+            if (!Arrays.equals(that.getShape(), shape)) return false;
+            return Arrays.equals(that.asFlatArray(), asFlatArray());
+        }
+        return false;
+    }
+
+    /**
+     * Hashes the same way as an equal {@link SimpleBooleanTensor}.
+     */
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < length; i++) {
+            result = 31 * result + Boolean.hashCode(get(i));
+        }
+        result = 31 * result + Arrays.hashCode(shape);
+        result = 31 * result + Arrays.hashCode(stride);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder dataString = new StringBuilder();
+        if (length > 20) {
+            dataString.append(Arrays.toString(Arrays.copyOfRange(asFlatArray(), 0, 10)));
+            dataString.append("...");
+            dataString.append(Arrays.toString(Arrays.copyOfRange(asFlatArray(), length - 10, length)));
+        } else {
+            dataString.append(Arrays.toString(asFlatArray()));
+        }
+
+        return "{\n" +
+            "shape = " + Arrays.toString(shape) +
+            "\ndata = " + dataString.toString() +
+            "\n}";
+    }
+
+    private boolean get(int index) {
+        return (words[index / WORD_BITS] & (1L << index)) != 0L;
+    }
+
+    private void set(int index, boolean value) {
+        if (value) {
+            words[index / WORD_BITS] |= 1L << index;
+        } else {
+            words[index / WORD_BITS] &= ~(1L << index);
+        }
+    }
+
+    private BooleanTensor setAll(boolean value) {
+        Arrays.fill(words, value ? -1L : 0L);
+        clearUnusedBits(words, length);
+        return this;
+    }
+
+    private double[] filled(double value) {
+        double[] values = new double[length];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    /**
+     * @return the words of a tensor of the same length as this one
+     */
+    private long[] wordsOf(BooleanTensor that) {
+        if (that.getLength() != length) {
+            throw new IllegalArgumentException(
+                "Cannot combine shape " + Arrays.toString(that.getShape()) + " with " + Arrays.toString(shape)
+            );
+        }
+        return wordsOf(that, length);
+    }
+
+    /**
+     * @return the words of the tensor, or of a scalar repeated to the given length. They must not be modified.
+     */
+    private static long[] wordsOf(BooleanTensor tensor, int length) {
+        if (tensor.getLength() == 1 && length != 1) {
+            return create(tensor.scalar(), new int[]{1, length}).words;
+        } else if (tensor instanceof PackedBooleanTensor) {
+            return ((PackedBooleanTensor) tensor).words;
+        }
+        return create(unbox(tensor.asFlatArray()), tensor.getShape()).words;
+    }
+
+    private static boolean[] unbox(Boolean[] values) {
+        boolean[] unboxed = new boolean[values.length];
+        for (int i = 0; i < values.length; i++) {
+            unboxed[i] = values[i];
+        }
+        return unboxed;
+    }
+
+    private static void copyBits(long[] from, int fromIndex, long[] to, int toIndex, int count) {
+        for (int i = 0; i < count; i++) {
+            int source = fromIndex + i;
+            if ((from[source / WORD_BITS] & (1L << source)) != 0L) {
+                int target = toIndex + i;
+                to[target / WORD_BITS] |= 1L << target;
+            }
+        }
+    }
+
+    private static void clearUnusedBits(long[] words, int length) {
+        int usedBits = length % WORD_BITS;
+        if (usedBits != 0) {
+            words[words.length - 1] &= (1L << usedBits) - 1;
+        }
+    }
+
+    private static int wordCount(int length) {
+        return (length + WORD_BITS - 1) / WORD_BITS;
+    }
+}
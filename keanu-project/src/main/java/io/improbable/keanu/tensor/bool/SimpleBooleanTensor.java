@@ -389,6 +389,20 @@ public class SimpleBooleanTensor implements BooleanTensor {
         return integers;
     }
 
+    @Override
+    public void copyFlatDoubleArrayTo(double[] destination) {
+        for (int i = 0; i < data.length; i++) {
+            destination[i] = data[i] ? 1.0 : 0.0;
+        }
+    }
+
+    @Override
+    public void copyFlatIntegerArrayTo(int[] destination) {
+        for (int i = 0; i < data.length; i++) {
+            destination[i] = data[i] ? 1 : 0;
+        }
+    }
+
     @Override
     public Boolean[] asFlatArray() {
         return ArrayUtils.toObject(data);
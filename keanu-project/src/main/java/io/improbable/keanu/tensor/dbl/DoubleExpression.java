@@ -0,0 +1,410 @@
+package io.improbable.keanu.tensor.dbl;
+
+import io.improbable.keanu.tensor.TensorShape;
+
+import java.util.Arrays;
+
+/**
+ * A lazily evaluated chain of elementwise operations on double tensors. Operations only build a small
+ * expression tree; {@link #evaluate()} then runs the whole tree in a single pass over the operands, one block
+ * of elements at a time, so no full size intermediate tensors are created. {@link #sum()} reduces in the
+ * same pass without creating the result tensor at all.
+ * <p>
+ * Operands broadcast in the same way as the equivalent {@link DoubleTensor} operations. Operand tensors are
+ * read when the expression is evaluated, so they must not be modified in between.
+ */
+public abstract class DoubleExpression {
+
+    private static final int BLOCK_SIZE = 1024;
+
+    private final int[] shape;
+    private final int length;
+    private final int depth;
+
+    private boolean isFolded;
+    private double foldedValue;
+
+    private DoubleExpression(int[] shape, int depth) {
+        this.shape = shape;
+        this.length = (int) TensorShape.getLength(shape);
+        this.depth = depth;
+    }
+
+    public static DoubleExpression of(DoubleTensor tensor) {
+        return new Operand(tensor);
+    }
+
+    public int[] getShape() {
+        return Arrays.copyOf(shape, shape.length);
+    }
+
+    public DoubleExpression plus(DoubleExpression that) {
+        return new Binary(BinaryOperation.PLUS, this, that);
+    }
+
+    public DoubleExpression plus(DoubleTensor that) {
+        return plus(of(that));
+    }
+
+    public DoubleExpression plus(double value) {
+        return plus(new Constant(value));
+    }
+
+    public DoubleExpression minus(DoubleExpression that) {
+        return new Binary(BinaryOperation.MINUS, this, that);
+    }
+
+    public DoubleExpression minus(DoubleTensor that) {
+        return minus(of(that));
+    }
+
+    public DoubleExpression minus(double value) {
+        return minus(new Constant(value));
+    }
+
+    public DoubleExpression times(DoubleExpression that) {
+        return new Binary(BinaryOperation.TIMES, this, that);
+    }
+
+    public DoubleExpression times(DoubleTensor that) {
+        return times(of(that));
+    }
+
+    public DoubleExpression times(double value) {
+        return times(new Constant(value));
+    }
+
+    public DoubleExpression div(DoubleExpression that) {
+        return new Binary(BinaryOperation.DIV, this, that);
+    }
+
+    public DoubleExpression div(DoubleTensor that) {
+        return div(of(that));
+    }
+
+    public DoubleExpression div(double value) {
+        return div(new Constant(value));
+    }
+
+    public DoubleExpression pow(double exponent) {
+        if (exponent == 2.0) {
+            return new Unary(UnaryOperation.SQUARE, this);
+        }
+        return new Binary(BinaryOperation.POW, this, new Constant(exponent));
+    }
+
+    public DoubleExpression reverseMinus(double value) {
+        return new Binary(BinaryOperation.MINUS, new Constant(value), this);
+    }
+
+    public DoubleExpression reverseDiv(double value) {
+        return new Binary(BinaryOperation.DIV, new Constant(value), this);
+    }
+
+    public DoubleExpression reciprocal() {
+        return reverseDiv(1.0);
+    }
+
+    public DoubleExpression unaryMinus() {
+        return new Unary(UnaryOperation.NEGATE, this);
+    }
+
+    public DoubleExpression log() {
+        return new Unary(UnaryOperation.LOG, this);
+    }
+
+    public DoubleExpression exp() {
+        return new Unary(UnaryOperation.EXP, this);
+    }
+
+    public DoubleExpression sqrt() {
+        return new Unary(UnaryOperation.SQRT, this);
+    }
+
+    public DoubleExpression abs() {
+        return new Unary(UnaryOperation.ABS, this);
+    }
+
+    /**
+     * @return a new tensor holding the value of the expression
+     */
+    public DoubleTensor evaluate() {
+        double[] result = new double[length];
+        int blockSize = Math.min(BLOCK_SIZE, length);
+        double[][] scratch = new double[depth][blockSize];
+        double[] block = new double[blockSize];
+
+        prepare(shape, length);
+        for (int offset = 0; offset < length; offset += blockSize) {
+            int blockLength = Math.min(blockSize, length - offset);
+            fill(block, offset, blockLength, scratch);
+            System.arraycopy(block, 0, result, offset, blockLength);
+        }
+        return DoubleTensor.create(result, getShape());
+    }
+
+    /**
+     * @return the sum of every element of the expression, calculated without creating the result tensor
+     */
+    public double sum() {
+        int blockSize = Math.min(BLOCK_SIZE, length);
+        double[][] scratch = new double[depth][blockSize];
+        double[] block = new double[blockSize];
+
+        prepare(shape, length);
+        double sum = 0.0;
+        for (int offset = 0; offset < length; offset += blockSize) {
+            int blockLength = Math.min(blockSize, length - offset);
+            fill(block, offset, blockLength, scratch);
+            for (int i = 0; i < blockLength; i++) {
+                sum += block[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Readies the operands for evaluation into a result of the given shape.
+     */
+    abstract void prepare(int[] resultShape, int resultLength);
+
+    /**
+     * Writes the values of the expression for the flat result indices offset to offset + blockLength into
+     * the start of out. Nodes use scratch buffers from their own depth onwards.
+     */
+    abstract void fill(double[] out, int offset, int blockLength, double[][] scratch);
+
+    /**
+     * Calculates a single element operation, such as the log of a scalar parameter, once up front instead of
+     * for every element of the result.
+     */
+    void fold(int resultLength) {
+        isFolded = false;
+        if (length == 1 && resultLength != 1) {
+            double[] value = new double[1];
+            fill(value, 0, 1, new double[depth][1]);
+            foldedValue = value[0];
+            isFolded = true;
+        }
+    }
+
+    boolean fillFolded(double[] out, int blockLength) {
+        if (isFolded) {
+            Arrays.fill(out, 0, blockLength, foldedValue);
+        }
+        return isFolded;
+    }
+
+    private static int[] getResultShape(DoubleExpression left, DoubleExpression right) {
+        if (left.length == 1) {
+            return right.shape;
+        } else if (right.length == 1 || Arrays.equals(left.shape, right.shape)) {
+            return left.shape;
+        }
+        return TensorShape.getBroadcastShape(left.shape, right.shape);
+    }
+
+    private static final class Constant extends DoubleExpression {
+
+        private final double value;
+
+        Constant(double value) {
+            super(new int[]{1, 1}, 0);
+            this.value = value;
+        }
+
+        @Override
+        void prepare(int[] resultShape, int resultLength) {
+        }
+
+        @Override
+        void fill(double[] out, int offset, int blockLength, double[][] scratch) {
+            Arrays.fill(out, 0, blockLength, value);
+        }
+    }
+
+    private static final class Operand extends DoubleExpression {
+
+        private final DoubleTensor tensor;
+        private double[] values;
+
+        Operand(DoubleTensor tensor) {
+            super(tensor.getShape(), 0);
+            this.tensor = tensor;
+        }
+
+        @Override
+        void prepare(int[] resultShape, int resultLength) {
+            if (tensor.getLength() == 1 || tensor.getLength() == resultLength) {
+                values = JavaDoubleTensor.bufferOf(tensor);
+            } else {
+                values = JavaDoubleTensor.bufferOf(DoubleTensor.zeros(resultShape).plusInPlace(tensor));
+            }
+        }
+
+        @Override
+        void fill(double[] out, int offset, int blockLength, double[][] scratch) {
+            if (values.length == 1) {
+                Arrays.fill(out, 0, blockLength, values[0]);
+            } else {
+                System.arraycopy(values, offset, out, 0, blockLength);
+            }
+        }
+    }
+
+    private static final class Unary extends DoubleExpression {
+
+        private final UnaryOperation operation;
+        private final DoubleExpression operand;
+
+        Unary(UnaryOperation operation, DoubleExpression operand) {
+            super(operand.shape, operand.depth);
+            this.operation = operation;
+            this.operand = operand;
+        }
+
+        @Override
+        void prepare(int[] resultShape, int resultLength) {
+            operand.prepare(resultShape, resultLength);
+            fold(resultLength);
+        }
+
+        @Override
+        void fill(double[] out, int offset, int blockLength, double[][] scratch) {
+            if (fillFolded(out, blockLength)) {
+                return;
+            }
+            operand.fill(out, offset, blockLength, scratch);
+            operation.apply(out, blockLength);
+        }
+    }
+
+    private static final class Binary extends DoubleExpression {
+
+        private final BinaryOperation operation;
+        private final DoubleExpression left;
+        private final DoubleExpression right;
+
+        Binary(BinaryOperation operation, DoubleExpression left, DoubleExpression right) {
+            super(getResultShape(left, right), Math.max(left.depth, right.depth + 1));
+            this.operation = operation;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void prepare(int[] resultShape, int resultLength) {
+            left.prepare(resultShape, resultLength);
+            right.prepare(resultShape, resultLength);
+            fold(resultLength);
+        }
+
+        /**
+         * The left operand is written to out and the right operand to the scratch buffer at its own depth,
+         * which no node below it uses.
+         */
+        @Override
+        void fill(double[] out, int offset, int blockLength, double[][] scratch) {
+            if (fillFolded(out, blockLength)) {
+                return;
+            }
+            left.fill(out, offset, blockLength, scratch);
+            double[] rightValues = scratch[right.depth];
+            right.fill(rightValues, offset, blockLength, scratch);
+            operation.apply(out, rightValues, blockLength);
+        }
+    }
+
+    private enum UnaryOperation {
+        NEGATE {
+            @Override
+            void apply(double[] values, int length) {
+                for (int i = 0; i < length; i++) {
+                    values[i] = -values[i];
+                }
+            }
+        },
+        SQUARE {
+            @Override
+            void apply(double[] values, int length) {
+                for (int i = 0; i < length; i++) {
+                    values[i] = values[i] * values[i];
+                }
+            }
+        },
+        LOG {
+            @Override
+            void apply(double[] values, int length) {
+                for (int i = 0; i < length; i++) {
+                    values[i] = Math.log(values[i]);
+                }
+            }
+        },
+        EXP {
+            @Override
+            void apply(double[] values, int length) {
+                for (int i = 0; i < length; i++) {
+                    values[i] = Math.exp(values[i]);
+                }
+            }
+        },
+        SQRT {
+            @Override
+            void apply(double[] values, int length) {
+                for (int i = 0; i < length; i++) {
+                    values[i] = Math.sqrt(values[i]);
+                }
+            }
+        },
+        ABS {
+            @Override
+            void apply(double[] values, int length) {
+                for (int i = 0; i < length; i++) {
+                    values[i] = Math.abs(values[i]);
+                }
+            }
+        };
+
+        abstract void apply(double[] values, int length);
+    }
+
+    private enum BinaryOperation {
+        PLUS, MINUS, TIMES, DIV, POW;
+
+        /**
+         * Writes the operation applied to each pair of elements into left. Each operation has its own loop so
+         * that it can be compiled without a call per element.
+         */
+        void apply(double[] left, double[] right, int length) {
+            switch (this) {
+                case PLUS:
+                    for (int i = 0; i < length; i++) {
+                        left[i] += right[i];
+                    }
+                    break;
+                case MINUS:
+                    for (int i = 0; i < length; i++) {
+                        left[i] -= right[i];
+                    }
+                    break;
+                case TIMES:
+                    for (int i = 0; i < length; i++) {
+                        left[i] *= right[i];
+                    }
+                    break;
+                case DIV:
+                    for (int i = 0; i < length; i++) {
+                        left[i] /= right[i];
+                    }
+                    break;
+                case POW:
+                    for (int i = 0; i < length; i++) {
+                        left[i] = Math.pow(left[i], right[i]);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation " + this);
+            }
+        }
+    }
+}
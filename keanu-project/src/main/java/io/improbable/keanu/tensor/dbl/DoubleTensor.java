@@ -5,6 +5,7 @@ import java.util.Arrays;
 import io.improbable.keanu.kotlin.DoubleOperators;
 import io.improbable.keanu.tensor.NumberTensor;
 import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
 
 public interface DoubleTensor extends NumberTensor<Double, DoubleTensor>, DoubleOperators<DoubleTensor> {
@@ -20,6 +21,8 @@ public interface DoubleTensor extends NumberTensor<Double, DoubleTensor>, Double
     static DoubleTensor create(double value, int[] shape) {
         if (Arrays.equals(shape, Tensor.SCALAR_SHAPE)) {
             return new ScalarDoubleTensor(value);
+        } else if (JavaDoubleTensor.isPreferredFor(TensorShape.getLength(shape))) {
+            return JavaDoubleTensor.create(value, shape);
         } else {
             return Nd4jDoubleTensor.create(value, shape);
         }
@@ -28,6 +31,8 @@ public interface DoubleTensor extends NumberTensor<Double, DoubleTensor>, Double
     static DoubleTensor create(double[] values, int... shape) {
         if (Arrays.equals(shape, Tensor.SCALAR_SHAPE) && values.length == 1) {
             return new ScalarDoubleTensor(values[0]);
+        } else if (JavaDoubleTensor.isPreferredFor(values.length)) {
+            return JavaDoubleTensor.create(values, shape);
         } else {
             return Nd4jDoubleTensor.create(values, shape);
         }
@@ -40,6 +45,8 @@ public interface DoubleTensor extends NumberTensor<Double, DoubleTensor>, Double
     static DoubleTensor ones(int... shape) {
         if (Arrays.equals(shape, Tensor.SCALAR_SHAPE)) {
             return new ScalarDoubleTensor(1.0);
+        } else if (JavaDoubleTensor.isPreferredFor(TensorShape.getLength(shape))) {
+            return JavaDoubleTensor.ones(shape);
         } else {
             return Nd4jDoubleTensor.ones(shape);
         }
@@ -48,6 +55,8 @@ public interface DoubleTensor extends NumberTensor<Double, DoubleTensor>, Double
     static DoubleTensor eye(int n) {
         if (n == 1) {
             return new ScalarDoubleTensor(1.0);
+        } else if (JavaDoubleTensor.isPreferredFor((long) n * n)) {
+            return JavaDoubleTensor.eye(n);
         } else {
             return Nd4jDoubleTensor.eye(n);
         }
@@ -56,12 +65,17 @@ public interface DoubleTensor extends NumberTensor<Double, DoubleTensor>, Double
     static DoubleTensor zeros(int[] shape) {
         if (Arrays.equals(shape, Tensor.SCALAR_SHAPE)) {
             return new ScalarDoubleTensor(0.0);
+        } else if (JavaDoubleTensor.isPreferredFor(TensorShape.getLength(shape))) {
+            return JavaDoubleTensor.zeros(shape);
         } else {
             return Nd4jDoubleTensor.zeros(shape);
         }
     }
 
     static DoubleTensor linspace(double start, double end, int numberOfPoints) {
+        if (JavaDoubleTensor.isPreferredFor(numberOfPoints)) {
+            return JavaDoubleTensor.linspace(start, end, numberOfPoints);
+        }
         return Nd4jDoubleTensor.linspace(start, end, numberOfPoints);
     }
 
@@ -71,6 +85,9 @@ public interface DoubleTensor extends NumberTensor<Double, DoubleTensor>, Double
      * @return a vector of numbers from start incrementing by one to end (exclusively)
      */
     static DoubleTensor arange(double start, double end) {
+        if (JavaDoubleTensor.isPreferredFor((long) Math.ceil(end - start))) {
+            return JavaDoubleTensor.arange(start, end);
+        }
         return Nd4jDoubleTensor.arange(start, end);
     }
 
@@ -81,6 +98,9 @@ public interface DoubleTensor extends NumberTensor<Double, DoubleTensor>, Double
      * @return a vector of numbers starting at start and stepping to end (exclusively)
      */
     static DoubleTensor arange(double start, double end, double stepSize) {
+        if (JavaDoubleTensor.isPreferredFor((long) Math.ceil((end - start) / stepSize))) {
+            return JavaDoubleTensor.arange(start, end, stepSize);
+        }
         return Nd4jDoubleTensor.arange(start, end, stepSize);
     }
 
@@ -0,0 +1,1331 @@
+package io.improbable.keanu.tensor.dbl;
+
+import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.LUDecomposition;
+
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+
+/**
+ * A dense, row major DoubleTensor held in a double[] that never calls into native code for elementwise
+ * operations. For small tensors this avoids the JNI and broadcasting overhead of {@link Nd4jDoubleTensor},
+ * which dominates the cost of the arithmetic. Linear algebra other than matrix multiply is delegated to
+ * Nd4jDoubleTensor.
+ * <p>
+ * Results have the same shapes as Nd4jDoubleTensor's, except that binary operations broadcast fully: each
+ * pair of dimensions, aligned from the right, must be equal or contain a 1.
+ */
+public class JavaDoubleTensor implements DoubleTensor {
+
+    /**
+     * The largest tensor that the {@link DoubleTensor} factory methods create as a JavaDoubleTensor. Larger
+     * tensors are backed by ND4J. It can be set with the io.improbable.keanu.tensor.dbl.javaTensorMaxLength
+     * system property, where 0 means always use ND4J.
+     */
+    public static final int MAX_LENGTH = Integer.getInteger("io.improbable.keanu.tensor.dbl.javaTensorMaxLength", 4096);
+
+    public static boolean isPreferredFor(long length) {
+        return length <= MAX_LENGTH;
+    }
+
+    public static JavaDoubleTensor scalar(double scalarValue) {
+        return new JavaDoubleTensor(new double[]{scalarValue}, SCALAR_SHAPE);
+    }
+
+    public static JavaDoubleTensor create(double[] values, int[] shape) {
+        if (values.length != TensorShape.getLength(shape)) {
+            throw new IllegalArgumentException(
+                values.length + " values cannot fill shape " + Arrays.toString(shape)
+            );
+        }
+        return new JavaDoubleTensor(values.clone(), shape.clone());
+    }
+
+    public static JavaDoubleTensor create(double value, int[] shape) {
+        double[] buffer = new double[(int) TensorShape.getLength(shape)];
+        Arrays.fill(buffer, value);
+        return new JavaDoubleTensor(buffer, shape.clone());
+    }
+
+    public static JavaDoubleTensor ones(int[] shape) {
+        return create(1.0, shape);
+    }
+
+    public static JavaDoubleTensor zeros(int[] shape) {
+        return new JavaDoubleTensor(new double[(int) TensorShape.getLength(shape)], shape.clone());
+    }
+
+    public static JavaDoubleTensor eye(int n) {
+        double[] buffer = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            buffer[i * n + i] = 1.0;
+        }
+        return new JavaDoubleTensor(buffer, new int[]{n, n});
+    }
+
+    public static JavaDoubleTensor linspace(double start, double end, int numberOfPoints) {
+        double[] buffer = new double[numberOfPoints];
+        double step = numberOfPoints > 1 ? (end - start) / (numberOfPoints - 1) : 0.0;
+        for (int i = 0; i < numberOfPoints; i++) {
+            buffer[i] = start + i * step;
+        }
+        return new JavaDoubleTensor(buffer, new int[]{1, numberOfPoints});
+    }
+
+    public static JavaDoubleTensor arange(double start, double end) {
+        return arange(start, end, 1.0);
+    }
+
+    public static JavaDoubleTensor arange(double start, double end, double stepSize) {
+        int stepCount = getArangeLength(start, end, stepSize);
+        double[] buffer = new double[stepCount];
+        for (int i = 0; i < stepCount; i++) {
+            buffer[i] = i * stepSize + start;
+        }
+        return new JavaDoubleTensor(buffer, new int[]{1, stepCount});
+    }
+
+    /**
+     * @return the number of values from start stepping to end (exclusively)
+     * @throws IllegalArgumentException if the step is zero or does not go from start towards end
+     */
+    static int getArangeLength(double start, double end, double stepSize) {
+        double stepCount = Math.ceil((end - start) / stepSize);
+        if (!(stepCount >= 0 && stepCount <= Integer.MAX_VALUE)) {
+            throw new IllegalArgumentException(
+                "Cannot step from " + start + " to " + end + " in steps of " + stepSize
+            );
+        }
+        return (int) stepCount;
+    }
+
+    private double[] buffer;
+    private int[] shape;
+    private int[] stride;
+
+    private JavaDoubleTensor(double[] buffer, int[] shape) {
+        this.buffer = buffer;
+        this.shape = shape;
+        this.stride = TensorShape.getRowFirstStride(shape);
+    }
+
+    @Override
+    public int getRank() {
+        return shape.length;
+    }
+
+    @Override
+    public int[] getShape() {
+        return shape.clone();
+    }
+
+    /**
+     * Compares without copying the shape.
+     */
+    @Override
+    public boolean hasSameShapeAs(int[] shape) {
+        return Arrays.equals(this.shape, shape);
+    }
+
+    @Override
+    public long getLength() {
+        return buffer.length;
+    }
+
+    @Override
+    public boolean isShapePlaceholder() {
+        return false;
+    }
+
+    @Override
+    public Double getValue(int... index) {
+        return buffer[getFlatIndex(index)];
+    }
+
+    @Override
+    public void setValue(Double value, int... index) {
+        buffer[getFlatIndex(index)] = value;
+    }
+
+    @Override
+    public Double scalar() {
+        return buffer[0];
+    }
+
+    @Override
+    public DoubleTensor duplicate() {
+        return new JavaDoubleTensor(buffer.clone(), shape);
+    }
+
+    /**
+     * @return a tensor sharing this tensor's values, like a reshaped ND4J view
+     */
+    @Override
+    public DoubleTensor reshape(int... newShape) {
+        int[] resolvedShape = newShape.clone();
+        int inferredDimension = -1;
+        int knownLength = 1;
+        for (int i = 0; i < resolvedShape.length; i++) {
+            if (resolvedShape[i] == -1) {
+                if (inferredDimension != -1) {
+                    throw new IllegalArgumentException("Only one dimension can be inferred in " + Arrays.toString(newShape));
+                }
+                inferredDimension = i;
+            } else {
+                knownLength *= resolvedShape[i];
+            }
+        }
+        if (inferredDimension != -1 && knownLength != 0) {
+            resolvedShape[inferredDimension] = buffer.length / knownLength;
+        }
+
+        if (TensorShape.getLength(resolvedShape) != buffer.length) {
+            throw new IllegalArgumentException(
+                "Cannot reshape " + Arrays.toString(shape) + " to " + Arrays.toString(newShape)
+            );
+        }
+        return new JavaDoubleTensor(buffer, resolvedShape);
+    }
+
+    @Override
+    public DoubleTensor permute(int... rearrange) {
+        if (rearrange.length != shape.length) {
+            throw new IllegalArgumentException(
+                "Cannot permute " + Arrays.toString(shape) + " with " + Arrays.toString(rearrange)
+            );
+        }
+
+        int[] permutedShape = new int[shape.length];
+        int[] sourceStride = new int[shape.length];
+        for (int i = 0; i < rearrange.length; i++) {
+            permutedShape[i] = shape[rearrange[i]];
+            sourceStride[i] = stride[rearrange[i]];
+        }
+
+        double[] permuted = new double[buffer.length];
+        int[] index = new int[shape.length];
+        int sourceIndex = 0;
+        for (int i = 0; i < permuted.length; i++) {
+            permuted[i] = buffer[sourceIndex];
+            for (int d = index.length - 1; d >= 0; d--) {
+                index[d]++;
+                sourceIndex += sourceStride[d];
+                if (index[d] < permutedShape[d]) {
+                    break;
+                }
+                sourceIndex -= sourceStride[d] * permutedShape[d];
+                index[d] = 0;
+            }
+        }
+        return new JavaDoubleTensor(permuted, permutedShape);
+    }
+
+    @Override
+    public DoubleTensor transpose() {
+        int[] reversed = new int[shape.length];
+        for (int i = 0; i < reversed.length; i++) {
+            reversed[i] = reversed.length - 1 - i;
+        }
+        return permute(reversed);
+    }
+
+    /**
+     * @return a square matrix with this vector on its diagonal
+     */
+    @Override
+    public DoubleTensor diag() {
+        if (!isVector() && !isScalar()) {
+            throw new IllegalArgumentException("Cannot create a diagonal matrix from shape " + Arrays.toString(shape));
+        }
+        int n = buffer.length;
+        double[] diagonal = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            diagonal[i * n + i] = buffer[i];
+        }
+        return new JavaDoubleTensor(diagonal, new int[]{n, n});
+    }
+
+    @Override
+    public Double sum() {
+        double sum = 0.0;
+        for (double value : buffer) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Override
+    public DoubleTensor sum(int... overDimensions) {
+        boolean[] summed = new boolean[shape.length];
+        if (overDimensions.length == 0) {
+            Arrays.fill(summed, true);
+        }
+        for (int dimension : overDimensions) {
+            summed[dimension] = true;
+        }
+
+        int[] resultStride = new int[shape.length];
+        int resultLength = 1;
+        for (int d = shape.length - 1; d >= 0; d--) {
+            if (!summed[d]) {
+                resultStride[d] = resultLength;
+                resultLength *= shape[d];
+            }
+        }
+
+        double[] result = new double[resultLength];
+        int[] index = new int[shape.length];
+        int resultIndex = 0;
+        for (int i = 0; i < buffer.length; i++) {
+            result[resultIndex] += buffer[i];
+            for (int d = index.length - 1; d >= 0; d--) {
+                index[d]++;
+                resultIndex += resultStride[d];
+                if (index[d] < shape[d]) {
+                    break;
+                }
+                resultIndex -= resultStride[d] * shape[d];
+                index[d] = 0;
+            }
+        }
+
+        return new JavaDoubleTensor(result, getReducedShape(summed));
+    }
+
+    @Override
+    public DoubleTensor toDouble() {
+        return this;
+    }
+
+    @Override
+    public IntegerTensor toInteger() {
+        return IntegerTensor.create(asFlatIntegerArray(), shape.clone());
+    }
+
+    // Elementwise operations that return a new tensor
+
+    @Override
+    public DoubleTensor reciprocal() {
+        return duplicate().reciprocalInPlace();
+    }
+
+    @Override
+    public DoubleTensor minus(double value) {
+        return duplicate().minusInPlace(value);
+    }
+
+    @Override
+    public DoubleTensor plus(double value) {
+        return duplicate().plusInPlace(value);
+    }
+
+    @Override
+    public DoubleTensor times(double value) {
+        return duplicate().timesInPlace(value);
+    }
+
+    @Override
+    public DoubleTensor div(double value) {
+        return duplicate().divInPlace(value);
+    }
+
+    @Override
+    public DoubleTensor minus(DoubleTensor that) {
+        return duplicate().minusInPlace(that);
+    }
+
+    @Override
+    public DoubleTensor plus(DoubleTensor that) {
+        return duplicate().plusInPlace(that);
+    }
+
+    @Override
+    public DoubleTensor times(DoubleTensor that) {
+        return duplicate().timesInPlace(that);
+    }
+
+    @Override
+    public DoubleTensor div(DoubleTensor that) {
+        return duplicate().divInPlace(that);
+    }
+
+    @Override
+    public DoubleTensor pow(DoubleTensor exponent) {
+        return duplicate().powInPlace(exponent);
+    }
+
+    @Override
+    public DoubleTensor pow(double exponent) {
+        return duplicate().powInPlace(exponent);
+    }
+
+    @Override
+    public DoubleTensor sqrt() {
+        return duplicate().sqrtInPlace();
+    }
+
+    @Override
+    public DoubleTensor log() {
+        return duplicate().logInPlace();
+    }
+
+    @Override
+    public DoubleTensor sin() {
+        return duplicate().sinInPlace();
+    }
+
+    @Override
+    public DoubleTensor cos() {
+        return duplicate().cosInPlace();
+    }
+
+    @Override
+    public DoubleTensor tan() {
+        return duplicate().tanInPlace();
+    }
+
+    @Override
+    public DoubleTensor atan() {
+        return duplicate().atanInPlace();
+    }
+
+    @Override
+    public DoubleTensor atan2(double y) {
+        return duplicate().atan2InPlace(y);
+    }
+
+    @Override
+    public DoubleTensor atan2(DoubleTensor y) {
+        return duplicate().atan2InPlace(y);
+    }
+
+    @Override
+    public DoubleTensor asin() {
+        return duplicate().asinInPlace();
+    }
+
+    @Override
+    public DoubleTensor acos() {
+        return duplicate().acosInPlace();
+    }
+
+    @Override
+    public DoubleTensor exp() {
+        return duplicate().expInPlace();
+    }
+
+    @Override
+    public DoubleTensor max(DoubleTensor max) {
+        return duplicate().maxInPlace(max);
+    }
+
+    @Override
+    public DoubleTensor min(DoubleTensor min) {
+        return duplicate().minInPlace(min);
+    }
+
+    @Override
+    public DoubleTensor clamp(DoubleTensor min, DoubleTensor max) {
+        return duplicate().clampInPlace(min, max);
+    }
+
+    @Override
+    public DoubleTensor ceil() {
+        return duplicate().ceilInPlace();
+    }
+
+    @Override
+    public DoubleTensor floor() {
+        return duplicate().floorInPlace();
+    }
+
+    @Override
+    public DoubleTensor round() {
+        return duplicate().roundInPlace();
+    }
+
+    @Override
+    public DoubleTensor sigmoid() {
+        return duplicate().sigmoidInPlace();
+    }
+
+    @Override
+    public DoubleTensor standardize() {
+        return duplicate().standardizeInPlace();
+    }
+
+    @Override
+    public DoubleTensor abs() {
+        return duplicate().absInPlace();
+    }
+
+    @Override
+    public DoubleTensor unaryMinus() {
+        return duplicate().unaryMinusInPlace();
+    }
+
+    @Override
+    public DoubleTensor setWithMask(DoubleTensor mask, Double value) {
+        return duplicate().setWithMaskInPlace(mask, value);
+    }
+
+    @Override
+    public DoubleTensor apply(Function<Double, Double> function) {
+        return duplicate().applyInPlace(function);
+    }
+
+    // Reductions
+
+    @Override
+    public double max() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : buffer) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    @Override
+    public double min() {
+        double min = Double.POSITIVE_INFINITY;
+        for (double value : buffer) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    @Override
+    public double average() {
+        return sum() / buffer.length;
+    }
+
+    /**
+     * @return the bias corrected standard deviation, or 0 for a single value
+     */
+    @Override
+    public double standardDeviation() {
+        if (buffer.length < 2) {
+            return 0.0;
+        }
+        double mean = average();
+        double sumOfSquares = 0.0;
+        for (double value : buffer) {
+            sumOfSquares += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sumOfSquares / (buffer.length - 1));
+    }
+
+    @Override
+    public double product() {
+        double product = 1.0;
+        for (double value : buffer) {
+            product *= value;
+        }
+        return product;
+    }
+
+    /**
+     * @param o       the tensor to compare with
+     * @param epsilon the largest absolute, or relative to the larger magnitude, difference allowed per element
+     * @return true if the tensors have the same shape and every element is within epsilon
+     */
+    @Override
+    public boolean equalsWithinEpsilon(DoubleTensor o, double epsilon) {
+        if (this == o) {
+            return true;
+        }
+        if (!Arrays.equals(shape, o.getShape())) {
+            return false;
+        }
+
+        double[] other = bufferOf(o);
+        for (int i = 0; i < buffer.length; i++) {
+            if (!withinEpsilon(buffer[i], other[i], epsilon)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Linear algebra
+
+    @Override
+    public DoubleTensor matrixMultiply(DoubleTensor value) {
+        int[] valueShape = value.getShape();
+        if (shape.length != 2 || valueShape.length != 2) {
+            throw new IllegalArgumentException(
+                "Cannot matrix multiply " + Arrays.toString(shape) + " by " + Arrays.toString(valueShape) + " as they are not matrices"
+            );
+        }
+        if (shape[1] != valueShape[0]) {
+            throw new IllegalArgumentException(
+                "Cannot matrix multiply " + Arrays.toString(shape) + " by " + Arrays.toString(valueShape)
+            );
+        }
+
+        int rows = shape[0];
+        int inner = shape[1];
+        int columns = valueShape[1];
+        double[] right = bufferOf(value);
+        double[] result = new double[rows * columns];
+
+        for (int i = 0; i < rows; i++) {
+            for (int k = 0; k < inner; k++) {
+                double left = buffer[i * inner + k];
+                int rightOffset = k * columns;
+                int resultOffset = i * columns;
+                for (int j = 0; j < columns; j++) {
+                    result[resultOffset + j] += left * right[rightOffset + j];
+                }
+            }
+        }
+        return new JavaDoubleTensor(result, new int[]{rows, columns});
+    }
+
+    @Override
+    public DoubleTensor tensorMultiply(DoubleTensor value, int[] dimsLeft, int[] dimsRight) {
+        return fromNd4j(toNd4j().tensorMultiply(value, dimsLeft, dimsRight));
+    }
+
+    @Override
+    public DoubleTensor inverse() {
+        return fromNd4j(toNd4j().inverse());
+    }
+
+    @Override
+    public DoubleTensor choleskyDecomposition() {
+        return fromNd4j(toNd4j().choleskyDecomposition());
+    }
+
+    @Override
+    public double determinant() {
+        if (shape.length != 2 || shape[0] != shape[1]) {
+            throw new IllegalArgumentException("Cannot find the determinant of shape " + Arrays.toString(shape));
+        }
+        int n = shape[0];
+        double[][] matrix = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(buffer, i * n, matrix[i], 0, n);
+        }
+        return new LUDecomposition(new Array2DRowRealMatrix(matrix, false)).getDeterminant();
+    }
+
+    @Override
+    public DoubleTensor slice(int dimension, int index) {
+        if (index < 0 || index >= shape[dimension]) {
+            throw new IndexOutOfBoundsException(
+                "Index " + index + " out of bounds for dimension " + dimension + " of " + Arrays.toString(shape)
+            );
+        }
+
+        int outer = 1;
+        for (int d = 0; d < dimension; d++) {
+            outer *= shape[d];
+        }
+        int inner = stride[dimension];
+
+        double[] slice = new double[outer * inner];
+        for (int o = 0; o < outer; o++) {
+            System.arraycopy(buffer, o * shape[dimension] * inner + index * inner, slice, o * inner, inner);
+        }
+
+        boolean[] removed = new boolean[shape.length];
+        removed[dimension] = true;
+        return new JavaDoubleTensor(slice, getReducedShape(removed));
+    }
+
+    @Override
+    public DoubleTensor concat(int dimension, DoubleTensor... those) {
+        double[][] buffers = new double[those.length + 1][];
+        int[][] shapes = new int[those.length + 1][];
+        buffers[0] = buffer;
+        shapes[0] = shape;
+
+        int[] concatShape = shape.clone();
+        for (int i = 0; i < those.length; i++) {
+            buffers[i + 1] = bufferOf(those[i]);
+            shapes[i + 1] = those[i].getShape();
+
+            if (shapes[i + 1].length != shape.length) {
+                throw new IllegalArgumentException("Cannot concat tensors of different ranks");
+            }
+            for (int d = 0; d < shape.length; d++) {
+                if (d != dimension && shapes[i + 1][d] != shape[d]) {
+                    throw new IllegalArgumentException(
+                        "Cannot concat shape " + Arrays.toString(shapes[i + 1]) + " to " + Arrays.toString(shape) + " on dimension " + dimension
+                    );
+                }
+            }
+            concatShape[dimension] += shapes[i + 1][dimension];
+        }
+
+        int outer = 1;
+        for (int d = 0; d < dimension; d++) {
+            outer *= shape[d];
+        }
+
+        double[] concat = new double[(int) TensorShape.getLength(concatShape)];
+        int position = 0;
+        for (int o = 0; o < outer; o++) {
+            for (int i = 0; i < buffers.length; i++) {
+                int chunk = buffers[i].length / outer;
+                System.arraycopy(buffers[i], o * chunk, concat, position, chunk);
+                position += chunk;
+            }
+        }
+        return new JavaDoubleTensor(concat, concatShape);
+    }
+
+    // In place operations
+
+    @Override
+    public DoubleTensor reciprocalInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = 1.0 / buffer[i];
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor minusInPlace(double value) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] -= value;
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor plusInPlace(double value) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] += value;
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor timesInPlace(double value) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] *= value;
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor divInPlace(double value) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] /= value;
+        }
+        return this;
+    }
+
+    /**
+     * @param that Right operand.
+     * @return A new DoubleTensor instance only if broadcasting changes the shape of <i>this</i>.
+     * Otherwise return <i>this</i>.
+     */
+    @Override
+    public DoubleTensor minusInPlace(DoubleTensor that) {
+        if (that.isScalar()) {
+            return minusInPlace(that.scalar());
+        } else if (isSameShape(that)) {
+            double[] other = bufferOf(that);
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] -= other[i];
+            }
+            return this;
+        }
+        return broadcastInPlace(that, (a, b) -> a - b);
+    }
+
+    /**
+     * @param that Right operand.
+     * @return A new DoubleTensor instance only if broadcasting changes the shape of <i>this</i>.
+     * Otherwise return <i>this</i>.
+     */
+    @Override
+    public DoubleTensor plusInPlace(DoubleTensor that) {
+        if (that.isScalar()) {
+            return plusInPlace(that.scalar());
+        } else if (isSameShape(that)) {
+            double[] other = bufferOf(that);
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] += other[i];
+            }
+            return this;
+        }
+        return broadcastInPlace(that, (a, b) -> a + b);
+    }
+
+    /**
+     * @param that Right operand.
+     * @return A new DoubleTensor instance only if broadcasting changes the shape of <i>this</i>.
+     * Otherwise return <i>this</i>.
+     */
+    @Override
+    public DoubleTensor timesInPlace(DoubleTensor that) {
+        if (that.isScalar()) {
+            return timesInPlace(that.scalar());
+        } else if (isSameShape(that)) {
+            double[] other = bufferOf(that);
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] *= other[i];
+            }
+            return this;
+        }
+        return broadcastInPlace(that, (a, b) -> a * b);
+    }
+
+    /**
+     * @param that Right operand.
+     * @return A new DoubleTensor instance only if broadcasting changes the shape of <i>this</i>.
+     * Otherwise return <i>this</i>.
+     */
+    @Override
+    public DoubleTensor divInPlace(DoubleTensor that) {
+        if (that.isScalar()) {
+            return divInPlace(that.scalar());
+        } else if (isSameShape(that)) {
+            double[] other = bufferOf(that);
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] /= other[i];
+            }
+            return this;
+        }
+        return broadcastInPlace(that, (a, b) -> a / b);
+    }
+
+    @Override
+    public DoubleTensor powInPlace(DoubleTensor exponent) {
+        if (exponent.isScalar()) {
+            return powInPlace(exponent.scalar());
+        }
+        return broadcastInPlace(exponent, Math::pow);
+    }
+
+    @Override
+    public DoubleTensor powInPlace(double exponent) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.pow(buffer[i], exponent);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor sqrtInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.sqrt(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor logInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.log(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor sinInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.sin(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor cosInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.cos(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor tanInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.tan(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor atanInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.atan(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor atan2InPlace(double y) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.atan2(y, buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor atan2InPlace(DoubleTensor y) {
+        if (y.isScalar()) {
+            return atan2InPlace(y.scalar());
+        }
+        return broadcastInPlace(y, (x, yValue) -> Math.atan2(yValue, x));
+    }
+
+    @Override
+    public DoubleTensor asinInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.asin(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor acosInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.acos(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor expInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.exp(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor maxInPlace(DoubleTensor max) {
+        if (max.isScalar()) {
+            double value = max.scalar();
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = Math.max(buffer[i], value);
+            }
+            return this;
+        }
+        return broadcastInPlace(max, Math::max);
+    }
+
+    @Override
+    public DoubleTensor minInPlace(DoubleTensor min) {
+        if (min.isScalar()) {
+            double value = min.scalar();
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = Math.min(buffer[i], value);
+            }
+            return this;
+        }
+        return broadcastInPlace(min, Math::min);
+    }
+
+    @Override
+    public DoubleTensor clampInPlace(DoubleTensor min, DoubleTensor max) {
+        return minInPlace(max).maxInPlace(min);
+    }
+
+    @Override
+    public DoubleTensor ceilInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.ceil(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor floorInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.floor(buffer[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Rounds half away from zero, as ND4J does.
+     */
+    @Override
+    public DoubleTensor roundInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            double value = buffer[i];
+            if (Math.abs(value) < 0x1p52) {
+                buffer[i] = Math.copySign((double) Math.round(Math.abs(value)), value);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor sigmoidInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = 1.0 / (1.0 + Math.exp(-buffer[i]));
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor standardizeInPlace() {
+        double average = average();
+        double standardDeviation = standardDeviation();
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = (buffer[i] - average) / standardDeviation;
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor setAllInPlace(double value) {
+        Arrays.fill(buffer, value);
+        return this;
+    }
+
+    @Override
+    public DoubleTensor unaryMinusInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = -buffer[i];
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor absInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.abs(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor applyInPlace(Function<Double, Double> function) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = function.apply(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public DoubleTensor setWithMaskInPlace(DoubleTensor mask, Double value) {
+        if (mask.getLength() != buffer.length && !mask.isScalar()) {
+            throw new IllegalArgumentException(
+                "Cannot use mask of shape " + Arrays.toString(mask.getShape()) + " on shape " + Arrays.toString(shape)
+            );
+        }
+
+        double[] maskBuffer = bufferOf(mask);
+        for (int i = 0; i < buffer.length; i++) {
+            if (maskBuffer[maskBuffer.length == 1 ? 0 : i] != 0.0) {
+                buffer[i] = value;
+            }
+        }
+        return this;
+    }
+
+    // Masks and comparisons
+
+    @Override
+    public DoubleTensor getGreaterThanMask(DoubleTensor greaterThanThis) {
+        return mask(greaterThanThis, (a, b) -> a > b ? 1.0 : 0.0);
+    }
+
+    @Override
+    public DoubleTensor getGreaterThanOrEqualToMask(DoubleTensor greaterThanOrEqualToThis) {
+        return mask(greaterThanOrEqualToThis, (a, b) -> a >= b ? 1.0 : 0.0);
+    }
+
+    @Override
+    public DoubleTensor getLessThanMask(DoubleTensor lessThanThis) {
+        return mask(lessThanThis, (a, b) -> a < b ? 1.0 : 0.0);
+    }
+
+    @Override
+    public DoubleTensor getLessThanOrEqualToMask(DoubleTensor lessThanOrEqualToThis) {
+        return mask(lessThanOrEqualToThis, (a, b) -> a <= b ? 1.0 : 0.0);
+    }
+
+    @Override
+    public BooleanTensor lessThan(double value) {
+        boolean[] result = new boolean[buffer.length];
+        for (int i = 0; i < buffer.length; i++) {
+            result[i] = buffer[i] < value;
+        }
+        return BooleanTensor.create(result, shape.clone());
+    }
+
+    @Override
+    public BooleanTensor lessThanOrEqual(double value) {
+        boolean[] result = new boolean[buffer.length];
+        for (int i = 0; i < buffer.length; i++) {
+            result[i] = buffer[i] <= value;
+        }
+        return BooleanTensor.create(result, shape.clone());
+    }
+
+    @Override
+    public BooleanTensor greaterThan(double value) {
+        boolean[] result = new boolean[buffer.length];
+        for (int i = 0; i < buffer.length; i++) {
+            result[i] = buffer[i] > value;
+        }
+        return BooleanTensor.create(result, shape.clone());
+    }
+
+    @Override
+    public BooleanTensor greaterThanOrEqual(double value) {
+        boolean[] result = new boolean[buffer.length];
+        for (int i = 0; i < buffer.length; i++) {
+            result[i] = buffer[i] >= value;
+        }
+        return BooleanTensor.create(result, shape.clone());
+    }
+
+    @Override
+    public BooleanTensor lessThan(DoubleTensor value) {
+        return value.isScalar() ? lessThan(value.scalar()) : fromMask(getLessThanMask(value));
+    }
+
+    @Override
+    public BooleanTensor lessThanOrEqual(DoubleTensor value) {
+        return value.isScalar() ? lessThanOrEqual(value.scalar()) : fromMask(getLessThanOrEqualToMask(value));
+    }
+
+    @Override
+    public BooleanTensor greaterThan(DoubleTensor value) {
+        return value.isScalar() ? greaterThan(value.scalar()) : fromMask(getGreaterThanMask(value));
+    }
+
+    @Override
+    public BooleanTensor greaterThanOrEqual(DoubleTensor value) {
+        return value.isScalar() ? greaterThanOrEqual(value.scalar()) : fromMask(getGreaterThanOrEqualToMask(value));
+    }
+
+    // Views and conversions
+
+    @Override
+    public FlattenedView<Double> getFlattenedView() {
+        return new JavaDoubleFlattenedView();
+    }
+
+    private class JavaDoubleFlattenedView implements FlattenedView<Double> {
+
+        @Override
+        public long size() {
+            return buffer.length;
+        }
+
+        @Override
+        public Double get(long index) {
+            return buffer[(int) index];
+        }
+
+        @Override
+        public Double getOrScalar(long index) {
+            return buffer.length == 1 ? buffer[0] : buffer[(int) index];
+        }
+
+        @Override
+        public void set(long index, Double value) {
+            buffer[(int) index] = value;
+        }
+    }
+
+    @Override
+    public double[] asFlatDoubleArray() {
+        return buffer.clone();
+    }
+
+    @Override
+    public int[] asFlatIntegerArray() {
+        int[] integers = new int[buffer.length];
+        for (int i = 0; i < buffer.length; i++) {
+            integers[i] = (int) buffer[i];
+        }
+        return integers;
+    }
+
+    @Override
+    public void copyFlatDoubleArrayTo(double[] destination) {
+        System.arraycopy(buffer, 0, destination, 0, buffer.length);
+    }
+
+    @Override
+    public void copyFlatIntegerArrayTo(int[] destination) {
+        for (int i = 0; i < buffer.length; i++) {
+            destination[i] = (int) buffer[i];
+        }
+    }
+
+    @Override
+    public Double[] asFlatArray() {
+        return ArrayUtils.toObject(buffer);
+    }
+
+    /**
+     * Double tensors are equal if they have the same shape and exactly equal elements, whichever backend holds
+     * them. Use {@link #equalsWithinEpsilon(DoubleTensor, double)} to allow for a tolerance.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+
+        if (o instanceof DoubleTensor) {
+            DoubleTensor that = (DoubleTensor) o;
+            return Arrays.equals(shape, that.getShape()) && elementsEqual(buffer, bufferOf(that));
+        } else if (o instanceof Tensor) {
+            Tensor that = (Tensor) o;
+            if (!Arrays.equals(that.getShape(), shape)) return false;
+            return Arrays.equals(that.asFlatArray(), asFlatArray());
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode(buffer, shape);
+    }
+
+    /**
+     * @return true if the arrays are the same length and their elements are equal, where NaN equals NaN and
+     * positive and negative zero are equal
+     */
+    static boolean elementsEqual(double[] a, double[] b) {
+        if (a.length != b.length) {
+            return false;
+        }
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i] && !(Double.isNaN(a[i]) && Double.isNaN(b[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the hash of a double tensor with these elements in row major order and this shape, which is the
+     * same for every backend
+     */
+    static int hashCode(double[] values, int[] shape) {
+        int result = 1;
+        for (double value : values) {
+            //adding zero turns negative zero into positive zero, as they are equal
+            result = 31 * result + Double.hashCode(value + 0.0);
+        }
+        return 31 * result + Arrays.hashCode(shape);
+    }
+
+    @Override
+    public String toString() {
+        return "{\n" +
+            "data = " + Arrays.toString(buffer) +
+            "\nshape = " + Arrays.toString(shape) +
+            "\n}";
+    }
+
+    private DoubleTensor broadcastInPlace(DoubleTensor that, DoubleBinaryOperator operation) {
+        int[] thatShape = that.getShape();
+        double[] other = bufferOf(that);
+
+        if (buffer.length == 1) {
+            double value = buffer[0];
+            double[] result = new double[other.length];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = operation.applyAsDouble(value, other[i]);
+            }
+            return new JavaDoubleTensor(result, thatShape);
+        }
+
+        if (other.length == 1 || Arrays.equals(shape, thatShape)) {
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = operation.applyAsDouble(buffer[i], other[other.length == 1 ? 0 : i]);
+            }
+            return this;
+        }
+
+        int[] resultShape = TensorShape.getBroadcastShape(shape, thatShape);
+        double[] result = broadcast(buffer, shape, other, thatShape, resultShape, operation);
+        if (Arrays.equals(resultShape, shape)) {
+            buffer = result;
+            return this;
+        }
+        return new JavaDoubleTensor(result, resultShape);
+    }
+
+    private boolean isSameShape(DoubleTensor that) {
+        if (that instanceof JavaDoubleTensor) {
+            return Arrays.equals(shape, ((JavaDoubleTensor) that).shape);
+        }
+        return Arrays.equals(shape, that.getShape());
+    }
+
+    private DoubleTensor mask(DoubleTensor that, DoubleBinaryOperator comparison) {
+        return new JavaDoubleTensor(buffer.clone(), shape).broadcastInPlace(that, comparison);
+    }
+
+    private static BooleanTensor fromMask(DoubleTensor mask) {
+        double[] maskBuffer = bufferOf(mask);
+        boolean[] result = new boolean[maskBuffer.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = maskBuffer[i] != 0.0;
+        }
+        return BooleanTensor.create(result, mask.getShape());
+    }
+
+    private static double[] broadcast(double[] left, int[] leftShape,
+                                      double[] right, int[] rightShape,
+                                      int[] resultShape,
+                                      DoubleBinaryOperator operation) {
+        TensorShape.BroadcastIndex index = new TensorShape.BroadcastIndex(leftShape, rightShape, resultShape);
+        double[] result = new double[(int) TensorShape.getLength(resultShape)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = operation.applyAsDouble(left[index.getLeft()], right[index.getRight()]);
+            index.next();
+        }
+        return result;
+    }
+
+    private int[] getReducedShape(boolean[] removed) {
+        return TensorShape.getReducedShape(shape, removed);
+    }
+
+    private int getFlatIndex(int[] index) {
+        return TensorShape.getCheckedFlatIndex(shape, stride, buffer.length, index);
+    }
+
+    private Nd4jDoubleTensor toNd4j() {
+        return Nd4jDoubleTensor.create(buffer, shape);
+    }
+
+    private static JavaDoubleTensor fromNd4j(DoubleTensor tensor) {
+        return new JavaDoubleTensor(tensor.asFlatDoubleArray(), tensor.getShape());
+    }
+
+    /**
+     * @return the values of the tensor, which must not be modified
+     */
+    static double[] bufferOf(DoubleTensor tensor) {
+        if (tensor instanceof JavaDoubleTensor) {
+            return ((JavaDoubleTensor) tensor).buffer;
+        }
+        return tensor.asFlatDoubleArray();
+    }
+
+    /**
+     * Matches ND4J's comparison, which accepts differences within epsilon in absolute terms or relative to the
+     * larger of the two magnitudes.
+     */
+    private static boolean withinEpsilon(double a, double b, double epsilon) {
+        if (Double.isInfinite(a) && Double.isInfinite(b)) {
+            return a == b;
+        }
+        double difference = Math.abs(a - b);
+        return difference <= epsilon || difference <= Math.max(Math.abs(a), Math.abs(b)) * epsilon;
+    }
+}
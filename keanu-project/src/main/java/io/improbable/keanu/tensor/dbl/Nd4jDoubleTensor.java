@@ -25,16 +25,15 @@ import org.nd4j.linalg.ops.transforms.Transforms;
 
 import io.improbable.keanu.tensor.INDArrayExtensions;
 import io.improbable.keanu.tensor.INDArrayShim;
+import io.improbable.keanu.tensor.Nd4jPrecision;
 import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.TypedINDArrayFactory;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
-import io.improbable.keanu.tensor.bool.SimpleBooleanTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
-import io.improbable.keanu.tensor.intgr.Nd4jIntegerTensor;
 
 public class Nd4jDoubleTensor implements DoubleTensor {
 
-    private static final DataBuffer.Type BUFFER_TYPE = DataBuffer.Type.DOUBLE;
+    private static final DataBuffer.Type BUFFER_TYPE = Nd4jPrecision.BUFFER_TYPE;
 
     public static Nd4jDoubleTensor scalar(double scalarValue) {
         return new Nd4jDoubleTensor(TypedINDArrayFactory.scalar(scalarValue, BUFFER_TYPE));
@@ -65,11 +64,12 @@ public class Nd4jDoubleTensor implements DoubleTensor {
     }
 
     public static Nd4jDoubleTensor arange(double start, double end) {
+        JavaDoubleTensor.getArangeLength(start, end, 1.0);
         return new Nd4jDoubleTensor(TypedINDArrayFactory.arange(start, end, BUFFER_TYPE));
     }
 
     public static Nd4jDoubleTensor arange(double start, double end, double stepSize) {
-        double stepCount = Math.ceil((end - start) / stepSize);
+        int stepCount = JavaDoubleTensor.getArangeLength(start, end, stepSize);
         INDArray arangeWithStep = TypedINDArrayFactory.arange(0, stepCount, BUFFER_TYPE).muli(stepSize).addi(start);
         return new Nd4jDoubleTensor(arangeWithStep);
     }
@@ -138,7 +138,7 @@ public class Nd4jDoubleTensor implements DoubleTensor {
     }
 
     public Double sum() {
-        return tensor.sumNumber().doubleValue();
+        return INDArrayExtensions.sumInDoublePrecision(tensor);
     }
 
     @Override
@@ -182,7 +182,7 @@ public class Nd4jDoubleTensor implements DoubleTensor {
 
     @Override
     public double average() {
-        return tensor.sumNumber().doubleValue() / tensor.length();
+        return INDArrayExtensions.sumInDoublePrecision(tensor) / tensor.length();
     }
 
     @Override
@@ -928,8 +928,10 @@ public class Nd4jDoubleTensor implements DoubleTensor {
     private INDArray unsafeGetNd4J(DoubleTensor that) {
         if (that.isScalar()) {
             return TypedINDArrayFactory.scalar(that.scalar(), BUFFER_TYPE).reshape(that.getShape());
+        } else if (that instanceof Nd4jDoubleTensor) {
+            return ((Nd4jDoubleTensor) that).tensor;
         }
-        return ((Nd4jDoubleTensor) that).tensor;
+        return TypedINDArrayFactory.create(that.asFlatDoubleArray(), that.getShape(), BUFFER_TYPE);
     }
 
     @Override
@@ -941,8 +943,10 @@ public class Nd4jDoubleTensor implements DoubleTensor {
     public boolean equals(Object o) {
         if (this == o) return true;
 
-        if (o instanceof Nd4jDoubleTensor) {
-            return tensor.equals(((Nd4jDoubleTensor) o).tensor);
+        if (o instanceof DoubleTensor) {
+            DoubleTensor that = (DoubleTensor) o;
+            return Arrays.equals(getShape(), that.getShape())
+                && JavaDoubleTensor.elementsEqual(asFlatDoubleArray(), that.asFlatDoubleArray());
         } else if (o instanceof Tensor) {
             Tensor that = (Tensor) o;
             if (!Arrays.equals(that.getShape(), getShape())) return false;
@@ -957,7 +961,7 @@ public class Nd4jDoubleTensor implements DoubleTensor {
 
     @Override
     public int hashCode() {
-        return tensor.hashCode();
+        return JavaDoubleTensor.hashCode(asFlatDoubleArray(), getShape());
     }
 
     @Override
@@ -972,7 +976,7 @@ public class Nd4jDoubleTensor implements DoubleTensor {
 
     @Override
     public IntegerTensor toInteger() {
-        return new Nd4jIntegerTensor(INDArrayExtensions.castToInteger(tensor, false));
+        return IntegerTensor.create(asFlatIntegerArray(), getShape());
     }
 
     private BooleanTensor fromMask(INDArray mask, int[] shape) {
@@ -982,7 +986,7 @@ public class Nd4jDoubleTensor implements DoubleTensor {
         for (int i = 0; i < boolsFromMask.length; i++) {
             boolsFromMask[i] = data.getDouble(i) != 0.0;
         }
-        return new SimpleBooleanTensor(boolsFromMask, shape);
+        return BooleanTensor.create(boolsFromMask, shape);
     }
 
     private static class Nd4jDoubleFlattenedView implements FlattenedView<Double> {
@@ -1028,6 +1032,38 @@ public class Nd4jDoubleTensor implements DoubleTensor {
         return tensor.dup().data().asInt();
     }
 
+    /**
+     * Reads the data buffer in place unless the tensor is a view or not in row major order.
+     */
+    @Override
+    public void copyFlatDoubleArrayTo(double[] destination) {
+        if (tensor.isView() || tensor.ordering() != 'c') {
+            DoubleTensor.super.copyFlatDoubleArrayTo(destination);
+            return;
+        }
+        DataBuffer data = tensor.data();
+        long length = tensor.length();
+        for (int i = 0; i < length; i++) {
+            destination[i] = data.getDouble(i);
+        }
+    }
+
+    /**
+     * Reads the data buffer in place unless the tensor is a view or not in row major order.
+     */
+    @Override
+    public void copyFlatIntegerArrayTo(int[] destination) {
+        if (tensor.isView() || tensor.ordering() != 'c') {
+            DoubleTensor.super.copyFlatIntegerArrayTo(destination);
+            return;
+        }
+        DataBuffer data = tensor.data();
+        long length = tensor.length();
+        for (int i = 0; i < length; i++) {
+            destination[i] = (int) data.getDouble(i);
+        }
+    }
+
     @Override
     public Double[] asFlatArray() {
         return ArrayUtils.toObject(asFlatDoubleArray());
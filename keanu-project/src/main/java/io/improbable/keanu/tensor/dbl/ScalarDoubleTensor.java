@@ -423,7 +423,7 @@ public class ScalarDoubleTensor implements DoubleTensor {
 
     @Override
     public DoubleTensor concat(int dimension, DoubleTensor... those) {
-        return Nd4jDoubleTensor.scalar(value).concat(dimension, those);
+        return JavaDoubleTensor.scalar(value).concat(dimension, those);
     }
 
     @Override
@@ -518,7 +518,7 @@ public class ScalarDoubleTensor implements DoubleTensor {
         if (y.isScalar()) {
             value = Math.atan2(y.scalar(), value);
         } else {
-            return Nd4jDoubleTensor.create(value, y.getShape()).atan2InPlace(y);
+            return DoubleTensor.create(value, y.getShape()).atan2InPlace(y);
         }
         return this;
     }
@@ -777,6 +777,16 @@ public class ScalarDoubleTensor implements DoubleTensor {
         return new int[]{value.intValue()};
     }
 
+    @Override
+    public void copyFlatDoubleArrayTo(double[] destination) {
+        destination[0] = value;
+    }
+
+    @Override
+    public void copyFlatIntegerArrayTo(int[] destination) {
+        destination[0] = value.intValue();
+    }
+
     @Override
     public Double[] asFlatArray() {
         return ArrayUtils.toObject(asFlatDoubleArray());
@@ -790,14 +800,18 @@ public class ScalarDoubleTensor implements DoubleTensor {
         Tensor that = (Tensor) o;
 
         if (!Arrays.equals(that.getShape(), shape)) return false;
+        if (that instanceof DoubleTensor && value != null) {
+            return JavaDoubleTensor.elementsEqual(new double[]{value}, ((DoubleTensor) that).asFlatDoubleArray());
+        }
         return that.scalar().equals(value);
     }
 
     @Override
     public int hashCode() {
-        int result = value != null ? value.hashCode() : 0;
-        result = 31 * result + Arrays.hashCode(shape);
-        return result;
+        if (value == null) {
+            return Arrays.hashCode(shape);
+        }
+        return JavaDoubleTensor.hashCode(new double[]{value}, shape);
     }
 
     @Override
@@ -0,0 +1,817 @@
+package io.improbable.keanu.tensor.intgr;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+
+import org.apache.commons.lang3.ArrayUtils;
+
+import com.google.common.math.IntMath;
+
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+
+/**
+ * A dense, row major IntegerTensor held in an int[]. Unlike {@link Nd4jIntegerTensor}, which stores its
+ * values as doubles, it needs no rounding after division and uses half or a quarter of the memory, and its
+ * elementwise operations never call into native code. Tensor multiply is delegated to Nd4jIntegerTensor.
+ * <p>
+ * Results have the same shapes as Nd4jIntegerTensor's, except that binary operations broadcast fully: each
+ * pair of dimensions, aligned from the right, must be equal or contain a 1.
+ */
+public class JavaIntegerTensor implements IntegerTensor {
+
+    public static JavaIntegerTensor scalar(int scalarValue) {
+        return new JavaIntegerTensor(new int[]{scalarValue}, SCALAR_SHAPE);
+    }
+
+    public static JavaIntegerTensor create(int[] values, int[] shape) {
+        if (values.length != TensorShape.getLength(shape)) {
+            throw new IllegalArgumentException(
+                values.length + " values cannot fill shape " + Arrays.toString(shape)
+            );
+        }
+        return new JavaIntegerTensor(values.clone(), shape.clone());
+    }
+
+    public static JavaIntegerTensor create(int value, int[] shape) {
+        int[] buffer = new int[(int) TensorShape.getLength(shape)];
+        Arrays.fill(buffer, value);
+        return new JavaIntegerTensor(buffer, shape.clone());
+    }
+
+    public static JavaIntegerTensor ones(int[] shape) {
+        return create(1, shape);
+    }
+
+    public static JavaIntegerTensor zeros(int[] shape) {
+        return new JavaIntegerTensor(new int[(int) TensorShape.getLength(shape)], shape.clone());
+    }
+
+    public static JavaIntegerTensor eye(int n) {
+        int[] buffer = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            buffer[i * n + i] = 1;
+        }
+        return new JavaIntegerTensor(buffer, new int[]{n, n});
+    }
+
+    private int[] buffer;
+    private int[] shape;
+    private int[] stride;
+
+    private JavaIntegerTensor(int[] buffer, int[] shape) {
+        this.buffer = buffer;
+        this.shape = shape;
+        this.stride = TensorShape.getRowFirstStride(shape);
+    }
+
+    @Override
+    public int getRank() {
+        return shape.length;
+    }
+
+    @Override
+    public int[] getShape() {
+        return shape.clone();
+    }
+
+    /**
+     * Compares without copying the shape.
+     */
+    @Override
+    public boolean hasSameShapeAs(int[] shape) {
+        return Arrays.equals(this.shape, shape);
+    }
+
+    @Override
+    public long getLength() {
+        return buffer.length;
+    }
+
+    @Override
+    public boolean isShapePlaceholder() {
+        return false;
+    }
+
+    @Override
+    public Integer getValue(int... index) {
+        return buffer[getFlatIndex(index)];
+    }
+
+    @Override
+    public void setValue(Integer value, int... index) {
+        buffer[getFlatIndex(index)] = value;
+    }
+
+    @Override
+    public Integer scalar() {
+        return buffer[0];
+    }
+
+    @Override
+    public IntegerTensor duplicate() {
+        return new JavaIntegerTensor(buffer.clone(), shape);
+    }
+
+    /**
+     * @return a tensor sharing this tensor's values, like a reshaped ND4J view
+     */
+    @Override
+    public IntegerTensor reshape(int... newShape) {
+        int[] resolvedShape = newShape.clone();
+        int inferredDimension = -1;
+        int knownLength = 1;
+        for (int i = 0; i < resolvedShape.length; i++) {
+            if (resolvedShape[i] == -1) {
+                if (inferredDimension != -1) {
+                    throw new IllegalArgumentException("Only one dimension can be inferred in " + Arrays.toString(newShape));
+                }
+                inferredDimension = i;
+            } else {
+                knownLength *= resolvedShape[i];
+            }
+        }
+        if (inferredDimension != -1 && knownLength != 0) {
+            resolvedShape[inferredDimension] = buffer.length / knownLength;
+        }
+
+        if (TensorShape.getLength(resolvedShape) != buffer.length) {
+            throw new IllegalArgumentException(
+                "Cannot reshape " + Arrays.toString(shape) + " to " + Arrays.toString(newShape)
+            );
+        }
+        return new JavaIntegerTensor(buffer, resolvedShape);
+    }
+
+    @Override
+    public IntegerTensor transpose() {
+        int[] transposedShape = new int[shape.length];
+        int[] sourceStride = new int[shape.length];
+        for (int i = 0; i < shape.length; i++) {
+            transposedShape[i] = shape[shape.length - 1 - i];
+            sourceStride[i] = stride[shape.length - 1 - i];
+        }
+
+        int[] transposed = new int[buffer.length];
+        int[] index = new int[shape.length];
+        int sourceIndex = 0;
+        for (int i = 0; i < transposed.length; i++) {
+            transposed[i] = buffer[sourceIndex];
+            for (int d = index.length - 1; d >= 0; d--) {
+                index[d]++;
+                sourceIndex += sourceStride[d];
+                if (index[d] < transposedShape[d]) {
+                    break;
+                }
+                sourceIndex -= sourceStride[d] * transposedShape[d];
+                index[d] = 0;
+            }
+        }
+        return new JavaIntegerTensor(transposed, transposedShape);
+    }
+
+    /**
+     * @return a square matrix with this vector on its diagonal
+     */
+    @Override
+    public IntegerTensor diag() {
+        if (!isVector() && !isScalar()) {
+            throw new IllegalArgumentException("Cannot create a diagonal matrix from shape " + Arrays.toString(shape));
+        }
+        int n = buffer.length;
+        int[] diagonal = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            diagonal[i * n + i] = buffer[i];
+        }
+        return new JavaIntegerTensor(diagonal, new int[]{n, n});
+    }
+
+    @Override
+    public Integer sum() {
+        int sum = 0;
+        for (int value : buffer) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Override
+    public IntegerTensor sum(int... overDimensions) {
+        boolean[] summed = new boolean[shape.length];
+        if (overDimensions.length == 0) {
+            Arrays.fill(summed, true);
+        }
+        for (int dimension : overDimensions) {
+            summed[dimension] = true;
+        }
+
+        int[] resultStride = new int[shape.length];
+        int resultLength = 1;
+        for (int d = shape.length - 1; d >= 0; d--) {
+            if (!summed[d]) {
+                resultStride[d] = resultLength;
+                resultLength *= shape[d];
+            }
+        }
+
+        int[] result = new int[resultLength];
+        int[] index = new int[shape.length];
+        int resultIndex = 0;
+        for (int i = 0; i < buffer.length; i++) {
+            result[resultIndex] += buffer[i];
+            for (int d = index.length - 1; d >= 0; d--) {
+                index[d]++;
+                resultIndex += resultStride[d];
+                if (index[d] < shape[d]) {
+                    break;
+                }
+                resultIndex -= resultStride[d] * shape[d];
+                index[d] = 0;
+            }
+        }
+
+        return new JavaIntegerTensor(result, TensorShape.getReducedShape(shape, summed));
+    }
+
+    @Override
+    public DoubleTensor toDouble() {
+        return DoubleTensor.create(asFlatDoubleArray(), shape.clone());
+    }
+
+    @Override
+    public IntegerTensor toInteger() {
+        return this;
+    }
+
+    // Elementwise operations that return a new tensor
+
+    @Override
+    public IntegerTensor minus(int value) {
+        return duplicate().minusInPlace(value);
+    }
+
+    @Override
+    public IntegerTensor plus(int value) {
+        return duplicate().plusInPlace(value);
+    }
+
+    @Override
+    public IntegerTensor times(int value) {
+        return duplicate().timesInPlace(value);
+    }
+
+    @Override
+    public IntegerTensor div(int value) {
+        return duplicate().divInPlace(value);
+    }
+
+    @Override
+    public IntegerTensor pow(int exponent) {
+        return duplicate().powInPlace(exponent);
+    }
+
+    @Override
+    public IntegerTensor pow(IntegerTensor exponent) {
+        return duplicate().powInPlace(exponent);
+    }
+
+    @Override
+    public IntegerTensor minus(IntegerTensor that) {
+        return duplicate().minusInPlace(that);
+    }
+
+    @Override
+    public IntegerTensor plus(IntegerTensor that) {
+        return duplicate().plusInPlace(that);
+    }
+
+    @Override
+    public IntegerTensor times(IntegerTensor that) {
+        return duplicate().timesInPlace(that);
+    }
+
+    @Override
+    public IntegerTensor div(IntegerTensor that) {
+        return duplicate().divInPlace(that);
+    }
+
+    @Override
+    public IntegerTensor unaryMinus() {
+        return duplicate().unaryMinusInPlace();
+    }
+
+    @Override
+    public IntegerTensor abs() {
+        return duplicate().absInPlace();
+    }
+
+    @Override
+    public IntegerTensor setWithMask(IntegerTensor mask, Integer value) {
+        return duplicate().setWithMaskInPlace(mask, value);
+    }
+
+    @Override
+    public IntegerTensor apply(Function<Integer, Integer> function) {
+        return duplicate().applyInPlace(function);
+    }
+
+    // Linear algebra
+
+    @Override
+    public IntegerTensor matrixMultiply(IntegerTensor value) {
+        int[] valueShape = value.getShape();
+        if (shape.length != 2 || valueShape.length != 2) {
+            throw new IllegalArgumentException(
+                "Cannot matrix multiply " + Arrays.toString(shape) + " by " + Arrays.toString(valueShape) + " as they are not matrices"
+            );
+        }
+        if (shape[1] != valueShape[0]) {
+            throw new IllegalArgumentException(
+                "Cannot matrix multiply " + Arrays.toString(shape) + " by " + Arrays.toString(valueShape)
+            );
+        }
+
+        int rows = shape[0];
+        int inner = shape[1];
+        int columns = valueShape[1];
+        int[] right = bufferOf(value);
+        int[] result = new int[rows * columns];
+
+        for (int i = 0; i < rows; i++) {
+            for (int k = 0; k < inner; k++) {
+                int left = buffer[i * inner + k];
+                int rightOffset = k * columns;
+                int resultOffset = i * columns;
+                for (int j = 0; j < columns; j++) {
+                    result[resultOffset + j] += left * right[rightOffset + j];
+                }
+            }
+        }
+        return new JavaIntegerTensor(result, new int[]{rows, columns});
+    }
+
+    @Override
+    public IntegerTensor tensorMultiply(IntegerTensor value, int[] dimsLeft, int[] dimsRight) {
+        IntegerTensor result = Nd4jIntegerTensor.create(buffer, shape).tensorMultiply(value, dimsLeft, dimsRight);
+        return new JavaIntegerTensor(result.asFlatIntegerArray(), result.getShape());
+    }
+
+    @Override
+    public IntegerTensor slice(int dimension, int index) {
+        if (index < 0 || index >= shape[dimension]) {
+            throw new IndexOutOfBoundsException(
+                "Index " + index + " out of bounds for dimension " + dimension + " of " + Arrays.toString(shape)
+            );
+        }
+
+        int outer = 1;
+        for (int d = 0; d < dimension; d++) {
+            outer *= shape[d];
+        }
+        int inner = stride[dimension];
+
+        int[] slice = new int[outer * inner];
+        for (int o = 0; o < outer; o++) {
+            System.arraycopy(buffer, o * shape[dimension] * inner + index * inner, slice, o * inner, inner);
+        }
+
+        boolean[] removed = new boolean[shape.length];
+        removed[dimension] = true;
+        return new JavaIntegerTensor(slice, TensorShape.getReducedShape(shape, removed));
+    }
+
+    @Override
+    public IntegerTensor concat(int dimension, IntegerTensor... those) {
+        int[][] buffers = new int[those.length + 1][];
+        int[][] shapes = new int[those.length + 1][];
+        buffers[0] = buffer;
+        shapes[0] = shape;
+
+        int[] concatShape = shape.clone();
+        for (int i = 0; i < those.length; i++) {
+            buffers[i + 1] = bufferOf(those[i]);
+            shapes[i + 1] = those[i].getShape();
+
+            if (shapes[i + 1].length != shape.length) {
+                throw new IllegalArgumentException("Cannot concat tensors of different ranks");
+            }
+            for (int d = 0; d < shape.length; d++) {
+                if (d != dimension && shapes[i + 1][d] != shape[d]) {
+                    throw new IllegalArgumentException(
+                        "Cannot concat shape " + Arrays.toString(shapes[i + 1]) + " to " + Arrays.toString(shape) + " on dimension " + dimension
+                    );
+                }
+            }
+            concatShape[dimension] += shapes[i + 1][dimension];
+        }
+
+        int outer = 1;
+        for (int d = 0; d < dimension; d++) {
+            outer *= shape[d];
+        }
+
+        int[] concat = new int[(int) TensorShape.getLength(concatShape)];
+        int position = 0;
+        for (int o = 0; o < outer; o++) {
+            for (int i = 0; i < buffers.length; i++) {
+                int chunk = buffers[i].length / outer;
+                System.arraycopy(buffers[i], o * chunk, concat, position, chunk);
+                position += chunk;
+            }
+        }
+        return new JavaIntegerTensor(concat, concatShape);
+    }
+
+    // In place operations
+
+    @Override
+    public IntegerTensor minusInPlace(int value) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] -= value;
+        }
+        return this;
+    }
+
+    @Override
+    public IntegerTensor plusInPlace(int value) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] += value;
+        }
+        return this;
+    }
+
+    @Override
+    public IntegerTensor timesInPlace(int value) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] *= value;
+        }
+        return this;
+    }
+
+    @Override
+    public IntegerTensor divInPlace(int value) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] /= value;
+        }
+        return this;
+    }
+
+    @Override
+    public IntegerTensor powInPlace(int exponent) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = pow(buffer[i], exponent);
+        }
+        return this;
+    }
+
+    /**
+     * @param that Right operand.
+     * @return A new IntegerTensor instance only if broadcasting changes the shape of <i>this</i>.
+     * Otherwise return <i>this</i>.
+     */
+    @Override
+    public IntegerTensor minusInPlace(IntegerTensor that) {
+        if (that.isScalar()) {
+            return minusInPlace(that.scalar().intValue());
+        }
+        return broadcastInPlace(that, (a, b) -> a - b);
+    }
+
+    /**
+     * @param that Right operand.
+     * @return A new IntegerTensor instance only if broadcasting changes the shape of <i>this</i>.
+     * Otherwise return <i>this</i>.
+     */
+    @Override
+    public IntegerTensor plusInPlace(IntegerTensor that) {
+        if (that.isScalar()) {
+            return plusInPlace(that.scalar().intValue());
+        }
+        return broadcastInPlace(that, (a, b) -> a + b);
+    }
+
+    /**
+     * @param that Right operand.
+     * @return A new IntegerTensor instance only if broadcasting changes the shape of <i>this</i>.
+     * Otherwise return <i>this</i>.
+     */
+    @Override
+    public IntegerTensor timesInPlace(IntegerTensor that) {
+        if (that.isScalar()) {
+            return timesInPlace(that.scalar().intValue());
+        }
+        return broadcastInPlace(that, (a, b) -> a * b);
+    }
+
+    /**
+     * @param that Right operand.
+     * @return A new IntegerTensor instance only if broadcasting changes the shape of <i>this</i>.
+     * Otherwise return <i>this</i>.
+     */
+    @Override
+    public IntegerTensor divInPlace(IntegerTensor that) {
+        if (that.isScalar()) {
+            return divInPlace(that.scalar().intValue());
+        }
+        return broadcastInPlace(that, (a, b) -> a / b);
+    }
+
+    @Override
+    public IntegerTensor powInPlace(IntegerTensor exponent) {
+        if (exponent.isScalar()) {
+            return powInPlace(exponent.scalar().intValue());
+        }
+        return broadcastInPlace(exponent, JavaIntegerTensor::pow);
+    }
+
+    @Override
+    public IntegerTensor unaryMinusInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = -buffer[i];
+        }
+        return this;
+    }
+
+    @Override
+    public IntegerTensor absInPlace() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.abs(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public IntegerTensor applyInPlace(Function<Integer, Integer> function) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = function.apply(buffer[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public IntegerTensor setWithMaskInPlace(IntegerTensor mask, Integer value) {
+        if (mask.getLength() != buffer.length && !mask.isScalar()) {
+            throw new IllegalArgumentException(
+                "Cannot use mask of shape " + Arrays.toString(mask.getShape()) + " on shape " + Arrays.toString(shape)
+            );
+        }
+
+        int[] maskBuffer = bufferOf(mask);
+        for (int i = 0; i < buffer.length; i++) {
+            if (maskBuffer[maskBuffer.length == 1 ? 0 : i] != 0) {
+                buffer[i] = value;
+            }
+        }
+        return this;
+    }
+
+    // Masks and comparisons
+
+    @Override
+    public IntegerTensor getGreaterThanMask(IntegerTensor greaterThanThis) {
+        return mask(greaterThanThis, (a, b) -> a > b ? 1 : 0);
+    }
+
+    @Override
+    public IntegerTensor getGreaterThanOrEqualToMask(IntegerTensor greaterThanOrEqualToThis) {
+        return mask(greaterThanOrEqualToThis, (a, b) -> a >= b ? 1 : 0);
+    }
+
+    @Override
+    public IntegerTensor getLessThanMask(IntegerTensor lessThanThis) {
+        return mask(lessThanThis, (a, b) -> a < b ? 1 : 0);
+    }
+
+    @Override
+    public IntegerTensor getLessThanOrEqualToMask(IntegerTensor lessThanOrEqualToThis) {
+        return mask(lessThanOrEqualToThis, (a, b) -> a <= b ? 1 : 0);
+    }
+
+    @Override
+    public BooleanTensor lessThan(int value) {
+        boolean[] result = new boolean[buffer.length];
+        for (int i = 0; i < buffer.length; i++) {
+            result[i] = buffer[i] < value;
+        }
+        return BooleanTensor.create(result, shape.clone());
+    }
+
+    @Override
+    public BooleanTensor lessThanOrEqual(int value) {
+        boolean[] result = new boolean[buffer.length];
+        for (int i = 0; i < buffer.length; i++) {
+            result[i] = buffer[i] <= value;
+        }
+        return BooleanTensor.create(result, shape.clone());
+    }
+
+    @Override
+    public BooleanTensor greaterThan(int value) {
+        boolean[] result = new boolean[buffer.length];
+        for (int i = 0; i < buffer.length; i++) {
+            result[i] = buffer[i] > value;
+        }
+        return BooleanTensor.create(result, shape.clone());
+    }
+
+    @Override
+    public BooleanTensor greaterThanOrEqual(int value) {
+        boolean[] result = new boolean[buffer.length];
+        for (int i = 0; i < buffer.length; i++) {
+            result[i] = buffer[i] >= value;
+        }
+        return BooleanTensor.create(result, shape.clone());
+    }
+
+    @Override
+    public BooleanTensor lessThan(IntegerTensor value) {
+        return value.isScalar() ? lessThan(value.scalar().intValue()) : fromMask(getLessThanMask(value));
+    }
+
+    @Override
+    public BooleanTensor lessThanOrEqual(IntegerTensor value) {
+        return value.isScalar() ? lessThanOrEqual(value.scalar().intValue()) : fromMask(getLessThanOrEqualToMask(value));
+    }
+
+    @Override
+    public BooleanTensor greaterThan(IntegerTensor value) {
+        return value.isScalar() ? greaterThan(value.scalar().intValue()) : fromMask(getGreaterThanMask(value));
+    }
+
+    @Override
+    public BooleanTensor greaterThanOrEqual(IntegerTensor value) {
+        return value.isScalar() ? greaterThanOrEqual(value.scalar().intValue()) : fromMask(getGreaterThanOrEqualToMask(value));
+    }
+
+    // Views and conversions
+
+    @Override
+    public FlattenedView<Integer> getFlattenedView() {
+        return new JavaIntegerFlattenedView();
+    }
+
+    private class JavaIntegerFlattenedView implements FlattenedView<Integer> {
+
+        @Override
+        public long size() {
+            return buffer.length;
+        }
+
+        @Override
+        public Integer get(long index) {
+            return buffer[(int) index];
+        }
+
+        @Override
+        public Integer getOrScalar(long index) {
+            return buffer.length == 1 ? buffer[0] : buffer[(int) index];
+        }
+
+        @Override
+        public void set(long index, Integer value) {
+            buffer[(int) index] = value;
+        }
+    }
+
+    @Override
+    public double[] asFlatDoubleArray() {
+        double[] doubles = new double[buffer.length];
+        for (int i = 0; i < buffer.length; i++) {
+            doubles[i] = buffer[i];
+        }
+        return doubles;
+    }
+
+    @Override
+    public int[] asFlatIntegerArray() {
+        return buffer.clone();
+    }
+
+    @Override
+    public void copyFlatDoubleArrayTo(double[] destination) {
+        for (int i = 0; i < buffer.length; i++) {
+            destination[i] = buffer[i];
+        }
+    }
+
+    @Override
+    public void copyFlatIntegerArrayTo(int[] destination) {
+        System.arraycopy(buffer, 0, destination, 0, buffer.length);
+    }
+
+    @Override
+    public Integer[] asFlatArray() {
+        return ArrayUtils.toObject(buffer);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+
+        if (o instanceof JavaIntegerTensor) {
+            JavaIntegerTensor that = (JavaIntegerTensor) o;
+            return Arrays.equals(shape, that.shape) && Arrays.equals(buffer, that.buffer);
+        } else if (o instanceof Tensor) {
+            Tensor that = (Tensor) o;
+            if (!Arrays.equals(that.getShape(), shape)) return false;
+            return Arrays.equals(that.asFlatArray(), asFlatArray());
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(buffer) + Arrays.hashCode(shape);
+    }
+
+    @Override
+    public String toString() {
+        return "{\n" +
+            "data = " + Arrays.toString(buffer) +
+            "\nshape = " + Arrays.toString(shape) +
+            "\n}";
+    }
+
+    private IntegerTensor broadcastInPlace(IntegerTensor that, IntBinaryOperator operation) {
+        int[] thatShape = that.getShape();
+        int[] other = bufferOf(that);
+
+        if (buffer.length == 1) {
+            int value = buffer[0];
+            int[] result = new int[other.length];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = operation.applyAsInt(value, other[i]);
+            }
+            return new JavaIntegerTensor(result, thatShape);
+        }
+
+        if (other.length == 1 || Arrays.equals(shape, thatShape)) {
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = operation.applyAsInt(buffer[i], other[other.length == 1 ? 0 : i]);
+            }
+            return this;
+        }
+
+        int[] resultShape = TensorShape.getBroadcastShape(shape, thatShape);
+        int[] result = broadcast(buffer, shape, other, thatShape, resultShape, operation);
+        if (Arrays.equals(resultShape, shape)) {
+            buffer = result;
+            return this;
+        }
+        return new JavaIntegerTensor(result, resultShape);
+    }
+
+    private IntegerTensor mask(IntegerTensor that, IntBinaryOperator comparison) {
+        return new JavaIntegerTensor(buffer.clone(), shape).broadcastInPlace(that, comparison);
+    }
+
+    private static BooleanTensor fromMask(IntegerTensor mask) {
+        int[] maskBuffer = bufferOf(mask);
+        boolean[] result = new boolean[maskBuffer.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = maskBuffer[i] != 0;
+        }
+        return BooleanTensor.create(result, mask.getShape());
+    }
+
+    /**
+     * Raises to non-negative powers exactly, wrapping on overflow like the other integer operations. Negative
+     * powers truncate towards zero.
+     */
+    private static int pow(int base, int exponent) {
+        if (exponent >= 0) {
+            return IntMath.pow(base, exponent);
+        }
+        return (int) Math.pow(base, exponent);
+    }
+
+    private static int[] broadcast(int[] left, int[] leftShape,
+                                   int[] right, int[] rightShape,
+                                   int[] resultShape,
+                                   IntBinaryOperator operation) {
+        TensorShape.BroadcastIndex index = new TensorShape.BroadcastIndex(leftShape, rightShape, resultShape);
+        int[] result = new int[(int) TensorShape.getLength(resultShape)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = operation.applyAsInt(left[index.getLeft()], right[index.getRight()]);
+            index.next();
+        }
+        return result;
+    }
+
+    private int getFlatIndex(int[] index) {
+        return TensorShape.getCheckedFlatIndex(shape, stride, buffer.length, index);
+    }
+
+    /**
+     * @return the values of the tensor, which must not be modified
+     */
+    static int[] bufferOf(IntegerTensor tensor) {
+        if (tensor instanceof JavaIntegerTensor) {
+            return ((JavaIntegerTensor) tensor).buffer;
+        }
+        return tensor.asFlatIntegerArray();
+    }
+}
@@ -19,16 +19,16 @@ import org.nd4j.linalg.ops.transforms.Transforms;
 
 import io.improbable.keanu.tensor.INDArrayExtensions;
 import io.improbable.keanu.tensor.INDArrayShim;
+import io.improbable.keanu.tensor.Nd4jPrecision;
 import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.TypedINDArrayFactory;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
-import io.improbable.keanu.tensor.bool.SimpleBooleanTensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.dbl.Nd4jDoubleTensor;
 
 public class Nd4jIntegerTensor implements IntegerTensor {
 
-    private static final DataBuffer.Type BUFFER_TYPE = DataBuffer.Type.DOUBLE;
+    private static final DataBuffer.Type BUFFER_TYPE = Nd4jPrecision.BUFFER_TYPE;
 
     public static Nd4jIntegerTensor scalar(int scalarValue) {
         return new Nd4jIntegerTensor(TypedINDArrayFactory.scalar(scalarValue, BUFFER_TYPE));
@@ -487,7 +487,7 @@ public class Nd4jIntegerTensor implements IntegerTensor {
 
     @Override
     public Integer sum() {
-        return tensor.sumNumber().intValue();
+        return (int) INDArrayExtensions.sumInDoublePrecision(tensor);
     }
 
     @Override
@@ -597,7 +597,10 @@ public class Nd4jIntegerTensor implements IntegerTensor {
         if (that.isScalar()) {
             return TypedINDArrayFactory.scalar(that.scalar().doubleValue(), BUFFER_TYPE).reshape(that.getShape());
         }
-        return ((Nd4jIntegerTensor) that).tensor;
+        if (that instanceof Nd4jIntegerTensor) {
+            return ((Nd4jIntegerTensor) that).tensor;
+        }
+        return TypedINDArrayFactory.create(that.asFlatIntegerArray(), that.getShape(), BUFFER_TYPE);
     }
 
     private BooleanTensor fromMask(INDArray mask, int[] shape) {
@@ -607,7 +610,7 @@ public class Nd4jIntegerTensor implements IntegerTensor {
         for (int i = 0; i < boolsFromMask.length; i++) {
             boolsFromMask[i] = data.getInt(i) != 0;
         }
-        return new SimpleBooleanTensor(boolsFromMask, shape);
+        return BooleanTensor.create(boolsFromMask, shape);
     }
 
     private static class Nd4jIntegerFlattenedView implements FlattenedView<Integer> {
@@ -654,6 +657,38 @@ public class Nd4jIntegerTensor implements IntegerTensor {
         return tensor.dup().data().asInt();
     }
 
+    /**
+     * Reads the data buffer in place unless the tensor is a view or not in row major order.
+     */
+    @Override
+    public void copyFlatDoubleArrayTo(double[] destination) {
+        if (tensor.isView() || tensor.ordering() != 'c') {
+            IntegerTensor.super.copyFlatDoubleArrayTo(destination);
+            return;
+        }
+        DataBuffer data = tensor.data();
+        long length = tensor.length();
+        for (int i = 0; i < length; i++) {
+            destination[i] = data.getDouble(i);
+        }
+    }
+
+    /**
+     * Reads the data buffer in place unless the tensor is a view or not in row major order.
+     */
+    @Override
+    public void copyFlatIntegerArrayTo(int[] destination) {
+        if (tensor.isView() || tensor.ordering() != 'c') {
+            IntegerTensor.super.copyFlatIntegerArrayTo(destination);
+            return;
+        }
+        DataBuffer data = tensor.data();
+        long length = tensor.length();
+        for (int i = 0; i < length; i++) {
+            destination[i] = (int) data.getDouble(i);
+        }
+    }
+
     @Override
     public Integer[] asFlatArray() {
         return ArrayUtils.toObject(asFlatIntegerArray());
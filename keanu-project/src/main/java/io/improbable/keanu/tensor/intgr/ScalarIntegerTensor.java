@@ -257,7 +257,7 @@ public class ScalarIntegerTensor implements IntegerTensor {
 
     @Override
     public IntegerTensor concat(int dimension, IntegerTensor... those) {
-        return Nd4jIntegerTensor.scalar(value).concat(dimension, those);
+        return JavaIntegerTensor.scalar(value).concat(dimension, those);
     }
 
     @Override
@@ -488,6 +488,16 @@ public class ScalarIntegerTensor implements IntegerTensor {
         return new int[]{value};
     }
 
+    @Override
+    public void copyFlatDoubleArrayTo(double[] destination) {
+        destination[0] = value;
+    }
+
+    @Override
+    public void copyFlatIntegerArrayTo(int[] destination) {
+        destination[0] = value;
+    }
+
     @Override
     public Integer[] asFlatArray() {
         return new Integer[]{value};
@@ -0,0 +1,296 @@
+package io.improbable.keanu.util.binary;
+
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.network.NetworkState;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.util.binary.SampleFileFormat.ElementType;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static io.improbable.keanu.util.binary.SampleFileFormat.BYTE_ORDER;
+import static io.improbable.keanu.util.binary.SampleFileFormat.MAGIC;
+import static io.improbable.keanu.util.binary.SampleFileFormat.PADDED_COUNT_SIZE;
+import static io.improbable.keanu.util.binary.SampleFileFormat.VERSION;
+import static io.improbable.keanu.util.binary.SampleFileFormat.columnBytes;
+import static io.improbable.keanu.util.binary.SampleFileFormat.padded;
+
+/**
+ * Writes samples to a binary columnar file as they are produced. Samples are buffered in primitive
+ * arrays and flushed as a batch every batchSize samples, so a chain never has to be held in memory.
+ * <p>
+ * Because this is a {@code Consumer<NetworkState>} it can be fed directly from a sample stream, e.g.
+ * <pre>
+ * try (BinarySampleWriter writer = new BinarySampleWriter(path, vertices)) {
+ *     MetropolisHastings.withDefaultConfig()
+ *         .generatePosteriorSamples(network, vertices)
+ *         .stream()
+ *         .limit(sampleCount)
+ *         .forEach(writer);
+ * }
+ * </pre>
+ * The file is read back with {@link BinarySamples#read(Path)}.
+ */
+public class BinarySampleWriter implements Consumer<NetworkState>, Closeable {
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final FileChannel channel;
+    private final long[] vertexIds;
+    private final ElementType[] types;
+    private final int[] lengths;
+    private final int batchSize;
+    private final Object[] buffers;
+    private final List<long[]> batches;
+
+    private int rowsInBatch;
+    private boolean closed;
+
+    /**
+     * @param filePath the file to write to. Any existing file is replaced.
+     * @param vertices the vertices to write samples for. Their current values define the shape of the samples.
+     */
+    public BinarySampleWriter(Path filePath, List<? extends Vertex<? extends Tensor>> vertices) {
+        this(filePath, vertices, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param filePath  the file to write to. Any existing file is replaced.
+     * @param vertices  the vertices to write samples for. Their current values define the shape of the samples.
+     * @param batchSize the number of samples buffered before they are written out
+     */
+    public BinarySampleWriter(Path filePath, List<? extends Vertex<? extends Tensor>> vertices, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        this.batchSize = batchSize;
+        this.vertexIds = new long[vertices.size()];
+        this.types = new ElementType[vertices.size()];
+        this.lengths = new int[vertices.size()];
+        this.buffers = new Object[vertices.size()];
+        this.batches = new ArrayList<>();
+        this.rowsInBatch = 0;
+
+        List<int[]> shapes = new ArrayList<>();
+        for (int i = 0; i < vertices.size(); i++) {
+            Tensor<?> value = vertices.get(i).getValue();
+            vertexIds[i] = vertices.get(i).getId();
+            types[i] = ElementType.of(value);
+            lengths[i] = (int) value.getLength();
+            buffers[i] = createBuffer(types[i], lengths[i] * batchSize);
+            shapes.add(value.getShape());
+        }
+
+        try {
+            this.channel = FileChannel.open(
+                filePath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE
+            );
+            writeHeader(shapes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds a sample. The state must contain a value for every vertex this writer was created with.
+     *
+     * @param state a network sample
+     */
+    @Override
+    public void accept(NetworkState state) {
+        if (closed) {
+            throw new IllegalStateException("Writer is closed");
+        }
+
+        for (int i = 0; i < vertexIds.length; i++) {
+            Tensor<?> value = state.get(vertexIds[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Sample is missing vertex " + vertexIds[i]);
+            }
+            bufferValue(i, value);
+        }
+
+        rowsInBatch++;
+        if (rowsInBatch == batchSize) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * Adds every sample of an in memory collection of samples.
+     *
+     * @param samples samples containing every vertex this writer was created with
+     */
+    public void writeAll(NetworkSamples samples) {
+        samples.toNetworkStates().forEach(this);
+    }
+
+    /**
+     * Writes any buffered samples and the file footer.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            flushBatch();
+            writeFooter();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void bufferValue(int vertex, Tensor<?> value) {
+        int length = lengths[vertex];
+        if (value.getLength() != length) {
+            throw new IllegalArgumentException(
+                "Sample for vertex " + vertexIds[vertex] + " has length " + value.getLength() + " but expected " + length
+            );
+        }
+
+        switch (types[vertex]) {
+            case DOUBLE: {
+                double[] flat = value.asFlatDoubleArray();
+                double[] buffer = (double[]) buffers[vertex];
+                for (int element = 0; element < length; element++) {
+                    buffer[element * batchSize + rowsInBatch] = flat[element];
+                }
+                break;
+            }
+            case INTEGER: {
+                int[] flat = value.asFlatIntegerArray();
+                int[] buffer = (int[]) buffers[vertex];
+                for (int element = 0; element < length; element++) {
+                    buffer[element * batchSize + rowsInBatch] = flat[element];
+                }
+                break;
+            }
+            case BOOLEAN: {
+                Object[] flat = value.asFlatArray();
+                byte[] buffer = (byte[]) buffers[vertex];
+                for (int element = 0; element < length; element++) {
+                    buffer[element * batchSize + rowsInBatch] = (Boolean) flat[element] ? (byte) 1 : (byte) 0;
+                }
+                break;
+            }
+        }
+    }
+
+    private void flushBatch() {
+        if (rowsInBatch == 0) {
+            return;
+        }
+
+        int rows = rowsInBatch;
+        int size = PADDED_COUNT_SIZE;
+        for (int i = 0; i < vertexIds.length; i++) {
+            size += lengths[i] * columnBytes(types[i], rows);
+        }
+
+        ByteBuffer batch = ByteBuffer.allocate(size).order(BYTE_ORDER);
+        batch.putInt(rows);
+        batch.position(PADDED_COUNT_SIZE);
+
+        for (int i = 0; i < vertexIds.length; i++) {
+            for (int element = 0; element < lengths[i]; element++) {
+                int columnStart = batch.position();
+                int from = element * batchSize;
+                switch (types[i]) {
+                    case DOUBLE:
+                        batch.asDoubleBuffer().put((double[]) buffers[i], from, rows);
+                        break;
+                    case INTEGER:
+                        batch.asIntBuffer().put((int[]) buffers[i], from, rows);
+                        break;
+                    case BOOLEAN:
+                        batch.put((byte[]) buffers[i], from, rows);
+                        break;
+                }
+                batch.position(columnStart + columnBytes(types[i], rows));
+            }
+        }
+
+        try {
+            batches.add(new long[]{channel.position(), rows});
+            writeFully(batch);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        rowsInBatch = 0;
+    }
+
+    private void writeHeader(List<int[]> shapes) throws IOException {
+        long size = MAGIC.length + 2 * Integer.BYTES;
+        for (int[] shape : shapes) {
+            size += Long.BYTES + 2 * Integer.BYTES + (long) shape.length * Integer.BYTES;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(padded(size)).order(BYTE_ORDER);
+        header.put(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(vertexIds.length);
+        for (int i = 0; i < vertexIds.length; i++) {
+            header.putLong(vertexIds[i]);
+            header.putInt(types[i].ordinal());
+            header.putInt(shapes.get(i).length);
+            for (int dimension : shapes.get(i)) {
+                header.putInt(dimension);
+            }
+        }
+        header.position(header.capacity());
+        writeFully(header);
+    }
+
+    private void writeFooter() throws IOException {
+        long footerOffset = channel.position();
+
+        ByteBuffer footer = ByteBuffer
+            .allocate(PADDED_COUNT_SIZE + batches.size() * 2 * Long.BYTES + Long.BYTES + MAGIC.length)
+            .order(BYTE_ORDER);
+
+        footer.putInt(batches.size());
+        footer.position(PADDED_COUNT_SIZE);
+        for (long[] batch : batches) {
+            footer.putLong(batch[0]);
+            footer.putInt((int) batch[1]);
+            footer.putInt(0);
+        }
+        footer.putLong(footerOffset);
+        footer.put(MAGIC);
+        writeFully(footer);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static Object createBuffer(ElementType type, int size) {
+        switch (type) {
+            case DOUBLE:
+                return new double[size];
+            case INTEGER:
+                return new int[size];
+            default:
+                return new byte[size];
+        }
+    }
+}
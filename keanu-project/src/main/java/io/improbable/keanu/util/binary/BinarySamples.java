@@ -0,0 +1,312 @@
+package io.improbable.keanu.util.binary;
+
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.util.binary.SampleFileFormat.ElementType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.improbable.keanu.util.binary.SampleFileFormat.BYTE_ORDER;
+import static io.improbable.keanu.util.binary.SampleFileFormat.MAGIC;
+import static io.improbable.keanu.util.binary.SampleFileFormat.PADDED_COUNT_SIZE;
+import static io.improbable.keanu.util.binary.SampleFileFormat.TRAILER_SIZE;
+import static io.improbable.keanu.util.binary.SampleFileFormat.VERSION;
+import static io.improbable.keanu.util.binary.SampleFileFormat.columnBytes;
+
+/**
+ * Samples read from a file written by {@link BinarySampleWriter}. Each batch of the file is memory mapped
+ * and columns are returned as read only views onto the mapping, so nothing is copied until a sample is
+ * asked for as a tensor.
+ */
+public class BinarySamples {
+
+    private final Map<Long, Column> columnsByVertex;
+    private final ByteBuffer[] batches;
+    private final int[] batchStartRows;
+    private final int size;
+
+    private BinarySamples(Map<Long, Column> columnsByVertex, ByteBuffer[] batches, int[] batchStartRows, int size) {
+        this.columnsByVertex = columnsByVertex;
+        this.batches = batches;
+        this.batchStartRows = batchStartRows;
+        this.size = size;
+    }
+
+    public static BinarySamples read(Path filePath) {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            return read(channel);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static BinarySamples read(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < MAGIC.length + TRAILER_SIZE) {
+            throw new IllegalArgumentException("File is too small to be a sample file");
+        }
+
+        ByteBuffer trailer = readFully(channel, fileSize - TRAILER_SIZE, TRAILER_SIZE);
+        long footerOffset = trailer.getLong();
+        checkMagic(trailer);
+
+        ByteBuffer footer = readFully(channel, footerOffset, (int) (fileSize - TRAILER_SIZE - footerOffset));
+        int batchCount = footer.getInt(0);
+        footer.position(PADDED_COUNT_SIZE);
+
+        long[] batchOffsets = new long[batchCount];
+        int[] batchRows = new int[batchCount];
+        int[] batchStartRows = new int[batchCount];
+        int size = 0;
+        for (int i = 0; i < batchCount; i++) {
+            batchOffsets[i] = footer.getLong();
+            batchRows[i] = footer.getInt();
+            footer.getInt();
+            batchStartRows[i] = size;
+            size += batchRows[i];
+        }
+
+        long headerEnd = batchCount > 0 ? batchOffsets[0] : footerOffset;
+        ByteBuffer header = readFully(channel, 0, (int) headerEnd);
+        checkMagic(header);
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported sample file version " + version);
+        }
+
+        int vertexCount = header.getInt();
+        List<Column> columns = new ArrayList<>();
+        for (int i = 0; i < vertexCount; i++) {
+            long id = header.getLong();
+            ElementType type = ElementType.values()[header.getInt()];
+            int[] shape = new int[header.getInt()];
+            for (int d = 0; d < shape.length; d++) {
+                shape[d] = header.getInt();
+            }
+            columns.add(new Column(id, type, shape));
+        }
+
+        ByteBuffer[] batches = new ByteBuffer[batchCount];
+        for (int i = 0; i < batchCount; i++) {
+            long batchEnd = i + 1 < batchCount ? batchOffsets[i + 1] : footerOffset;
+            batches[i] = channel.map(FileChannel.MapMode.READ_ONLY, batchOffsets[i], batchEnd - batchOffsets[i])
+                .order(BYTE_ORDER);
+        }
+
+        Map<Long, Column> columnsByVertex = new LinkedHashMap<>();
+        for (Column column : columns) {
+            column.offsets = new int[batchCount];
+            columnsByVertex.put(column.vertexId, column);
+        }
+        for (int b = 0; b < batchCount; b++) {
+            int offset = PADDED_COUNT_SIZE;
+            for (Column column : columns) {
+                column.offsets[b] = offset;
+                offset += column.length * columnBytes(column.type, batchRows[b]);
+            }
+        }
+
+        return new BinarySamples(columnsByVertex, batches, batchStartRows, size);
+    }
+
+    /**
+     * @return the number of samples in the file
+     */
+    public int size() {
+        return size;
+    }
+
+    public List<Long> getVertexIds() {
+        return new ArrayList<>(columnsByVertex.keySet());
+    }
+
+    public int[] getShape(long vertexId) {
+        return getColumn(vertexId).shape.clone();
+    }
+
+    public int getBatchCount() {
+        return batches.length;
+    }
+
+    public int getBatchSize(int batch) {
+        return batches[batch].getInt(0);
+    }
+
+    /**
+     * @param vertexId the vertex the samples are from
+     * @param element  the flat index into the vertex's tensor
+     * @param batch    the batch to view
+     * @return a read only view of that element's values for every sample in the batch
+     */
+    public DoubleBuffer getDoubleColumn(long vertexId, int element, int batch) {
+        return columnView(getColumn(vertexId, ElementType.DOUBLE), element, batch).asDoubleBuffer();
+    }
+
+    public IntBuffer getIntegerColumn(long vertexId, int element, int batch) {
+        return columnView(getColumn(vertexId, ElementType.INTEGER), element, batch).asIntBuffer();
+    }
+
+    /**
+     * @return a read only view of one byte per sample, which is 1 for true and 0 for false
+     */
+    public ByteBuffer getBooleanColumn(long vertexId, int element, int batch) {
+        return columnView(getColumn(vertexId, ElementType.BOOLEAN), element, batch);
+    }
+
+    public DoubleTensor getDoubleTensor(long vertexId, int sampleIndex) {
+        Column column = getColumn(vertexId, ElementType.DOUBLE);
+        int batch = batchOf(sampleIndex);
+        int row = sampleIndex - batchStartRows[batch];
+        int rows = getBatchSize(batch);
+
+        double[] values = new double[column.length];
+        for (int element = 0; element < values.length; element++) {
+            values[element] = batches[batch].getDouble(elementOffset(column, element, batch, rows) + row * Double.BYTES);
+        }
+        return DoubleTensor.create(values, column.shape.clone());
+    }
+
+    public IntegerTensor getIntegerTensor(long vertexId, int sampleIndex) {
+        Column column = getColumn(vertexId, ElementType.INTEGER);
+        int batch = batchOf(sampleIndex);
+        int row = sampleIndex - batchStartRows[batch];
+        int rows = getBatchSize(batch);
+
+        int[] values = new int[column.length];
+        for (int element = 0; element < values.length; element++) {
+            values[element] = batches[batch].getInt(elementOffset(column, element, batch, rows) + row * Integer.BYTES);
+        }
+        return IntegerTensor.create(values, column.shape.clone());
+    }
+
+    public BooleanTensor getBooleanTensor(long vertexId, int sampleIndex) {
+        Column column = getColumn(vertexId, ElementType.BOOLEAN);
+        int batch = batchOf(sampleIndex);
+        int row = sampleIndex - batchStartRows[batch];
+        int rows = getBatchSize(batch);
+
+        boolean[] values = new boolean[column.length];
+        for (int element = 0; element < values.length; element++) {
+            values[element] = batches[batch].get(elementOffset(column, element, batch, rows) + row) != 0;
+        }
+        return BooleanTensor.create(values, column.shape.clone());
+    }
+
+    public Tensor<?> getTensor(long vertexId, int sampleIndex) {
+        switch (getColumn(vertexId).type) {
+            case DOUBLE:
+                return getDoubleTensor(vertexId, sampleIndex);
+            case INTEGER:
+                return getIntegerTensor(vertexId, sampleIndex);
+            default:
+                return getBooleanTensor(vertexId, sampleIndex);
+        }
+    }
+
+    /**
+     * Copies every sample into memory.
+     *
+     * @return the samples in the same form the samplers produce them
+     */
+    public NetworkSamples toNetworkSamples() {
+        Map<Long, List<?>> samplesByVertex = new LinkedHashMap<>();
+        for (Long vertexId : columnsByVertex.keySet()) {
+            List<Tensor<?>> samples = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                samples.add(getTensor(vertexId, i));
+            }
+            samplesByVertex.put(vertexId, samples);
+        }
+        return new NetworkSamples(samplesByVertex, size);
+    }
+
+    private ByteBuffer columnView(Column column, int element, int batch) {
+        if (element < 0 || element >= column.length) {
+            throw new IndexOutOfBoundsException("Element " + element + " of vertex " + column.vertexId);
+        }
+        int rows = getBatchSize(batch);
+        ByteBuffer view = batches[batch].duplicate();
+        int start = elementOffset(column, element, batch, rows);
+        view.position(start);
+        view.limit(start + rows * column.type.bytes);
+        return view.slice().asReadOnlyBuffer().order(BYTE_ORDER);
+    }
+
+    private static int elementOffset(Column column, int element, int batch, int rows) {
+        return column.offsets[batch] + element * columnBytes(column.type, rows);
+    }
+
+    private int batchOf(int sampleIndex) {
+        if (sampleIndex < 0 || sampleIndex >= size) {
+            throw new IndexOutOfBoundsException("Sample " + sampleIndex + " of " + size);
+        }
+        int search = Arrays.binarySearch(batchStartRows, sampleIndex);
+        return search >= 0 ? search : -search - 2;
+    }
+
+    private Column getColumn(long vertexId, ElementType type) {
+        Column column = getColumn(vertexId);
+        if (column.type != type) {
+            throw new IllegalArgumentException("Samples for vertex " + vertexId + " are of type " + column.type);
+        }
+        return column;
+    }
+
+    private Column getColumn(long vertexId) {
+        Column column = columnsByVertex.get(vertexId);
+        if (column == null) {
+            throw new IllegalArgumentException("No samples for vertex " + vertexId);
+        }
+        return column;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(BYTE_ORDER);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IllegalArgumentException("Unexpected end of sample file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void checkMagic(ByteBuffer buffer) {
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IllegalArgumentException("Not a sample file");
+        }
+    }
+
+    private static class Column {
+
+        private final long vertexId;
+        private final ElementType type;
+        private final int[] shape;
+        private final int length;
+        private int[] offsets;
+
+        Column(long vertexId, ElementType type, int[] shape) {
+            this.vertexId = vertexId;
+            this.type = type;
+            this.shape = shape;
+            this.length = (int) Arrays.stream(shape).asLongStream().reduce(1, (a, b) -> a * b);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.improbable.keanu.util.binary;
+
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout of the binary sample file. All values are little endian and every section starts on an 8 byte boundary.
+ * <pre>
+ * header:  magic (8) | version (int) | vertex count (int) | per vertex: id (long), type (int), rank (int), shape (int * rank)
+ * batches: row count (int) | padding (4) | per vertex, per tensor element: a column of row count values
+ * footer:  batch count (int) | padding (4) | per batch: offset (long), row count (int), padding (4)
+ * trailer: footer offset (long) | magic (8)
+ * </pre>
+ * Batches are appended as samples are produced and the footer is written on close, which is the same
+ * record batch approach the Arrow IPC file format takes.
+ */
+final class SampleFileFormat {
+
+    static final byte[] MAGIC = "KEANUSMP".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    static final int ALIGNMENT = 8;
+    static final int PADDED_COUNT_SIZE = 2 * Integer.BYTES;
+    static final int TRAILER_SIZE = Long.BYTES + MAGIC.length;
+
+    enum ElementType {
+        DOUBLE(Double.BYTES), INTEGER(Integer.BYTES), BOOLEAN(1);
+
+        final int bytes;
+
+        ElementType(int bytes) {
+            this.bytes = bytes;
+        }
+
+        static ElementType of(Tensor<?> value) {
+            if (value instanceof DoubleTensor) {
+                return DOUBLE;
+            } else if (value instanceof IntegerTensor) {
+                return INTEGER;
+            } else if (value instanceof BooleanTensor) {
+                return BOOLEAN;
+            }
+            throw new IllegalArgumentException("Cannot write samples of type " + value.getClass().getSimpleName());
+        }
+    }
+
+    private SampleFileFormat() {
+    }
+
+    static int padded(long size) {
+        return (int) ((size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT);
+    }
+
+    static int columnBytes(ElementType type, int rows) {
+        return padded((long) type.bytes * rows);
+    }
+}
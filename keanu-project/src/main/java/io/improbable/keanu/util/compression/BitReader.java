@@ -0,0 +1,56 @@
+package io.improbable.keanu.util.compression;
+
+/**
+ * Reads back bits written by a {@link BitWriter}.
+ */
+final class BitReader {
+
+    private final long[] words;
+    private long position;
+
+    BitReader(long[] words, long position) {
+        this.words = words;
+        this.position = position;
+    }
+
+    /**
+     * @param count number of bits to read, between 0 and 64
+     * @return the bits as the lowest bits of the result
+     */
+    long read(int count) {
+        if (count == 0) {
+            return 0;
+        }
+
+        int word = (int) (position >>> 6);
+        int used = (int) (position & 63);
+        int available = 64 - used;
+        long result;
+
+        if (count <= available) {
+            result = words[word] >>> (available - count);
+        } else {
+            int overflow = count - available;
+            result = (words[word] << overflow) | (words[word + 1] >>> (64 - overflow));
+        }
+
+        position += count;
+        return count == 64 ? result : result & ((1L << count) - 1);
+    }
+
+    boolean readBit() {
+        return read(1) == 1;
+    }
+
+    int readGamma() {
+        int zeros = 0;
+        while (!readBit()) {
+            zeros++;
+        }
+        return (int) ((1L << zeros) | read(zeros));
+    }
+
+    long position() {
+        return position;
+    }
+}
@@ -0,0 +1,83 @@
+package io.improbable.keanu.util.compression;
+
+import java.util.Arrays;
+
+/**
+ * An append only stream of bits backed by a long[].
+ */
+final class BitWriter {
+
+    private static final int INITIAL_WORDS = 16;
+
+    private long[] words;
+    private long size;
+
+    BitWriter() {
+        this(new long[INITIAL_WORDS], 0);
+    }
+
+    BitWriter(long[] words, long size) {
+        this.words = words;
+        this.size = size;
+    }
+
+    /**
+     * @param bits  the value whose lowest count bits are written, most significant first
+     * @param count number of bits to write, between 0 and 64
+     */
+    void write(long bits, int count) {
+        if (count == 0) {
+            return;
+        }
+        ensureCapacity(size + count);
+
+        if (count < 64) {
+            bits &= (1L << count) - 1;
+        }
+
+        int word = (int) (size >>> 6);
+        int used = (int) (size & 63);
+        int free = 64 - used;
+
+        if (count <= free) {
+            words[word] |= bits << (free - count);
+        } else {
+            int overflow = count - free;
+            words[word] |= bits >>> overflow;
+            words[word + 1] |= bits << (64 - overflow);
+        }
+        size += count;
+    }
+
+    void writeBit(boolean bit) {
+        write(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Writes a positive number in Elias gamma code, which spends 2 * floor(log2(n)) + 1 bits on n.
+     */
+    void writeGamma(int n) {
+        int bits = 32 - Integer.numberOfLeadingZeros(n);
+        write(0, bits - 1);
+        write(n, bits);
+    }
+
+    long size() {
+        return size;
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    long[] toTrimmedWords() {
+        return Arrays.copyOf(words, (int) ((size + 63) >>> 6));
+    }
+
+    private void ensureCapacity(long bits) {
+        int required = (int) ((bits + 63) >>> 6);
+        if (required > words.length) {
+            words = Arrays.copyOf(words, Math.max(required, words.length * 2));
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package io.improbable.keanu.util.compression;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * An append only column of doubles compressed with the XOR scheme from Facebook's Gorilla time series
+ * database, plus run length encoding of repeated values. Successive MCMC samples of a scalar tend to share
+ * their sign, exponent and leading mantissa bits, and rejected proposals repeat the previous value exactly,
+ * so both encode in a handful of bits.
+ * <p>
+ * Values are grouped into blocks that each start with an uncompressed value, which gives random access
+ * by decoding at most one block. The most recently decoded block is cached so sequential reads are cheap.
+ * <p>
+ * Per value control codes:
+ * <pre>
+ * 0  + gamma(n)                          previous value repeated n times
+ * 10 + meaningful bits                   xor fits in the previous leading/trailing zero window
+ * 11 + 5 bit leading + 6 bit length - 1  new window followed by its meaningful bits
+ * </pre>
+ */
+public class CompressedDoubleColumn {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private static final int MAX_LEADING_ZEROS = 31;
+
+    private final int blockSize;
+    private final BitWriter bits;
+    private long[] blockStarts;
+    private int size;
+
+    private long previous;
+    private int previousLeading;
+    private int previousTrailing;
+    private int pendingRepeats;
+    private boolean sealed;
+
+    private volatile DecodedBlock cache;
+
+    public CompressedDoubleColumn() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param blockSize number of values between uncompressed restart points
+     */
+    public CompressedDoubleColumn(int blockSize) {
+        this(blockSize, new BitWriter(), new long[16], 0);
+    }
+
+    private CompressedDoubleColumn(int blockSize, BitWriter bits, long[] blockStarts, int size) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.blockSize = blockSize;
+        this.bits = bits;
+        this.blockStarts = blockStarts;
+        this.size = size;
+    }
+
+    public synchronized void add(double value) {
+        if (sealed) {
+            throw new IllegalStateException("Cannot add to a column that was read from storage");
+        }
+        long valueBits = Double.doubleToRawLongBits(value);
+
+        if (size % blockSize == 0) {
+            flushRepeats();
+            startBlock(size / blockSize);
+            bits.write(valueBits, 64);
+            previousLeading = -1;
+        } else if (valueBits == previous) {
+            pendingRepeats++;
+        } else {
+            flushRepeats();
+            writeXor(valueBits ^ previous);
+        }
+
+        previous = valueBits;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getBlockCount() {
+        return (size + blockSize - 1) / blockSize;
+    }
+
+    /**
+     * @return the number of bytes used to store the compressed values
+     */
+    public long getCompressedSizeInBytes() {
+        return (bits.size() + 7) / 8 + (long) getBlockCount() * Long.BYTES;
+    }
+
+    public double get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+        }
+
+        int block = index / blockSize;
+        int offset = index % blockSize;
+
+        DecodedBlock decoded = cache;
+        if (decoded == null || decoded.block != block || offset >= decoded.values.length) {
+            decoded = decodeBlock(block);
+            cache = decoded;
+        }
+        return decoded.values[offset];
+    }
+
+    /**
+     * @param block the index of the block to decode
+     * @return the values in the block
+     */
+    public double[] getBlock(int block) {
+        return decodeBlock(block).values.clone();
+    }
+
+    public double[] toArray() {
+        double[] values = new double[size];
+        for (int block = 0; block < getBlockCount(); block++) {
+            double[] decoded = decodeBlock(block).values;
+            System.arraycopy(decoded, 0, values, block * blockSize, decoded.length);
+        }
+        return values;
+    }
+
+    public synchronized void write(DataOutput output) throws IOException {
+        flushRepeats();
+        long[] words = bits.toTrimmedWords();
+
+        output.writeInt(blockSize);
+        output.writeInt(size);
+        output.writeLong(bits.size());
+        for (int block = 0; block < getBlockCount(); block++) {
+            output.writeLong(blockStarts[block]);
+        }
+        output.writeInt(words.length);
+        for (long word : words) {
+            output.writeLong(word);
+        }
+    }
+
+    /**
+     * Reads a column written by {@link #write(DataOutput)}. The result is sealed, it can be read but not added to.
+     */
+    public static CompressedDoubleColumn read(DataInput input) throws IOException {
+        int blockSize = input.readInt();
+        int size = input.readInt();
+        long bitCount = input.readLong();
+        long[] blockStarts = new long[(size + blockSize - 1) / blockSize];
+        for (int block = 0; block < blockStarts.length; block++) {
+            blockStarts[block] = input.readLong();
+        }
+        long[] words = new long[input.readInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = input.readLong();
+        }
+
+        CompressedDoubleColumn column = new CompressedDoubleColumn(blockSize, new BitWriter(words, bitCount), blockStarts, size);
+        column.previousLeading = -1;
+        column.sealed = true;
+        return column;
+    }
+
+    private void startBlock(int block) {
+        if (block == blockStarts.length) {
+            blockStarts = Arrays.copyOf(blockStarts, blockStarts.length * 2);
+        }
+        blockStarts[block] = bits.size();
+    }
+
+    private void flushRepeats() {
+        if (pendingRepeats > 0) {
+            bits.writeBit(false);
+            bits.writeGamma(pendingRepeats);
+            pendingRepeats = 0;
+        }
+    }
+
+    private void writeXor(long xor) {
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), MAX_LEADING_ZEROS);
+        int trailing = Long.numberOfTrailingZeros(xor);
+
+        bits.writeBit(true);
+        if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+            bits.writeBit(false);
+            bits.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+        } else {
+            int meaningful = 64 - leading - trailing;
+            bits.writeBit(true);
+            bits.write(leading, 5);
+            bits.write(meaningful - 1, 6);
+            bits.write(xor >>> trailing, meaningful);
+            previousLeading = leading;
+            previousTrailing = trailing;
+        }
+    }
+
+    private synchronized DecodedBlock decodeBlock(int block) {
+        int start = block * blockSize;
+        int count = Math.min(blockSize, size - start);
+        long end = block + 1 < getBlockCount() ? blockStarts[block + 1] : bits.size();
+
+        double[] values = new double[count];
+        BitReader reader = new BitReader(bits.words(), blockStarts[block]);
+
+        long value = reader.read(64);
+        values[0] = Double.longBitsToDouble(value);
+        int leading = 0;
+        int trailing = 0;
+        int decoded = 1;
+
+        while (decoded < count) {
+            if (reader.position() >= end) {
+                //the remainder are repeats that have not been flushed yet
+                Arrays.fill(values, decoded, count, Double.longBitsToDouble(value));
+                break;
+            }
+
+            if (!reader.readBit()) {
+                int repeats = reader.readGamma();
+                Arrays.fill(values, decoded, decoded + repeats, Double.longBitsToDouble(value));
+                decoded += repeats;
+                continue;
+            }
+
+            if (reader.readBit()) {
+                leading = (int) reader.read(5);
+                int meaningful = (int) reader.read(6) + 1;
+                trailing = 64 - leading - meaningful;
+            }
+            value ^= reader.read(64 - leading - trailing) << trailing;
+            values[decoded++] = Double.longBitsToDouble(value);
+        }
+
+        return new DecodedBlock(block, values);
+    }
+
+    private static class DecodedBlock {
+        private final int block;
+        private final double[] values;
+
+        DecodedBlock(int block, double[] values) {
+            this.block = block;
+            this.values = values;
+        }
+    }
+}
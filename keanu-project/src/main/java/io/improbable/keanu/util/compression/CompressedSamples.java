@@ -0,0 +1,84 @@
+package io.improbable.keanu.util.compression;
+
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static helpers for moving {@link NetworkSamples} in and out of compressed storage.
+ */
+public class CompressedSamples {
+
+    private static final int MAGIC = 0x4B435350;
+
+    private CompressedSamples() {
+    }
+
+    /**
+     * @param samples  samples to compress
+     * @param vertices the vertices to keep samples of
+     * @return samples that are held compressed in memory
+     */
+    public static NetworkSamples compress(NetworkSamples samples, List<? extends Vertex<? extends Tensor>> vertices) {
+        Map<Long, List<?>> compressed = new HashMap<>();
+        for (Vertex<? extends Tensor> vertex : vertices) {
+            compressed.put(vertex.getId(), compress(samples.get(vertex).asList()));
+        }
+        return new NetworkSamples(compressed, samples.size());
+    }
+
+    public static void write(NetworkSamples samples, List<? extends Vertex<? extends Tensor>> vertices, Path filePath) {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(filePath)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(samples.size());
+            output.writeInt(vertices.size());
+            for (Vertex<? extends Tensor> vertex : vertices) {
+                output.writeLong(vertex.getId());
+                compress(samples.get(vertex).asList()).write(output);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param filePath a file written by {@link #write(NetworkSamples, List, Path)}
+     * @return the samples, which stay compressed in memory
+     */
+    public static NetworkSamples read(Path filePath) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(filePath)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a compressed samples file");
+            }
+            int size = input.readInt();
+            int vertexCount = input.readInt();
+
+            Map<Long, List<?>> samplesByVertex = new HashMap<>();
+            for (int i = 0; i < vertexCount; i++) {
+                long vertexId = input.readLong();
+                samplesByVertex.put(vertexId, CompressedTensorList.read(input));
+            }
+            return new NetworkSamples(samplesByVertex, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T extends Tensor<?>> CompressedTensorList<T> compress(List<T> samples) {
+        CompressedTensorList<T> compressed = new CompressedTensorList<>();
+        compressed.addAll(samples);
+        return compressed;
+    }
+}
@@ -0,0 +1,186 @@
+package io.improbable.keanu.util.compression;
+
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractList;
+
+/**
+ * A list of same shaped double, integer or boolean tensors where each tensor element is stored as its own
+ * {@link CompressedDoubleColumn}. It can be used anywhere samples are held as a list, e.g. behind
+ * {@link io.improbable.keanu.algorithms.VertexSamples}, with tensors rebuilt on each get.
+ *
+ * @param <T> the type of tensor stored
+ */
+public class CompressedTensorList<T extends Tensor<?>> extends AbstractList<T> {
+
+    private enum Kind {
+        DOUBLE, INTEGER, BOOLEAN
+    }
+
+    private final int blockSize;
+    private Kind kind;
+    private int[] shape;
+    private CompressedDoubleColumn[] columns;
+    private int size;
+
+    public CompressedTensorList() {
+        this(CompressedDoubleColumn.DEFAULT_BLOCK_SIZE);
+    }
+
+    public CompressedTensorList(int blockSize) {
+        this.blockSize = blockSize;
+        this.size = 0;
+    }
+
+    /**
+     * @param value a sample value
+     * @return true if values of this type can be stored in a compressed list
+     */
+    public static boolean isCompressible(Object value) {
+        return value instanceof DoubleTensor || value instanceof IntegerTensor || value instanceof BooleanTensor;
+    }
+
+    @Override
+    public synchronized boolean add(T value) {
+        if (columns == null) {
+            initialize(value);
+        }
+
+        if (!value.hasSameShapeAs(shape)) {
+            throw new IllegalArgumentException("All compressed samples must have the same shape");
+        }
+
+        double[] flat = value.asFlatDoubleArray();
+        for (int element = 0; element < flat.length; element++) {
+            columns[element].add(flat[element]);
+        }
+
+        size++;
+        return true;
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+        }
+
+        double[] flat = new double[columns.length];
+        for (int element = 0; element < flat.length; element++) {
+            flat[element] = columns[element].get(index);
+        }
+
+        return (T) toTensor(flat);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes used to store the compressed samples
+     */
+    public long getCompressedSizeInBytes() {
+        long bytes = 0;
+        if (columns != null) {
+            for (CompressedDoubleColumn column : columns) {
+                bytes += column.getCompressedSizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    public synchronized void write(DataOutput output) throws IOException {
+        output.writeInt(blockSize);
+        output.writeInt(size);
+        if (size == 0) {
+            return;
+        }
+
+        output.writeInt(kind.ordinal());
+        output.writeInt(shape.length);
+        for (int dimension : shape) {
+            output.writeInt(dimension);
+        }
+        for (CompressedDoubleColumn column : columns) {
+            column.write(output);
+        }
+    }
+
+    /**
+     * Reads samples written by {@link #write(DataOutput)}. The result can be read but not added to.
+     */
+    public static <T extends Tensor<?>> CompressedTensorList<T> read(DataInput input) throws IOException {
+        CompressedTensorList<T> list = new CompressedTensorList<>(input.readInt());
+        list.size = input.readInt();
+        if (list.size == 0) {
+            return list;
+        }
+
+        list.kind = Kind.values()[input.readInt()];
+        list.shape = new int[input.readInt()];
+        for (int i = 0; i < list.shape.length; i++) {
+            list.shape[i] = input.readInt();
+        }
+
+        list.columns = new CompressedDoubleColumn[lengthOf(list.shape)];
+        for (int i = 0; i < list.columns.length; i++) {
+            list.columns[i] = CompressedDoubleColumn.read(input);
+        }
+        return list;
+    }
+
+    private void initialize(T value) {
+        if (value instanceof DoubleTensor) {
+            kind = Kind.DOUBLE;
+        } else if (value instanceof IntegerTensor) {
+            kind = Kind.INTEGER;
+        } else if (value instanceof BooleanTensor) {
+            kind = Kind.BOOLEAN;
+        } else {
+            throw new IllegalArgumentException("Cannot compress samples of type " + value.getClass().getSimpleName());
+        }
+
+        shape = value.getShape().clone();
+        columns = new CompressedDoubleColumn[(int) value.getLength()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new CompressedDoubleColumn(blockSize);
+        }
+    }
+
+    private Tensor<?> toTensor(double[] flat) {
+        switch (kind) {
+            case DOUBLE:
+                return DoubleTensor.create(flat, shape.clone());
+            case INTEGER: {
+                int[] integers = new int[flat.length];
+                for (int i = 0; i < flat.length; i++) {
+                    integers[i] = (int) flat[i];
+                }
+                return IntegerTensor.create(integers, shape.clone());
+            }
+            default: {
+                boolean[] booleans = new boolean[flat.length];
+                for (int i = 0; i < flat.length; i++) {
+                    booleans[i] = flat[i] != 0.0;
+                }
+                return BooleanTensor.create(booleans, shape.clone());
+            }
+        }
+    }
+
+    private static int lengthOf(int[] shape) {
+        int length = 1;
+        for (int dimension : shape) {
+            length *= dimension;
+        }
+        return length;
+    }
+}
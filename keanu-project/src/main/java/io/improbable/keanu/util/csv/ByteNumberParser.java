@@ -0,0 +1,177 @@
+package io.improbable.keanu.util.csv;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses numbers straight out of a byte buffer without creating intermediate Strings.
+ * Uncommon inputs (long mantissas, large exponents, NaN, Infinity etc) fall back to
+ * the JDK parser so results always match {@link Double#parseDouble(String)}.
+ */
+final class ByteNumberParser {
+
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] EXACT_POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private ByteNumberParser() {
+    }
+
+    /**
+     * @param buffer source bytes
+     * @param start  index of first byte (inclusive)
+     * @param end    index of last byte (exclusive)
+     * @return the double represented by the ascii bytes in [start, end)
+     * @throws NumberFormatException if the bytes are not a valid double
+     */
+    static double parseDouble(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        if (i >= end) {
+            throw new NumberFormatException("empty String");
+        }
+
+        boolean negative = false;
+        byte b = buffer.get(i);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int decimalExponent = 0;
+        int digitCount = 0;
+
+        while (i < end && isDigit(b = buffer.get(i))) {
+            if (mantissa != 0 || b != '0') {
+                mantissa = mantissa * 10 + (b - '0');
+                significantDigits++;
+            }
+            digitCount++;
+            i++;
+        }
+
+        if (i < end && buffer.get(i) == '.') {
+            i++;
+            while (i < end && isDigit(b = buffer.get(i))) {
+                if (mantissa != 0 || b != '0') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    significantDigits++;
+                }
+                decimalExponent--;
+                digitCount++;
+                i++;
+            }
+        }
+
+        if (digitCount == 0 || significantDigits > MAX_EXACT_DIGITS) {
+            return parseDoubleSlow(buffer, start, end);
+        }
+
+        if (i < end && ((b = buffer.get(i)) == 'e' || b == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && ((b = buffer.get(i)) == '-' || b == '+')) {
+                negativeExponent = b == '-';
+                i++;
+            }
+            int exponentDigits = 0;
+            int exponent = 0;
+            while (i < end && isDigit(b = buffer.get(i))) {
+                if (exponent < 100_000) {
+                    exponent = exponent * 10 + (b - '0');
+                }
+                exponentDigits++;
+                i++;
+            }
+            if (exponentDigits == 0) {
+                return parseDoubleSlow(buffer, start, end);
+            }
+            decimalExponent += negativeExponent ? -exponent : exponent;
+        }
+
+        if (i != end) {
+            return parseDoubleSlow(buffer, start, end);
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (decimalExponent >= 0 && decimalExponent < EXACT_POWERS_OF_TEN.length) {
+            value = mantissa * EXACT_POWERS_OF_TEN[decimalExponent];
+        } else if (decimalExponent < 0 && -decimalExponent < EXACT_POWERS_OF_TEN.length) {
+            value = mantissa / EXACT_POWERS_OF_TEN[-decimalExponent];
+        } else {
+            return parseDoubleSlow(buffer, start, end);
+        }
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * @param buffer source bytes
+     * @param start  index of first byte (inclusive)
+     * @param end    index of last byte (exclusive)
+     * @return the int represented by the ascii bytes in [start, end)
+     * @throws NumberFormatException if the bytes are not a valid int
+     */
+    static int parseInt(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        if (i >= end) {
+            throw new NumberFormatException("empty String");
+        }
+
+        boolean negative = false;
+        byte b = buffer.get(i);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            i++;
+        }
+
+        if (i == end) {
+            throw numberFormatException(buffer, start, end);
+        }
+
+        long value = 0;
+        while (i < end) {
+            b = buffer.get(i);
+            if (!isDigit(b)) {
+                throw numberFormatException(buffer, start, end);
+            }
+            value = value * 10 + (b - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw numberFormatException(buffer, start, end);
+            }
+            i++;
+        }
+
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw numberFormatException(buffer, start, end);
+        }
+
+        return (int) value;
+    }
+
+    static String asString(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static double parseDoubleSlow(ByteBuffer buffer, int start, int end) {
+        return Double.parseDouble(asString(buffer, start, end));
+    }
+
+    private static NumberFormatException numberFormatException(ByteBuffer buffer, int start, int end) {
+        return new NumberFormatException("For input string: \"" + asString(buffer, start, end) + "\"");
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -0,0 +1,95 @@
+package io.improbable.keanu.util.csv;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * The primitive columns produced by a {@link MappedCsvReader}. Columns are looked up either
+ * by their header title or by their index in the source file.
+ */
+public class CsvColumns {
+
+    private final List<String> header;
+    private final Map<Integer, double[]> doubleColumns;
+    private final Map<Integer, int[]> integerColumns;
+    private final int rowCount;
+
+    CsvColumns(List<String> header, Map<Integer, double[]> doubleColumns, Map<Integer, int[]> integerColumns, int rowCount) {
+        this.header = header == null ? emptyList() : header;
+        this.doubleColumns = doubleColumns;
+        this.integerColumns = integerColumns;
+        this.rowCount = rowCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return the header of the source file or an empty list if it had none
+     */
+    public List<String> getHeader() {
+        return header;
+    }
+
+    public double[] getDoubleColumn(String title) {
+        return getDoubleColumn(indexOf(title));
+    }
+
+    public double[] getDoubleColumn(int columnIndex) {
+        double[] column = doubleColumns.get(columnIndex);
+        if (column == null) {
+            throw new IllegalArgumentException("Column " + columnIndex + " was not read as a double column");
+        }
+        return column;
+    }
+
+    public int[] getIntegerColumn(String title) {
+        return getIntegerColumn(indexOf(title));
+    }
+
+    public int[] getIntegerColumn(int columnIndex) {
+        int[] column = integerColumns.get(columnIndex);
+        if (column == null) {
+            throw new IllegalArgumentException("Column " + columnIndex + " was not read as an integer column");
+        }
+        return column;
+    }
+
+    /**
+     * @param title the column title
+     * @return the column as a row vector tensor, which is the same shape the pojo parsers produce
+     */
+    public DoubleTensor getDoubleTensor(String title) {
+        return DoubleTensor.create(getDoubleColumn(title));
+    }
+
+    public DoubleTensor getDoubleTensor(int columnIndex) {
+        return DoubleTensor.create(getDoubleColumn(columnIndex));
+    }
+
+    /**
+     * @param title the column title
+     * @return the column as a row vector tensor, which is the same shape the pojo parsers produce
+     */
+    public IntegerTensor getIntegerTensor(String title) {
+        return IntegerTensor.create(getIntegerColumn(title));
+    }
+
+    public IntegerTensor getIntegerTensor(int columnIndex) {
+        return IntegerTensor.create(getIntegerColumn(columnIndex));
+    }
+
+    private int indexOf(String title) {
+        int index = header.indexOf(title);
+        if (index < 0) {
+            throw new IllegalArgumentException("No column titled \"" + title + "\"");
+        }
+        return index;
+    }
+}
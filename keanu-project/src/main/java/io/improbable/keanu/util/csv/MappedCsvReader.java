@@ -0,0 +1,458 @@
+package io.improbable.keanu.util.csv;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Reads numeric columns from a csv file straight into primitive arrays. The file is memory mapped
+ * and split into byte ranges on line boundaries which are parsed in parallel on a fork-join pool.
+ * Numbers are parsed directly from the mapped bytes so no per-cell Strings are created.
+ * <p>
+ * Only the selected columns are parsed, every other column is skipped over. If no columns are
+ * selected then every column is read as a double column.
+ * <p>
+ * Like {@link CsvReader}, fields are split on the delimiter and trimmed, quoted fields are not supported.
+ */
+public class MappedCsvReader {
+
+    private static final byte DEFAULT_DELIMITER = ',';
+    private static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int LINE_SEARCH_BUFFER_SIZE = 8 * 1024;
+    private static final int INITIAL_CHUNK_ROWS = 1024;
+
+    private enum ColumnType {
+        DOUBLE, INTEGER
+    }
+
+    private final Path filePath;
+    private final Map<String, ColumnType> selectedTitles;
+    private final Map<Integer, ColumnType> selectedIndices;
+    private byte delimiter;
+    private boolean expectHeader;
+    private int chunkSize;
+    private ForkJoinPool pool;
+
+    public MappedCsvReader(Path filePath) {
+        this.filePath = filePath;
+        this.selectedTitles = new LinkedHashMap<>();
+        this.selectedIndices = new LinkedHashMap<>();
+        this.delimiter = DEFAULT_DELIMITER;
+        this.expectHeader = true;
+        this.chunkSize = DEFAULT_CHUNK_SIZE;
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Tells the reader to either treat the first line of the file as a header or as data.
+     *
+     * @param expectHeader true for first line is header, false for data
+     * @return this reader
+     */
+    public MappedCsvReader expectHeader(boolean expectHeader) {
+        this.expectHeader = expectHeader;
+        return this;
+    }
+
+    /**
+     * Defaults to a comma ',' but could be '\t' for tab separated files or another single byte character.
+     *
+     * @param delimiter the delimiter to use
+     * @return this reader
+     */
+    public MappedCsvReader withDelimiter(char delimiter) {
+        if (delimiter > 127 || delimiter == '\n') {
+            throw new IllegalArgumentException("Delimiter must be a single byte character other than a new line");
+        }
+        this.delimiter = (byte) delimiter;
+        return this;
+    }
+
+    /**
+     * @param chunkSize approximate number of bytes parsed by each fork-join task
+     * @return this reader
+     */
+    public MappedCsvReader withChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * @param pool the pool that chunks are parsed on. Defaults to the common pool.
+     * @return this reader
+     */
+    public MappedCsvReader withPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    public MappedCsvReader selectDoubleColumns(String... titles) {
+        for (String title : titles) {
+            selectedTitles.put(title, ColumnType.DOUBLE);
+        }
+        return this;
+    }
+
+    public MappedCsvReader selectDoubleColumns(int... columnIndices) {
+        for (int columnIndex : columnIndices) {
+            selectedIndices.put(columnIndex, ColumnType.DOUBLE);
+        }
+        return this;
+    }
+
+    public MappedCsvReader selectIntegerColumns(String... titles) {
+        for (String title : titles) {
+            selectedTitles.put(title, ColumnType.INTEGER);
+        }
+        return this;
+    }
+
+    public MappedCsvReader selectIntegerColumns(int... columnIndices) {
+        for (int columnIndex : columnIndices) {
+            selectedIndices.put(columnIndex, ColumnType.INTEGER);
+        }
+        return this;
+    }
+
+    /**
+     * Parses the selected columns of the entire file.
+     *
+     * @return the selected columns as primitive arrays
+     */
+    public CsvColumns read() {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+
+            long size = channel.size();
+            long dataStart = 0;
+            List<String> header = null;
+
+            if (expectHeader) {
+                long headerEnd = findLineEnd(channel, 0, size);
+                header = splitHeader(readString(channel, 0, headerEnd));
+                dataStart = Math.min(size, headerEnd + 1);
+            }
+
+            ColumnType[] columnTypes = resolveColumnTypes(channel, header, dataStart, size);
+            long[] boundaries = chunkBoundaries(channel, dataStart, size);
+            ChunkResult[] results = new ChunkResult[boundaries.length - 1];
+
+            pool.invoke(new ParseChunks(channel, boundaries, columnTypes, results, 0, results.length));
+
+            return merge(header, columnTypes, results);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ColumnType[] resolveColumnTypes(FileChannel channel, List<String> header, long dataStart, long size) throws IOException {
+
+        if (selectedTitles.isEmpty() && selectedIndices.isEmpty()) {
+            int columnCount;
+            if (header != null) {
+                columnCount = header.size();
+            } else {
+                columnCount = splitHeader(readString(channel, dataStart, findLineEnd(channel, dataStart, size))).size();
+            }
+            ColumnType[] allDoubles = new ColumnType[columnCount];
+            Arrays.fill(allDoubles, ColumnType.DOUBLE);
+            return allDoubles;
+        }
+
+        Map<Integer, ColumnType> byIndex = new HashMap<>(selectedIndices);
+        for (Map.Entry<String, ColumnType> selected : selectedTitles.entrySet()) {
+            if (header == null) {
+                throw new IllegalArgumentException("Selecting columns by title requires a header");
+            }
+            int index = header.indexOf(selected.getKey());
+            if (index < 0) {
+                throw new IllegalArgumentException("Unable to find column \"" + selected.getKey() + "\"");
+            }
+            byIndex.put(index, selected.getValue());
+        }
+
+        int maxIndex = byIndex.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1);
+        ColumnType[] columnTypes = new ColumnType[maxIndex + 1];
+        for (Map.Entry<Integer, ColumnType> selected : byIndex.entrySet()) {
+            if (selected.getKey() < 0) {
+                throw new IllegalArgumentException("Column index must be non-negative");
+            }
+            columnTypes[selected.getKey()] = selected.getValue();
+        }
+        return columnTypes;
+    }
+
+    /**
+     * Splits [dataStart, size) into ranges of roughly chunkSize bytes where every range ends just after a new line.
+     */
+    private long[] chunkBoundaries(FileChannel channel, long dataStart, long size) throws IOException {
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(dataStart);
+
+        long tentative = dataStart + chunkSize;
+        while (tentative < size) {
+            long boundary = findLineEnd(channel, tentative, size) + 1;
+            if (boundary >= size) {
+                break;
+            }
+            boundaries.add(boundary);
+            tentative = boundary + chunkSize;
+        }
+        boundaries.add(size);
+
+        long[] asArray = new long[boundaries.size()];
+        for (int i = 0; i < asArray.length; i++) {
+            asArray[i] = boundaries.get(i);
+            if (i > 0 && asArray[i] - asArray[i - 1] > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Line starting near byte " + asArray[i - 1] + " is too long to map");
+            }
+        }
+        return asArray;
+    }
+
+    /**
+     * @return the position of the first new line at or after from, or size if there is none
+     */
+    private static long findLineEnd(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(LINE_SEARCH_BUFFER_SIZE);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static String readString(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, from + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return ByteNumberParser.asString(buffer, 0, buffer.position());
+    }
+
+    private List<String> splitHeader(String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty()) {
+            return emptyList();
+        }
+        List<String> titles = new ArrayList<>();
+        for (String title : trimmed.split(Pattern.quote(String.valueOf((char) delimiter)), -1)) {
+            titles.add(title.trim());
+        }
+        return titles;
+    }
+
+    private static CsvColumns merge(List<String> header, ColumnType[] columnTypes, ChunkResult[] results) {
+        int rowCount = 0;
+        for (ChunkResult result : results) {
+            rowCount += result.rows;
+        }
+
+        Map<Integer, double[]> doubleColumns = new HashMap<>();
+        Map<Integer, int[]> integerColumns = new HashMap<>();
+
+        for (int column = 0; column < columnTypes.length; column++) {
+            if (columnTypes[column] == ColumnType.DOUBLE) {
+                double[] merged = new double[rowCount];
+                int offset = 0;
+                for (ChunkResult result : results) {
+                    System.arraycopy(result.doubles[column], 0, merged, offset, result.rows);
+                    offset += result.rows;
+                }
+                doubleColumns.put(column, merged);
+            } else if (columnTypes[column] == ColumnType.INTEGER) {
+                int[] merged = new int[rowCount];
+                int offset = 0;
+                for (ChunkResult result : results) {
+                    System.arraycopy(result.integers[column], 0, merged, offset, result.rows);
+                    offset += result.rows;
+                }
+                integerColumns.put(column, merged);
+            }
+        }
+
+        return new CsvColumns(header, doubleColumns, integerColumns, rowCount);
+    }
+
+    private class ParseChunks extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] boundaries;
+        private final ColumnType[] columnTypes;
+        private final ChunkResult[] results;
+        private final int from;
+        private final int to;
+
+        ParseChunks(FileChannel channel, long[] boundaries, ColumnType[] columnTypes, ChunkResult[] results, int from, int to) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.columnTypes = columnTypes;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results[from] = parseChunk(boundaries[from], boundaries[from + 1]);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                    new ParseChunks(channel, boundaries, columnTypes, results, from, middle),
+                    new ParseChunks(channel, boundaries, columnTypes, results, middle, to)
+                );
+            }
+        }
+
+        private ChunkResult parseChunk(long start, long end) {
+            ByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            ChunkResult result = new ChunkResult(columnTypes);
+            int limit = buffer.limit();
+            int position = 0;
+
+            while (position < limit) {
+                position = parseLine(buffer, position, limit, result, start);
+            }
+
+            return result;
+        }
+
+        /**
+         * @return the position of the start of the next line
+         */
+        private int parseLine(ByteBuffer buffer, int lineStart, int limit, ChunkResult result, long chunkOffset) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+
+            int trimmedStart = skipWhitespace(buffer, lineStart, lineEnd);
+            if (trimmedStart == lineEnd) {
+                return lineEnd + 1;
+            }
+
+            result.ensureCapacity();
+
+            int fieldStart = lineStart;
+            int column = 0;
+            while (column < columnTypes.length && fieldStart <= lineEnd) {
+                int fieldEnd = fieldStart;
+                while (fieldEnd < lineEnd && buffer.get(fieldEnd) != delimiter) {
+                    fieldEnd++;
+                }
+
+                ColumnType type = columnTypes[column];
+                if (type != null) {
+                    int valueStart = skipWhitespace(buffer, fieldStart, fieldEnd);
+                    int valueEnd = trimEnd(buffer, valueStart, fieldEnd);
+                    if (type == ColumnType.DOUBLE) {
+                        result.doubles[column][result.rows] = ByteNumberParser.parseDouble(buffer, valueStart, valueEnd);
+                    } else {
+                        result.integers[column][result.rows] = ByteNumberParser.parseInt(buffer, valueStart, valueEnd);
+                    }
+                }
+
+                column++;
+                fieldStart = fieldEnd + 1;
+            }
+
+            if (column < columnTypes.length) {
+                throw new IllegalArgumentException(
+                    "Line at byte " + (chunkOffset + lineStart) + " has " + column + " fields but column " +
+                        (columnTypes.length - 1) + " was selected"
+                );
+            }
+
+            result.rows++;
+            return lineEnd + 1;
+        }
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int from, int to) {
+        while (from < to && buffer.get(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(ByteBuffer buffer, int from, int to) {
+        while (to > from && buffer.get(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    private static class ChunkResult {
+
+        private final double[][] doubles;
+        private final int[][] integers;
+        private int capacity;
+        private int rows;
+
+        ChunkResult(ColumnType[] columnTypes) {
+            this.doubles = new double[columnTypes.length][];
+            this.integers = new int[columnTypes.length][];
+            this.capacity = INITIAL_CHUNK_ROWS;
+            this.rows = 0;
+
+            for (int i = 0; i < columnTypes.length; i++) {
+                if (columnTypes[i] == ColumnType.DOUBLE) {
+                    doubles[i] = new double[capacity];
+                } else if (columnTypes[i] == ColumnType.INTEGER) {
+                    integers[i] = new int[capacity];
+                }
+            }
+        }
+
+        void ensureCapacity() {
+            if (rows < capacity) {
+                return;
+            }
+            capacity *= 2;
+            for (int i = 0; i < doubles.length; i++) {
+                if (doubles[i] != null) {
+                    doubles[i] = Arrays.copyOf(doubles[i], capacity);
+                } else if (integers[i] != null) {
+                    integers[i] = Arrays.copyOf(integers[i], capacity);
+                }
+            }
+        }
+    }
+}
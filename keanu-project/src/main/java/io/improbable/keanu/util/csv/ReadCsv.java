@@ -43,6 +43,22 @@ public class ReadCsv {
         });
     }
 
+    /**
+     * @param filePath the full path to the file for loading
+     * @return a reader that memory maps the file and parses numeric columns directly to primitive arrays
+     */
+    public static MappedCsvReader fromFileMapped(Path filePath) {
+        return new MappedCsvReader(filePath);
+    }
+
+    public static MappedCsvReader fromFileMapped(File file) {
+        return fromFileMapped(file.toPath());
+    }
+
+    public static MappedCsvReader fromFileMapped(String filePath) {
+        return fromFileMapped(Paths.get(filePath));
+    }
+
     public static CsvReader fromString(String csvString) {
         return new CsvReader(() -> new StringReader(csvString));
     }
@@ -0,0 +1,12 @@
+package io.improbable.keanu.vertices;
+
+/**
+ * A vertex whose value can be calculated for a batch of network states at once. When the values of its parents
+ * carry an extra leading dimension with one entry per state, its value is calculated for every state in a
+ * single operation by broadcasting over that dimension.
+ * <p>
+ * Elementwise operations are batchable. Operations that depend on the shape of their operands, such as
+ * matrix multiplication, summing or slicing, are not.
+ */
+public interface Batchable {
+}
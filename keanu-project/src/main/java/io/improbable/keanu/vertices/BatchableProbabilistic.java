@@ -0,0 +1,33 @@
+package io.improbable.keanu.vertices;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+
+/**
+ * A probabilistic vertex whose log probability can be calculated for a batch of network states at once.
+ *
+ * @param <T> the type of the vertex value
+ */
+public interface BatchableProbabilistic<T> extends Probabilistic<T>, Batchable {
+
+    /**
+     * The natural log of the probability of each element of the supplied value, given the current values of the
+     * parents. If the value or any parent value has an extra leading batch dimension then so does the result,
+     * holding the log probabilities for each state in the batch.
+     *
+     * @param value The supplied value.
+     * @return The elementwise natural log of the probability function at the supplied value.
+     */
+    DoubleTensor logProbs(T value);
+
+    /**
+     * Samples a value of the given shape, given the current values of the parents. Giving the shape an extra
+     * leading batch dimension samples a value for each state in the batch, with each state using its own parent
+     * values if they are batched.
+     *
+     * @param shape  the shape of the sample
+     * @param random the random source to sample with
+     * @return a sample of the given shape
+     */
+    T sample(int[] shape, KeanuRandom random);
+}
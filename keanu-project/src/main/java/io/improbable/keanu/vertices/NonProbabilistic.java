@@ -1,5 +1,7 @@
 package io.improbable.keanu.vertices;
 
+import java.util.Collection;
+
 public interface NonProbabilistic<T> extends Observable<T> {
 
     default boolean contradictsObservation() {
@@ -7,4 +9,13 @@ public interface NonProbabilistic<T> extends Observable<T> {
     }
 
     T calculate();
+
+    /**
+     * @return the parents that {@link #calculate()} reads. By default this is all of them, but a vertex that
+     * selects between some of its parents using the values of others only needs the selected ones. Until the
+     * selecting parents have values only they are returned, so that they are calculated first.
+     */
+    default Collection<? extends Vertex> getCalculationParents() {
+        return ((Vertex<?>) this).getParents();
+    }
 }
@@ -1,6 +1,13 @@
 package io.improbable.keanu.vertices;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.improbable.keanu.algorithms.graphtraversal.VertexValuePropagation;
+import io.improbable.keanu.network.NetworkState;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
 
 public class ProbabilityCalculator {
     private ProbabilityCalculator() {}
@@ -20,4 +27,94 @@ public class ProbabilityCalculator {
         }
         return sum;
     }
+
+    /**
+     * Calculates the log probability of the vertices for each of a batch of states. The latent vertices among
+     * the vertices take their values from each state in turn, and are set back to their current values afterwards.
+     * <p>
+     * If every latent vertex, every vertex calculated from them and every probabilistic vertex is {@link Batchable}
+     * then the whole batch is calculated at once: each latent vertex is given a value with an extra leading
+     * dimension holding its value in every state, so each vertex is visited once per batch instead of once per
+     * state. Otherwise the states are calculated one at a time.
+     *
+     * @param vertices the latent and observed vertices to calculate the log probability of
+     * @param states   the states to take the latent vertex values from
+     * @return the log probability of each state, in the same order as the states
+     */
+    public static double[] calculateLogProbsFor(Collection<? extends Vertex> vertices, List<? extends NetworkState> states) {
+        if (states.isEmpty()) {
+            return new double[0];
+        }
+
+        List<Vertex> latentVertices = vertices.stream()
+            .filter(v -> v.isProbabilistic() && !v.isObserved())
+            .collect(Collectors.toList());
+
+        List<Object> currentValues = latentVertices.stream()
+            .map(Vertex::getValue)
+            .collect(Collectors.toList());
+
+        try {
+            if (canCalculateAsBatch(vertices, latentVertices)) {
+                return calculateBatchedLogProbsFor(vertices, latentVertices, states);
+            }
+
+            double[] logProbs = new double[states.size()];
+            for (int i = 0; i < states.size(); i++) {
+                for (Vertex latent : latentVertices) {
+                    latent.setValue(getValueFrom(states.get(i), latent));
+                }
+                VertexValuePropagation.cascadeUpdate(latentVertices);
+                logProbs[i] = calculateLogProbFor(vertices);
+            }
+            return logProbs;
+        } finally {
+            for (int i = 0; i < latentVertices.size(); i++) {
+                latentVertices.get(i).setValue(currentValues.get(i));
+            }
+            VertexValuePropagation.cascadeUpdate(latentVertices);
+        }
+    }
+
+    private static boolean canCalculateAsBatch(Collection<? extends Vertex> vertices, List<Vertex> latentVertices) {
+        for (Vertex<?> vertex : vertices) {
+            if (!(vertex instanceof BatchableProbabilistic)) {
+                return false;
+            }
+        }
+        return VertexBatching.canBatch(latentVertices);
+    }
+
+    private static double[] calculateBatchedLogProbsFor(Collection<? extends Vertex> vertices,
+                                                        List<Vertex> latentVertices,
+                                                        List<? extends NetworkState> states) {
+        List<int[]> shapes = vertices.stream().map(Vertex::getShape).collect(Collectors.toList());
+
+        for (Vertex<?> latent : latentVertices) {
+            List<DoubleTensor> values = states.stream()
+                .map(state -> (DoubleTensor) getValueFrom(state, latent))
+                .collect(Collectors.toList());
+            ((DoubleVertex) latent).setValue(VertexBatching.stack(values, latent.getShape()));
+        }
+        VertexValuePropagation.cascadeUpdate(latentVertices);
+
+        double[] logProbs = new double[states.size()];
+        int vertexIndex = 0;
+        for (Vertex<?> vertex : vertices) {
+            DoubleTensor elementLogProbs = ((BatchableProbabilistic) vertex).logProbs(vertex.getValue());
+            double[] logProbPerState = VertexBatching.sumPerState(elementLogProbs, shapes.get(vertexIndex++), states.size());
+            for (int i = 0; i < logProbs.length; i++) {
+                logProbs[i] += logProbPerState[i];
+            }
+        }
+        return logProbs;
+    }
+
+    private static <T> T getValueFrom(NetworkState state, Vertex<T> vertex) {
+        T value = state.get(vertex);
+        if (value == null) {
+            throw new IllegalArgumentException("State has no value for vertex " + vertex.getId());
+        }
+        return value;
+    }
 }
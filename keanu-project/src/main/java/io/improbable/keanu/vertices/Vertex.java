@@ -22,6 +22,7 @@ public abstract class Vertex<T> implements Observable<T> {
     private Set<Vertex> children = Collections.emptySet();
     private Set<Vertex> parents = Collections.emptySet();
     private T value;
+    private boolean stale;
     private final Observable<T> observation;
     private VertexLabel label = null;
 
@@ -96,6 +97,18 @@ public abstract class Vertex<T> implements Observable<T> {
     public void setValue(T value) {
         if (!observation.isObserved()) {
             this.value = value;
+            this.stale = false;
+        }
+    }
+
+    /**
+     * Marks the value as out of date with the values of the parents, so that it is calculated again when it is
+     * next needed. The value is kept until then, so the shape is still known. Observed values are never out of
+     * date.
+     */
+    public void markStale() {
+        if (!observation.isObserved()) {
+            this.stale = true;
         }
     }
 
@@ -108,7 +121,9 @@ public abstract class Vertex<T> implements Observable<T> {
     }
 
     public boolean hasValue() {
-        if (value instanceof Tensor) {
+        if (stale) {
+            return false;
+        } else if (value instanceof Tensor) {
             return !((Tensor) value).isShapePlaceholder();
         } else {
             return value != null;
@@ -147,6 +162,7 @@ public abstract class Vertex<T> implements Observable<T> {
     @Override
     public void observe(T value) {
         this.value = value;
+        this.stale = false;
         observation.observe(value);
     }
 
@@ -0,0 +1,157 @@
+package io.improbable.keanu.vertices;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.ArrayUtils;
+
+import io.improbable.keanu.algorithms.graphtraversal.VertexValuePropagation;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+
+/**
+ * Calculates vertex values for a batch of network states at once. The batched value of a vertex is its value in
+ * every state of the batch, stacked along an extra leading dimension.
+ */
+public class VertexBatching {
+
+    /**
+     * The number of states to calculate at once when a caller has more states than it needs to hold together.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private VertexBatching() {
+    }
+
+    /**
+     * @param latentVertices the vertices that will be given batched values
+     * @return true if every latent vertex is a batchable double vertex and every non-probabilistic vertex that is
+     * calculated from them is {@link Batchable}. Observed vertices are not calculated, so they need not be batchable.
+     */
+    public static boolean canBatch(Collection<? extends Vertex> latentVertices) {
+        for (Vertex<?> latent : latentVertices) {
+            if (!(latent instanceof BatchableProbabilistic) || !(latent instanceof DoubleVertex)) {
+                return false;
+            }
+        }
+
+        Deque<Vertex> toVisit = new ArrayDeque<>(latentVertices);
+        Set<Vertex> visited = new HashSet<>(latentVertices);
+        while (!toVisit.isEmpty()) {
+            Vertex<?> visiting = toVisit.pop();
+            for (Vertex<?> child : visiting.getChildren()) {
+                if (!child.isProbabilistic() && visited.add(child)) {
+                    if (!(child instanceof Batchable) && !child.isObserved()) {
+                        return false;
+                    }
+                    toVisit.push(child);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Samples a batched value for each latent vertex in turn and cascades it through the graph, so each vertex is
+     * sampled given the batched values of the vertices before it.
+     *
+     * @param latentVertices the latent vertices in topological order
+     * @param shapes         the shape of the value of each latent vertex in a single state
+     * @param batchSize      the number of states to sample, which must match any batched values already in the graph
+     * @param random         the random source to sample with
+     */
+    public static void sampleAndCascade(List<? extends Vertex> latentVertices, List<int[]> shapes, int batchSize, KeanuRandom random) {
+        for (int i = 0; i < latentVertices.size(); i++) {
+            DoubleVertex latent = (DoubleVertex) latentVertices.get(i);
+            int[] batchedShape = ArrayUtils.insert(0, shapes.get(i), batchSize);
+            latent.setAndCascade(((BatchableProbabilistic<DoubleTensor>) latent).sample(batchedShape, random));
+        }
+    }
+
+    /**
+     * Sets each batched latent vertex to its value in a single state of the batch and cascades the values through
+     * the graph.
+     *
+     * @param latentVertices the latent vertices, which hold batched values
+     * @param shapes         the shape of the value of each latent vertex in a single state
+     * @param batchSize      the number of states in the batch
+     * @param state          the index of the state to set
+     */
+    public static void setToState(List<? extends Vertex> latentVertices, List<int[]> shapes, int batchSize, int state) {
+        for (int i = 0; i < latentVertices.size(); i++) {
+            DoubleVertex latent = (DoubleVertex) latentVertices.get(i);
+            latent.setValue(unstack(latent.getValue(), shapes.get(i), batchSize).get(state));
+        }
+        VertexValuePropagation.cascadeUpdate(latentVertices);
+    }
+
+    /**
+     * @param values the value in each state of the batch
+     * @param shape  the shape of each value
+     * @return the values stacked along a new leading dimension
+     */
+    public static DoubleTensor stack(List<DoubleTensor> values, int[] shape) {
+        int length = (int) TensorShape.getLength(shape);
+        double[] buffer = new double[values.size() * length];
+
+        for (int i = 0; i < values.size(); i++) {
+            DoubleTensor value = values.get(i);
+            if (!Arrays.equals(shape, value.getShape())) {
+                throw new IllegalArgumentException(
+                    "Cannot stack value of shape " + Arrays.toString(value.getShape()) + " as shape " + Arrays.toString(shape)
+                );
+            }
+            System.arraycopy(value.asFlatDoubleArray(), 0, buffer, i * length, length);
+        }
+
+        return DoubleTensor.create(buffer, ArrayUtils.insert(0, shape, values.size()));
+    }
+
+    /**
+     * @param batched   a batched value, or a value that is the same in every state
+     * @param shape     the shape of the value in each state
+     * @param batchSize the number of states in the batch
+     * @return the value in each state of the batch
+     */
+    public static List<DoubleTensor> unstack(DoubleTensor batched, int[] shape, int batchSize) {
+        if (!isBatched(batched, shape)) {
+            return Collections.nCopies(batchSize, batched);
+        }
+
+        int length = (int) TensorShape.getLength(shape);
+        double[] buffer = batched.asFlatDoubleArray();
+        List<DoubleTensor> values = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            values.add(DoubleTensor.create(Arrays.copyOfRange(buffer, i * length, (i + 1) * length), shape));
+        }
+        return values;
+    }
+
+    /**
+     * @param batched   a batched value, or a value that is the same in every state
+     * @param shape     the shape of the value in each state
+     * @param batchSize the number of states in the batch
+     * @return the sum of the value in each state of the batch
+     */
+    public static double[] sumPerState(DoubleTensor batched, int[] shape, int batchSize) {
+        if (!isBatched(batched, shape)) {
+            double[] sums = new double[batchSize];
+            Arrays.fill(sums, batched.sum());
+            return sums;
+        }
+        return batched.sum(TensorShape.dimensionRange(1, shape.length + 1)).asFlatDoubleArray();
+    }
+
+    private static boolean isBatched(DoubleTensor value, int[] shape) {
+        return value.getRank() > shape.length;
+    }
+}
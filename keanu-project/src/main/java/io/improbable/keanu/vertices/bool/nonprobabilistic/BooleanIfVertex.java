@@ -1,10 +1,13 @@
 package io.improbable.keanu.vertices.bool.nonprobabilistic;
 
+import java.util.Collection;
+
 import io.improbable.keanu.tensor.bool.BooleanTensor;
 import io.improbable.keanu.vertices.NonProbabilistic;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.bool.BoolVertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import io.improbable.keanu.vertices.generic.nonprobabilistic.If;
 
 public class BooleanIfVertex extends BoolVertex implements NonProbabilistic<BooleanTensor> {
 
@@ -32,8 +35,24 @@ public class BooleanIfVertex extends BoolVertex implements NonProbabilistic<Bool
         return op(predicate.sample(random), thn.sample(random), els.sample(random));
     }
 
+    /**
+     * Only reads the branch that the predicate selects, if it selects the same one everywhere.
+     */
     @Override
     public BooleanTensor calculate() {
-        return op(predicate.getValue(), thn.getValue(), els.getValue());
+        BooleanTensor predicateValue = predicate.getValue();
+        if (predicateValue.allTrue()) {
+            BooleanTensor thnValue = thn.getValue();
+            return op(predicateValue, thnValue, thnValue);
+        } else if (predicateValue.allFalse()) {
+            BooleanTensor elsValue = els.getValue();
+            return op(predicateValue, elsValue, elsValue);
+        }
+        return op(predicateValue, thn.getValue(), els.getValue());
+    }
+
+    @Override
+    public Collection<? extends Vertex> getCalculationParents() {
+        return If.getSelectedParents(predicate, thn, els);
     }
 }
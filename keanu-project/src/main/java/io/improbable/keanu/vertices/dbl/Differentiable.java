@@ -1,5 +1,6 @@
 package io.improbable.keanu.vertices.dbl;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -12,6 +13,14 @@ public interface Differentiable {
 
     DualNumber calculateDualNumber(Map<Vertex, DualNumber> dualNumbers);
 
+    /**
+     * @return the parents whose dual numbers {@link #calculateDualNumber(Map)} uses, which are all of the parents
+     * unless only some of them are selected by the current values of the others
+     */
+    default Collection<? extends Vertex> getDualNumberParents() {
+        return ((Vertex<?>) this).getParents();
+    }
+
     default DualNumber getDualNumber() {
         return Differentiator.calculateDual((Vertex & Differentiable) this);
     }
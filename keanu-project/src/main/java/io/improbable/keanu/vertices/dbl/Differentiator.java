@@ -22,7 +22,7 @@ public class Differentiator {
         while (!stack.isEmpty()) {
 
             V head = stack.peek();
-            Set<Vertex> parentsThatDualNumberIsNotCalculated = parentsThatDualNumberIsNotCalculated(dualNumbers, head.getParents());
+            Set<Vertex> parentsThatDualNumberIsNotCalculated = parentsThatDualNumberIsNotCalculated(dualNumbers, head.getDualNumberParents());
 
             if (parentsThatDualNumberIsNotCalculated.isEmpty()) {
                 V top = stack.pop();
@@ -3,12 +3,13 @@ package io.improbable.keanu.vertices.dbl;
 import io.improbable.keanu.distributions.continuous.Gamma;
 import io.improbable.keanu.distributions.continuous.Laplace;
 import io.improbable.keanu.distributions.discrete.Poisson;
+import io.improbable.keanu.tensor.Nd4jPrecision;
 import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.dbl.JavaDoubleTensor;
 import io.improbable.keanu.tensor.dbl.Nd4jDoubleTensor;
 import io.improbable.keanu.tensor.dbl.ScalarDoubleTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
-import io.improbable.keanu.tensor.intgr.Nd4jIntegerTensor;
 import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.rng.DefaultRandom;
@@ -46,19 +47,19 @@ public class KeanuRandom {
 
     public KeanuRandom() {
         nd4jRandom = new DefaultRandom();
-        bufferType = DataBuffer.Type.DOUBLE;
+        bufferType = Nd4jPrecision.BUFFER_TYPE;
     }
 
     public KeanuRandom(long seed) {
         nd4jRandom = new DefaultRandom(seed);
-        bufferType = DataBuffer.Type.DOUBLE;
+        bufferType = Nd4jPrecision.BUFFER_TYPE;
     }
 
     public DoubleTensor nextDouble(int[] shape) {
         if (Arrays.equals(shape, Tensor.SCALAR_SHAPE)) {
             return new ScalarDoubleTensor(nextDouble());
         } else {
-            return new Nd4jDoubleTensor(doubleNextDouble(shape));
+            return asDoubleTensor(doubleNextDouble(shape));
         }
     }
 
@@ -74,7 +75,7 @@ public class KeanuRandom {
         if (Arrays.equals(shape, Tensor.SCALAR_SHAPE)) {
             return new ScalarDoubleTensor(nextGaussian());
         } else {
-            return new Nd4jDoubleTensor(doubleNextGaussian(shape));
+            return asDoubleTensor(doubleNextGaussian(shape));
         }
     }
 
@@ -99,7 +100,8 @@ public class KeanuRandom {
     }
 
     public IntegerTensor nextInt(int[] shape) {
-        return new Nd4jIntegerTensor(doubleNextInt(shape));
+        INDArray values = doubleNextInt(shape);
+        return IntegerTensor.create(values.data().asInt(), values.shape());
     }
 
     public IntegerTensor nextPoisson(int[] shape, DoubleTensor mu) {
@@ -111,6 +113,17 @@ public class KeanuRandom {
         return nd4jRandom.nextInt(maxExclusive);
     }
 
+    public long nextLong() {
+        return nd4jRandom.nextLong();
+    }
+
+    private static DoubleTensor asDoubleTensor(INDArray values) {
+        if (JavaDoubleTensor.isPreferredFor(values.length())) {
+            return JavaDoubleTensor.create(values.data().asDouble(), values.shape());
+        }
+        return new Nd4jDoubleTensor(values);
+    }
+
     private INDArray doubleNextInt(int[] shape) {
         Nd4j.setDataType(bufferType);
         return nd4jRandom.nextInt(shape);
@@ -1,5 +1,7 @@
 package io.improbable.keanu.vertices.dbl.nonprobabilistic;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -12,19 +14,18 @@ import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.DualNumber;
 import io.improbable.keanu.vertices.generic.nonprobabilistic.CPTCondition;
+import io.improbable.keanu.vertices.generic.nonprobabilistic.CPTTable;
 
 public class DoubleCPTVertex extends DoubleVertex implements Differentiable, NonProbabilistic<DoubleTensor> {
 
     private final List<Vertex<? extends Tensor<Boolean>>> inputs;
-    private final Map<CPTCondition, DoubleVertex> conditions;
-    private final DoubleVertex defaultResult;
+    private final CPTTable<DoubleVertex> table;
 
     public DoubleCPTVertex(List<Vertex<? extends Tensor<Boolean>>> inputs,
                            Map<CPTCondition, DoubleVertex> conditions,
                            DoubleVertex defaultResult) {
         this.inputs = inputs;
-        this.conditions = conditions;
-        this.defaultResult = defaultResult;
+        this.table = new CPTTable<>(inputs.size(), conditions, defaultResult);
         addParents(inputs);
         addParents(conditions.values());
         addParent(defaultResult);
@@ -32,22 +33,24 @@ public class DoubleCPTVertex extends DoubleVertex implements Differentiable, Non
 
     @Override
     public DoubleTensor sample(KeanuRandom random) {
-        final CPTCondition condition = CPTCondition.from(inputs, (vertex) -> vertex.sample(random).scalar());
-        DoubleVertex vertex = conditions.get(condition);
-        return vertex == null ? defaultResult.sample(random) : vertex.sample(random);
+        return table.get(inputs, (vertex) -> vertex.sample(random).scalar()).sample(random);
     }
 
     @Override
     public DoubleTensor calculate() {
-        final CPTCondition condition = CPTCondition.from(inputs, v -> v.getValue().scalar());
-        DoubleVertex vertex = conditions.get(condition);
-        return vertex == null ? defaultResult.getValue() : vertex.getValue();
+        return table.get(inputs).getValue();
     }
 
     @Override
     public DualNumber calculateDualNumber(Map<Vertex, DualNumber> dualNumbers) {
-        final CPTCondition condition = CPTCondition.from(inputs, (vertex) -> vertex.getValue().scalar());
-        DoubleVertex vertex = conditions.get(condition);
-        return vertex == null ? dualNumbers.get(defaultResult) : dualNumbers.get(vertex);
+        return dualNumbers.get(table.get(inputs));
+    }
+
+    /**
+     * Only the result selected by the current values of the inputs is differentiated.
+     */
+    @Override
+    public Collection<? extends Vertex> getDualNumberParents() {
+        return Collections.singleton(table.get(inputs));
     }
 }
@@ -1,5 +1,6 @@
 package io.improbable.keanu.vertices.dbl.nonprobabilistic;
 
+import java.util.Collection;
 import java.util.Map;
 
 import io.improbable.keanu.tensor.bool.BooleanTensor;
@@ -9,6 +10,7 @@ import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.DualNumber;
+import io.improbable.keanu.vertices.generic.nonprobabilistic.If;
 
 public class DoubleIfVertex extends DoubleVertex implements NonProbabilistic<DoubleTensor> {
 
@@ -37,9 +39,33 @@ public class DoubleIfVertex extends DoubleVertex implements NonProbabilistic<Dou
         return DualNumber.ifThenElse(predicate.getValue(), dualNumbers.get(thn), dualNumbers.get(els));
     }
 
+    /**
+     * Only the branch that the predicate selects is differentiated, if it selects the same one everywhere.
+     */
+    @Override
+    public Collection<? extends Vertex> getDualNumberParents() {
+        return If.getSelectedParents(predicate.getValue(), predicate, thn, els);
+    }
+
+    /**
+     * Only reads the branch that the predicate selects, if it selects the same one everywhere.
+     */
     @Override
     public DoubleTensor calculate() {
-        return op(predicate.getValue(), thn.getValue(), els.getValue());
+        BooleanTensor predicateValue = predicate.getValue();
+        if (predicateValue.allTrue()) {
+            DoubleTensor thnValue = thn.getValue();
+            return op(predicateValue, thnValue, thnValue);
+        } else if (predicateValue.allFalse()) {
+            DoubleTensor elsValue = els.getValue();
+            return op(predicateValue, elsValue, elsValue);
+        }
+        return op(predicateValue, thn.getValue(), els.getValue());
+    }
+
+    @Override
+    public Collection<? extends Vertex> getCalculationParents() {
+        return If.getSelectedParents(predicate, thn, els);
     }
 
     private DoubleTensor op(BooleanTensor predicate, DoubleTensor thn, DoubleTensor els) {
@@ -0,0 +1,103 @@
+package io.improbable.keanu.vertices.dbl.nonprobabilistic.diff;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+
+/**
+ * A partial where each element of the "of" tensor depends only on the element of the "wrt" tensor with the same
+ * flat index, such as that of a vertex with respect to itself or after elementwise operations on it. Only the
+ * diagonal is stored, as a single value when it is the same for every element.
+ */
+final class DiagonalPartial extends StructuredPartial {
+
+    private final DoubleTensor values;
+
+    static DiagonalPartial identity(int[] shape) {
+        return new DiagonalPartial(DoubleTensor.scalar(1.0), shape, shape);
+    }
+
+    DiagonalPartial(DoubleTensor values, int[] ofShape, int[] wrtShape) {
+        super(ofShape, wrtShape);
+        if (ofLength != wrtLength) {
+            throw new IllegalArgumentException("A diagonal partial must be of and with respect to tensors of the same length");
+        }
+        this.values = values.getLength() == 1 ? values : values.reshape(ofShape);
+    }
+
+    DoubleTensor getValues() {
+        return values;
+    }
+
+    @Override
+    DoubleTensor toDense() {
+        double[] dense = new double[ofLength * wrtLength];
+        double[] diagonal = values.asFlatDoubleArray();
+        for (int i = 0; i < ofLength; i++) {
+            dense[i * wrtLength + i] = diagonal.length == 1 ? diagonal[0] : diagonal[i];
+        }
+        return DoubleTensor.create(dense, getDenseShape());
+    }
+
+    @Override
+    SparsePartial toSparse() {
+        int[] indices = new int[ofLength];
+        double[] sparseValues = new double[ofLength];
+        double[] diagonal = values.asFlatDoubleArray();
+        for (int i = 0; i < ofLength; i++) {
+            indices[i] = i;
+            sparseValues[i] = diagonal.length == 1 ? diagonal[0] : diagonal[i];
+        }
+        return new SparsePartial(indices, indices.clone(), sparseValues, ofShape, wrtShape);
+    }
+
+    @Override
+    StructuredPartial times(DoubleTensor multiplier) {
+        return new DiagonalPartial(values.times(multiplier), ofShape, wrtShape);
+    }
+
+    @Override
+    StructuredPartial times(double multiplier) {
+        return new DiagonalPartial(values.times(multiplier), ofShape, wrtShape);
+    }
+
+    @Override
+    StructuredPartial div(DoubleTensor divisor) {
+        return new DiagonalPartial(values.div(divisor), ofShape, wrtShape);
+    }
+
+    @Override
+    StructuredPartial plus(StructuredPartial that) {
+        if (!hasSameShape(that)) {
+            return null;
+        }
+        if (that instanceof DiagonalPartial) {
+            return new DiagonalPartial(values.plus(((DiagonalPartial) that).values), ofShape, wrtShape);
+        }
+        return toSparse().plus(that);
+    }
+
+    @Override
+    StructuredPartial pow(double power) {
+        if (!(power > 0)) {
+            return null;
+        }
+        return new DiagonalPartial(values.pow(power), ofShape, wrtShape);
+    }
+
+    @Override
+    StructuredPartial reshapeOf(int[] proposedOfShape) {
+        return new DiagonalPartial(values, proposedOfShape, wrtShape);
+    }
+
+    @Override
+    StructuredPartial sliceOf(int dimension, int index) {
+        return toSparse().sliceOf(dimension, index);
+    }
+
+    @Override
+    DoubleTensor sumOverOf() {
+        if (values.getLength() == 1) {
+            return DoubleTensor.create(values.scalar(), wrtShape);
+        }
+        return values.reshape(wrtShape).duplicate();
+    }
+}
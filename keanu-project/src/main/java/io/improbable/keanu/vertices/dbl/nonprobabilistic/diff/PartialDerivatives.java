@@ -14,25 +14,40 @@ import io.improbable.keanu.tensor.bool.BooleanTensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.Vertex;
 
+/**
+ * The partial derivatives of a tensor with respect to other tensors, each keyed by the id of the vertex it is
+ * with respect to. A partial of a tensor of shape A with respect to a tensor of shape B has shape [A, B].
+ * <p>
+ * Partials that are mostly zeros, such as that of a vertex with respect to itself and those of elementwise
+ * operations on it, are kept in a structured form (see {@link StructuredPartial}) for as long as the operations
+ * on them allow, as a dense partial of a tensor of length n with respect to itself has n^2 elements. They are
+ * only made dense when an operation requires it or when they are read.
+ */
 public class PartialDerivatives {
 
     public static PartialDerivatives OF_CONSTANT = new PartialDerivatives(Collections.emptyMap());
 
     public static PartialDerivatives withRespectToSelf(long withRespectTo, int[] shape) {
-        return new PartialDerivatives(
-            singletonMap(
-                withRespectTo,
-                DoubleTensor.eye((int) TensorShape.getLength(shape)).reshape(TensorShape.concat(shape, shape))
-            )
-        );
+        if (TensorShape.getLength(shape) == 1) {
+            return new PartialDerivatives(
+                singletonMap(withRespectTo, DoubleTensor.ones(TensorShape.concat(shape, shape)))
+            );
+        }
+
+        Map<Long, StructuredPartial> identity = new HashMap<>();
+        identity.put(withRespectTo, DiagonalPartial.identity(shape));
+        return new PartialDerivatives(new HashMap<>(), identity);
     }
 
+    /**
+     * Mixes partials with masks, which makes them dense.
+     */
     public static PartialDerivatives ifThenElse(BooleanTensor predicate, PartialDerivatives thn, PartialDerivatives els) {
         DoubleTensor trueMask = predicate.toDoubleMask();
         DoubleTensor falseMask = predicate.not().toDoubleMask();
 
-        Map<Long, DoubleTensor> thenPartials = thn.derivativeWithRespectTo;
-        Map<Long, DoubleTensor> elsePartials = els.derivativeWithRespectTo;
+        Map<Long, DoubleTensor> thenPartials = thn.asMap();
+        Map<Long, DoubleTensor> elsePartials = els.asMap();
         Set<Long> wrtUnion = new HashSet<>();
         wrtUnion.addAll(thenPartials.keySet());
         wrtUnion.addAll(elsePartials.keySet());
@@ -71,14 +86,23 @@ public class PartialDerivatives {
     }
 
     private Map<Long, DoubleTensor> derivativeWithRespectTo;
+    private Map<Long, StructuredPartial> structuredWithRespectTo;
 
     public PartialDerivatives(long id, DoubleTensor derivativeWithRespectTo) {
         this.derivativeWithRespectTo = new HashMap<>();
         this.derivativeWithRespectTo.put(id, derivativeWithRespectTo);
+        this.structuredWithRespectTo = Collections.emptyMap();
     }
 
     public PartialDerivatives(Map<Long, DoubleTensor> derivativeWithRespectTo) {
         this.derivativeWithRespectTo = derivativeWithRespectTo;
+        this.structuredWithRespectTo = Collections.emptyMap();
+    }
+
+    private PartialDerivatives(Map<Long, DoubleTensor> derivativeWithRespectTo,
+                               Map<Long, StructuredPartial> structuredWithRespectTo) {
+        this.derivativeWithRespectTo = derivativeWithRespectTo;
+        this.structuredWithRespectTo = structuredWithRespectTo;
     }
 
     public DoubleTensor withRespectTo(Vertex vertex) {
@@ -86,21 +110,44 @@ public class PartialDerivatives {
     }
 
     public DoubleTensor withRespectTo(long id) {
+        StructuredPartial structured = structuredWithRespectTo.get(id);
+        if (structured != null) {
+            return structured.toDense();
+        }
         return derivativeWithRespectTo.getOrDefault(id, DoubleTensor.ZERO_SCALAR);
     }
 
     public boolean isEmpty() {
-        return derivativeWithRespectTo.isEmpty();
+        return derivativeWithRespectTo.isEmpty() && structuredWithRespectTo.isEmpty();
     }
 
+    /**
+     * @return every partial as a dense tensor. Structured partials are made dense, which is only done once.
+     */
     public Map<Long, DoubleTensor> asMap() {
+        if (!structuredWithRespectTo.isEmpty()) {
+            Map<Long, DoubleTensor> dense = new HashMap<>(derivativeWithRespectTo);
+            for (Map.Entry<Long, StructuredPartial> entry : structuredWithRespectTo.entrySet()) {
+                dense.put(entry.getKey(), entry.getValue().toDense());
+            }
+            derivativeWithRespectTo = dense;
+            structuredWithRespectTo = Collections.emptyMap();
+        }
         return derivativeWithRespectTo;
     }
 
     public void putWithRespectTo(long id, DoubleTensor value) {
+        if (structuredWithRespectTo.containsKey(id)) {
+            structuredWithRespectTo = new HashMap<>(structuredWithRespectTo);
+            structuredWithRespectTo.remove(id);
+        }
         derivativeWithRespectTo.put(id, value);
     }
 
+    StructuredPartial getStructured(long id) {
+        return structuredWithRespectTo.get(id);
+    }
+
     /**
      * This will sum partial derivatives that are represented as tensors over given dimensions.
      * There is the option to reshape to a lower rank tensor where the summation has caused a
@@ -118,53 +165,89 @@ public class PartialDerivatives {
         for (Map.Entry<Long, DoubleTensor> entry : derivativeWithRespectTo.entrySet()) {
             long k = entry.getKey();
             DoubleTensor v = entry.getValue();
-            DoubleTensor reshapedV = v.sum(overDimensions);
-            if (reshape) {
-                summed.put(k, reshapedV);
+            summed.put(k, sum(v.sum(overDimensions), v.getRank(), reshape));
+        }
+
+        for (Map.Entry<Long, StructuredPartial> entry : structuredWithRespectTo.entrySet()) {
+            StructuredPartial partial = entry.getValue();
+            int[] denseShape = partial.getDenseShape();
+
+            DoubleTensor reshapedV;
+            if (isEveryOfDimension(overDimensions, partial.ofShape.length)) {
+                boolean[] removed = new boolean[denseShape.length];
+                Arrays.fill(removed, 0, partial.ofShape.length, true);
+                reshapedV = partial.sumOverOf().reshape(TensorShape.getReducedShape(denseShape, removed));
             } else {
-                summed.put(k, increaseRankByPrependingOnesToShape(reshapedV, v.getRank()));
+                reshapedV = partial.toDense().sum(overDimensions);
             }
+            summed.put(entry.getKey(), sum(reshapedV, denseShape.length, reshape));
         }
 
         return new PartialDerivatives(summed);
     }
 
+    private static DoubleTensor sum(DoubleTensor reshapedV, int rank, boolean reshape) {
+        return reshape ? reshapedV : increaseRankByPrependingOnesToShape(reshapedV, rank);
+    }
+
+    private static boolean isEveryOfDimension(int[] dimensions, int ofRank) {
+        int[] sorted = dimensions.clone();
+        Arrays.sort(sorted);
+        return Arrays.equals(sorted, TensorShape.dimensionRange(0, ofRank));
+    }
+
     public PartialDerivatives add(PartialDerivatives toAdd) {
-        Map<Long, DoubleTensor> added = cloneInfinitesimals(derivativeWithRespectTo);
+        return combine(toAdd, false);
+    }
 
-        for (Map.Entry<Long, DoubleTensor> entry : toAdd.derivativeWithRespectTo.entrySet()) {
-            long k = entry.getKey();
-            DoubleTensor v = entry.getValue();
+    public PartialDerivatives subtract(PartialDerivatives toSubtract) {
+        return combine(toSubtract, true);
+    }
+
+    private PartialDerivatives combine(PartialDerivatives that, boolean subtract) {
+        Map<Long, DoubleTensor> combined = cloneInfinitesimals(derivativeWithRespectTo);
+        Map<Long, StructuredPartial> combinedStructured = new HashMap<>(structuredWithRespectTo);
 
-            if (added.containsKey(k)) {
-                added.put(k, added.get(k).plus(v));
+        for (Map.Entry<Long, StructuredPartial> entry : that.structuredWithRespectTo.entrySet()) {
+            long k = entry.getKey();
+            StructuredPartial v = subtract ? entry.getValue().times(-1.0) : entry.getValue();
+
+            if (combinedStructured.containsKey(k)) {
+                StructuredPartial existing = combinedStructured.get(k);
+                StructuredPartial sum = existing.plus(v);
+                if (sum != null) {
+                    combinedStructured.put(k, sum);
+                } else {
+                    combinedStructured.remove(k);
+                    combined.put(k, existing.toDense().plus(v.toDense()));
+                }
+            } else if (combined.containsKey(k)) {
+                combined.put(k, combined.get(k).plus(v.toDense()));
             } else {
-                added.put(k, v);
+                combinedStructured.put(k, v);
             }
         }
 
-        return new PartialDerivatives(added);
-    }
-
-    public PartialDerivatives subtract(PartialDerivatives toSubtract) {
-        Map<Long, DoubleTensor> subtracted = cloneInfinitesimals(derivativeWithRespectTo);
-
-        for (Map.Entry<Long, DoubleTensor> entry : toSubtract.derivativeWithRespectTo.entrySet()) {
+        for (Map.Entry<Long, DoubleTensor> entry : that.derivativeWithRespectTo.entrySet()) {
             long k = entry.getKey();
             DoubleTensor v = entry.getValue();
 
-            if (subtracted.containsKey(k)) {
-                subtracted.put(k, subtracted.get(k).minus(v));
+            if (combinedStructured.containsKey(k)) {
+                DoubleTensor existing = combinedStructured.remove(k).toDense();
+                combined.put(k, subtract ? existing.minus(v) : existing.plus(v));
+            } else if (combined.containsKey(k)) {
+                combined.put(k, subtract ? combined.get(k).minus(v) : combined.get(k).plus(v));
             } else {
-                subtracted.put(k, v.unaryMinus());
+                combined.put(k, subtract ? v.unaryMinus() : v);
             }
         }
 
-        return new PartialDerivatives(subtracted);
+        return new PartialDerivatives(combined, combinedStructured);
     }
 
     public PartialDerivatives multiplyBy(DoubleTensor multiplier) {
         Map<Long, DoubleTensor> multiplied = new HashMap<>();
+        Map<Long, StructuredPartial> multipliedStructured = new HashMap<>();
 
         for (Map.Entry<Long, DoubleTensor> entry : derivativeWithRespectTo.entrySet()) {
             long k = entry.getKey();
@@ -172,7 +255,23 @@ public class PartialDerivatives {
             multiplied.put(k, v);
         }
 
-        return new PartialDerivatives(multiplied);
+        for (Map.Entry<Long, StructuredPartial> entry : structuredWithRespectTo.entrySet()) {
+            StructuredPartial partial = entry.getValue();
+            if (isElementwiseOperand(multiplier, partial)) {
+                multipliedStructured.put(entry.getKey(), partial.times(multiplier));
+            } else {
+                multiplied.put(entry.getKey(), elementWiseMultiplyDiff(partial.toDense(), multiplier));
+            }
+        }
+
+        return new PartialDerivatives(multiplied, multipliedStructured);
+    }
+
+    /**
+     * @return true if an operation between the "of" tensor and the operand doesn't broadcast the "of" tensor
+     */
+    private static boolean isElementwiseOperand(DoubleTensor operand, StructuredPartial partial) {
+        return operand.getLength() == 1 || Arrays.equals(operand.getShape(), partial.ofShape);
     }
 
     private DoubleTensor elementWiseMultiplyDiff(DoubleTensor partial, DoubleTensor multiplier) {
@@ -205,7 +304,7 @@ public class PartialDerivatives {
     public static PartialDerivatives matrixMultiply(PartialDerivatives partials, DoubleTensor multiplier, boolean partialIsLeft) {
         Map<Long, DoubleTensor> multiplied = new HashMap<>();
 
-        for (Map.Entry<Long, DoubleTensor> partial : partials.derivativeWithRespectTo.entrySet()) {
+        for (Map.Entry<Long, DoubleTensor> partial : partials.asMap().entrySet()) {
 
             int partialRank = partial.getValue().getRank();
 
@@ -230,6 +329,7 @@ public class PartialDerivatives {
 
     public PartialDerivatives multiplyBy(double multiplier) {
         Map<Long, DoubleTensor> multiplied = new HashMap<>();
+        Map<Long, StructuredPartial> multipliedStructured = new HashMap<>();
 
         for (Map.Entry<Long, DoubleTensor> entry : derivativeWithRespectTo.entrySet()) {
             long k = entry.getKey();
@@ -237,24 +337,42 @@ public class PartialDerivatives {
             multiplied.put(k, v);
         }
 
-        return new PartialDerivatives(multiplied);
+        for (Map.Entry<Long, StructuredPartial> entry : structuredWithRespectTo.entrySet()) {
+            multipliedStructured.put(entry.getKey(), entry.getValue().times(multiplier));
+        }
+
+        return new PartialDerivatives(multiplied, multipliedStructured);
     }
 
     public PartialDerivatives divideBy(DoubleTensor divisor) {
         Map<Long, DoubleTensor> divided = new HashMap<>();
+        Map<Long, StructuredPartial> dividedStructured = new HashMap<>();
 
         for (Map.Entry<Long, DoubleTensor> entry : derivativeWithRespectTo.entrySet()) {
             long k = entry.getKey();
             DoubleTensor partial = entry.getValue();
-            DoubleTensor v = partial.div(increaseRankByAppendingOnesToShape(divisor, partial.getRank()));
-            divided.put(k, v);
+            divided.put(k, divideDense(partial, divisor));
         }
 
-        return new PartialDerivatives(divided);
+        for (Map.Entry<Long, StructuredPartial> entry : structuredWithRespectTo.entrySet()) {
+            StructuredPartial partial = entry.getValue();
+            if (isElementwiseOperand(divisor, partial)) {
+                dividedStructured.put(entry.getKey(), partial.div(divisor));
+            } else {
+                divided.put(entry.getKey(), divideDense(partial.toDense(), divisor));
+            }
+        }
+
+        return new PartialDerivatives(divided, dividedStructured);
+    }
+
+    private static DoubleTensor divideDense(DoubleTensor partial, DoubleTensor divisor) {
+        return partial.div(increaseRankByAppendingOnesToShape(divisor, partial.getRank()));
     }
 
     public PartialDerivatives divideBy(double divisor) {
         Map<Long, DoubleTensor> divided = new HashMap<>();
+        Map<Long, StructuredPartial> dividedStructured = new HashMap<>();
 
         for (Map.Entry<Long, DoubleTensor> entry : derivativeWithRespectTo.entrySet()) {
             long k = entry.getKey();
@@ -262,11 +380,16 @@ public class PartialDerivatives {
             divided.put(k, v);
         }
 
-        return new PartialDerivatives(divided);
+        for (Map.Entry<Long, StructuredPartial> entry : structuredWithRespectTo.entrySet()) {
+            dividedStructured.put(entry.getKey(), entry.getValue().div(DoubleTensor.scalar(divisor)));
+        }
+
+        return new PartialDerivatives(divided, dividedStructured);
     }
 
     public PartialDerivatives powerTo(double power) {
         Map<Long, DoubleTensor> powered = new HashMap<>();
+        Map<Long, StructuredPartial> poweredStructured = new HashMap<>();
 
         for (Map.Entry<Long, DoubleTensor> entry : derivativeWithRespectTo.entrySet()) {
             long k = entry.getKey();
@@ -274,40 +397,76 @@ public class PartialDerivatives {
             powered.put(k, v);
         }
 
-        return new PartialDerivatives(powered);
+        for (Map.Entry<Long, StructuredPartial> entry : structuredWithRespectTo.entrySet()) {
+            StructuredPartial v = entry.getValue().pow(power);
+            if (v != null) {
+                poweredStructured.put(entry.getKey(), v);
+            } else {
+                powered.put(entry.getKey(), entry.getValue().toDense().pow(power));
+            }
+        }
+
+        return new PartialDerivatives(powered, poweredStructured);
     }
 
     public PartialDerivatives clone() {
-        return new PartialDerivatives(cloneInfinitesimals(derivativeWithRespectTo));
+        return new PartialDerivatives(
+            cloneInfinitesimals(derivativeWithRespectTo),
+            new HashMap<>(structuredWithRespectTo)
+        );
     }
 
     public PartialDerivatives reshape(int currentRank, int[] proposedShape) {
         Map<Long, DoubleTensor> reshapedDerivatives = new HashMap<>();
+        Map<Long, StructuredPartial> reshapedStructured = new HashMap<>();
 
         for (Map.Entry<Long, DoubleTensor> partialDerivative : derivativeWithRespectTo.entrySet()) {
-            int[] shape = partialDerivative.getValue().getShape();
-            int[] wrtShape = extractWrtShape(shape, currentRank);
-            int[] newPartialShape = TensorShape.concat(proposedShape, wrtShape);
+            reshapedDerivatives.put(partialDerivative.getKey(), reshapeDense(partialDerivative.getValue(), currentRank, proposedShape));
+        }
 
-            DoubleTensor reshapedPartialDerivative = partialDerivative.getValue().reshape(newPartialShape);
-            reshapedDerivatives.put(partialDerivative.getKey(), reshapedPartialDerivative);
+        for (Map.Entry<Long, StructuredPartial> entry : structuredWithRespectTo.entrySet()) {
+            StructuredPartial partial = entry.getValue();
+            if (partial.ofShape.length == currentRank) {
+                reshapedStructured.put(entry.getKey(), partial.reshapeOf(proposedShape));
+            } else {
+                reshapedDerivatives.put(entry.getKey(), reshapeDense(partial.toDense(), currentRank, proposedShape));
+            }
         }
 
-        return new PartialDerivatives(reshapedDerivatives);
+        return new PartialDerivatives(reshapedDerivatives, reshapedStructured);
+    }
+
+    private DoubleTensor reshapeDense(DoubleTensor partial, int currentRank, int[] proposedShape) {
+        int[] wrtShape = extractWrtShape(partial.getShape(), currentRank);
+        int[] newPartialShape = TensorShape.concat(proposedShape, wrtShape);
+        return partial.reshape(newPartialShape);
     }
 
     public PartialDerivatives slice(int dimension, int index) {
         Map<Long, DoubleTensor> slicedDerivatives = new HashMap<>();
+        Map<Long, StructuredPartial> slicedStructured = new HashMap<>();
 
         for (Map.Entry<Long, DoubleTensor> partialDerivative : derivativeWithRespectTo.entrySet()) {
-            int[] partialDerivativeShape = partialDerivative.getValue().getShape();
-            partialDerivativeShape[dimension] = 1;
-            DoubleTensor slicedPartialDerivative = partialDerivative.getValue().slice(dimension, index);
-            slicedPartialDerivative = slicedPartialDerivative.reshape(partialDerivativeShape);
-            slicedDerivatives.put(partialDerivative.getKey(), slicedPartialDerivative);
+            slicedDerivatives.put(partialDerivative.getKey(), sliceDense(partialDerivative.getValue(), dimension, index));
         }
 
-        return new PartialDerivatives(slicedDerivatives);
+        for (Map.Entry<Long, StructuredPartial> entry : structuredWithRespectTo.entrySet()) {
+            StructuredPartial partial = entry.getValue();
+            if (dimension < partial.ofShape.length) {
+                slicedStructured.put(entry.getKey(), partial.sliceOf(dimension, index));
+            } else {
+                slicedDerivatives.put(entry.getKey(), sliceDense(partial.toDense(), dimension, index));
+            }
+        }
+
+        return new PartialDerivatives(slicedDerivatives, slicedStructured);
+    }
+
+    private static DoubleTensor sliceDense(DoubleTensor partial, int dimension, int index) {
+        int[] partialDerivativeShape = partial.getShape();
+        partialDerivativeShape[dimension] = 1;
+        DoubleTensor slicedPartialDerivative = partial.slice(dimension, index);
+        return slicedPartialDerivative.reshape(partialDerivativeShape);
     }
 
     private static Map<Long, DoubleTensor> cloneInfinitesimals(Map<Long, DoubleTensor> infinitesimals) {
@@ -0,0 +1,176 @@
+package io.improbable.keanu.vertices.dbl.nonprobabilistic.diff;
+
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+
+import java.util.Arrays;
+
+/**
+ * A partial stored in coordinate (COO) form as a list of non-zero entries, each with the flat index of the "of"
+ * element, the flat index of the "wrt" element and the value. Entries with the same indices are summed.
+ */
+final class SparsePartial extends StructuredPartial {
+
+    private final int[] ofIndices;
+    private final int[] wrtIndices;
+    private final double[] values;
+
+    SparsePartial(int[] ofIndices, int[] wrtIndices, double[] values, int[] ofShape, int[] wrtShape) {
+        super(ofShape, wrtShape);
+        this.ofIndices = ofIndices;
+        this.wrtIndices = wrtIndices;
+        this.values = values;
+    }
+
+    int getEntryCount() {
+        return values.length;
+    }
+
+    @Override
+    DoubleTensor toDense() {
+        double[] dense = new double[ofLength * wrtLength];
+        for (int i = 0; i < values.length; i++) {
+            dense[ofIndices[i] * wrtLength + wrtIndices[i]] += values[i];
+        }
+        return DoubleTensor.create(dense, getDenseShape());
+    }
+
+    @Override
+    SparsePartial toSparse() {
+        return this;
+    }
+
+    @Override
+    StructuredPartial times(DoubleTensor multiplier) {
+        double[] multipliers = multiplier.asFlatDoubleArray();
+        if (multipliers.length == 1) {
+            return times(multipliers[0]);
+        }
+
+        double[] multiplied = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            multiplied[i] = values[i] * multipliers[ofIndices[i]];
+        }
+        return new SparsePartial(ofIndices, wrtIndices, multiplied, ofShape, wrtShape);
+    }
+
+    @Override
+    StructuredPartial times(double multiplier) {
+        double[] multiplied = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            multiplied[i] = values[i] * multiplier;
+        }
+        return new SparsePartial(ofIndices, wrtIndices, multiplied, ofShape, wrtShape);
+    }
+
+    @Override
+    StructuredPartial div(DoubleTensor divisor) {
+        double[] divisors = divisor.asFlatDoubleArray();
+        double[] divided = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            divided[i] = values[i] / divisors[divisors.length == 1 ? 0 : ofIndices[i]];
+        }
+        return new SparsePartial(ofIndices, wrtIndices, divided, ofShape, wrtShape);
+    }
+
+    @Override
+    StructuredPartial plus(StructuredPartial that) {
+        if (!hasSameShape(that)) {
+            return null;
+        }
+        SparsePartial other = that.toSparse();
+        return new SparsePartial(
+            concat(ofIndices, other.ofIndices),
+            concat(wrtIndices, other.wrtIndices),
+            concat(values, other.values),
+            ofShape,
+            wrtShape
+        );
+    }
+
+    /**
+     * Entries with the same indices would have to be summed before raising to a power, so this is only
+     * structured when there are none.
+     */
+    @Override
+    StructuredPartial pow(double power) {
+        if (!(power > 0) || hasDuplicateEntries()) {
+            return null;
+        }
+        double[] powered = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            powered[i] = Math.pow(values[i], power);
+        }
+        return new SparsePartial(ofIndices, wrtIndices, powered, ofShape, wrtShape);
+    }
+
+    @Override
+    StructuredPartial reshapeOf(int[] proposedOfShape) {
+        return new SparsePartial(ofIndices, wrtIndices, values, proposedOfShape, wrtShape);
+    }
+
+    @Override
+    StructuredPartial sliceOf(int dimension, int index) {
+        int[] slicedOfShape = TensorShape.shapeSlice(dimension, ofShape);
+        int inner = TensorShape.getRowFirstStride(ofShape)[dimension];
+        int dimensionLength = ofShape[dimension];
+
+        int count = 0;
+        int[] slicedOfIndices = new int[values.length];
+        int[] slicedWrtIndices = new int[values.length];
+        double[] slicedValues = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            int outer = ofIndices[i] / (inner * dimensionLength);
+            int position = (ofIndices[i] / inner) % dimensionLength;
+            if (position == index) {
+                slicedOfIndices[count] = outer * inner + ofIndices[i] % inner;
+                slicedWrtIndices[count] = wrtIndices[i];
+                slicedValues[count] = values[i];
+                count++;
+            }
+        }
+
+        return new SparsePartial(
+            Arrays.copyOf(slicedOfIndices, count),
+            Arrays.copyOf(slicedWrtIndices, count),
+            Arrays.copyOf(slicedValues, count),
+            slicedOfShape,
+            wrtShape
+        );
+    }
+
+    @Override
+    DoubleTensor sumOverOf() {
+        double[] sum = new double[wrtLength];
+        for (int i = 0; i < values.length; i++) {
+            sum[wrtIndices[i]] += values[i];
+        }
+        return DoubleTensor.create(sum, wrtShape);
+    }
+
+    private boolean hasDuplicateEntries() {
+        long[] keys = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            keys[i] = (long) ofIndices[i] * wrtLength + wrtIndices[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i] == keys[i - 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static double[] concat(double[] first, double[] second) {
+        double[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+package io.improbable.keanu.vertices.dbl.nonprobabilistic.diff;
+
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+
+import java.util.Arrays;
+
+/**
+ * A partial derivative of an "of" tensor with respect to a "with respect to" (wrt) tensor that is mostly zeros
+ * and so is stored by its structure rather than as a dense tensor of shape [ofShape, wrtShape]. Operations
+ * return null when the result can no longer be represented in a structured form, in which case the caller
+ * falls back to the dense partial.
+ */
+abstract class StructuredPartial {
+
+    protected final int[] ofShape;
+    protected final int[] wrtShape;
+    protected final int ofLength;
+    protected final int wrtLength;
+
+    StructuredPartial(int[] ofShape, int[] wrtShape) {
+        this.ofShape = ofShape;
+        this.wrtShape = wrtShape;
+        this.ofLength = (int) TensorShape.getLength(ofShape);
+        this.wrtLength = (int) TensorShape.getLength(wrtShape);
+    }
+
+    int[] getOfShape() {
+        return ofShape.clone();
+    }
+
+    int[] getWrtShape() {
+        return wrtShape.clone();
+    }
+
+    int[] getDenseShape() {
+        return TensorShape.concat(ofShape, wrtShape);
+    }
+
+    boolean hasSameShape(StructuredPartial that) {
+        return Arrays.equals(ofShape, that.ofShape) && Arrays.equals(wrtShape, that.wrtShape);
+    }
+
+    /**
+     * @return the partial as a dense tensor of shape [ofShape, wrtShape]
+     */
+    abstract DoubleTensor toDense();
+
+    abstract SparsePartial toSparse();
+
+    /**
+     * @param multiplier a tensor of the same shape as the "of" tensor, or of length 1
+     * @return the partial with every element of the "of" tensor multiplied by the matching multiplier element
+     */
+    abstract StructuredPartial times(DoubleTensor multiplier);
+
+    abstract StructuredPartial times(double multiplier);
+
+    /**
+     * @param divisor a tensor of the same shape as the "of" tensor, or of length 1
+     */
+    abstract StructuredPartial div(DoubleTensor divisor);
+
+    abstract StructuredPartial plus(StructuredPartial that);
+
+    /**
+     * @return the partial with every element raised to the power, or null if zeros would not stay zero
+     */
+    abstract StructuredPartial pow(double power);
+
+    /**
+     * @param proposedOfShape a shape of the same length as the "of" tensor
+     */
+    abstract StructuredPartial reshapeOf(int[] proposedOfShape);
+
+    /**
+     * Takes a slice of the "of" tensor, which keeps its rank with the sliced dimension becoming length 1.
+     */
+    abstract StructuredPartial sliceOf(int dimension, int index);
+
+    /**
+     * @return the sum over every dimension of the "of" tensor, in the shape of the "wrt" tensor
+     */
+    abstract DoubleTensor sumOverOf();
+}
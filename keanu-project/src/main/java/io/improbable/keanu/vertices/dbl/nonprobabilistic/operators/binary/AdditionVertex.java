@@ -1,10 +1,11 @@
 package io.improbable.keanu.vertices.dbl.nonprobabilistic.operators.binary;
 
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Batchable;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.DualNumber;
 
-public class AdditionVertex extends DoubleBinaryOpVertex {
+public class AdditionVertex extends DoubleBinaryOpVertex implements Batchable {
 
     /**
      * Adds one vertex to another
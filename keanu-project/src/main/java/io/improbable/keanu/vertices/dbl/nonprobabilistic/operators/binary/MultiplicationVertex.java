@@ -1,10 +1,11 @@
 package io.improbable.keanu.vertices.dbl.nonprobabilistic.operators.binary;
 
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Batchable;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.DualNumber;
 
-public class MultiplicationVertex extends DoubleBinaryOpVertex {
+public class MultiplicationVertex extends DoubleBinaryOpVertex implements Batchable {
 
     /**
      * Multiplies one vertex by another
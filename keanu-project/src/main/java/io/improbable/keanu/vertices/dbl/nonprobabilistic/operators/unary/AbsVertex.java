@@ -2,10 +2,11 @@ package io.improbable.keanu.vertices.dbl.nonprobabilistic.operators.unary;
 
 
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Batchable;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.DualNumber;
 
-public class AbsVertex extends DoubleUnaryOpVertex {
+public class AbsVertex extends DoubleUnaryOpVertex implements Batchable {
 
     /**
      * Takes the absolute of a vertex
@@ -1,10 +1,11 @@
 package io.improbable.keanu.vertices.dbl.nonprobabilistic.operators.unary;
 
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Batchable;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.DualNumber;
 
-public class TanVertex extends DoubleUnaryOpVertex {
+public class TanVertex extends DoubleUnaryOpVertex implements Batchable {
 
     /**
      * Takes the tangent of a vertex. Tan(vertex).
@@ -13,12 +13,13 @@ import io.improbable.keanu.distributions.continuous.Cauchy;
 import io.improbable.keanu.distributions.dual.Diffs;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.BatchableProbabilistic;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.ConstantDoubleVertex;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.PartialDerivatives;
 
-public class CauchyVertex extends DoubleVertex implements ProbabilisticDouble {
+public class CauchyVertex extends DoubleVertex implements ProbabilisticDouble, BatchableProbabilistic<DoubleTensor> {
 
     private final DoubleVertex location;
     private final DoubleVertex scale;
@@ -84,9 +85,12 @@ public class CauchyVertex extends DoubleVertex implements ProbabilisticDouble {
         DoubleTensor locationValues = location.getValue();
         DoubleTensor scaleValues = scale.getValue();
 
-        DoubleTensor logPdfs = Cauchy.withParameters(locationValues, scaleValues).logProb(value);
+        return Cauchy.withParameters(locationValues, scaleValues).logProbSum(value);
+    }
 
-        return logPdfs.sum();
+    @Override
+    public DoubleTensor logProbs(DoubleTensor value) {
+        return Cauchy.withParameters(location.getValue(), scale.getValue()).logProb(value);
     }
 
     @Override
@@ -115,6 +119,11 @@ public class CauchyVertex extends DoubleVertex implements ProbabilisticDouble {
 
     @Override
     public DoubleTensor sample(KeanuRandom random) {
-        return Cauchy.withParameters(location.getValue(), scale.getValue()).sample(getShape(), random);
+        return sample(getShape(), random);
+    }
+
+    @Override
+    public DoubleTensor sample(int[] shape, KeanuRandom random) {
+        return Cauchy.withParameters(location.getValue(), scale.getValue()).sample(shape, random);
     }
 }
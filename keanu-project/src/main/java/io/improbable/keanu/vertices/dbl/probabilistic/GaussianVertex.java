@@ -13,6 +13,7 @@ import io.improbable.keanu.distributions.continuous.Gaussian;
 import io.improbable.keanu.distributions.dual.Diffs;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.BatchableProbabilistic;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
@@ -20,7 +21,7 @@ import io.improbable.keanu.vertices.dbl.nonprobabilistic.ConstantDoubleVertex;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.DualNumber;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.PartialDerivatives;
 
-public class GaussianVertex extends DoubleVertex implements ProbabilisticDouble {
+public class GaussianVertex extends DoubleVertex implements ProbabilisticDouble, BatchableProbabilistic<DoubleTensor> {
 
     private final DoubleVertex mu;
     private final DoubleVertex sigma;
@@ -86,9 +87,12 @@ public class GaussianVertex extends DoubleVertex implements ProbabilisticDouble
         DoubleTensor muValues = mu.getValue();
         DoubleTensor sigmaValues = sigma.getValue();
 
-        DoubleTensor logPdfs = Gaussian.withParameters(muValues, sigmaValues).logProb(value);
+        return Gaussian.withParameters(muValues, sigmaValues).logProbSum(value);
+    }
 
-        return logPdfs.sum();
+    @Override
+    public DoubleTensor logProbs(DoubleTensor value) {
+        return Gaussian.withParameters(mu.getValue(), sigma.getValue()).logProb(value);
     }
 
     @Override
@@ -118,7 +122,12 @@ public class GaussianVertex extends DoubleVertex implements ProbabilisticDouble
 
     @Override
     public DoubleTensor sample(KeanuRandom random) {
-        return Gaussian.withParameters(mu.getValue(), sigma.getValue()).sample(getShape(), random);
+        return sample(getShape(), random);
+    }
+
+    @Override
+    public DoubleTensor sample(int[] shape, KeanuRandom random) {
+        return Gaussian.withParameters(mu.getValue(), sigma.getValue()).sample(shape, random);
     }
 
     @Override
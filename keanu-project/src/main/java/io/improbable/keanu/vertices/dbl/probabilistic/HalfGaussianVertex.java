@@ -42,8 +42,18 @@ public class HalfGaussianVertex extends GaussianVertex {
         return Double.NEGATIVE_INFINITY;
     }
 
+    /**
+     * The log of the mask of non-negative values is zero where the value is in the support and negative
+     * infinity where it is not.
+     */
+    @Override
+    public DoubleTensor logProbs(DoubleTensor value) {
+        DoubleTensor logOfInSupport = value.getGreaterThanOrEqualToMask(DoubleTensor.scalar(MU_ZERO)).logInPlace();
+        return super.logProbs(value).plusInPlace(LOG_TWO).plusInPlace(logOfInSupport);
+    }
+
     @Override
-    public DoubleTensor sample(KeanuRandom random) {
-        return super.sample(random).absInPlace();
+    public DoubleTensor sample(int[] shape, KeanuRandom random) {
+        return super.sample(shape, random).absInPlace();
     }
 }
@@ -13,12 +13,13 @@ import io.improbable.keanu.distributions.continuous.Laplace;
 import io.improbable.keanu.distributions.dual.Diffs;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.BatchableProbabilistic;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.ConstantDoubleVertex;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.PartialDerivatives;
 
-public class LaplaceVertex extends DoubleVertex implements ProbabilisticDouble {
+public class LaplaceVertex extends DoubleVertex implements ProbabilisticDouble, BatchableProbabilistic<DoubleTensor> {
 
     private final DoubleVertex mu;
     private final DoubleVertex beta;
@@ -71,9 +72,12 @@ public class LaplaceVertex extends DoubleVertex implements ProbabilisticDouble {
         DoubleTensor muValues = mu.getValue();
         DoubleTensor betaValues = beta.getValue();
 
-        DoubleTensor logPdfs = Laplace.withParameters(muValues, betaValues).logProb(value);
+        return Laplace.withParameters(muValues, betaValues).logProbSum(value);
+    }
 
-        return logPdfs.sum();
+    @Override
+    public DoubleTensor logProbs(DoubleTensor value) {
+        return Laplace.withParameters(mu.getValue(), beta.getValue()).logProb(value);
     }
 
     @Override
@@ -102,7 +106,12 @@ public class LaplaceVertex extends DoubleVertex implements ProbabilisticDouble {
 
     @Override
     public DoubleTensor sample(KeanuRandom random) {
-        return Laplace.withParameters(mu.getValue(), beta.getValue()).sample(getShape(), random);
+        return sample(getShape(), random);
+    }
+
+    @Override
+    public DoubleTensor sample(int[] shape, KeanuRandom random) {
+        return Laplace.withParameters(mu.getValue(), beta.getValue()).sample(shape, random);
     }
 
 }
@@ -13,12 +13,13 @@ import io.improbable.keanu.distributions.continuous.LogNormal;
 import io.improbable.keanu.distributions.dual.Diffs;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.BatchableProbabilistic;
 import io.improbable.keanu.vertices.ConstantVertex;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.PartialDerivatives;
 
-public class LogNormalVertex extends DoubleVertex implements ProbabilisticDouble {
+public class LogNormalVertex extends DoubleVertex implements ProbabilisticDouble, BatchableProbabilistic<DoubleTensor> {
 
     private final DoubleVertex mu;
     private final DoubleVertex sigma;
@@ -75,9 +76,12 @@ public class LogNormalVertex extends DoubleVertex implements ProbabilisticDouble
         DoubleTensor muValues = mu.getValue();
         DoubleTensor sigmaValues = sigma.getValue();
 
-        DoubleTensor logPdfs = LogNormal.withParameters(muValues, sigmaValues).logProb(value);
+        return LogNormal.withParameters(muValues, sigmaValues).logProbSum(value);
+    }
 
-        return logPdfs.sum();
+    @Override
+    public DoubleTensor logProbs(DoubleTensor value) {
+        return LogNormal.withParameters(mu.getValue(), sigma.getValue()).logProb(value);
     }
 
     @Override
@@ -106,6 +110,11 @@ public class LogNormalVertex extends DoubleVertex implements ProbabilisticDouble
 
     @Override
     public DoubleTensor sample(KeanuRandom random) {
-        return LogNormal.withParameters(mu.getValue(), sigma.getValue()).sample(getShape(), random);
+        return sample(getShape(), random);
+    }
+
+    @Override
+    public DoubleTensor sample(int[] shape, KeanuRandom random) {
+        return LogNormal.withParameters(mu.getValue(), sigma.getValue()).sample(shape, random);
     }
 }
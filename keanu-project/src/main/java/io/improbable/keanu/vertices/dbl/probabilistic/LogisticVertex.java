@@ -13,12 +13,13 @@ import io.improbable.keanu.distributions.continuous.Logistic;
 import io.improbable.keanu.distributions.dual.Diffs;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.BatchableProbabilistic;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.ConstantDoubleVertex;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.diff.PartialDerivatives;
 
-public class LogisticVertex extends DoubleVertex implements ProbabilisticDouble {
+public class LogisticVertex extends DoubleVertex implements ProbabilisticDouble, BatchableProbabilistic<DoubleTensor> {
 
     private final DoubleVertex mu;
     private final DoubleVertex s;
@@ -63,9 +64,12 @@ public class LogisticVertex extends DoubleVertex implements ProbabilisticDouble
         DoubleTensor muValues = mu.getValue();
         DoubleTensor sValues = s.getValue();
 
-        DoubleTensor logPdfs = Logistic.withParameters(muValues, sValues).logProb(value);
+        return Logistic.withParameters(muValues, sValues).logProbSum(value);
+    }
 
-        return logPdfs.sum();
+    @Override
+    public DoubleTensor logProbs(DoubleTensor value) {
+        return Logistic.withParameters(mu.getValue(), s.getValue()).logProb(value);
     }
 
     @Override
@@ -94,6 +98,11 @@ public class LogisticVertex extends DoubleVertex implements ProbabilisticDouble
 
     @Override
     public DoubleTensor sample(KeanuRandom random) {
-        return Logistic.withParameters(mu.getValue(), s.getValue()).sample(getShape(), random);
+        return sample(getShape(), random);
+    }
+
+    @Override
+    public DoubleTensor sample(int[] shape, KeanuRandom random) {
+        return Logistic.withParameters(mu.getValue(), s.getValue()).sample(shape, random);
     }
 }
@@ -0,0 +1,86 @@
+package io.improbable.keanu.vertices.generic.nonprobabilistic;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.vertices.Vertex;
+
+/**
+ * The results of a conditional probability table, compiled into an array indexed by the bit pattern of the values
+ * of its inputs with the first input as the most significant bit. Looking up a result allocates nothing, unlike
+ * building a {@link CPTCondition} to look it up in a map.
+ * <p>
+ * Tables with more than {@link #MAX_COMPILED_INPUTS} inputs would need too large an array, so are looked up in
+ * the map instead.
+ *
+ * @param <V> the type of the results
+ */
+public class CPTTable<V> {
+
+    public static final int MAX_COMPILED_INPUTS = 16;
+
+    private final Object[] results;
+    private final Map<CPTCondition, ? extends V> conditions;
+    private final V defaultResult;
+
+    /**
+     * @param inputCount    the number of inputs to the table
+     * @param conditions    the result for each condition of the inputs, each of which must have a value per input
+     * @param defaultResult the result of any condition that is not given
+     */
+    public CPTTable(int inputCount, Map<CPTCondition, ? extends V> conditions, V defaultResult) {
+        this.conditions = conditions;
+        this.defaultResult = defaultResult;
+
+        if (inputCount > MAX_COMPILED_INPUTS) {
+            results = null;
+            return;
+        }
+
+        results = new Object[1 << inputCount];
+        Arrays.fill(results, defaultResult);
+        for (Map.Entry<CPTCondition, ? extends V> entry : conditions.entrySet()) {
+            Boolean[] condition = entry.getKey().getConditions();
+            if (condition.length != inputCount) {
+                throw new IllegalArgumentException(
+                    "Condition " + Arrays.toString(condition) + " does not have a value for each of " + inputCount + " inputs"
+                );
+            }
+
+            int index = 0;
+            for (Boolean value : condition) {
+                index = (index << 1) | (value ? 1 : 0);
+            }
+            results[index] = entry.getValue();
+        }
+    }
+
+    /**
+     * @return the result for the current values of the inputs
+     */
+    public V get(List<Vertex<? extends Tensor<Boolean>>> inputs) {
+        return get(inputs, v -> v.getValue().scalar());
+    }
+
+    /**
+     * @param inputs the inputs to the table
+     * @param mapper the value of each input
+     * @return the result for the values of the inputs
+     */
+    public V get(List<Vertex<? extends Tensor<Boolean>>> inputs,
+                 Function<Vertex<? extends Tensor<Boolean>>, Boolean> mapper) {
+        if (results == null) {
+            V result = conditions.get(CPTCondition.from(inputs, mapper));
+            return result == null ? defaultResult : result;
+        }
+
+        int index = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            index = (index << 1) | (mapper.apply(inputs.get(i)) ? 1 : 0);
+        }
+        return (V) results[index];
+    }
+}
@@ -11,15 +11,13 @@ import io.improbable.keanu.vertices.dbl.KeanuRandom;
 public class CPTVertex<OUT extends Tensor> extends Vertex<OUT> implements NonProbabilistic<OUT> {
 
     private final List<Vertex<? extends Tensor<Boolean>>> inputs;
-    private final Map<CPTCondition, ? extends Vertex<OUT>> conditions;
-    private final Vertex<OUT> defaultResult;
+    private final CPTTable<Vertex<OUT>> table;
 
     public CPTVertex(List<Vertex<? extends Tensor<Boolean>>> inputs,
                      Map<CPTCondition, ? extends Vertex<OUT>> conditions,
                      Vertex<OUT> defaultResult) {
-        this.conditions = conditions;
         this.inputs = inputs;
-        this.defaultResult = defaultResult;
+        this.table = new CPTTable<>(inputs.size(), conditions, defaultResult);
         addParents(inputs);
         addParents(conditions.values());
         addParent(defaultResult);
@@ -27,16 +25,12 @@ public class CPTVertex<OUT extends Tensor> extends Vertex<OUT> implements NonPro
 
     @Override
     public OUT sample(KeanuRandom random) {
-        final CPTCondition condition = CPTCondition.from(inputs, (vertex) -> vertex.sample(random).scalar());
-        Vertex<OUT> vertex = conditions.get(condition);
-        return vertex == null ? defaultResult.sample(random) : vertex.sample(random);
+        return table.get(inputs, (vertex) -> vertex.sample(random).scalar()).sample(random);
     }
 
     @Override
     public OUT calculate() {
-        final CPTCondition condition = CPTCondition.from(inputs, v -> v.getValue().scalar());
-        Vertex<OUT> vertex = conditions.get(condition);
-        return vertex == null ? defaultResult.getValue() : vertex.getValue();
+        return table.get(inputs).getValue();
     }
 
 }
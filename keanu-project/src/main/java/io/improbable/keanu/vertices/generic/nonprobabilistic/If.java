@@ -12,6 +12,8 @@ import io.improbable.keanu.vertices.dbl.nonprobabilistic.ConstantDoubleVertex;
 import io.improbable.keanu.vertices.dbl.nonprobabilistic.DoubleIfVertex;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 
 public class If {
 
@@ -22,6 +24,35 @@ public class If {
         return new IfThenBuilder(predicate);
     }
 
+    /**
+     * @return the parents that an if vertex reads: only the predicate until it has a value, then the predicate and
+     * whichever branches it selects, which is only one of them if the predicate is all true or all false
+     */
+    public static Collection<Vertex> getSelectedParents(Vertex<? extends BooleanTensor> predicate,
+                                                        Vertex<?> thn,
+                                                        Vertex<?> els) {
+        if (!predicate.hasValue()) {
+            return Collections.singletonList(predicate);
+        }
+        return getSelectedParents(predicate.getValue(), predicate, thn, els);
+    }
+
+    /**
+     * @param predicateValue the value of the predicate
+     * @return the predicate and whichever branches its value selects
+     */
+    public static Collection<Vertex> getSelectedParents(BooleanTensor predicateValue,
+                                                        Vertex<? extends BooleanTensor> predicate,
+                                                        Vertex<?> thn,
+                                                        Vertex<?> els) {
+        if (predicateValue.allTrue()) {
+            return Arrays.asList(predicate, thn);
+        } else if (predicateValue.allFalse()) {
+            return Arrays.asList(predicate, els);
+        }
+        return Arrays.asList(predicate, thn, els);
+    }
+
     public static class IfThenBuilder {
         private final Vertex<? extends BooleanTensor> predicate;
 
@@ -1,5 +1,7 @@
 package io.improbable.keanu.vertices.generic.nonprobabilistic;
 
+import java.util.Collection;
+
 import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
 import io.improbable.keanu.vertices.NonProbabilistic;
@@ -32,8 +34,24 @@ public class IfVertex<T> extends Vertex<Tensor<T>> implements NonProbabilistic<T
         return op(predicate.sample(random), thn.sample(random), els.sample(random));
     }
 
+    /**
+     * Only reads the branch that the predicate selects, if it selects the same one everywhere.
+     */
     @Override
     public Tensor<T> calculate() {
-        return op(predicate.getValue(), thn.getValue(), els.getValue());
+        BooleanTensor predicateValue = predicate.getValue();
+        if (predicateValue.allTrue()) {
+            Tensor<T> thnValue = thn.getValue();
+            return op(predicateValue, thnValue, thnValue);
+        } else if (predicateValue.allFalse()) {
+            Tensor<T> elsValue = els.getValue();
+            return op(predicateValue, elsValue, elsValue);
+        }
+        return op(predicateValue, thn.getValue(), els.getValue());
+    }
+
+    @Override
+    public Collection<? extends Vertex> getCalculationParents() {
+        return If.getSelectedParents(predicate, thn, els);
     }
 }
@@ -1,5 +1,9 @@
 package io.improbable.keanu.vertices.generic.nonprobabilistic;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.vertices.NonProbabilistic;
 import io.improbable.keanu.vertices.Vertex;
@@ -39,4 +43,15 @@ public class MultiplexerVertex<T> extends Vertex<T> implements NonProbabilistic<
         Vertex<T> selector = getSelector();
         return selector.getValue();
     }
+
+    /**
+     * Only the selected vertex is read, once the control has a value.
+     */
+    @Override
+    public Collection<? extends Vertex> getCalculationParents() {
+        if (!selectorControlVertex.hasValue()) {
+            return Collections.singletonList(selectorControlVertex);
+        }
+        return Arrays.asList(selectorControlVertex, getSelector());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package io.improbable.keanu.algorithms;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import io.improbable.keanu.algorithms.mcmc.MetropolisHastings;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import io.improbable.keanu.vertices.dbl.nonprobabilistic.ConstantDoubleVertex;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.generic.nonprobabilistic.If;
+
+public class IndependentComponentSamplingTest {
+
+    @Test
+    public void samplesEachComponentOfTheNetwork() {
+        DoubleVertex A = new GaussianVertex(20.0, 1.0);
+        DoubleVertex B = new GaussianVertex(20.0, 1.0);
+        DoubleVertex AplusB = A.plus(B);
+        DoubleVertex Cobserved = new GaussianVertex(AplusB, 1.0);
+        Cobserved.observe(46.0);
+
+        BernoulliVertex D = new BernoulliVertex(0.5);
+        BernoulliVertex E = new BernoulliVertex(If.isTrue(D).then(0.9).orElse(0.1));
+        E.observe(true);
+
+        BayesianNetwork bayesNet = new BayesianNetwork(Arrays.asList(A, B, Cobserved, D, E));
+        bayesNet.probeForNonZeroProbability(100, new KeanuRandom(1));
+
+        NetworkSamples posteriorSamples = IndependentComponentSampling.withDefaultConfig(new KeanuRandom(1))
+            .getPosteriorSamples(bayesNet, Arrays.asList(AplusB, D), 100000);
+
+        assertEquals(100000, posteriorSamples.size());
+        assertEquals(44.0, posteriorSamples.getDoubleTensorSamples(AplusB).getAverages().scalar(), 0.1);
+        assertEquals(0.9, posteriorSamples.get(D).probability(v -> v.scalar()), 0.01);
+    }
+
+    @Test
+    public void repeatsTheValueOfVerticesThatCannotChange() {
+        DoubleVertex mu = new ConstantDoubleVertex(5.0);
+        DoubleVertex A = new GaussianVertex(mu, 1.0);
+        BayesianNetwork bayesNet = new BayesianNetwork(A.getConnectedGraph());
+
+        NetworkSamples posteriorSamples = IndependentComponentSampling.withDefaultConfig(new KeanuRandom(1))
+            .getPosteriorSamples(bayesNet, Arrays.asList(A, mu), 10);
+
+        assertEquals(Collections.nCopies(10, DoubleTensor.scalar(5.0)), posteriorSamples.get(mu).asList());
+    }
+
+    @Test
+    public void parallelAndSequentialSamplingAgree() {
+        DoubleVertex A = new GaussianVertex(0.0, 1.0);
+        DoubleVertex B = new GaussianVertex(0.0, 1.0);
+        BayesianNetwork bayesNet = new BayesianNetwork(Arrays.asList(A, B));
+
+        IndependentComponentSampling.IndependentComponentSamplingBuilder builder = IndependentComponentSampling.builder()
+            .samplingAlgorithm(MetropolisHastings::withDefaultConfig);
+
+        A.setValue(0.0);
+        B.setValue(0.0);
+        NetworkSamples parallel = builder.random(new KeanuRandom(1)).parallel(true).build()
+            .getPosteriorSamples(bayesNet, Arrays.asList(A, B), 100);
+
+        A.setValue(0.0);
+        B.setValue(0.0);
+        NetworkSamples sequential = builder.random(new KeanuRandom(1)).parallel(false).build()
+            .getPosteriorSamples(bayesNet, Arrays.asList(A, B), 100);
+
+        assertEquals(sequential.get(A).asList(), parallel.get(A).asList());
+        assertEquals(sequential.get(B).asList(), parallel.get(B).asList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNetworksWithoutLatentVertices() {
+        DoubleVertex A = new GaussianVertex(0.0, 1.0);
+        A.observe(1.0);
+        BayesianNetwork bayesNet = new BayesianNetwork(A.getConnectedGraph());
+
+        IndependentComponentSampling.withDefaultConfig().getPosteriorSamples(bayesNet, Collections.singletonList(A), 10);
+    }
+}
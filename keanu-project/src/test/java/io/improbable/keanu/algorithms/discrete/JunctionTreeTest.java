@@ -0,0 +1,174 @@
+package io.improbable.keanu.algorithms.discrete;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.bool.BoolVertex;
+import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.generic.nonprobabilistic.ConditionalProbabilityTable;
+import io.improbable.keanu.vertices.generic.probabilistic.discrete.CategoricalVertex;
+
+public class JunctionTreeTest {
+
+    private static final double EPSILON = 1e-9;
+    private static final BooleanTensor TRUE = BooleanTensor.scalar(true);
+    private static final BooleanTensor FALSE = BooleanTensor.scalar(false);
+
+    private BernoulliVertex cloudy;
+    private BernoulliVertex rain;
+    private BernoulliVertex sprinkler;
+    private BernoulliVertex wetGrass;
+    private JunctionTree junctionTree;
+
+    @Before
+    public void setup() {
+        cloudy = new BernoulliVertex(0.5);
+
+        DoubleVertex probRain = ConditionalProbabilityTable.of(cloudy)
+            .when(true).then(0.8)
+            .orDefault(0.2);
+        rain = new BernoulliVertex(probRain);
+
+        DoubleVertex probSprinkler = ConditionalProbabilityTable.of(cloudy)
+            .when(true).then(0.1)
+            .orDefault(0.5);
+        sprinkler = new BernoulliVertex(probSprinkler);
+
+        DoubleVertex probWetGrass = ConditionalProbabilityTable.of(sprinkler, rain)
+            .when(true, true).then(0.99)
+            .when(true, false).then(0.9)
+            .when(false, true).then(0.9)
+            .orDefault(0.0);
+        wetGrass = new BernoulliVertex(probWetGrass);
+
+        junctionTree = JunctionTree.compile(new BayesianNetwork(wetGrass.getConnectedGraph()));
+    }
+
+    @Test
+    public void matchesVariableEliminationForEachEvidence() {
+        List<Map<Vertex<?>, BooleanTensor>> evidences = Arrays.asList(
+            Collections.emptyMap(),
+            Collections.singletonMap(wetGrass, TRUE),
+            Collections.singletonMap(wetGrass, FALSE),
+            evidence(wetGrass, TRUE, sprinkler, FALSE),
+            evidence(cloudy, TRUE, wetGrass, TRUE)
+        );
+
+        for (Map<Vertex<?>, BooleanTensor> evidence : evidences) {
+            JunctionTree.Posterior posterior = junctionTree.query(evidence);
+
+            for (Map.Entry<Vertex<?>, BooleanTensor> observation : evidence.entrySet()) {
+                ((Vertex<BooleanTensor>) observation.getKey()).observe(observation.getValue());
+            }
+            BayesianNetwork network = new BayesianNetwork(wetGrass.getConnectedGraph());
+            for (BernoulliVertex vertex : Arrays.asList(cloudy, rain, sprinkler, wetGrass)) {
+                assertEquals(VariableElimination.getPosteriorProbability(network, vertex), posterior.getProbability(vertex), EPSILON);
+            }
+            assertEquals(VariableElimination.getLogProbOfObservations(network), posterior.getLogProbOfEvidence(), EPSILON);
+            for (Vertex<?> vertex : evidence.keySet()) {
+                vertex.unobserve();
+            }
+        }
+    }
+
+    @Test
+    public void canGiveEvidenceOnOperatorVertices() {
+        BernoulliVertex a = new BernoulliVertex(0.3);
+        BernoulliVertex b = new BernoulliVertex(0.6);
+        BoolVertex aOrB = a.or(b);
+        JunctionTree tree = JunctionTree.compile(Arrays.asList(a, b, aOrB));
+
+        double pA = tree.getPosteriorProbability(a, Collections.singletonMap(aOrB, TRUE));
+
+        assertEquals(0.3 / (1.0 - 0.7 * 0.4), pA, EPSILON);
+    }
+
+    @Test
+    public void canQueryCategoricalVertices() {
+        Map<String, Double> probabilities = new LinkedHashMap<>();
+        probabilities.put("red", 0.5);
+        probabilities.put("green", 0.3);
+        probabilities.put("blue", 0.2);
+        CategoricalVertex<String> colour = CategoricalVertex.of(probabilities);
+        JunctionTree tree = JunctionTree.compile(Collections.singletonList(colour));
+
+        Map<String, Double> distribution = tree.getPosteriorDistribution(colour, Collections.emptyMap());
+        Map<String, Double> given = tree.getPosteriorDistribution(colour, Collections.singletonMap(colour, "green"));
+
+        assertEquals(0.3, distribution.get("green"), EPSILON);
+        assertEquals(1.0, given.get("green"), EPSILON);
+        assertEquals(0.0, given.get("red"), EPSILON);
+    }
+
+    @Test
+    public void canBeQueriedConcurrently() {
+        double expectedTrue = junctionTree.getPosteriorProbability(rain, Collections.singletonMap(wetGrass, TRUE));
+        double expectedFalse = junctionTree.getPosteriorProbability(rain, Collections.singletonMap(wetGrass, FALSE));
+
+        List<Double> results = IntStream.range(0, 1000).parallel()
+            .mapToObj(i -> junctionTree.getPosteriorProbability(rain, Collections.singletonMap(wetGrass, i % 2 == 0 ? TRUE : FALSE)))
+            .collect(Collectors.toList());
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i % 2 == 0 ? expectedTrue : expectedFalse, results.get(i), 0.0);
+        }
+    }
+
+    @Test
+    public void ignoresAndKeepsObservationsWhenCompiling() {
+        wetGrass.observe(false);
+
+        JunctionTree tree = JunctionTree.compile(new BayesianNetwork(wetGrass.getConnectedGraph()));
+        double pWetGrass = tree.getPosteriorProbability(wetGrass, Collections.emptyMap());
+
+        assertTrue(pWetGrass > 0.0);
+        assertTrue(wetGrass.isObserved());
+        assertEquals(FALSE, wetGrass.getValue());
+    }
+
+    @Test
+    public void givesImpossibleEvidenceZeroProbability() {
+        Map<Vertex<?>, BooleanTensor> evidence = evidence(wetGrass, TRUE, sprinkler, FALSE);
+        evidence.put(rain, FALSE);
+
+        JunctionTree.Posterior posterior = junctionTree.query(evidence);
+
+        assertEquals(Double.NEGATIVE_INFINITY, posterior.getLogProbOfEvidence(), 0.0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotConditionOnImpossibleEvidence() {
+        Map<Vertex<?>, BooleanTensor> evidence = evidence(wetGrass, TRUE, sprinkler, FALSE);
+        evidence.put(rain, FALSE);
+
+        junctionTree.getPosteriorProbability(cloudy, evidence);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEvidenceOnVerticesThatWereNotCompiled() {
+        junctionTree.query(Collections.singletonMap(new BernoulliVertex(0.5), TRUE));
+    }
+
+    private static Map<Vertex<?>, BooleanTensor> evidence(Vertex<?> a, BooleanTensor aValue, Vertex<?> b, BooleanTensor bValue) {
+        Map<Vertex<?>, BooleanTensor> evidence = new HashMap<>();
+        evidence.put(a, aValue);
+        evidence.put(b, bValue);
+        return evidence;
+    }
+}
@@ -0,0 +1,116 @@
+package io.improbable.keanu.algorithms.discrete;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.vertices.bool.BoolVertex;
+import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.generic.nonprobabilistic.ConditionalProbabilityTable;
+
+public class LoopyBeliefPropagationTest {
+
+    private static final BooleanTensor TRUE = BooleanTensor.scalar(true);
+
+    @Test
+    public void isExactOnNetworksWithoutLoops() {
+        List<BernoulliVertex> chain = new ArrayList<>();
+        chain.add(new BernoulliVertex(0.3));
+        for (int i = 1; i < 6; i++) {
+            DoubleVertex probTrue = ConditionalProbabilityTable.of(chain.get(i - 1))
+                .when(true).then(0.9)
+                .orDefault(0.2);
+            chain.add(new BernoulliVertex(probTrue));
+        }
+        chain.get(5).observe(true);
+        BayesianNetwork network = new BayesianNetwork(chain.get(0).getConnectedGraph());
+
+        DiscreteMarginals marginals = LoopyBeliefPropagation.withDefaultConfig().getMarginals(network);
+
+        assertTrue(marginals.hasConverged());
+        for (BernoulliVertex vertex : chain) {
+            double expected = VariableElimination.getPosteriorProbability(network, vertex);
+            assertEquals(expected, marginals.get(vertex).probability(TRUE::equals), 1e-5);
+        }
+    }
+
+    @Test
+    public void isCloseToExactOnNetworksWithLoops() {
+        BernoulliVertex cloudy = new BernoulliVertex(0.5);
+        BernoulliVertex rain = new BernoulliVertex(
+            ConditionalProbabilityTable.of(cloudy).when(true).then(0.8).orDefault(0.2)
+        );
+        BernoulliVertex sprinkler = new BernoulliVertex(
+            ConditionalProbabilityTable.of(cloudy).when(true).then(0.1).orDefault(0.5)
+        );
+        BernoulliVertex wetGrass = new BernoulliVertex(
+            ConditionalProbabilityTable.of(sprinkler, rain)
+                .when(true, true).then(0.99)
+                .when(true, false).then(0.9)
+                .when(false, true).then(0.9)
+                .orDefault(0.0)
+        );
+        wetGrass.observe(true);
+        BayesianNetwork network = new BayesianNetwork(wetGrass.getConnectedGraph());
+
+        DiscreteMarginals marginals = LoopyBeliefPropagation.withDefaultConfig().getMarginals(network);
+
+        //the evidence travels both ways round the loop through cloudy, so is counted more than once
+        assertTrue(marginals.hasConverged());
+        for (BernoulliVertex vertex : Arrays.asList(cloudy, rain, sprinkler)) {
+            double expected = VariableElimination.getPosteriorProbability(network, vertex);
+            assertEquals(expected, marginals.get(vertex).probability(TRUE::equals), 0.1);
+        }
+        assertEquals(1.0, marginals.get(wetGrass).probability(TRUE::equals), 0.0);
+    }
+
+    @Test
+    public void parallelAndSequentialSchedulesAgree() {
+        BernoulliVertex a = new BernoulliVertex(0.3);
+        BernoulliVertex b = new BernoulliVertex(0.6);
+        BoolVertex aOrB = a.or(b);
+        aOrB.observe(true);
+        BayesianNetwork network = new BayesianNetwork(aOrB.getConnectedGraph());
+
+        DiscreteMarginals parallel = LoopyBeliefPropagation.builder().parallel(true).build().getMarginals(network);
+        DiscreteMarginals sequential = LoopyBeliefPropagation.builder().parallel(false).build().getMarginals(network);
+
+        assertEquals(sequential.get(a).asMap(), parallel.get(a).asMap());
+        assertEquals(sequential.getIterations(), parallel.getIterations());
+        assertEquals(0.3 / (1.0 - 0.7 * 0.4), parallel.get(a).probability(TRUE::equals), 1e-5);
+        assertEquals(TRUE, parallel.get(b).getMode());
+    }
+
+    @Test
+    public void stopsAtTheIterationLimit() {
+        BernoulliVertex a = new BernoulliVertex(0.3);
+        BernoulliVertex b = new BernoulliVertex(ConditionalProbabilityTable.of(a).when(true).then(0.9).orDefault(0.2));
+        b.observe(true);
+        BayesianNetwork network = new BayesianNetwork(b.getConnectedGraph());
+
+        DiscreteMarginals marginals = LoopyBeliefPropagation.builder()
+            .maxIterations(1)
+            .tolerance(0.0)
+            .build()
+            .getMarginals(network);
+
+        assertEquals(1, marginals.getIterations());
+        assertEquals(false, marginals.hasConverged());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsVerticesThatAreNotInTheNetwork() {
+        BernoulliVertex a = new BernoulliVertex(0.3);
+        BayesianNetwork network = new BayesianNetwork(a.getConnectedGraph());
+
+        LoopyBeliefPropagation.withDefaultConfig().getMarginals(network).get(new BernoulliVertex(0.5));
+    }
+}
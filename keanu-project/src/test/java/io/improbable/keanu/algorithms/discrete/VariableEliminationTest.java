@@ -0,0 +1,155 @@
+package io.improbable.keanu.algorithms.discrete;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.vertices.bool.BoolVertex;
+import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.generic.nonprobabilistic.ConditionalProbabilityTable;
+import io.improbable.keanu.vertices.generic.probabilistic.discrete.CategoricalVertex;
+
+public class VariableEliminationTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private BernoulliVertex rain;
+    private BernoulliVertex sprinkler;
+    private BernoulliVertex wetGrass;
+
+    @Before
+    public void setup() {
+        rain = new BernoulliVertex(0.2);
+
+        DoubleVertex probSprinkler = ConditionalProbabilityTable.of(rain)
+            .when(true).then(0.01)
+            .orDefault(0.4);
+        sprinkler = new BernoulliVertex(probSprinkler);
+
+        DoubleVertex probWetGrass = ConditionalProbabilityTable.of(sprinkler, rain)
+            .when(true, true).then(0.99)
+            .when(true, false).then(0.9)
+            .when(false, true).then(0.8)
+            .orDefault(0.0);
+        wetGrass = new BernoulliVertex(probWetGrass);
+    }
+
+    @Test
+    public void canFindPriorProbabilityWithoutObservations() {
+        BayesianNetwork network = new BayesianNetwork(wetGrass.getConnectedGraph());
+
+        double pWetGrass = VariableElimination.getPosteriorProbability(network, wetGrass);
+
+        assertEquals(0.2 * (0.01 * 0.99 + 0.99 * 0.8) + 0.8 * 0.4 * 0.9, pWetGrass, EPSILON);
+    }
+
+    @Test
+    public void canConditionOnObservationsThroughCPTs() {
+        wetGrass.observe(true);
+        BayesianNetwork network = new BayesianNetwork(wetGrass.getConnectedGraph());
+
+        double pRain = VariableElimination.getPosteriorProbability(network, rain);
+        double pSprinkler = VariableElimination.getPosteriorProbability(network, sprinkler);
+
+        double pRainAndWet = 0.2 * (0.01 * 0.99 + 0.99 * 0.8);
+        double pSprinklerAndWet = 0.2 * 0.01 * 0.99 + 0.8 * 0.4 * 0.9;
+        double pWet = pRainAndWet + 0.8 * 0.4 * 0.9;
+        assertEquals(pRainAndWet / pWet, pRain, EPSILON);
+        assertEquals(pSprinklerAndWet / pWet, pSprinkler, EPSILON);
+        assertEquals(Math.log(pWet), VariableElimination.getLogProbOfObservations(network), EPSILON);
+    }
+
+    @Test
+    public void canQueryAndConditionOnOperatorVertices() {
+        BernoulliVertex a = new BernoulliVertex(0.3);
+        BernoulliVertex b = new BernoulliVertex(0.6);
+        BoolVertex aOrB = a.or(b);
+        aOrB.observe(true);
+        BoolVertex aAndB = a.and(b);
+        BayesianNetwork network = new BayesianNetwork(aOrB.getConnectedGraph());
+
+        double pA = VariableElimination.getPosteriorProbability(network, a);
+        double pAAndB = VariableElimination.getPosteriorProbability(network, aAndB);
+
+        double pAOrB = 1.0 - 0.7 * 0.4;
+        assertEquals(0.3 / pAOrB, pA, EPSILON);
+        assertEquals(0.3 * 0.6 / pAOrB, pAAndB, EPSILON);
+    }
+
+    @Test
+    public void canFindDistributionOfCategoricalVertex() {
+        Map<String, Double> probabilities = new LinkedHashMap<>();
+        probabilities.put("red", 0.5);
+        probabilities.put("green", 0.3);
+        probabilities.put("blue", 0.2);
+        CategoricalVertex<String> colour = CategoricalVertex.of(probabilities);
+        BayesianNetwork network = new BayesianNetwork(colour.getConnectedGraph());
+
+        Map<String, Double> distribution = VariableElimination.getPosteriorDistribution(network, colour);
+
+        assertEquals(Arrays.asList("red", "green", "blue"), Arrays.asList(distribution.keySet().toArray()));
+        assertEquals(0.5, distribution.get("red"), EPSILON);
+        assertEquals(0.3, distribution.get("green"), EPSILON);
+        assertEquals(0.2, distribution.get("blue"), EPSILON);
+    }
+
+    @Test
+    public void canConditionOnContinuousObservations() {
+        BernoulliVertex a = new BernoulliVertex(0.5);
+        DoubleVertex mu = ConditionalProbabilityTable.of(a)
+            .when(true).then(1.0)
+            .orDefault(-1.0);
+        GaussianVertex x = new GaussianVertex(mu, 1.0);
+        x.observe(1.0);
+        BayesianNetwork network = new BayesianNetwork(x.getConnectedGraph());
+
+        double pA = VariableElimination.getPosteriorProbability(network, a);
+
+        double likelihoodTrue = Math.exp(-0.5 * 0.0);
+        double likelihoodFalse = Math.exp(-0.5 * 4.0);
+        assertEquals(likelihoodTrue / (likelihoodTrue + likelihoodFalse), pA, EPSILON);
+    }
+
+    @Test
+    public void restoresTheValuesOfLatentVertices() {
+        wetGrass.observe(true);
+        rain.setValue(BooleanTensor.scalar(false));
+        sprinkler.setValue(BooleanTensor.scalar(true));
+        BayesianNetwork network = new BayesianNetwork(wetGrass.getConnectedGraph());
+
+        VariableElimination.getPosteriorProbability(network, rain);
+
+        assertEquals(BooleanTensor.scalar(false), rain.getValue());
+        assertEquals(BooleanTensor.scalar(true), sprinkler.getValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsImpossibleObservations() {
+        BernoulliVertex a = new BernoulliVertex(0.5);
+        BoolVertex aAndNotA = a.and(BoolVertex.not(a));
+        aAndNotA.observe(true);
+        BayesianNetwork network = new BayesianNetwork(aAndNotA.getConnectedGraph());
+
+        VariableElimination.getPosteriorProbability(network, a);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsLatentContinuousVertices() {
+        GaussianVertex mu = new GaussianVertex(0.0, 1.0);
+        GaussianVertex x = new GaussianVertex(mu, 1.0);
+        x.observe(1.0);
+        BernoulliVertex a = new BernoulliVertex(0.5);
+        BayesianNetwork network = new BayesianNetwork(x.getConnectedGraph());
+
+        VariableElimination.getPosteriorProbability(network, a);
+    }
+}
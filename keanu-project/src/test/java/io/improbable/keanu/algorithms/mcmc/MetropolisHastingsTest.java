@@ -4,21 +4,29 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.mcmc.proposal.ProposalDistribution;
 import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.LambdaSectionIndex;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.bool.BoolVertex;
 import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import io.improbable.keanu.vertices.dbl.nonprobabilistic.operators.unary.DoubleUnaryOpLambda;
 import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
 import io.improbable.keanu.vertices.generic.nonprobabilistic.If;
 
@@ -277,4 +285,164 @@ public class MetropolisHastingsTest {
         assertEquals(0.0, averageA, 0.1);
     }
 
+    @Test
+    public void latentsThatAffectEachOtherAreGivenDifferentColours() {
+        DoubleVertex A = new GaussianVertex(0.0, 1.0);
+        DoubleVertex B = new GaussianVertex(0.0, 1.0);
+        DoubleVertex C = new GaussianVertex(A.plus(B), 1.0);
+        C.observe(1.0);
+        DoubleVertex D = new GaussianVertex(0.0, 1.0);
+
+        List<Vertex> latents = Arrays.asList(A, B, D);
+        List<List<Vertex>> colours = MetropolisHastings.ParallelSweepSampler.colourByConflicts(
+            latents,
+            LambdaSectionIndex.of(latents)
+        );
+
+        assertEquals(Arrays.asList(Arrays.asList(A, D), Collections.singletonList(B)), colours);
+    }
+
+    @Test
+    public void parallelSweepsSampleHierarchicalPosterior() {
+        DoubleVertex mu = new GaussianVertex(0.0, 1.0);
+        List<Vertex> latents = new ArrayList<>();
+        latents.add(mu);
+        for (int i = 0; i < 8; i++) {
+            DoubleVertex x = new GaussianVertex(mu, 1.0);
+            new GaussianVertex(x, 1.0).observe(2.0);
+            latents.add(x);
+        }
+        BayesianNetwork bayesNet = new BayesianNetwork(mu.getConnectedGraph());
+
+        assertEquals(2, MetropolisHastings.ParallelSweepSampler.colourByConflicts(
+            latents,
+            LambdaSectionIndex.of(latents)
+        ).size());
+
+        NetworkSamples posteriorSamples = MetropolisHastings.builder()
+            .random(random)
+            .parallelSweeps(true)
+            .build()
+            .getPosteriorSamples(bayesNet, Collections.singletonList(mu), 50000);
+
+        //each observation is N(mu, 2) once its x is integrated out
+        double expectedMu = (8 * 2.0 / 2.0) / (1.0 + 8 / 2.0);
+        assertEquals(expectedMu, posteriorSamples.getDoubleTensorSamples(mu).getAverages().scalar(), 0.1);
+    }
+
+    @Test
+    public void parallelSweepsAreReproducible() {
+        DoubleVertex mu = new GaussianVertex(0.0, 1.0);
+        List<DoubleVertex> xs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            DoubleVertex x = new GaussianVertex(mu, 1.0);
+            new GaussianVertex(x, 1.0).observe(i);
+            xs.add(x);
+        }
+        BayesianNetwork bayesNet = new BayesianNetwork(mu.getConnectedGraph());
+
+        List<List<?>> runs = new ArrayList<>();
+        for (int run = 0; run < 2; run++) {
+            mu.setValue(0.0);
+            xs.forEach(x -> x.setValue(0.0));
+            NetworkSamples samples = MetropolisHastings.builder()
+                .random(new KeanuRandom(1))
+                .parallelSweeps(true)
+                .build()
+                .getPosteriorSamples(bayesNet, xs, 100);
+            runs.add(samples.get(xs.get(19)).asList());
+        }
+
+        assertEquals(runs.get(0), runs.get(1));
+    }
+
+    @Test
+    public void parallelSweepsDoNotDependOnTheNumberOfThreads() {
+        DoubleVertex mu = new GaussianVertex(0.0, 1.0);
+        List<Vertex> xs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            DoubleVertex x = new GaussianVertex(mu, 1.0);
+            new GaussianVertex(x, 1.0).observe(i % 7);
+            xs.add(x);
+        }
+        BayesianNetwork bayesNet = new BayesianNetwork(mu.getConnectedGraph());
+
+        List<List<?>> runs = new ArrayList<>();
+        for (int threads : new int[]{1, 4}) {
+            mu.setValue(0.0);
+            xs.forEach(x -> x.setValue(DoubleTensor.scalar(0.0)));
+            MetropolisHastings.ParallelSweepSampler sampler = new MetropolisHastings.ParallelSweepSampler(
+                bayesNet.getLatentVertices(),
+                xs,
+                ProposalDistribution.usePrior(),
+                true,
+                new KeanuRandom(1),
+                bayesNet.getLogOfMasterP(),
+                null,
+                threads
+            );
+            NetworkSamples samples = new NetworkSamplesGenerator(sampler).generate(100);
+            runs.add(samples.get(xs.get(99)).asList());
+        }
+
+        assertEquals(runs.get(0), runs.get(1));
+    }
+
+    @Test
+    public void ifBranchesSharedByLatentsOfAColourAreCalculatedBeforeTheColour() {
+        DoubleVertex Q = new GaussianVertex(0.0, 1.0);
+        DoubleVertex S = Q.times(2.0);
+        BernoulliVertex R1 = new BernoulliVertex(0.5);
+        BernoulliVertex R2 = new BernoulliVertex(0.5);
+        new GaussianVertex(If.isTrue(R1).then(S).orElse(0.0), 1.0).observe(1.0);
+        new GaussianVertex(If.isTrue(R2).then(S).orElse(0.0), 1.0).observe(1.0);
+
+        List<Vertex> latents = Arrays.asList(Q, R1, R2);
+        LambdaSectionIndex index = LambdaSectionIndex.of(latents);
+        List<List<Vertex>> colours = MetropolisHastings.ParallelSweepSampler.colourByConflicts(latents, index);
+
+        assertEquals(Arrays.asList(Collections.singletonList(Q), Arrays.asList(R1, R2)), colours);
+        assertTrue(MetropolisHastings.ParallelSweepSampler.getVerticesReadOutsideSections(colours.get(1), index).contains(S));
+    }
+
+    @Test
+    public void parallelSweepsNeverCalculateASharedIfBranchTwiceAtOnce() {
+        AtomicInteger calculating = new AtomicInteger(0);
+        AtomicInteger overlaps = new AtomicInteger(0);
+
+        DoubleVertex Q = new GaussianVertex(0.0, 1.0);
+        DoubleVertex S = new DoubleUnaryOpLambda<>(Q, q -> {
+            if (calculating.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            //gives any other thread calculating it at the same time the chance to be seen
+            LockSupport.parkNanos(100_000);
+            DoubleTensor result = q.times(2.0);
+            calculating.decrementAndGet();
+            return result;
+        });
+
+        List<BernoulliVertex> predicates = new ArrayList<>();
+        List<DoubleVertex> ifs = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            BernoulliVertex R = new BernoulliVertex(0.5);
+            DoubleVertex ifVertex = If.isTrue(R).then(S).orElse(0.0);
+            new GaussianVertex(ifVertex, 1.0).observe(1.0);
+            predicates.add(R);
+            ifs.add(ifVertex);
+        }
+        BayesianNetwork bayesNet = new BayesianNetwork(Q.getConnectedGraph());
+
+        MetropolisHastings.builder()
+            .random(random)
+            .parallelSweeps(true)
+            .build()
+            .getPosteriorSamples(bayesNet, Collections.singletonList(Q), 2000);
+
+        assertEquals(0, overlaps.get());
+        for (int i = 0; i < ifs.size(); i++) {
+            double expected = predicates.get(i).getValue().scalar() ? 2.0 * Q.getValue().scalar() : 0.0;
+            assertEquals(expected, ifs.get(i).getValue().scalar(), 1e-10);
+        }
+    }
 }
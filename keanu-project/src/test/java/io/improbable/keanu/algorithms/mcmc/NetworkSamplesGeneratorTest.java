@@ -1,7 +1,10 @@
 package io.improbable.keanu.algorithms.mcmc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -10,8 +13,15 @@ import java.util.stream.Collectors;
 
 import org.junit.Test;
 
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.mcmc.diagnostics.ConvergenceDiagnostics;
+import io.improbable.keanu.algorithms.summary.SampleSummaries;
+import io.improbable.keanu.network.BayesianNetwork;
 import io.improbable.keanu.network.NetworkState;
 import io.improbable.keanu.network.SimpleNetworkState;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
 import lombok.Value;
 
 public class NetworkSamplesGeneratorTest {
@@ -59,6 +69,125 @@ public class NetworkSamplesGeneratorTest {
         assertEquals(totalCollected, algorithm.sampleCount.get());
     }
 
+    @Test
+    public void summarizesExpectedNumberOfSamples() {
+
+        AtomicInteger stepCount = new AtomicInteger(0);
+        AtomicInteger sampleCount = new AtomicInteger(0);
+
+        TestSamplingAlgorithm algorithm = new TestSamplingAlgorithm(stepCount, sampleCount);
+        NetworkSamplesGenerator unitUnderTest = new NetworkSamplesGenerator(algorithm);
+
+        int totalGenerated = 12;
+        int dropCount = 3;
+        int downSampleInterval = 2;
+        unitUnderTest.dropCount(dropCount).downSampleInterval(downSampleInterval);
+        SampleSummaries summaries = unitUnderTest.summarize(totalGenerated, new SampleSummaries(Collections.emptyList()));
+
+        int expectedCollected = (int) Math.ceil((totalGenerated - dropCount) / (double) downSampleInterval);
+        assertEquals(totalGenerated, algorithm.stepCount.get() + algorithm.sampleCount.get());
+        assertEquals(expectedCollected, summaries.getSampleCount());
+    }
+
+    @Test
+    public void stopsGeneratingOnceEffectiveSampleSizeIsReached() {
+
+        DoubleVertex A = new GaussianVertex(0.0, 1.0);
+        DoubleVertex B = new GaussianVertex(A, 1.0);
+        B.observe(1.0);
+        BayesianNetwork bayesNet = new BayesianNetwork(Arrays.asList(A, B));
+
+        ConvergenceDiagnostics diagnostics = new ConvergenceDiagnostics(Collections.singletonList(A));
+        NetworkSamples samples = MetropolisHastings.withDefaultConfig()
+            .generatePosteriorSamples(bayesNet, Collections.singletonList(A))
+            .dropCount(100)
+            .convergenceDiagnostics(diagnostics)
+            .generateUntilEffectiveSampleSize(200, Duration.ofMinutes(1));
+
+        assertTrue(diagnostics.getSnapshot().getMinEffectiveSampleSize() >= 200);
+        assertEquals(diagnostics.getSampleCount(), samples.size());
+        assertEquals(0.5, samples.getDoubleTensorSamples(A).getAverages().scalar(), 0.2);
+    }
+
+    @Test
+    public void stopsAsSoonAsAConstantChainReachesEffectiveSampleSize() {
+
+        DoubleVertex A = new GaussianVertex(0.0, 1.0);
+        NetworkState constantState = new SimpleNetworkState(Collections.singletonMap(A.getId(), DoubleTensor.scalar(1.0)));
+        SamplingAlgorithm algorithm = new SamplingAlgorithm() {
+            @Override
+            public void step() {
+            }
+
+            @Override
+            public void sample(Map<Long, List<?>> samples) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public NetworkState sample() {
+                return constantState;
+            }
+        };
+
+        NetworkSamples samples = new NetworkSamplesGenerator(algorithm)
+            .compressSamples(true)
+            .convergenceDiagnostics(new ConvergenceDiagnostics(Collections.singletonList(A)))
+            .generateUntilEffectiveSampleSize(150, Duration.ofMinutes(1));
+
+        assertEquals(150, samples.size());
+    }
+
+    @Test
+    public void stopsGeneratingWhenTimeBudgetIsUsed() {
+
+        AtomicInteger stepCount = new AtomicInteger(0);
+        AtomicInteger sampleCount = new AtomicInteger(0);
+
+        TestSamplingAlgorithm algorithm = new TestSamplingAlgorithm(stepCount, sampleCount);
+        NetworkSamplesGenerator unitUnderTest = new NetworkSamplesGenerator(algorithm)
+            .convergenceDiagnostics(new ConvergenceDiagnostics(Collections.emptyList()));
+
+        NetworkSamples samples = unitUnderTest.generateUntilEffectiveSampleSize(100, Duration.ofMillis(50));
+
+        assertEquals(sampleCount.get(), samples.size());
+    }
+
+    @Test(timeout = 10000)
+    public void stopsDroppingSamplesWhenTimeBudgetIsUsed() {
+
+        AtomicInteger stepCount = new AtomicInteger(0);
+        AtomicInteger sampleCount = new AtomicInteger(0);
+
+        TestSamplingAlgorithm algorithm = new TestSamplingAlgorithm(stepCount, sampleCount);
+        NetworkSamplesGenerator unitUnderTest = new NetworkSamplesGenerator(algorithm)
+            .dropCount(Integer.MAX_VALUE)
+            .convergenceDiagnostics(new ConvergenceDiagnostics(Collections.emptyList()));
+
+        NetworkSamples samples = unitUnderTest.generateUntilEffectiveSampleSize(100, Duration.ofMillis(50));
+
+        assertTrue(stepCount.get() < Integer.MAX_VALUE);
+        assertEquals(0, samples.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDiagnosticsOfVerticesThatAreNotSampled() {
+
+        DoubleVertex A = new GaussianVertex(0.0, 1.0);
+        TestSamplingAlgorithm algorithm = new TestSamplingAlgorithm(new AtomicInteger(0), new AtomicInteger(0));
+
+        new NetworkSamplesGenerator(algorithm)
+            .convergenceDiagnostics(new ConvergenceDiagnostics(Collections.singletonList(A)))
+            .generate(10);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotStopOnEffectiveSampleSizeWithoutDiagnostics() {
+
+        TestSamplingAlgorithm algorithm = new TestSamplingAlgorithm(new AtomicInteger(0), new AtomicInteger(0));
+        new NetworkSamplesGenerator(algorithm).generateUntilEffectiveSampleSize(100, Duration.ofSeconds(1));
+    }
+
     @Value
     public static class TestSamplingAlgorithm implements SamplingAlgorithm {
 
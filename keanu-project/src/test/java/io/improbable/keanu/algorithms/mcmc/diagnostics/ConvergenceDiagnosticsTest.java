@@ -0,0 +1,70 @@
+package io.improbable.keanu.algorithms.mcmc.diagnostics;
+
+import io.improbable.keanu.network.SimpleNetworkState;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConvergenceDiagnosticsTest {
+
+    @Test
+    public void tracksRunningMomentsOverEverySample() {
+        DoubleVertex vertex = new GaussianVertex(new int[]{1, 2}, 0.0, 1.0);
+        ConvergenceDiagnostics diagnostics = new ConvergenceDiagnostics(Collections.singletonList(vertex), 64);
+
+        Random random = new Random(1);
+        int sampleCount = 5000;
+        for (int i = 0; i < sampleCount; i++) {
+            DoubleTensor value = DoubleTensor.create(new double[]{random.nextGaussian(), 3 + 2 * random.nextGaussian()}, new int[]{1, 2});
+            diagnostics.update(new SimpleNetworkState(Collections.singletonMap(vertex.getId(), value)));
+        }
+
+        ConvergenceDiagnostics.Snapshot snapshot = diagnostics.recalculate();
+        ConvergenceDiagnostics.VertexDiagnostics vertexDiagnostics = snapshot.get(vertex);
+
+        assertEquals(sampleCount, snapshot.getSampleCount());
+        assertEquals(0.0, vertexDiagnostics.getMean()[0], 0.1);
+        assertEquals(3.0, vertexDiagnostics.getMean()[1], 0.1);
+        assertEquals(1.0, vertexDiagnostics.getVariance()[0], 0.1);
+        assertEquals(4.0, vertexDiagnostics.getVariance()[1], 0.4);
+        assertEquals(1.0, snapshot.getMaxSplitRHat(), 0.1);
+        assertTrue(snapshot.getMinEffectiveSampleSize() <= sampleCount);
+    }
+
+    @Test
+    public void snapshotIsNaNBeforeAnySamples() {
+        DoubleVertex vertex = new GaussianVertex(0.0, 1.0);
+        ConvergenceDiagnostics diagnostics = new ConvergenceDiagnostics(Collections.singletonList(vertex));
+
+        assertTrue(Double.isNaN(diagnostics.getSnapshot().getMinEffectiveSampleSize()));
+        assertTrue(Double.isNaN(diagnostics.getSnapshot().getMaxSplitRHat()));
+    }
+
+    @Test
+    public void countsEverySampleOfAConstantChainAsEffective() {
+        DoubleVertex vertex = new GaussianVertex(0.0, 1.0);
+        ConvergenceDiagnostics diagnostics = new ConvergenceDiagnostics(Collections.singletonList(vertex), 64);
+
+        int sampleCount = 500;
+        for (int i = 0; i < sampleCount; i++) {
+            diagnostics.update(new SimpleNetworkState(Collections.singletonMap(vertex.getId(), DoubleTensor.scalar(2.0))));
+        }
+
+        ConvergenceDiagnostics.Snapshot snapshot = diagnostics.recalculate();
+
+        assertEquals(sampleCount, snapshot.getMinEffectiveSampleSize(), 0.0);
+        assertEquals(0.0, snapshot.get(vertex).getVariance()[0], 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOddWindowSize() {
+        new ConvergenceDiagnostics(Collections.emptyList(), 101);
+    }
+}
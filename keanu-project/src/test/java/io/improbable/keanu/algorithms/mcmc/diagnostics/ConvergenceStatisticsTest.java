@@ -0,0 +1,89 @@
+package io.improbable.keanu.algorithms.mcmc.diagnostics;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConvergenceStatisticsTest {
+
+    @Test
+    public void autocovarianceMatchesDirectCalculation() {
+        double[] chain = autoregressiveChain(137, 0.7, new Random(1));
+
+        double[] autocovariance = ConvergenceStatistics.autocovariance(chain);
+
+        double mean = 0;
+        for (double value : chain) {
+            mean += value;
+        }
+        mean /= chain.length;
+
+        for (int lag = 0; lag < chain.length; lag++) {
+            double expected = 0;
+            for (int i = 0; i + lag < chain.length; i++) {
+                expected += (chain[i] - mean) * (chain[i + lag] - mean);
+            }
+            assertEquals(expected / chain.length, autocovariance[lag], 1e-9);
+        }
+    }
+
+    @Test
+    public void independentSamplesHaveEffectiveSampleSizeCloseToSampleCount() {
+        double[] chain = autoregressiveChain(10000, 0.0, new Random(2));
+
+        double ess = ConvergenceStatistics.splitEffectiveSampleSize(chain, chain.length);
+
+        assertEquals(chain.length, ess, chain.length * 0.1);
+    }
+
+    @Test
+    public void autocorrelatedSamplesHaveLowerEffectiveSampleSize() {
+        double phi = 0.9;
+        double[] chain = autoregressiveChain(20000, phi, new Random(3));
+
+        double ess = ConvergenceStatistics.splitEffectiveSampleSize(chain, chain.length);
+
+        double expected = chain.length * (1 - phi) / (1 + phi);
+        assertEquals(expected, ess, expected * 0.25);
+    }
+
+    @Test
+    public void rHatIsCloseToOneForChainsFromTheSameDistribution() {
+        double[] chain = autoregressiveChain(10000, 0.5, new Random(4));
+
+        assertEquals(1.0, ConvergenceStatistics.splitRHat(chain, chain.length), 0.01);
+    }
+
+    @Test
+    public void rHatIsLargeForChainsThatHaveNotMixed() {
+        Random random = new Random(5);
+        double[] first = new double[1000];
+        double[] second = new double[1000];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = random.nextGaussian();
+            second[i] = 5 + random.nextGaussian();
+        }
+
+        assertTrue(ConvergenceStatistics.rHat(first, second) > 2);
+    }
+
+    @Test
+    public void effectiveSampleSizeIsNaNForConstantChain() {
+        double[] chain = new double[100];
+
+        assertTrue(Double.isNaN(ConvergenceStatistics.splitEffectiveSampleSize(chain, chain.length)));
+    }
+
+    private static double[] autoregressiveChain(int length, double phi, Random random) {
+        double[] chain = new double[length];
+        double current = 0;
+        for (int i = 0; i < length; i++) {
+            current = phi * current + random.nextGaussian();
+            chain[i] = current;
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,107 @@
+package io.improbable.keanu.algorithms.metrics;
+
+import io.improbable.keanu.algorithms.mcmc.Hamiltonian;
+import io.improbable.keanu.algorithms.mcmc.MetropolisHastings;
+import io.improbable.keanu.algorithms.mcmc.NUTS;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SamplerMetricsTest {
+
+    private DoubleVertex A;
+    private DoubleVertex B;
+    private BayesianNetwork network;
+
+    @Before
+    public void setup() {
+        A = new GaussianVertex(0.0, 1.0);
+        B = new GaussianVertex(A.times(2.0), 1.0);
+        B.observe(1.0);
+        network = new BayesianNetwork(Arrays.asList(A, B));
+    }
+
+    @Test
+    public void histogramPercentilesAreWithinAFactorOfTwo() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.5, histogram.getMean(), 1e-9);
+        assertEquals(1000, histogram.getMax());
+        long median = histogram.getPercentile(0.5);
+        assertTrue(median >= 500 && median < 1000);
+        assertEquals(1000, histogram.getPercentile(1.0));
+    }
+
+    @Test
+    public void recordsMetropolisHastingsSteps() {
+        SamplerMetrics metrics = new SamplerMetrics();
+        MetropolisHastings.builder()
+            .random(new KeanuRandom(1))
+            .listener(metrics)
+            .build()
+            .getPosteriorSamples(network, Collections.singletonList(A), 1000);
+
+        assertEquals(1000, metrics.getStepCount());
+        assertEquals(1000, metrics.getProposalCount());
+        assertTrue(metrics.getAcceptanceRate() > 0 && metrics.getAcceptanceRate() < 1);
+        assertTrue(metrics.getVerticesCascaded().getMean() >= 2);
+        assertEquals(0, metrics.getLeapfrogCount());
+    }
+
+    @Test
+    public void recordsHamiltonianLeapfrogs() {
+        SamplerMetrics metrics = new SamplerMetrics();
+        Hamiltonian.builder()
+            .random(new KeanuRandom(1))
+            .leapFrogCount(10)
+            .listener(metrics)
+            .build()
+            .getPosteriorSamples(network, Collections.singletonList(A), 100);
+
+        assertEquals(99, metrics.getStepCount());
+        assertEquals(990, metrics.getLeapfrogCount());
+        assertEquals(99, metrics.getProposalCount());
+    }
+
+    @Test
+    public void recordsNUTSTreeDepth() {
+        SamplerMetrics metrics = new SamplerMetrics();
+        NUTS.builder()
+            .random(new KeanuRandom(1))
+            .listener(metrics)
+            .build()
+            .getPosteriorSamples(network, Collections.singletonList(A), 100);
+
+        assertEquals(99, metrics.getStepCount());
+        assertEquals(99, metrics.getTreeDepth().getCount());
+        assertTrue(metrics.getTreeDepth().getMax() >= 1);
+        assertTrue(metrics.getLeapfrogCount() >= metrics.getStepCount());
+    }
+
+    @Test
+    public void canBeResetAndExported() {
+        SamplerMetrics metrics = new SamplerMetrics();
+        metrics.onStep(100);
+        metrics.onProposal(true);
+
+        assertEquals(1L, metrics.toMap().get("steps"));
+        assertEquals(1.0, metrics.toMap().get("acceptance.rate"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getStepCount());
+        assertTrue(Double.isNaN(metrics.getAcceptanceRate()));
+    }
+}
@@ -2,13 +2,18 @@ package io.improbable.keanu.algorithms.sampling;
 
 import io.improbable.keanu.algorithms.NetworkSamples;
 import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import io.improbable.keanu.vertices.dbl.nonprobabilistic.ConstantDoubleVertex;
 import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.dbl.probabilistic.LaplaceVertex;
 import org.junit.Before;
 import org.junit.Test;
 
+import static java.util.Arrays.asList;
 import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
 
 public class PriorSamplingTest {
 
@@ -39,6 +44,39 @@ public class PriorSamplingTest {
         assertEquals(100.0, averageC, 0.1);
     }
 
+    @Test
+    public void samplesBatchesOfTensorValuedVertices() {
+        DoubleVertex D = new LaplaceVertex(new int[]{1, 2}, new ConstantDoubleVertex(0), new ConstantDoubleVertex(1));
+        DoubleVertex E = new GaussianVertex(A.times(2).plus(D), 1);
+
+        BayesianNetwork net = new BayesianNetwork(E.getConnectedGraph());
+
+        final int sampleCount = 20000;
+        NetworkSamples samples = Prior.sample(net, asList(E, D), sampleCount, random);
+
+        DoubleTensor averageE = samples.getDoubleTensorSamples(E).getAverages();
+        double varianceOfFirstE = samples.getDoubleTensorSamples(E).asList().stream()
+            .mapToDouble(e -> Math.pow(e.getValue(0, 0) - 200.0, 2))
+            .average().getAsDouble();
+
+        assertEquals(sampleCount, samples.size());
+        assertArrayEquals(new int[]{1, 2}, averageE.getShape());
+        assertArrayEquals(new double[]{200.0, 200.0}, averageE.asFlatDoubleArray(), 0.1);
+        assertEquals(4 + 2 + 1, varianceOfFirstE, 0.3);
+        assertArrayEquals(new int[]{1, 2}, E.getValue().getShape());
+    }
+
+    @Test
+    public void leavesNetworkInTheStateOfTheLastSampleWhenTheLastBatchIsPartlyTaken() {
+        BayesianNetwork net = new BayesianNetwork(C.getConnectedGraph());
+
+        final int sampleCount = 1500;
+        NetworkSamples samples = Prior.sample(net, asList(A, C), sampleCount, random);
+
+        assertEquals(samples.getDoubleTensorSamples(A).asList().get(sampleCount - 1), A.getValue());
+        assertEquals(samples.getDoubleTensorSamples(C).asList().get(sampleCount - 1), C.getValue());
+    }
+
     @Test(expected = IllegalStateException.class)
     public void doesNotSamplePriorFromNetWithObservations() {
 
@@ -4,13 +4,21 @@ import io.improbable.keanu.algorithms.NetworkSamples;
 import io.improbable.keanu.network.BayesianNetwork;
 import io.improbable.keanu.vertices.bool.BoolVertex;
 import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
 import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import io.improbable.keanu.vertices.dbl.nonprobabilistic.ConstantDoubleVertex;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
+
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class RejectionSamplerTest {
 
@@ -79,4 +87,52 @@ public class RejectionSamplerTest {
         assertEquals(v1ProbTrueAccordingToBayes, v1ProbTrueAccordingToAlgo, 0.01);
         assertEquals(v2ProbTrueAccordingToBayes, v2ProbTrueAccordingToAlgo, 0.01);
     }
+
+    @Test
+    public void posteriorSamplesOfContinuousNetworkAreTakenInBatches() {
+        DoubleVertex a = new GaussianVertex(0, 1);
+        DoubleVertex b = new GaussianVertex(a, 1);
+        BoolVertex aIsAboveHalf = a.greaterThan(new ConstantDoubleVertex(0.5));
+        aIsAboveHalf.observe(true);
+
+        NetworkSamples samples = RejectionSampler.getPosteriorSamples(
+            new BayesianNetwork(a.getConnectedGraph()),
+            asList(a, b),
+            10000,
+            random
+        );
+
+        List<DoubleTensor> aSamples = samples.get(a).asList();
+        double expectedMean = gaussianDensity(0.5) / (1 - 0.6914625);
+
+        assertEquals(10000, aSamples.size());
+        assertTrue(aSamples.stream().allMatch(sample -> sample.scalar() > 0.5));
+        assertEquals(expectedMean, samples.getDoubleTensorSamples(a).getAverages().scalar(), 0.02);
+        assertEquals(expectedMean, samples.getDoubleTensorSamples(b).getAverages().scalar(), 0.03);
+        assertArrayEquals(new int[]{1, 1}, a.getValue().getShape());
+        assertTrue(a.getValue().scalar() > 0.5);
+    }
+
+    @Test
+    public void posteriorProbabilityOfRareEvidenceOnlyProposesAncestorsOfObservations() {
+        DoubleVertex a = new GaussianVertex(0, 1);
+        DoubleVertex unobservedByEvidence = new GaussianVertex(10, 1);
+        BoolVertex aIsRare = a.greaterThan(new ConstantDoubleVertex(2.5));
+        aIsRare.observe(true);
+
+        double probability = RejectionSampler.getPosteriorProbability(
+            asList(a, unobservedByEvidence),
+            singletonList(aIsRare),
+            () -> a.getValue().scalar() > 3.0 && unobservedByEvidence.getValue().scalar() > 10.0,
+            4000,
+            random
+        );
+
+        double aAbove3GivenAbove2point5 = (1 - 0.9986501) / (1 - 0.9937903);
+        assertEquals(aAbove3GivenAbove2point5 * 0.5, probability, 0.02);
+    }
+
+    private static double gaussianDensity(double x) {
+        return Math.exp(-x * x / 2) / Math.sqrt(2 * Math.PI);
+    }
 }
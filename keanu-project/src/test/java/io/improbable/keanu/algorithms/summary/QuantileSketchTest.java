@@ -0,0 +1,72 @@
+package io.improbable.keanu.algorithms.summary;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuantileSketchTest {
+
+    @Test
+    public void estimatesQuantilesOfNormalSamples() {
+        Random random = new Random(1);
+        double[] values = new double[100000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian();
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, sketch.getCount());
+        assertEquals(values[0], sketch.quantile(0), 0.0);
+        assertEquals(values[values.length - 1], sketch.quantile(1), 0.0);
+        for (double q : new double[]{0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999}) {
+            assertEquals(values[(int) (q * values.length)], sketch.quantile(q), 0.02);
+        }
+    }
+
+    @Test
+    public void mergedSketchesMatchSingleSketch() {
+        Random random = new Random(2);
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int i = 0; i < 50000; i++) {
+            double a = random.nextDouble();
+            double b = 1 + random.nextDouble();
+            all.add(a);
+            all.add(b);
+            first.add(a);
+            second.add(b);
+        }
+
+        first.merge(second);
+
+        assertEquals(all.getCount(), first.getCount());
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.75, 0.99}) {
+            assertEquals(all.quantile(q), first.quantile(q), 0.01);
+        }
+        assertEquals(1.0, first.quantile(0.5), 0.01);
+    }
+
+    @Test
+    public void keepsCentroidsBoundedForRepeatedValues() {
+        QuantileSketch sketch = new QuantileSketch(20);
+        for (int i = 0; i < 100000; i++) {
+            sketch.add(i % 3);
+        }
+
+        assertEquals(0.0, sketch.quantile(0.1), 0.0);
+        assertEquals(2.0, sketch.quantile(0.95), 0.0);
+        assertTrue(sketch.quantile(0.5) >= 0.0 && sketch.quantile(0.5) <= 2.0);
+    }
+
+    @Test
+    public void emptySketchHasNaNQuantiles() {
+        assertTrue(Double.isNaN(new QuantileSketch().quantile(0.5)));
+    }
+}
@@ -0,0 +1,161 @@
+package io.improbable.keanu.algorithms.summary;
+
+import io.improbable.keanu.network.SimpleNetworkState;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.intgr.IntegerVertex;
+import io.improbable.keanu.vertices.intgr.probabilistic.PoissonVertex;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SampleSummariesTest {
+
+    private DoubleVertex gaussian;
+    private IntegerVertex poisson;
+    private BernoulliVertex bernoulli;
+    private List<Vertex<? extends Tensor>> vertices;
+
+    @Before
+    public void setup() {
+        gaussian = new GaussianVertex(new int[]{1, 2}, 0.0, 1.0);
+        poisson = new PoissonVertex(3.0);
+        bernoulli = new BernoulliVertex(0.3);
+        vertices = Arrays.asList(gaussian, poisson, bernoulli);
+    }
+
+    @Test
+    public void addingASampleDoesNotAllocate() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        Assume.assumeTrue(allocations.isThreadAllocatedMemorySupported());
+
+        Random random = new Random(1);
+        int sampleLength = 100;
+        DoubleTensor[] doubleSamples = new DoubleTensor[10];
+        IntegerTensor[] integerSamples = new IntegerTensor[10];
+        for (int i = 0; i < doubleSamples.length; i++) {
+            double[] doubles = new double[sampleLength];
+            int[] integers = new int[sampleLength];
+            for (int j = 0; j < sampleLength; j++) {
+                doubles[j] = random.nextGaussian();
+                integers[j] = random.nextInt(5);
+            }
+            doubleSamples[i] = DoubleTensor.create(doubles, new int[]{1, sampleLength});
+            integerSamples[i] = IntegerTensor.create(integers, new int[]{1, sampleLength});
+        }
+        TensorSummary doubleSummary = TensorSummary.like(doubleSamples[0], 100);
+        TensorSummary integerSummary = TensorSummary.like(integerSamples[0], 100);
+
+        int sampleCount = 20000;
+        for (int i = 0; i < sampleCount; i++) {
+            doubleSummary.add(doubleSamples[i % doubleSamples.length]);
+            integerSummary.add(integerSamples[i % integerSamples.length]);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < sampleCount; i++) {
+            doubleSummary.add(doubleSamples[i % doubleSamples.length]);
+            integerSummary.add(integerSamples[i % integerSamples.length]);
+        }
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        //copying either sample would allocate at least 400 bytes per sample
+        assertTrue("Allocated " + allocated + " bytes", allocated < sampleCount);
+    }
+
+    @Test
+    public void summarisesEachElement() {
+        SampleSummaries summaries = new SampleSummaries(vertices);
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            summaries.accept(sample(random));
+        }
+
+        TensorSummary gaussianSummary = summaries.get(gaussian);
+        assertEquals(10000, summaries.getSampleCount());
+        assertArrayEquals(new int[]{1, 2}, gaussianSummary.getShape());
+        assertArrayEquals(new double[]{0, 5}, gaussianSummary.getMean().asFlatDoubleArray(), 0.1);
+        assertArrayEquals(new double[]{1, 4}, gaussianSummary.getVariance().asFlatDoubleArray(), 0.2);
+        assertArrayEquals(new double[]{0, 5}, gaussianSummary.getQuantile(0.5).asFlatDoubleArray(), 0.1);
+
+        TensorSummary poissonSummary = summaries.get(poisson);
+        assertEquals(2, poissonSummary.getMode().scalar());
+        assertEquals(2.0, poissonSummary.getQuantile(0.5).scalar(), 0.0);
+        assertEquals(2.5, poissonSummary.getMean().scalar(), 0.05);
+
+        TensorSummary bernoulliSummary = summaries.get(bernoulli);
+        assertEquals(false, bernoulliSummary.getMode().scalar());
+        assertEquals(0.3, bernoulliSummary.getMean().scalar(), 0.02);
+        assertEquals(10000, bernoulliSummary.getHistogram(0).getTotalCount());
+    }
+
+    @Test
+    public void mergedSummariesMatchSingleSummary() {
+        SampleSummaries all = new SampleSummaries(vertices);
+        SampleSummaries first = new SampleSummaries(vertices);
+        SampleSummaries second = new SampleSummaries(vertices);
+        Random random = new Random(2);
+        for (int i = 0; i < 2000; i++) {
+            SimpleNetworkState state = sample(random);
+            all.accept(state);
+            (i < 500 ? first : second).accept(state);
+        }
+
+        first.merge(second);
+
+        assertEquals(all.getSampleCount(), first.getSampleCount());
+        assertArrayEquals(all.get(gaussian).getMean().asFlatDoubleArray(), first.get(gaussian).getMean().asFlatDoubleArray(), 1e-9);
+        assertArrayEquals(all.get(gaussian).getVariance().asFlatDoubleArray(), first.get(gaussian).getVariance().asFlatDoubleArray(), 1e-9);
+        assertEquals(all.get(poisson).getHistogram(0).asMap(), first.get(poisson).getHistogram(0).asMap());
+        assertEquals(all.get(bernoulli).getMode(), first.get(bernoulli).getMode());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void modeOfDoubleSamplesIsNotTracked() {
+        SampleSummaries summaries = new SampleSummaries(vertices);
+        summaries.accept(sample(new Random(3)));
+        summaries.get(gaussian).getMode();
+    }
+
+    /**
+     * Gaussians with means 0 and 5, a poisson with mode 2 and a bernoulli with probability 0.3
+     */
+    private SimpleNetworkState sample(Random random) {
+        Map<Long, Object> values = new HashMap<>();
+        values.put(gaussian.getId(), DoubleTensor.create(new double[]{random.nextGaussian(), 5 + 2 * random.nextGaussian()}, new int[]{1, 2}));
+        values.put(poisson.getId(), IntegerTensor.scalar(poisson(2.5, random)));
+        values.put(bernoulli.getId(), BooleanTensor.scalar(random.nextDouble() < 0.3));
+        return new SimpleNetworkState(values);
+    }
+
+    private static int poisson(double rate, Random random) {
+        double limit = Math.exp(-rate);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+}
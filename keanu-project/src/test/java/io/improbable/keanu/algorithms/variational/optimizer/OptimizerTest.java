@@ -34,6 +34,40 @@ public class OptimizerTest {
         assertCanCalculateMaxAPosteriori(getNonGradientOptimizer());
     }
 
+    @Test
+    public void independentComponentOptimizerCanMLE() {
+        assertCanCalculateMaxLikelihood(IndependentComponentOptimizer::of);
+    }
+
+    @Test
+    public void independentComponentOptimizerCanMAP() {
+        assertCanCalculateMaxAPosteriori(IndependentComponentOptimizer::of);
+    }
+
+    @Test
+    public void independentComponentOptimizerFindsTheSameMAPAsTheWholeNetwork() {
+        DoubleVertex A = new GaussianVertex(20.0, 1.0);
+        DoubleVertex B = new GaussianVertex(10.0, 1.0);
+        DoubleVertex Aobserved = new GaussianVertex(A, 1.0);
+        DoubleVertex Bobserved = new GaussianVertex(B, 1.0);
+        Aobserved.observe(22.0);
+        Bobserved.observe(14.0);
+
+        BayesianNetwork bayesNet = new BayesianNetwork(Arrays.asList(A, B, Aobserved, Bobserved));
+
+        A.setAndCascade(20.0);
+        B.setAndCascade(10.0);
+        double wholeNetworkFitness = getGradientOptimizer().apply(bayesNet).maxAPosteriori();
+
+        A.setAndCascade(20.0);
+        B.setAndCascade(10.0);
+        double componentsFitness = IndependentComponentOptimizer.of(bayesNet).maxAPosteriori();
+
+        assertEquals(wholeNetworkFitness, componentsFitness, 1e-6);
+        assertEquals(21, A.getValue().scalar(), 0.01);
+        assertEquals(12, B.getValue().scalar(), 0.01);
+    }
+
     private Function<BayesianNetwork, Optimizer> getGradientOptimizer() {
         return (bayesNet) -> GradientOptimizer.builder()
             .bayesianNetwork(bayesNet)
@@ -4,9 +4,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -14,6 +18,9 @@ import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.VertexLabel;
 import io.improbable.keanu.vertices.bool.BoolVertex;
 import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.nonprobabilistic.ConstantDoubleVertex;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
 
 public class BayesianNetworkTest {
 
@@ -91,4 +98,22 @@ public class BayesianNetworkTest {
 
         BayesianNetwork net = new BayesianNetwork(a.getConnectedGraph());
     }
+
+    @Test
+    public void verticesThatDoNotDependOnEachOtherAreInDifferentComponents() {
+        DoubleVertex sharedMu = new ConstantDoubleVertex(0.0);
+        DoubleVertex a = new GaussianVertex(sharedMu, 1.0);
+        DoubleVertex b = new GaussianVertex(sharedMu, 1.0);
+        DoubleVertex aObserved = new GaussianVertex(a.times(2.0), 1.0);
+        aObserved.observe(1.0);
+
+        BayesianNetwork net = new BayesianNetwork(Arrays.asList(sharedMu, a, b, aObserved));
+        List<BayesianNetwork> components = net.getIndependentComponents();
+
+        assertThat(components, hasSize(2));
+        BayesianNetwork componentOfA = components.get(0).getVertices().contains(a) ? components.get(0) : components.get(1);
+        BayesianNetwork componentOfB = componentOfA == components.get(0) ? components.get(1) : components.get(0);
+        assertThat(componentOfA.getVertices(), containsInAnyOrder(sharedMu, a, aObserved));
+        assertThat(componentOfB.getVertices(), containsInAnyOrder(sharedMu, b));
+    }
 }
@@ -0,0 +1,86 @@
+package io.improbable.keanu.network;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import io.improbable.keanu.algorithms.graphtraversal.MarkovBlanket;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
+
+public class LambdaSectionIndexTest {
+
+    @Test
+    public void findsTheSameSectionsAndBlanketsAsTraversingEachVertex() {
+        Random random = new Random(1);
+        List<DoubleVertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            if (vertices.size() < 2) {
+                vertices.add(new GaussianVertex(0.0, 1.0));
+                continue;
+            }
+            DoubleVertex a = vertices.get(random.nextInt(vertices.size()));
+            DoubleVertex b = vertices.get(random.nextInt(vertices.size()));
+            switch (random.nextInt(3)) {
+                case 0:
+                    vertices.add(a.plus(b));
+                    break;
+                case 1:
+                    vertices.add(a.times(2.0));
+                    break;
+                default:
+                    GaussianVertex child = new GaussianVertex(a, 1.0);
+                    if (random.nextInt(4) == 0) {
+                        child.observe(0.0);
+                    }
+                    vertices.add(child);
+            }
+        }
+        BayesianNetwork network = new BayesianNetwork(vertices.get(0).getConnectedGraph());
+        List<Vertex> latentVertices = network.getLatentVertices();
+
+        LambdaSectionIndex index = LambdaSectionIndex.of(latentVertices);
+
+        for (Vertex<?> latent : latentVertices) {
+            LambdaSection section = LambdaSection.getDownstreamLambdaSection(latent, true);
+            assertEquals(section.getAllVertices(), new HashSet<>(index.getDownstreamVertices(latent)));
+            assertEquals(
+                section.getLatentAndObservedVertices(),
+                new HashSet<>(index.getDownstreamLatentAndObservedVertices(latent))
+            );
+            assertEquals(MarkovBlanket.get(latent), new HashSet<>(index.getMarkovBlanket(latent)));
+        }
+    }
+
+    @Test
+    public void findsTheBlanketThroughDeterministicVertices() {
+        DoubleVertex A = new GaussianVertex(5.0, 1.0);
+        DoubleVertex B = new GaussianVertex(A, 1.0);
+        DoubleVertex C = new GaussianVertex(A, 1.0);
+        DoubleVertex D = new GaussianVertex(B, C);
+        DoubleVertex E = D.multiply(2.0);
+        DoubleVertex F = new GaussianVertex(D, 1.0);
+        DoubleVertex G = new GaussianVertex(E, F);
+
+        LambdaSectionIndex index = LambdaSectionIndex.of(Arrays.asList(A, D));
+
+        assertEquals(new HashSet<>(Arrays.asList(D, E, G, F)), new HashSet<>(index.getDownstreamVertices(D)));
+        assertEquals(new HashSet<>(Arrays.asList(D, G, F)), new HashSet<>(index.getDownstreamLatentAndObservedVertices(D)));
+        assertEquals(new HashSet<>(Arrays.asList(B, C, F, G)), new HashSet<>(index.getMarkovBlanket(D)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsVerticesThatWereNotGiven() {
+        DoubleVertex A = new GaussianVertex(5.0, 1.0);
+        DoubleVertex B = new GaussianVertex(A, 1.0);
+
+        LambdaSectionIndex.of(Arrays.asList(A)).getDownstreamVertices(B);
+    }
+}
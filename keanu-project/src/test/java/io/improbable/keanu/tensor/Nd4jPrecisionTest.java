@@ -0,0 +1,55 @@
+package io.improbable.keanu.tensor;
+
+import org.junit.After;
+import org.junit.Test;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class Nd4jPrecisionTest {
+
+    @After
+    public void restoreDataType() {
+        Nd4j.setDataType(Nd4jPrecision.BUFFER_TYPE);
+    }
+
+    @Test
+    public void defaultsToDoublePrecision() {
+        assertEquals(DataBuffer.Type.DOUBLE, Nd4jPrecision.getBufferType(null, null));
+        assertEquals(DataBuffer.Type.DOUBLE, Nd4jPrecision.getBufferType(null, "double"));
+    }
+
+    @Test
+    public void canChooseSinglePrecision() {
+        assertEquals(DataBuffer.Type.FLOAT, Nd4jPrecision.getBufferType("single", "double"));
+        assertEquals(DataBuffer.Type.FLOAT, Nd4jPrecision.getBufferType(null, "float"));
+        assertEquals(DataBuffer.Type.DOUBLE, Nd4jPrecision.getBufferType("double", "float"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownPrecision() {
+        Nd4jPrecision.getBufferType("half", null);
+    }
+
+    @Test
+    public void canCreateSinglePrecisionArrays() {
+        INDArray values = TypedINDArrayFactory.create(new double[]{1.5, 2.5, 3.5, 4.5}, new int[]{2, 2}, DataBuffer.Type.FLOAT);
+
+        assertEquals(DataBuffer.Type.FLOAT, values.data().dataType());
+        assertEquals(3.5, values.getDouble(1, 0), 0.0);
+    }
+
+    @Test
+    public void sumsSinglePrecisionArraysInDoublePrecision() {
+        double[] values = new double[1000000];
+        Arrays.fill(values, 0.1);
+        INDArray singlePrecision = TypedINDArrayFactory.create(values, new int[]{1000, 1000}, DataBuffer.Type.FLOAT);
+
+        assertEquals(100000.0, INDArrayExtensions.sumInDoublePrecision(singlePrecision), 1e-2);
+        assertEquals(100.0, INDArrayExtensions.sumInDoublePrecision(singlePrecision.getRow(3)), 1e-4);
+    }
+}
@@ -52,4 +52,32 @@ public class TensorShapeTest {
             assertEquals(i, tensor.getValue(indexOfi), 1e-10);
         }
     }
+
+    @Test
+    public void canCalculateBroadcastShape() {
+        assertArrayEquals(new int[]{2, 3, 4}, TensorShape.getBroadcastShape(new int[]{2, 1, 4}, new int[]{3, 1}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsShapesThatCannotBroadcast() {
+        TensorShape.getBroadcastShape(new int[]{2, 3}, new int[]{4, 3});
+    }
+
+    @Test
+    public void broadcastIndexRepeatsDimensionsOfLengthOne() {
+        int[] leftShape = new int[]{2, 1};
+        int[] rightShape = new int[]{1, 3};
+        TensorShape.BroadcastIndex index = new TensorShape.BroadcastIndex(leftShape, rightShape, new int[]{2, 3});
+
+        int[] left = new int[6];
+        int[] right = new int[6];
+        for (int i = 0; i < 6; i++) {
+            left[i] = index.getLeft();
+            right[i] = index.getRight();
+            index.next();
+        }
+
+        assertArrayEquals(new int[]{0, 0, 0, 1, 1, 1}, left);
+        assertArrayEquals(new int[]{0, 1, 2, 0, 1, 2}, right);
+    }
 }
@@ -0,0 +1,112 @@
+package io.improbable.keanu.tensor.bool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+
+public class PackedBooleanTensorTest {
+
+    private boolean[] valuesA;
+    private boolean[] valuesB;
+
+    @Before
+    public void setup() {
+        Random random = new Random(1);
+        valuesA = new boolean[3 * 50];
+        valuesB = new boolean[3 * 50];
+        for (int i = 0; i < valuesA.length; i++) {
+            valuesA[i] = random.nextBoolean();
+            valuesB[i] = random.nextBoolean();
+        }
+    }
+
+    @Test
+    public void booleanTensorsAreCreatedPacked() {
+        assertTrue(BooleanTensor.create(new boolean[]{true, false}, 1, 2) instanceof PackedBooleanTensor);
+        assertTrue(BooleanTensor.trues(2, 2) instanceof PackedBooleanTensor);
+        assertTrue(DoubleTensor.ones(2, 2).greaterThan(0.5) instanceof PackedBooleanTensor);
+    }
+
+    @Test
+    public void logicalOperationsMatchSimpleTensorAcrossWords() {
+        int[] shape = {3, 50};
+        BooleanTensor packedA = PackedBooleanTensor.create(valuesA, shape);
+        BooleanTensor packedB = PackedBooleanTensor.create(valuesB, shape);
+        BooleanTensor simpleA = new SimpleBooleanTensor(valuesA, shape);
+        BooleanTensor simpleB = new SimpleBooleanTensor(valuesB, shape);
+
+        assertEquals(simpleA.and(simpleB), packedA.and(packedB));
+        assertEquals(simpleA.or(simpleB), packedA.or(packedB));
+        assertEquals(simpleA.not(), packedA.not());
+        assertEquals(simpleA.or(simpleB), packedA.or(simpleB));
+        assertEquals(simpleA.hashCode(), packedA.hashCode());
+    }
+
+    @Test
+    public void notLeavesNoStrayBitsPastTheEnd() {
+        BooleanTensor falses = PackedBooleanTensor.create(false, new int[]{1, 70});
+
+        BooleanTensor trues = falses.not();
+
+        assertTrue(trues.allTrue());
+        assertFalse(trues.allFalse());
+        assertEquals(70, ((PackedBooleanTensor) trues).countTrue());
+        assertTrue(trues.not().allFalse());
+    }
+
+    @Test
+    public void canCombineWithScalars() {
+        BooleanTensor packed = PackedBooleanTensor.create(valuesA, new int[]{3, 50});
+
+        assertTrue(packed.or(BooleanTensor.scalar(true)).allTrue());
+        assertTrue(packed.and(BooleanTensor.scalar(false)).allFalse());
+        assertEquals(packed, packed.and(BooleanTensor.scalar(true)));
+    }
+
+    @Test
+    public void sliceAndConcatMatchSimpleTensor() {
+        int[] shape = {3, 50};
+        BooleanTensor packed = PackedBooleanTensor.create(valuesA, shape);
+        BooleanTensor simple = new SimpleBooleanTensor(valuesA, shape);
+
+        assertEquals(simple.slice(0, 1), packed.slice(0, 1));
+        assertEquals(simple.slice(1, 37), packed.slice(1, 37));
+        assertEquals(simple.concat(0, simple), packed.concat(0, packed));
+        assertEquals(simple.concat(1, simple), packed.concat(1, simple));
+    }
+
+    @Test
+    public void masksAndConditionalValuesMatchSimpleTensor() {
+        int[] shape = {3, 50};
+        BooleanTensor packed = PackedBooleanTensor.create(valuesA, shape);
+        BooleanTensor simple = new SimpleBooleanTensor(valuesA, shape);
+        DoubleTensor trueValues = DoubleTensor.arange(0, 150).reshape(3, 50);
+
+        assertArrayEquals(simple.asFlatDoubleArray(), packed.toDoubleMask().asFlatDoubleArray(), 0.0);
+        assertArrayEquals(simple.asFlatIntegerArray(), packed.toIntegerMask().asFlatIntegerArray());
+        assertEquals(
+            simple.setDoubleIf(trueValues, DoubleTensor.scalar(-1.0)),
+            packed.setDoubleIf(trueValues, DoubleTensor.scalar(-1.0))
+        );
+    }
+
+    @Test
+    public void canSetValuesThroughFlattenedView() {
+        BooleanTensor packed = PackedBooleanTensor.create(false, new int[]{2, 40});
+
+        packed.getFlattenedView().set(65, true);
+        packed.setValue(true, 0, 1);
+
+        assertTrue(packed.getValue(1, 25));
+        assertTrue(packed.getValue(0, 1));
+        assertEquals(2, ((PackedBooleanTensor) packed).countTrue());
+    }
+}
@@ -0,0 +1,71 @@
+package io.improbable.keanu.tensor.dbl;
+
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DoubleExpressionTest {
+
+    @Test
+    public void matchesEagerOperations() {
+        DoubleTensor x = DoubleTensor.create(new double[]{1, 2, 3, 4}, 2, 2);
+        DoubleTensor mu = DoubleTensor.create(new double[]{0.5, -1, 2, 0}, 2, 2);
+        DoubleTensor sigma = DoubleTensor.scalar(2.0);
+
+        DoubleTensor eager = x.minus(mu).powInPlace(2).divInPlace(sigma.pow(2).times(2.0))
+            .plusInPlace(sigma.log()).plusInPlace(1.5).unaryMinusInPlace();
+        DoubleExpression lazy = DoubleExpression.of(x).minus(mu).pow(2).div(DoubleExpression.of(sigma).pow(2).times(2.0))
+            .plus(DoubleExpression.of(sigma).log()).plus(1.5).unaryMinus();
+
+        assertArrayEquals(new int[]{2, 2}, lazy.getShape());
+        assertEquals(eager, lazy.evaluate());
+        assertEquals(eager.sum(), lazy.sum(), 1e-12);
+    }
+
+    @Test
+    public void scalarOnLeftTakesShapeOfRight() {
+        DoubleTensor x = DoubleTensor.create(new double[]{1, 2, 4}, 1, 3);
+
+        DoubleTensor result = DoubleExpression.of(DoubleTensor.scalar(2.0)).minus(x).evaluate();
+
+        assertArrayEquals(new int[]{1, 3}, result.getShape());
+        assertArrayEquals(new double[]{1, 0, -2}, result.asFlatDoubleArray(), 0.0);
+        assertArrayEquals(new double[]{1, 0.5, 0.25}, DoubleExpression.of(x).reciprocal().evaluate().asFlatDoubleArray(), 0.0);
+        assertArrayEquals(new double[]{2, 1, -1}, DoubleExpression.of(x).reverseMinus(3).evaluate().asFlatDoubleArray(), 0.0);
+    }
+
+    @Test
+    public void canBroadcastOperands() {
+        DoubleTensor column = DoubleTensor.create(new double[]{1, 2}, 2, 1);
+        DoubleTensor row = DoubleTensor.create(new double[]{10, 20, 30}, 1, 3);
+
+        DoubleExpression lazy = DoubleExpression.of(column).plus(row).times(column);
+
+        assertArrayEquals(new int[]{2, 3}, lazy.getShape());
+        assertEquals(column.plus(row).times(column), lazy.evaluate());
+        assertEquals(11 + 21 + 31 + 2 * (12 + 22 + 32), lazy.sum(), 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotCombineIncompatibleShapes() {
+        DoubleExpression.of(DoubleTensor.ones(2, 3)).plus(DoubleTensor.ones(3, 2));
+    }
+
+    @Test
+    public void canEvaluateTensorsSpanningManyBlocks() {
+        KeanuRandom random = new KeanuRandom(1);
+        int[] shape = new int[]{100, 100};
+        DoubleTensor a = random.nextGaussian(shape);
+        DoubleTensor b = random.nextDouble(shape).plusInPlace(0.5);
+
+        DoubleTensor eager = a.div(b).expInPlace().plusInPlace(1).logInPlace().minusInPlace(a.times(b).abs().sqrtInPlace());
+        DoubleExpression lazy = DoubleExpression.of(a).div(b).exp().plus(1).log().minus(DoubleExpression.of(a).times(b).abs().sqrt());
+
+        DoubleTensor result = lazy.evaluate();
+        assertArrayEquals(eager.getShape(), result.getShape());
+        assertArrayEquals(eager.asFlatDoubleArray(), result.asFlatDoubleArray(), 1e-12);
+        assertEquals(eager.sum(), lazy.sum(), 1e-9);
+    }
+}
@@ -0,0 +1,188 @@
+package io.improbable.keanu.tensor.dbl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JavaDoubleTensorTest {
+
+    @Test
+    public void smallTensorsAreCreatedAsJavaTensors() {
+        assertTrue(DoubleTensor.create(new double[]{1, 2, 3, 4}, 2, 2) instanceof JavaDoubleTensor);
+        assertTrue(DoubleTensor.ones(2, 3) instanceof JavaDoubleTensor);
+        assertTrue(DoubleTensor.create(new double[JavaDoubleTensor.MAX_LENGTH + 1], 1, JavaDoubleTensor.MAX_LENGTH + 1) instanceof Nd4jDoubleTensor);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotCreateWithMismatchedShape() {
+        JavaDoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 3});
+    }
+
+    @Test
+    public void canDoElementwiseOperations() {
+        DoubleTensor a = JavaDoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
+        DoubleTensor b = JavaDoubleTensor.create(new double[]{5, 6, 7, 8}, new int[]{2, 2});
+
+        assertArrayEquals(new double[]{6, 8, 10, 12}, a.plus(b).asFlatDoubleArray(), 0.0);
+        assertArrayEquals(new double[]{-4, -4, -4, -4}, a.minus(b).asFlatDoubleArray(), 0.0);
+        assertArrayEquals(new double[]{5, 12, 21, 32}, a.times(b).asFlatDoubleArray(), 0.0);
+        assertArrayEquals(new double[]{0.2, 2.0 / 6, 3.0 / 7, 0.5}, a.div(b).asFlatDoubleArray(), 1e-15);
+        assertArrayEquals(new double[]{3, 4, 5, 6}, a.plus(2).asFlatDoubleArray(), 0.0);
+        assertArrayEquals(new double[]{1, 2, 3, 4}, a.asFlatDoubleArray(), 0.0);
+    }
+
+    @Test
+    public void canBroadcastColumnAndRow() {
+        DoubleTensor column = JavaDoubleTensor.create(new double[]{1, 2}, new int[]{2, 1});
+        DoubleTensor row = JavaDoubleTensor.create(new double[]{10, 20, 30}, new int[]{1, 3});
+
+        DoubleTensor result = column.plus(row);
+
+        assertArrayEquals(new int[]{2, 3}, result.getShape());
+        assertArrayEquals(new double[]{11, 21, 31, 12, 22, 32}, result.asFlatDoubleArray(), 0.0);
+    }
+
+    @Test
+    public void canBroadcastDifferentRanksInEitherOrder() {
+        DoubleTensor matrix = JavaDoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
+        DoubleTensor rank3 = JavaDoubleTensor.create(new double[]{10, 10, 10, 10, 20, 20, 20, 20}, new int[]{2, 2, 2});
+
+        DoubleTensor smallMinusBig = matrix.minus(rank3);
+        DoubleTensor bigMinusSmall = rank3.minus(matrix);
+
+        assertArrayEquals(new int[]{2, 2, 2}, smallMinusBig.getShape());
+        assertArrayEquals(new double[]{-9, -8, -7, -6, -19, -18, -17, -16}, smallMinusBig.asFlatDoubleArray(), 0.0);
+        assertArrayEquals(new double[]{9, 8, 7, 6, 19, 18, 17, 16}, bigMinusSmall.asFlatDoubleArray(), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotBroadcastIncompatibleShapes() {
+        JavaDoubleTensor.ones(new int[]{2, 3}).plus(JavaDoubleTensor.ones(new int[]{2, 2}));
+    }
+
+    @Test
+    public void sumAndSliceShapesMatchNd4j() {
+        double[] values = {1, 2, 3, 4, 5, 6};
+        DoubleTensor java = JavaDoubleTensor.create(values, new int[]{2, 3});
+        DoubleTensor nd4j = Nd4jDoubleTensor.create(values, new int[]{2, 3});
+
+        assertEquals(nd4j.sum(0), java.sum(0));
+        assertArrayEquals(nd4j.sum(0).getShape(), java.sum(0).getShape());
+        assertArrayEquals(nd4j.sum(1).getShape(), java.sum(1).getShape());
+        assertArrayEquals(nd4j.sum(0, 1).getShape(), java.sum(0, 1).getShape());
+        assertArrayEquals(nd4j.slice(0, 1).getShape(), java.slice(0, 1).getShape());
+        assertArrayEquals(nd4j.slice(1, 2).getShape(), java.slice(1, 2).getShape());
+        assertEquals(nd4j.slice(1, 2), java.slice(1, 2));
+    }
+
+    @Test
+    public void canTransposeAndPermute() {
+        DoubleTensor a = JavaDoubleTensor.create(new double[]{1, 2, 3, 4, 5, 6}, new int[]{2, 3});
+
+        DoubleTensor transposed = a.transpose();
+
+        assertArrayEquals(new int[]{3, 2}, transposed.getShape());
+        assertArrayEquals(new double[]{1, 4, 2, 5, 3, 6}, transposed.asFlatDoubleArray(), 0.0);
+        assertEquals(transposed, a.permute(1, 0));
+    }
+
+    @Test
+    public void canConcat() {
+        DoubleTensor a = JavaDoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
+        DoubleTensor b = JavaDoubleTensor.create(new double[]{5, 6}, new int[]{2, 1});
+
+        DoubleTensor result = a.concat(1, b);
+
+        assertArrayEquals(new int[]{2, 3}, result.getShape());
+        assertArrayEquals(new double[]{1, 2, 5, 3, 4, 6}, result.asFlatDoubleArray(), 0.0);
+    }
+
+    @Test
+    public void matrixMultiplyMatchesNd4j() {
+        double[] left = {1, 2, 3, 4, 5, 6};
+        double[] right = {7, 8, 9, 10, 11, 12};
+
+        DoubleTensor java = JavaDoubleTensor.create(left, new int[]{2, 3})
+            .matrixMultiply(JavaDoubleTensor.create(right, new int[]{3, 2}));
+        DoubleTensor nd4j = Nd4jDoubleTensor.create(left, new int[]{2, 3})
+            .matrixMultiply(Nd4jDoubleTensor.create(right, new int[]{3, 2}));
+
+        assertArrayEquals(new int[]{2, 2}, java.getShape());
+        assertEquals(nd4j, java);
+        assertEquals(java, nd4j);
+    }
+
+    @Test
+    public void equalityIsExactAndHashesMatchNd4j() {
+        DoubleTensor java = JavaDoubleTensor.create(new double[]{1, 2}, new int[]{1, 2});
+        DoubleTensor nd4j = Nd4jDoubleTensor.create(new double[]{1, 2}, new int[]{1, 2});
+
+        assertEquals(java, nd4j);
+        assertEquals(nd4j, java);
+        assertEquals(java.hashCode(), nd4j.hashCode());
+        assertFalse(java.equals(Nd4jDoubleTensor.create(new double[]{1, 2 + 1e-7}, new int[]{1, 2})));
+        assertFalse(nd4j.equals(JavaDoubleTensor.create(new double[]{1, 2 + 1e-7}, new int[]{1, 2})));
+        assertFalse(java.equals(JavaDoubleTensor.create(new double[]{1, 2}, new int[]{2, 1})));
+        assertTrue(java.equalsWithinEpsilon(Nd4jDoubleTensor.create(new double[]{1, 2 + 1e-7}, new int[]{1, 2}), 1e-5));
+    }
+
+    @Test
+    public void zerosOfEitherSignAreEqualAndHashTheSame() {
+        DoubleTensor positive = JavaDoubleTensor.create(new double[]{0.0, Double.NaN}, new int[]{1, 2});
+        DoubleTensor negative = Nd4jDoubleTensor.create(new double[]{-0.0, Double.NaN}, new int[]{1, 2});
+
+        assertEquals(positive, negative);
+        assertEquals(positive.hashCode(), negative.hashCode());
+        assertEquals(DoubleTensor.scalar(-0.0), JavaDoubleTensor.create(new double[]{0.0}, new int[]{1, 1}));
+    }
+
+    @Test
+    public void scalarsHashTheSameAsOtherBackends() {
+        DoubleTensor scalar = DoubleTensor.scalar(2.5);
+
+        assertEquals(scalar, JavaDoubleTensor.create(new double[]{2.5}, new int[]{1, 1}));
+        assertEquals(scalar.hashCode(), JavaDoubleTensor.create(new double[]{2.5}, new int[]{1, 1}).hashCode());
+        assertEquals(scalar.hashCode(), Nd4jDoubleTensor.create(new double[]{2.5}, new int[]{1, 1}).hashCode());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotArangeWithAStepAwayFromTheEnd() {
+        JavaDoubleTensor.arange(0, 5, -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotArangeWithAZeroStep() {
+        DoubleTensor.arange(0, 5, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nd4jCannotArangeBackwards() {
+        Nd4jDoubleTensor.arange(5, 0);
+    }
+
+    @Test
+    public void canArangeAnEmptyRange() {
+        assertEquals(0, JavaDoubleTensor.arange(3, 3).getLength());
+    }
+
+    @Test
+    public void canUseMasks() {
+        DoubleTensor a = JavaDoubleTensor.create(new double[]{1, 5, 3, 7}, new int[]{2, 2});
+
+        DoubleTensor mask = a.getGreaterThanMask(JavaDoubleTensor.scalar(4));
+        DoubleTensor masked = a.setWithMask(mask, -1.0);
+
+        assertArrayEquals(new double[]{0, 1, 0, 1}, mask.asFlatDoubleArray(), 0.0);
+        assertArrayEquals(new double[]{1, -1, 3, -1}, masked.asFlatDoubleArray(), 0.0);
+    }
+
+    @Test
+    public void roundsHalfAwayFromZero() {
+        DoubleTensor a = JavaDoubleTensor.create(new double[]{0.5, -0.5, 1.5, -2.5}, new int[]{1, 4});
+
+        assertArrayEquals(new double[]{1, -1, 2, -3}, a.round().asFlatDoubleArray(), 0.0);
+    }
+}
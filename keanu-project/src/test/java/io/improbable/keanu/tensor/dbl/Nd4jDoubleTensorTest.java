@@ -558,32 +558,32 @@ public class Nd4jDoubleTensorTest {
 
     @Test
     public void smallerTensorPlusInPlaceLargerTensorBehavesSameAsPlus() {
-        DoubleTensor smallerTensor = DoubleTensor.create(2, new int[] {2, 2});
-        DoubleTensor largerTensor = DoubleTensor.create(3, new int[] {2, 2, 2});
+        DoubleTensor smallerTensor = Nd4jDoubleTensor.create(2, new int[] {2, 2});
+        DoubleTensor largerTensor = Nd4jDoubleTensor.create(3, new int[] {2, 2, 2});
 
         assertArrayEquals(smallerTensor.plus(largerTensor).asFlatDoubleArray(), smallerTensor.plusInPlace(largerTensor).asFlatDoubleArray(), 1e-6);
     }
 
     @Test
     public void smallerTensorTimesInPlaceLargerTensorBehavesSameAsTimes() {
-        DoubleTensor smallerTensor = DoubleTensor.create(2, new int[] {2, 2});
-        DoubleTensor largerTensor = DoubleTensor.create(3, new int[] {2, 2, 2});
+        DoubleTensor smallerTensor = Nd4jDoubleTensor.create(2, new int[] {2, 2});
+        DoubleTensor largerTensor = Nd4jDoubleTensor.create(3, new int[] {2, 2, 2});
 
         assertArrayEquals(smallerTensor.times(largerTensor).asFlatDoubleArray(), smallerTensor.timesInPlace(largerTensor).asFlatDoubleArray(), 1e-6);
     }
 
     @Test
     public void smallerTensorTimesInPlaceLargerTensorBehavesSameAsTimess() {
-        DoubleTensor smallerTensor = DoubleTensor.create(2, new int[] {2, 2});
-        DoubleTensor largerTensor = DoubleTensor.create(3, new int[] {2, 2, 2});
+        DoubleTensor smallerTensor = Nd4jDoubleTensor.create(2, new int[] {2, 2});
+        DoubleTensor largerTensor = Nd4jDoubleTensor.create(3, new int[] {2, 2, 2});
 
         assertArrayEquals(largerTensor.times(smallerTensor).asFlatDoubleArray(), largerTensor.timesInPlace(smallerTensor).asFlatDoubleArray(), 1e-6);
     }
 
     @Test
     public void smallerTensorDivInPlaceLargerTensorBehavesSameAsDiv() {
-        DoubleTensor smallerTensor = DoubleTensor.create(2, new int[] {2, 2});
-        DoubleTensor largerTensor = DoubleTensor.create(3, new int[] {2, 2, 2});
+        DoubleTensor smallerTensor = Nd4jDoubleTensor.create(2, new int[] {2, 2});
+        DoubleTensor largerTensor = Nd4jDoubleTensor.create(3, new int[] {2, 2, 2});
 
         assertArrayEquals(smallerTensor.div(largerTensor).asFlatDoubleArray(), smallerTensor.divInPlace(largerTensor).asFlatDoubleArray(), 1e-6);
     }
@@ -599,8 +599,8 @@ public class Nd4jDoubleTensorTest {
 
     @Test
     public void canBroadcastMultiplyDifferentRankedTensorsBigToSmall() {
-        DoubleTensor rank4 = DoubleTensor.ones(4, 2, 2, 2);
-        DoubleTensor matrix = DoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
+        DoubleTensor rank4 = Nd4jDoubleTensor.ones(new int[]{4, 2, 2, 2});
+        DoubleTensor matrix = Nd4jDoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
 
         DoubleTensor expected = Nd4jDoubleTensor.create(new double[]{
             1, 2, 3, 4, 1, 2, 3, 4,
@@ -616,8 +616,8 @@ public class Nd4jDoubleTensorTest {
 
     @Test
     public void canBroadcastMultiplyDifferentRankedTensorsSmallToBig() {
-        DoubleTensor rank4 = DoubleTensor.ones(4, 2, 2, 2);
-        DoubleTensor matrix = DoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
+        DoubleTensor rank4 = Nd4jDoubleTensor.ones(new int[]{4, 2, 2, 2});
+        DoubleTensor matrix = Nd4jDoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
 
         DoubleTensor expected = Nd4jDoubleTensor.create(new double[]{
             1, 2, 3, 4, 1, 2, 3, 4,
@@ -633,8 +633,8 @@ public class Nd4jDoubleTensorTest {
 
     @Test
     public void canBroadcastPlusDifferentRankedTensorsBigToSmall() {
-        DoubleTensor rank4 = DoubleTensor.zeros(new int[]{4, 2, 2, 2});
-        DoubleTensor matrix = DoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
+        DoubleTensor rank4 = Nd4jDoubleTensor.zeros(new int[]{4, 2, 2, 2});
+        DoubleTensor matrix = Nd4jDoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
 
         DoubleTensor expected = Nd4jDoubleTensor.create(new double[]{
             1, 2, 3, 4, 1, 2, 3, 4,
@@ -649,8 +649,8 @@ public class Nd4jDoubleTensorTest {
 
     @Test
     public void canBroadcastPlusDifferentRankedTensorsSmallToBig() {
-        DoubleTensor rank4 = DoubleTensor.zeros(new int[]{4, 2, 2, 2});
-        DoubleTensor matrix = DoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
+        DoubleTensor rank4 = Nd4jDoubleTensor.zeros(new int[]{4, 2, 2, 2});
+        DoubleTensor matrix = Nd4jDoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
 
         DoubleTensor expected = Nd4jDoubleTensor.create(new double[]{
             1, 2, 3, 4, 1, 2, 3, 4,
@@ -665,8 +665,8 @@ public class Nd4jDoubleTensorTest {
 
     @Test
     public void canBroadcastDivideDifferentRankedTensorsBigToSmall() {
-        DoubleTensor rank4 = DoubleTensor.ones(new int[]{4, 2, 2, 2}).times(10.);
-        DoubleTensor matrix = DoubleTensor.create(new double[]{1, 2, 5, 10}, new int[]{2, 2});
+        DoubleTensor rank4 = Nd4jDoubleTensor.ones(new int[]{4, 2, 2, 2}).times(10.);
+        DoubleTensor matrix = Nd4jDoubleTensor.create(new double[]{1, 2, 5, 10}, new int[]{2, 2});
 
         DoubleTensor expected = Nd4jDoubleTensor.create(new double[]{
             10, 5, 2, 1, 10, 5, 2, 1,
@@ -681,14 +681,14 @@ public class Nd4jDoubleTensorTest {
 
     @Test
     public void canBroadcastDivideDifferentRankedTensorsSmallToBig() {
-        DoubleTensor rank4 = DoubleTensor.ones(new int[]{4, 2, 2, 2}).times(10.);
-        DoubleTensor matrix = DoubleTensor.create(new double[]{1, 2, 5, 10}, new int[]{2, 2});
+        DoubleTensor rank4 = Nd4jDoubleTensor.ones(new int[]{4, 2, 2, 2}).times(10.);
+        DoubleTensor matrix = Nd4jDoubleTensor.create(new double[]{1, 2, 5, 10}, new int[]{2, 2});
 
         DoubleTensor expected = Nd4jDoubleTensor.create(new double[]{
-            10, 5, 2, 1, 10, 5, 2, 1,
-            10, 5, 2, 1, 10, 5, 2, 1,
-            10, 5, 2, 1, 10, 5, 2, 1,
-            10, 5, 2, 1, 10, 5, 2, 1,
+            0.1, 0.2, 0.5, 1, 0.1, 0.2, 0.5, 1,
+            0.1, 0.2, 0.5, 1, 0.1, 0.2, 0.5, 1,
+            0.1, 0.2, 0.5, 1, 0.1, 0.2, 0.5, 1,
+            0.1, 0.2, 0.5, 1, 0.1, 0.2, 0.5, 1,
         }, new int[]{4, 2, 2, 2});
 
         assertDivideOperationEquals(matrix, rank4, expected);
@@ -697,8 +697,8 @@ public class Nd4jDoubleTensorTest {
 
     @Test
     public void canBroadcastMinusDifferentRankedTensorsBigToSmall() {
-        DoubleTensor rank4 = DoubleTensor.ones(new int[]{4, 2, 2, 2}).times(5.);
-        DoubleTensor matrix = DoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
+        DoubleTensor rank4 = Nd4jDoubleTensor.ones(new int[]{4, 2, 2, 2}).times(5.);
+        DoubleTensor matrix = Nd4jDoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
 
         DoubleTensor expected = Nd4jDoubleTensor.create(new double[]{
             4, 3, 2, 1, 4, 3, 2, 1,
@@ -713,14 +713,14 @@ public class Nd4jDoubleTensorTest {
 
     @Test
     public void canBroadcastMinusDifferentRankedTensorsSmallToBig() {
-        DoubleTensor rank4 = DoubleTensor.ones(new int[]{4, 2, 2, 2}).times(5.);
-        DoubleTensor matrix = DoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
+        DoubleTensor rank4 = Nd4jDoubleTensor.ones(new int[]{4, 2, 2, 2}).times(5.);
+        DoubleTensor matrix = Nd4jDoubleTensor.create(new double[]{1, 2, 3, 4}, new int[]{2, 2});
 
         DoubleTensor expected = Nd4jDoubleTensor.create(new double[]{
-            4, 3, 2, 1, 4, 3, 2, 1,
-            4, 3, 2, 1, 4, 3, 2, 1,
-            4, 3, 2, 1, 4, 3, 2, 1,
-            4, 3, 2, 1, 4, 3, 2, 1
+            -4, -3, -2, -1, -4, -3, -2, -1,
+            -4, -3, -2, -1, -4, -3, -2, -1,
+            -4, -3, -2, -1, -4, -3, -2, -1,
+            -4, -3, -2, -1, -4, -3, -2, -1
         }, new int[]{4, 2, 2, 2});
 
         assertMinusOperationEquals(matrix, rank4, expected);
@@ -0,0 +1,115 @@
+package io.improbable.keanu.tensor.intgr;
+
+import org.junit.Test;
+
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JavaIntegerTensorTest {
+
+    @Test
+    public void integerTensorsAreCreatedAsJavaTensors() {
+        assertTrue(IntegerTensor.create(new int[]{1, 2, 3, 4}, 2, 2) instanceof JavaIntegerTensor);
+        assertTrue(IntegerTensor.ones(2, 3) instanceof JavaIntegerTensor);
+        assertTrue(IntegerTensor.zeros(new int[]{100, 100}) instanceof JavaIntegerTensor);
+        assertTrue(new KeanuRandom(1).nextInt(new int[]{2, 2}) instanceof JavaIntegerTensor);
+        assertTrue(DoubleTensor.create(new double[]{1.5, -1.5}, 1, 2).toInteger() instanceof JavaIntegerTensor);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotCreateWithMismatchedShape() {
+        JavaIntegerTensor.create(new int[]{1, 2, 3, 4}, new int[]{2, 3});
+    }
+
+    @Test
+    public void canDoElementwiseOperations() {
+        IntegerTensor a = JavaIntegerTensor.create(new int[]{1, 2, 3, -4}, new int[]{2, 2});
+        IntegerTensor b = JavaIntegerTensor.create(new int[]{5, 6, 2, 3}, new int[]{2, 2});
+
+        assertArrayEquals(new int[]{6, 8, 5, -1}, a.plus(b).asFlatIntegerArray());
+        assertArrayEquals(new int[]{-4, -4, 1, -7}, a.minus(b).asFlatIntegerArray());
+        assertArrayEquals(new int[]{5, 12, 6, -12}, a.times(b).asFlatIntegerArray());
+        assertArrayEquals(new int[]{0, 0, 1, -1}, a.div(b).asFlatIntegerArray());
+        assertArrayEquals(new int[]{1, 64, 9, -64}, a.pow(b).asFlatIntegerArray());
+        assertArrayEquals(new int[]{1, 2, 3, -4}, a.asFlatIntegerArray());
+    }
+
+    @Test
+    public void divisionTruncatesTowardsZeroLikeNd4j() {
+        int[] values = {7, -7, 5, -5};
+        IntegerTensor java = JavaIntegerTensor.create(values, new int[]{2, 2});
+        IntegerTensor nd4j = Nd4jIntegerTensor.create(values, new int[]{2, 2});
+
+        assertArrayEquals(nd4j.div(2).asFlatIntegerArray(), java.div(2).asFlatIntegerArray());
+    }
+
+    @Test
+    public void canBroadcastDifferentRanksInEitherOrder() {
+        IntegerTensor matrix = JavaIntegerTensor.create(new int[]{1, 2, 3, 4}, new int[]{2, 2});
+        IntegerTensor rank3 = JavaIntegerTensor.create(new int[]{10, 10, 10, 10, 20, 20, 20, 20}, new int[]{2, 2, 2});
+
+        IntegerTensor smallMinusBig = matrix.minus(rank3);
+        IntegerTensor bigMinusSmall = rank3.minus(matrix);
+
+        assertArrayEquals(new int[]{2, 2, 2}, smallMinusBig.getShape());
+        assertArrayEquals(new int[]{-9, -8, -7, -6, -19, -18, -17, -16}, smallMinusBig.asFlatIntegerArray());
+        assertArrayEquals(new int[]{9, 8, 7, 6, 19, 18, 17, 16}, bigMinusSmall.asFlatIntegerArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotBroadcastIncompatibleShapes() {
+        JavaIntegerTensor.ones(new int[]{2, 3}).plus(JavaIntegerTensor.ones(new int[]{2, 2}));
+    }
+
+    @Test
+    public void canOperateWithNd4jTensorsInEitherOrder() {
+        IntegerTensor java = JavaIntegerTensor.create(new int[]{1, 2, 3, 4}, new int[]{2, 2});
+        IntegerTensor nd4j = Nd4jIntegerTensor.create(new int[]{10, 20, 30, 40}, new int[]{2, 2});
+
+        assertArrayEquals(new int[]{11, 22, 33, 44}, java.plus(nd4j).asFlatIntegerArray());
+        assertArrayEquals(new int[]{11, 22, 33, 44}, nd4j.plus(java).asFlatIntegerArray());
+        assertEquals(nd4j.matrixMultiply(nd4j), JavaIntegerTensor.create(new int[]{10, 20, 30, 40}, new int[]{2, 2}).matrixMultiply(nd4j));
+    }
+
+    @Test
+    public void sumSliceAndConcatMatchNd4j() {
+        int[] values = {1, 2, 3, 4, 5, 6};
+        IntegerTensor java = JavaIntegerTensor.create(values, new int[]{2, 3});
+        IntegerTensor nd4j = Nd4jIntegerTensor.create(values, new int[]{2, 3});
+
+        assertEquals(nd4j.sum(0), java.sum(0));
+        assertArrayEquals(nd4j.sum(1).getShape(), java.sum(1).getShape());
+        assertEquals(nd4j.slice(1, 2), java.slice(1, 2));
+        assertEquals(nd4j.transpose(), java.transpose());
+        assertEquals(nd4j.concat(0, nd4j), java.concat(0, java));
+        assertEquals(nd4j.concat(1, nd4j), java.concat(1, java));
+    }
+
+    @Test
+    public void canUseMasksAndComparisons() {
+        IntegerTensor a = JavaIntegerTensor.create(new int[]{1, 5, 3, 4}, new int[]{2, 2});
+        IntegerTensor threshold = JavaIntegerTensor.create(new int[]{2, 2, 4, 4}, new int[]{2, 2});
+
+        IntegerTensor mask = a.getGreaterThanOrEqualToMask(threshold);
+        BooleanTensor lessThan = a.lessThan(threshold);
+
+        assertArrayEquals(new int[]{0, 1, 0, 1}, mask.asFlatIntegerArray());
+        assertArrayEquals(new int[]{1, -1, 3, -1}, a.setWithMask(mask, -1).asFlatIntegerArray());
+        assertArrayEquals(new Boolean[]{true, false, true, false}, lessThan.asFlatArray());
+    }
+
+    @Test
+    public void convertsToDoubleExactly() {
+        IntegerTensor a = JavaIntegerTensor.create(new int[]{Integer.MAX_VALUE, -3}, new int[]{1, 2});
+
+        DoubleTensor asDouble = a.toDouble();
+
+        assertArrayEquals(new int[]{1, 2}, asDouble.getShape());
+        assertArrayEquals(new double[]{Integer.MAX_VALUE, -3}, asDouble.asFlatDoubleArray(), 0.0);
+    }
+}
@@ -0,0 +1,142 @@
+package io.improbable.keanu.util.binary;
+
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.mcmc.MetropolisHastings;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.NetworkState;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.intgr.probabilistic.PoissonVertex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BinarySamplesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripsStreamedSamplesOfEveryType() throws IOException {
+        KeanuRandom random = new KeanuRandom(1);
+        DoubleVertex mu = new GaussianVertex(new int[]{2, 3}, 0, 1);
+        DoubleVertex observed = new GaussianVertex(mu, 1);
+        observed.observe(DoubleTensor.create(new double[]{1, 2, 3, 4, 5, 6}, 2, 3));
+        PoissonVertex count = new PoissonVertex(3.0);
+        BernoulliVertex flag = new BernoulliVertex(0.3);
+
+        BayesianNetwork network = new BayesianNetwork(Arrays.asList(mu, observed, count, flag));
+        network.probeForNonZeroProbability(100, random);
+
+        List<Vertex<? extends Tensor>> vertices = Arrays.asList(mu, count, flag);
+        Path path = folder.newFile().toPath();
+
+        List<NetworkState> states = MetropolisHastings.withDefaultConfig(random)
+            .generatePosteriorSamples(network, vertices)
+            .stream()
+            .limit(25)
+            .collect(Collectors.toList());
+
+        try (BinarySampleWriter writer = new BinarySampleWriter(path, vertices, 10)) {
+            states.forEach(writer);
+        }
+
+        BinarySamples samples = BinarySamples.read(path);
+
+        assertEquals(25, samples.size());
+        assertEquals(3, samples.getBatchCount());
+        assertEquals(5, samples.getBatchSize(2));
+        assertArrayEquals(new int[]{2, 3}, samples.getShape(mu.getId()));
+
+        for (int i = 0; i < states.size(); i++) {
+            assertEquals(states.get(i).get(mu), samples.getDoubleTensor(mu.getId(), i));
+            assertEquals(states.get(i).get(count), samples.getIntegerTensor(count.getId(), i));
+            assertEquals(states.get(i).get(flag), samples.getBooleanTensor(flag.getId(), i));
+        }
+    }
+
+    @Test
+    public void exposesColumnsOfEachBatchWithoutCopying() throws IOException {
+        GaussianVertex vertex = new GaussianVertex(new int[]{1, 2}, 0, 1);
+        vertex.setValue(DoubleTensor.create(new double[]{0, 0}));
+
+        NetworkSamples inMemory = new NetworkSamples(
+            singletonSamples(vertex, Arrays.asList(
+                DoubleTensor.create(new double[]{1, 10}),
+                DoubleTensor.create(new double[]{2, 20}),
+                DoubleTensor.create(new double[]{3, 30})
+            )),
+            3
+        );
+
+        Path path = folder.newFile().toPath();
+        try (BinarySampleWriter writer = new BinarySampleWriter(path, Arrays.asList(vertex), 2)) {
+            writer.writeAll(inMemory);
+        }
+
+        BinarySamples samples = BinarySamples.read(path);
+
+        DoubleBuffer secondElementFirstBatch = samples.getDoubleColumn(vertex.getId(), 1, 0);
+        assertEquals(2, secondElementFirstBatch.remaining());
+        assertEquals(10, secondElementFirstBatch.get(0), 0.0);
+        assertEquals(20, secondElementFirstBatch.get(1), 0.0);
+        assertEquals(3, samples.getDoubleColumn(vertex.getId(), 0, 1).get(0), 0.0);
+
+        assertEquals(
+            inMemory.get(vertex).asList(),
+            samples.toNetworkSamples().get(vertex).asList()
+        );
+    }
+
+    @Test
+    public void writesEmptyFile() throws IOException {
+        Vertex<IntegerTensor> vertex = new PoissonVertex(1.0);
+        vertex.setValue(IntegerTensor.scalar(1));
+        Path path = folder.newFile().toPath();
+
+        new BinarySampleWriter(path, Arrays.asList(vertex)).close();
+
+        BinarySamples samples = BinarySamples.read(path);
+        assertEquals(0, samples.size());
+        assertEquals(Arrays.asList(vertex.getId()), samples.getVertexIds());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsSamplesOfTheWrongType() throws IOException {
+        BernoulliVertex vertex = new BernoulliVertex(0.5);
+        vertex.setValue(BooleanTensor.scalar(true));
+        Path path = folder.newFile().toPath();
+
+        try (BinarySampleWriter writer = new BinarySampleWriter(path, Arrays.asList(vertex))) {
+            writer.accept(new NetworkSamples(singletonSamples(vertex, Arrays.asList(BooleanTensor.scalar(true))), 1)
+                .toNetworkStates().get(0));
+        }
+
+        BinarySamples.read(path).getDoubleTensor(vertex.getId(), 0);
+    }
+
+    private static Map<Long, List<?>> singletonSamples(Vertex<?> vertex, List<?> samples) {
+        Map<Long, List<?>> samplesByVertex = new HashMap<>();
+        samplesByVertex.put(vertex.getId(), samples);
+        return samplesByVertex;
+    }
+}
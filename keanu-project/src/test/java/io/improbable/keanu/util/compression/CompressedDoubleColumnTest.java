@@ -0,0 +1,126 @@
+package io.improbable.keanu.util.compression;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompressedDoubleColumnTest {
+
+    @Test
+    public void roundTripsSpecialValues() {
+        double[] values = {
+            0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+            Double.MIN_VALUE, Double.MAX_VALUE, 1.0, 1.0, 1.0, -1e-300, 42
+        };
+
+        CompressedDoubleColumn column = new CompressedDoubleColumn(5);
+        for (double value : values) {
+            column.add(value);
+        }
+
+        assertEquals(values.length, column.size());
+        assertEquals(3, column.getBlockCount());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(column.get(i)));
+        }
+    }
+
+    @Test
+    public void compressesAutocorrelatedChainWithRepeatsByAnOrderOfMagnitude() {
+        double[] chain = metropolisLikeChain(100000);
+
+        CompressedDoubleColumn column = new CompressedDoubleColumn();
+        for (double value : chain) {
+            column.add(value);
+        }
+
+        assertArrayEquals(chain, column.toArray(), 0.0);
+        long uncompressedBytes = chain.length * (long) Double.BYTES;
+        assertTrue(column.getCompressedSizeInBytes() * 4 < uncompressedBytes);
+    }
+
+    @Test
+    public void canReadWhileRepeatsArePending() {
+        CompressedDoubleColumn column = new CompressedDoubleColumn(10);
+        column.add(1.5);
+        column.add(1.5);
+        column.add(1.5);
+
+        assertEquals(1.5, column.get(2), 0.0);
+
+        column.add(2.5);
+        assertEquals(1.5, column.get(2), 0.0);
+        assertEquals(2.5, column.get(3), 0.0);
+    }
+
+    @Test
+    public void randomAccessMatchesSequentialValues() {
+        double[] chain = metropolisLikeChain(5000);
+        CompressedDoubleColumn column = new CompressedDoubleColumn(128);
+        for (double value : chain) {
+            column.add(value);
+        }
+
+        Random random = new Random(2);
+        for (int i = 0; i < 1000; i++) {
+            int index = random.nextInt(chain.length);
+            assertEquals(chain[index], column.get(index), 0.0);
+        }
+        assertArrayEquals(
+            Arrays.copyOfRange(chain, 256, 384),
+            column.getBlock(2),
+            0.0
+        );
+    }
+
+    @Test
+    public void roundTripsThroughStorage() throws IOException {
+        double[] chain = metropolisLikeChain(3000);
+        CompressedDoubleColumn column = new CompressedDoubleColumn(100);
+        for (double value : chain) {
+            column.add(value);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        column.write(new DataOutputStream(bytes));
+        CompressedDoubleColumn read = CompressedDoubleColumn.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertArrayEquals(chain, read.toArray(), 0.0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotAddToColumnReadFromStorage() throws IOException {
+        CompressedDoubleColumn column = new CompressedDoubleColumn();
+        column.add(1.0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        column.write(new DataOutputStream(bytes));
+        CompressedDoubleColumn.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))).add(2.0);
+    }
+
+    /**
+     * A random walk with low precision steps where most proposals are rejected
+     */
+    private static double[] metropolisLikeChain(int length) {
+        Random random = new Random(1);
+        double[] chain = new double[length];
+        double current = 10.0;
+        for (int i = 0; i < length; i++) {
+            if (random.nextDouble() < 0.2) {
+                current += Math.round(random.nextGaussian() * 1000) / 1024.0;
+            }
+            chain[i] = current;
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,132 @@
+package io.improbable.keanu.util.compression;
+
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.mcmc.MetropolisHastings;
+import io.improbable.keanu.algorithms.mcmc.NetworkSamplesGenerator;
+import io.improbable.keanu.algorithms.mcmc.SamplingAlgorithm;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.NetworkState;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.intgr.probabilistic.PoissonVertex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompressedSamplesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DoubleVertex A;
+    private PoissonVertex B;
+    private BernoulliVertex C;
+
+    @Test
+    public void generatesSameSamplesWhenCompressed() {
+        NetworkSamples uncompressed = sample(false);
+        List<Vertex<? extends Tensor>> vertices = Arrays.asList(A, B, C);
+
+        NetworkSamples compressed = new NetworkSamplesGenerator(new ReplayingSamplingAlgorithm(uncompressed))
+            .compressSamples(true)
+            .generate(uncompressed.size());
+
+        assertEquals(uncompressed.size(), compressed.size());
+        for (Vertex<? extends Tensor> vertex : vertices) {
+            assertEquals(uncompressed.get(vertex).asList(), compressed.get(vertex).asList());
+        }
+
+        assertEquals(uncompressed.getDoubleTensorSamples(A).getAverages(), compressed.getDoubleTensorSamples(A).getAverages());
+        assertEquals(uncompressed.get(B).getMode(), compressed.get(B).getMode());
+        assertEquals(uncompressed.drop(100).get(A).asList(), compressed.drop(100).get(A).asList());
+    }
+
+    @Test
+    public void compressesSamplesFromSampler() {
+        NetworkSamples compressed = sample(true);
+
+        assertEquals(2000, compressed.size());
+        assertEquals(2000, compressed.get(C).asList().size());
+    }
+
+    @Test
+    public void roundTripsThroughFile() throws IOException {
+        NetworkSamples samples = sample(false);
+        List<Vertex<? extends Tensor>> vertices = Arrays.asList(A, B, C);
+        Path path = folder.newFile().toPath();
+
+        CompressedSamples.write(samples, vertices, path);
+        NetworkSamples read = CompressedSamples.read(path);
+
+        assertEquals(samples.size(), read.size());
+        for (Vertex<? extends Tensor> vertex : vertices) {
+            assertEquals(samples.get(vertex).asList(), read.get(vertex).asList());
+        }
+    }
+
+    @Test
+    public void compressedListUsesLessMemoryThanRawDoubles() {
+        NetworkSamples samples = sample(false);
+        CompressedTensorList<Tensor<?>> compressed = new CompressedTensorList<>();
+        compressed.addAll((List) samples.get(A).asList());
+
+        assertTrue(compressed.getCompressedSizeInBytes() < samples.size() * 2L * Double.BYTES);
+    }
+
+    private NetworkSamples sample(boolean compress) {
+        KeanuRandom random = new KeanuRandom(1);
+        A = new GaussianVertex(new int[]{1, 2}, 0, 1);
+        A.setValue(new double[]{0, 0});
+        DoubleVertex observed = new GaussianVertex(A, 1);
+        observed.observe(new double[]{0.5, -0.5});
+        B = new PoissonVertex(2.0);
+        B.setValue(2);
+        C = new BernoulliVertex(0.5);
+        C.setValue(true);
+
+        BayesianNetwork network = new BayesianNetwork(Arrays.asList(A, observed, B, C));
+
+        return MetropolisHastings.withDefaultConfig(random)
+            .generatePosteriorSamples(network, Arrays.asList(A, B, C))
+            .compressSamples(compress)
+            .generate(2000);
+    }
+
+    private static class ReplayingSamplingAlgorithm implements SamplingAlgorithm {
+
+        private final List<NetworkState> states;
+        private int index = 0;
+
+        ReplayingSamplingAlgorithm(NetworkSamples samples) {
+            this.states = samples.toNetworkStates();
+        }
+
+        @Override
+        public void step() {
+            index++;
+        }
+
+        @Override
+        public void sample(Map<Long, List<?>> samples) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NetworkState sample() {
+            return states.get(index++);
+        }
+    }
+}
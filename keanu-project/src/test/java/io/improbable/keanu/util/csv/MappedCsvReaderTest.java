@@ -0,0 +1,122 @@
+package io.improbable.keanu.util.csv;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MappedCsvReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsAllColumnsAsDoublesByDefault() throws IOException {
+        File file = writeFile("a,b,c\n1.5,2,-3e2\n4,5.25,6\n");
+
+        CsvColumns columns = ReadCsv.fromFileMapped(file).read();
+
+        assertEquals(Arrays.asList("a", "b", "c"), columns.getHeader());
+        assertEquals(2, columns.getRowCount());
+        assertArrayEquals(new double[]{1.5, 4}, columns.getDoubleColumn("a"), 0.0);
+        assertArrayEquals(new double[]{2, 5.25}, columns.getDoubleColumn("b"), 0.0);
+        assertArrayEquals(new double[]{-300, 6}, columns.getDoubleColumn("c"), 0.0);
+    }
+
+    @Test
+    public void readsOnlySelectedColumns() throws IOException {
+        File file = writeFile("a, b ,c,d\nx, 1 ,2.5,y\nz,3,4.5,w\r\n\n");
+
+        CsvColumns columns = ReadCsv.fromFileMapped(file)
+            .selectIntegerColumns("b")
+            .selectDoubleColumns("c")
+            .read();
+
+        assertArrayEquals(new int[]{1, 3}, columns.getIntegerColumn("b"));
+        assertArrayEquals(new double[]{2.5, 4.5}, columns.getDoubleColumn("c"), 0.0);
+        assertEquals(IntegerTensor.create(new int[]{1, 3}), columns.getIntegerTensor("b"));
+        assertEquals(DoubleTensor.create(new double[]{2.5, 4.5}), columns.getDoubleTensor("c"));
+    }
+
+    @Test
+    public void readsByIndexWithoutHeaderAndWithOtherDelimiter() throws IOException {
+        File file = writeFile("1\t2\n3\t4");
+
+        CsvColumns columns = ReadCsv.fromFileMapped(file)
+            .expectHeader(false)
+            .withDelimiter('\t')
+            .selectIntegerColumns(1)
+            .read();
+
+        assertArrayEquals(new int[]{2, 4}, columns.getIntegerColumn(1));
+    }
+
+    @Test
+    public void parsesSameValuesAsDoubleParseDoubleAcrossManyChunks() throws IOException {
+        Random random = new Random(1);
+        int rows = 5000;
+        String[] asText = new String[rows];
+        int[] integers = new int[rows];
+        StringBuilder csv = new StringBuilder("x,n\n");
+
+        for (int i = 0; i < rows; i++) {
+            switch (i % 4) {
+                case 0:
+                    asText[i] = Double.toString(random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20));
+                    break;
+                case 1:
+                    asText[i] = String.format("%.6f", random.nextDouble());
+                    break;
+                case 2:
+                    asText[i] = Long.toString(random.nextLong());
+                    break;
+                default:
+                    asText[i] = "-0.000" + random.nextInt(1000) + "e-3";
+            }
+            integers[i] = random.nextInt();
+            csv.append(asText[i]).append(',').append(integers[i]).append('\n');
+        }
+
+        CsvColumns columns = ReadCsv.fromFileMapped(writeFile(csv.toString()))
+            .withChunkSize(1000)
+            .selectDoubleColumns("x")
+            .selectIntegerColumns("n")
+            .read();
+
+        double[] expected = Arrays.stream(asText).mapToDouble(Double::parseDouble).toArray();
+        assertEquals(rows, columns.getRowCount());
+        assertArrayEquals(expected, columns.getDoubleColumn("x"), 0.0);
+        assertArrayEquals(integers, columns.getIntegerColumn("n"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectsNonIntegerValuesInIntegerColumn() throws IOException {
+        ReadCsv.fromFileMapped(writeFile("a\n1.5\n"))
+            .selectIntegerColumns("a")
+            .read();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownColumnTitle() throws IOException {
+        ReadCsv.fromFileMapped(writeFile("a\n1\n"))
+            .selectDoubleColumns("b")
+            .read();
+    }
+
+    private File writeFile(String contents) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
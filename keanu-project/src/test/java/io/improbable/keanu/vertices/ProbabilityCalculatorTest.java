@@ -0,0 +1,143 @@
+package io.improbable.keanu.vertices;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.NetworkState;
+import io.improbable.keanu.network.SimpleNetworkState;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.KeanuRandom;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
+import io.improbable.keanu.vertices.dbl.probabilistic.HalfGaussianVertex;
+import io.improbable.keanu.vertices.dbl.probabilistic.LaplaceVertex;
+
+public class ProbabilityCalculatorTest {
+
+    private KeanuRandom random;
+
+    @Before
+    public void setup() {
+        random = new KeanuRandom(1);
+    }
+
+    @Test
+    public void batchedLogProbMatchesOneStateAtATime() {
+        GaussianVertex a = new GaussianVertex(0, 1);
+        GaussianVertex b = new GaussianVertex(new int[]{2, 3}, 0, 1);
+        HalfGaussianVertex c = new HalfGaussianVertex(new int[]{2, 3}, 2);
+        DoubleVertex mu = a.times(b).plus(a.exp()).minus(c.log());
+
+        GaussianVertex observedGaussian = new GaussianVertex(new int[]{2, 3}, mu, 1);
+        observedGaussian.observe(DoubleTensor.create(new double[]{1, 2, 3, 4, 5, 6}, 2, 3));
+        LaplaceVertex observedLaplace = new LaplaceVertex(b.abs(), 1);
+        observedLaplace.observe(DoubleTensor.create(new double[]{0.5, 1, 1.5, 2, 2.5, 3}, 2, 3));
+
+        BayesianNetwork network = new BayesianNetwork(a.getConnectedGraph());
+        List<NetworkState> states = randomStates(network, 5);
+
+        assertArrayEquals(logProbsOneAtATime(network, states), network.getLogOfMasterP(states), 1e-10);
+    }
+
+    @Test
+    public void fallsBackToOneStateAtATimeForUnbatchableVertices() {
+        GaussianVertex a = new GaussianVertex(new int[]{2, 2}, 0, 1);
+        GaussianVertex observed = new GaussianVertex(a.sum(), 1);
+        observed.observe(2.0);
+
+        BayesianNetwork network = new BayesianNetwork(a.getConnectedGraph());
+        List<NetworkState> states = randomStates(network, 4);
+
+        assertArrayEquals(logProbsOneAtATime(network, states), network.getLogOfMasterP(states), 1e-10);
+    }
+
+    @Test
+    public void impossibleStatesOnlyAffectTheirOwnLogProb() {
+        HalfGaussianVertex a = new HalfGaussianVertex(1);
+        BayesianNetwork network = new BayesianNetwork(a.getConnectedGraph());
+
+        double[] logProbs = network.getLogOfMasterP(states(a, -1.0, 1.0));
+
+        assertEquals(Double.NEGATIVE_INFINITY, logProbs[0], 0.0);
+        assertEquals(a.logPdf(1.0), logProbs[1], 1e-10);
+    }
+
+    @Test
+    public void canCalculateBatchesLargerThanTheJavaTensorLimit() {
+        GaussianVertex a = new GaussianVertex(0, 1);
+        GaussianVertex observed = new GaussianVertex(a.times(2), 1);
+        observed.observe(1.0);
+
+        BayesianNetwork network = new BayesianNetwork(a.getConnectedGraph());
+        List<NetworkState> states = randomStates(network, 5000);
+
+        assertArrayEquals(logProbsOneAtATime(network, states), network.getLogOfMasterP(states), 1e-10);
+    }
+
+    @Test
+    public void latentValuesAreRestored() {
+        GaussianVertex a = new GaussianVertex(0, 1);
+        DoubleVertex aPlusOne = a.plus(1);
+        GaussianVertex observed = new GaussianVertex(aPlusOne, 1);
+        observed.observe(1.0);
+        a.setAndCascade(0.5);
+
+        BayesianNetwork network = new BayesianNetwork(a.getConnectedGraph());
+        network.getLogOfMasterP(states(a, 2.0, 3.0));
+
+        assertEquals(0.5, a.getValue().scalar(), 0.0);
+        assertEquals(1.5, aPlusOne.getValue().scalar(), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsStatesWithoutAValueForEachLatentVertex() {
+        GaussianVertex a = new GaussianVertex(0, 1);
+        GaussianVertex b = new GaussianVertex(a, 1);
+
+        BayesianNetwork network = new BayesianNetwork(a.getConnectedGraph());
+        network.getLogOfMasterP(states(a, 1.0));
+    }
+
+    private List<NetworkState> randomStates(BayesianNetwork network, int count) {
+        List<NetworkState> states = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<Long, DoubleTensor> values = new HashMap<>();
+            for (Vertex<?> latent : network.getLatentVertices()) {
+                values.put(latent.getId(), random.nextGaussian(latent.getShape()).absInPlace());
+            }
+            states.add(new SimpleNetworkState(values));
+        }
+        return states;
+    }
+
+    private static List<NetworkState> states(Vertex<DoubleTensor> vertex, double... values) {
+        List<NetworkState> states = new ArrayList<>();
+        for (double value : values) {
+            Map<Long, DoubleTensor> state = new HashMap<>();
+            state.put(vertex.getId(), DoubleTensor.scalar(value));
+            states.add(new SimpleNetworkState(state));
+        }
+        return states;
+    }
+
+    private static double[] logProbsOneAtATime(BayesianNetwork network, List<NetworkState> states) {
+        double[] logProbs = new double[states.size()];
+        for (int i = 0; i < states.size(); i++) {
+            for (Vertex latent : network.getLatentVertices()) {
+                latent.setValue(states.get(i).get(latent));
+            }
+            network.getLatentVertices().forEach(v -> v.setAndCascade(v.getValue()));
+            logProbs[i] = network.getLogOfMasterP();
+        }
+        return logProbs;
+    }
+}
@@ -159,8 +159,10 @@ public class BernoulliVertexTest {
             0.0
         );
 
-        assertEquals(expectedWrtA, dLogPmf.get(A.getId()));
-        assertEquals(expectedWrtB, dLogPmf.get(B.getId()));
+        assertArrayEquals(expectedWrtA.getShape(), dLogPmf.get(A.getId()).getShape());
+        assertArrayEquals(expectedWrtA.asFlatDoubleArray(), dLogPmf.get(A.getId()).asFlatDoubleArray(), 1e-10);
+        assertArrayEquals(expectedWrtB.getShape(), dLogPmf.get(B.getId()).getShape());
+        assertArrayEquals(expectedWrtB.asFlatDoubleArray(), dLogPmf.get(B.getId()).asFlatDoubleArray(), 1e-10);
     }
 
     @Test
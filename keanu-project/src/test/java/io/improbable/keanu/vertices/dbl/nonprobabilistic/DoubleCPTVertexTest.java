@@ -10,6 +10,7 @@ import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.bool.BoolVertex;
 import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.nonprobabilistic.operators.unary.DoubleUnaryOpLambda;
 import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
 import io.improbable.keanu.vertices.generic.nonprobabilistic.ConditionalProbabilityTable;
 
@@ -70,4 +71,20 @@ public class DoubleCPTVertexTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void onlyDifferentiatesTheSelectedResult() {
+        DoubleVertex A = new GaussianVertex(0, 1);
+        A.setValue(2.0);
+        BoolVertex predicate = new BernoulliVertex(0.5);
+        predicate.setValue(true);
+        DoubleVertex notDifferentiable = new DoubleUnaryOpLambda<>(A, a -> a.times(3.0));
+
+        DoubleCPTVertex cpt = ConditionalProbabilityTable.of(predicate)
+            .when(true).then(A.times(A))
+            .orDefault(notDifferentiable);
+
+        DoubleTensor actual = cpt.getDualNumber().getPartialDerivatives().withRespectTo(A);
+
+        assertEquals(4.0, actual.scalar(), 1e-10);
+    }
 }
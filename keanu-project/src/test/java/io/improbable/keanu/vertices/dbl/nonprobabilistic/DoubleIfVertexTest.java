@@ -1,5 +1,7 @@
 package io.improbable.keanu.vertices.dbl.nonprobabilistic;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -11,6 +13,7 @@ import io.improbable.keanu.vertices.bool.BoolVertex;
 import io.improbable.keanu.vertices.bool.nonprobabilistic.ConstantBoolVertex;
 import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
 import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.nonprobabilistic.operators.unary.DoubleUnaryOpLambda;
 import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
 import io.improbable.keanu.vertices.dbl.probabilistic.UniformVertex;
 import io.improbable.keanu.vertices.generic.nonprobabilistic.If;
@@ -253,4 +256,50 @@ public class DoubleIfVertexTest {
         Assert.assertEquals(1.25, b.getValue().scalar(), 1e-6);
     }
 
+    @Test
+    public void onlyCalculatesTheSelectedBranchWhenCascading() {
+        AtomicInteger thnCalculations = new AtomicInteger();
+        AtomicInteger elsCalculations = new AtomicInteger();
+        BoolVertex predicate = new BernoulliVertex(0.5);
+        predicate.setValue(true);
+        DoubleVertex a = new GaussianVertex(0, 1);
+        a.setValue(1.0);
+        DoubleVertex thn = new DoubleUnaryOpLambda<>(a, x -> {
+            thnCalculations.incrementAndGet();
+            return x.times(2.0);
+        });
+        DoubleVertex els = new DoubleUnaryOpLambda<>(a, x -> {
+            elsCalculations.incrementAndGet();
+            return x.times(3.0);
+        });
+        DoubleVertex ifVertex = If.isTrue(predicate).then(thn).orElse(els);
+        new GaussianVertex(ifVertex, 1.0);
+
+        a.setAndCascade(DoubleTensor.scalar(2.0));
+
+        Assert.assertEquals(4.0, ifVertex.getValue().scalar(), 0.0);
+        Assert.assertEquals(1, thnCalculations.get());
+        Assert.assertEquals(0, elsCalculations.get());
+
+        predicate.setAndCascade(BooleanTensor.scalar(false));
+
+        Assert.assertEquals(6.0, ifVertex.getValue().scalar(), 0.0);
+        Assert.assertEquals(1, thnCalculations.get());
+        Assert.assertEquals(1, elsCalculations.get());
+    }
+
+    @Test
+    public void onlyDifferentiatesTheSelectedBranch() {
+        BoolVertex predicate = new BernoulliVertex(0.5);
+        predicate.setValue(false);
+        DoubleVertex a = new GaussianVertex(0, 1);
+        a.setValue(3.0);
+        DoubleVertex notDifferentiable = new DoubleUnaryOpLambda<>(a, x -> x.times(2.0));
+
+        DoubleVertex ifVertex = If.isTrue(predicate).then(notDifferentiable).orElse(a.times(a));
+
+        DoubleTensor dIfdA = ifVertex.getDualNumber().getPartialDerivatives().withRespectTo(a);
+
+        Assert.assertEquals(6.0, dIfdA.scalar(), 1e-10);
+    }
 }
@@ -0,0 +1,137 @@
+package io.improbable.keanu.vertices.dbl.nonprobabilistic.diff;
+
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.dbl.probabilistic.GaussianVertex;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PartialDerivativesTest {
+
+    private static final long ID = 1;
+    private static final int[] SHAPE = new int[]{2, 3};
+
+    private final DoubleTensor multiplier = DoubleTensor.create(new double[]{1, 2, 3, 4, 5, 6}, SHAPE);
+
+    @Test
+    public void partialWithRespectToSelfIsStructuredIdentity() {
+        PartialDerivatives structured = PartialDerivatives.withRespectToSelf(ID, SHAPE);
+
+        assertTrue(structured.getStructured(ID) instanceof DiagonalPartial);
+        assertEquals(denseIdentity(), structured.withRespectTo(ID));
+    }
+
+    @Test
+    public void elementwiseOperationsStayDiagonal() {
+        PartialDerivatives structured = PartialDerivatives.withRespectToSelf(ID, SHAPE)
+            .multiplyBy(multiplier)
+            .divideBy(2.0)
+            .add(PartialDerivatives.withRespectToSelf(ID, SHAPE).multiplyBy(3.0))
+            .divideBy(multiplier.plus(1));
+        PartialDerivatives dense = denseIdentityPartial()
+            .multiplyBy(multiplier)
+            .divideBy(2.0)
+            .add(denseIdentityPartial().multiplyBy(3.0))
+            .divideBy(multiplier.plus(1));
+
+        assertTrue(structured.getStructured(ID) instanceof DiagonalPartial);
+        assertEquals(dense.withRespectTo(ID), structured.withRespectTo(ID));
+    }
+
+    @Test
+    public void summingOverOfDimensionsMatchesDense() {
+        PartialDerivatives structured = PartialDerivatives.withRespectToSelf(ID, SHAPE).multiplyBy(multiplier);
+        PartialDerivatives dense = denseIdentityPartial().multiplyBy(multiplier);
+
+        for (boolean reshape : new boolean[]{true, false}) {
+            DoubleTensor expected = dense.sum(reshape, 0, 1).withRespectTo(ID);
+            DoubleTensor actual = structured.sum(reshape, 1, 0).withRespectTo(ID);
+
+            assertArrayEquals(expected.getShape(), actual.getShape());
+            assertEquals(expected, actual);
+        }
+
+        assertEquals(dense.sum(false, 1).withRespectTo(ID), structured.sum(false, 1).withRespectTo(ID));
+    }
+
+    @Test
+    public void slicingBecomesSparseAndMatchesDense() {
+        PartialDerivatives structured = PartialDerivatives.withRespectToSelf(ID, SHAPE).multiplyBy(multiplier).slice(1, 2);
+        PartialDerivatives dense = denseIdentityPartial().multiplyBy(multiplier).slice(1, 2);
+
+        SparsePartial sparse = (SparsePartial) structured.getStructured(ID);
+        assertEquals(2, sparse.getEntryCount());
+        assertEquals(dense.withRespectTo(ID), structured.withRespectTo(ID));
+
+        DoubleTensor sliceMultiplier = DoubleTensor.create(new double[]{-1, 7}, 2, 1);
+        assertEquals(
+            dense.multiplyBy(sliceMultiplier).add(dense).sum(true, 0, 1).withRespectTo(ID),
+            structured.multiplyBy(sliceMultiplier).add(structured).sum(true, 0, 1).withRespectTo(ID)
+        );
+    }
+
+    @Test
+    public void reshapeKeepsStructure() {
+        PartialDerivatives structured = PartialDerivatives.withRespectToSelf(ID, SHAPE).multiplyBy(multiplier).reshape(2, new int[]{3, 2});
+        PartialDerivatives dense = denseIdentityPartial().multiplyBy(multiplier).reshape(2, new int[]{3, 2});
+
+        assertTrue(structured.getStructured(ID) instanceof DiagonalPartial);
+        assertEquals(dense.withRespectTo(ID), structured.withRespectTo(ID));
+    }
+
+    @Test
+    public void broadcastingOperandBecomesDense() {
+        int[] rowShape = new int[]{1, 3};
+        DoubleTensor denseRowIdentity = DoubleTensor.eye(3).reshape(1, 3, 1, 3);
+
+        PartialDerivatives structured = PartialDerivatives.withRespectToSelf(ID, rowShape).multiplyBy(multiplier);
+        PartialDerivatives dense = new PartialDerivatives(ID, denseRowIdentity).multiplyBy(multiplier);
+
+        assertNull(structured.getStructured(ID));
+        assertArrayEquals(new int[]{2, 3, 1, 3}, structured.withRespectTo(ID).getShape());
+        assertEquals(dense.withRespectTo(ID), structured.withRespectTo(ID));
+    }
+
+    @Test
+    public void addingDenseToStructuredMatchesDense() {
+        PartialDerivatives other = denseIdentityPartial().multiplyBy(multiplier);
+
+        PartialDerivatives structured = PartialDerivatives.withRespectToSelf(ID, SHAPE).subtract(other);
+        PartialDerivatives dense = denseIdentityPartial().subtract(other);
+
+        assertEquals(dense.withRespectTo(ID), structured.withRespectTo(ID));
+        assertEquals(dense.asMap().keySet(), structured.asMap().keySet());
+    }
+
+    @Test
+    public void canCalculateGradientOfLargeVectorLatent() {
+        int length = 10000;
+        DoubleVertex mu = new GaussianVertex(new int[]{1, length}, 0, 1);
+        mu.setValue(DoubleTensor.linspace(-1, 1, length));
+        GaussianVertex observed = new GaussianVertex(mu, 1);
+        DoubleTensor value = DoubleTensor.zeros(new int[]{1, length});
+        observed.observe(value);
+
+        Map<Long, DoubleTensor> dLogProb = observed.dLogProb(value);
+
+        DoubleTensor dLogProbWrtMu = dLogProb.get(mu.getId());
+        assertArrayEquals(new int[]{1, length}, dLogProbWrtMu.getShape());
+        assertEquals(mu.getValue().unaryMinus(), dLogProbWrtMu);
+    }
+
+    private static DoubleTensor denseIdentity() {
+        int length = (int) TensorShape.getLength(SHAPE);
+        return DoubleTensor.eye(length).reshape(TensorShape.concat(SHAPE, SHAPE));
+    }
+
+    private static PartialDerivatives denseIdentityPartial() {
+        return new PartialDerivatives(ID, denseIdentity());
+    }
+}
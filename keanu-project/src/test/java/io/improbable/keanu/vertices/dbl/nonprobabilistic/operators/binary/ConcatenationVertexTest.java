@@ -213,13 +213,13 @@ public class ConcatenationVertexTest {
     @Test
     public void canConcatenateSimpleAutoDiffForwardSharedParentsAndDifferentSize() {
         DoubleVertex a = new UniformVertex(0, 10);
-        a.setValue(DoubleTensor.create(new double[]{10, 15, 20, 25}, 2, 3));
+        a.setValue(DoubleTensor.create(new double[]{10, 15, 20, 25, 30, 35}, 2, 3));
 
         DoubleVertex b = new UniformVertex(0, 10);
-        b.setValue(DoubleTensor.create(new double[]{10, 15, 20, 25}, 2, 3));
+        b.setValue(DoubleTensor.create(new double[]{10, 15, 20, 25, 30, 35}, 2, 3));
 
         DoubleVertex d = new UniformVertex(0, 10);
-        d.setValue(DoubleTensor.create(new double[]{10, 15, 20, 25}, 3, 2));
+        d.setValue(DoubleTensor.create(new double[]{10, 15, 20, 25, 30, 35}, 3, 2));
 
         DoubleVertex e = a.times(b);
         DoubleVertex f = b.matrixMultiply(d);
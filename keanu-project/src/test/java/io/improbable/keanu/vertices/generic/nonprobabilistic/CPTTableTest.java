@@ -0,0 +1,72 @@
+package io.improbable.keanu.vertices.generic.nonprobabilistic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.bool.BoolVertex;
+import io.improbable.keanu.vertices.bool.probabilistic.BernoulliVertex;
+
+public class CPTTableTest {
+
+    @Test
+    public void looksUpEachConditionByTheBitsOfTheInputs() {
+        List<Vertex<? extends Tensor<Boolean>>> inputs = inputs(3);
+        Map<CPTCondition, String> conditions = new HashMap<>();
+        conditions.put(new CPTCondition(new Boolean[]{true, false, false}), "100");
+        conditions.put(new CPTCondition(new Boolean[]{false, true, true}), "011");
+        CPTTable<String> table = new CPTTable<>(inputs.size(), conditions, "default");
+
+        assertEquals("100", lookUp(table, inputs, true, false, false));
+        assertEquals("011", lookUp(table, inputs, false, true, true));
+        assertEquals("default", lookUp(table, inputs, true, true, true));
+    }
+
+    @Test
+    public void looksUpConditionsOfTablesWithManyInputs() {
+        int inputCount = CPTTable.MAX_COMPILED_INPUTS + 1;
+        List<Vertex<? extends Tensor<Boolean>>> inputs = inputs(inputCount);
+        Boolean[] allTrue = new Boolean[inputCount];
+        Arrays.fill(allTrue, true);
+        Map<CPTCondition, String> conditions = new HashMap<>();
+        conditions.put(new CPTCondition(allTrue), "all true");
+        CPTTable<String> table = new CPTTable<>(inputCount, conditions, "default");
+
+        boolean[] values = new boolean[inputCount];
+        Arrays.fill(values, true);
+        assertEquals("all true", lookUp(table, inputs, values));
+        values[3] = false;
+        assertEquals("default", lookUp(table, inputs, values));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsConditionsWithTheWrongNumberOfValues() {
+        Map<CPTCondition, String> conditions = new HashMap<>();
+        conditions.put(new CPTCondition(new Boolean[]{true}), "too short");
+
+        new CPTTable<>(2, conditions, "default");
+    }
+
+    private static List<Vertex<? extends Tensor<Boolean>>> inputs(int count) {
+        List<Vertex<? extends Tensor<Boolean>>> inputs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            inputs.add(new BernoulliVertex(0.5));
+        }
+        return inputs;
+    }
+
+    private static String lookUp(CPTTable<String> table, List<Vertex<? extends Tensor<Boolean>>> inputs, boolean... values) {
+        for (int i = 0; i < values.length; i++) {
+            ((BoolVertex) inputs.get(i)).setValue(values[i]);
+        }
+        return table.get(inputs);
+    }
+}